@@ -0,0 +1,66 @@
+package nsu.parser.bench;
+
+import nsu.parser.App;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Бенчмарк всей программы через {@link App#main(String[])}: чтение, подсчёт и запись результата.
+ * Параметр {@code options} добавляется к аргументам командной строки как есть, поэтому
+ * так же сравниваются режимы запуска:
+ *
+ * <pre>{@code
+ * java -jar target/benchmarks.jar AppBenchmark -p corpus=1g -p options="","--threads 8","--format csv" -prof gc
+ * }</pre>
+ *
+ * @see ZipfCorpus
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class AppBenchmark {
+
+    @Param({"1m", "100m", "1g"})
+    public String corpus;
+
+    @Param({""})
+    public String options;
+
+    private ZipfCorpus.Corpus input;
+    private Path output;
+    private String[] args;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        input = ZipfCorpus.get(corpus);
+        output = Files.createTempFile("bench-", ".csv");
+
+        List<String> arguments = new ArrayList<>(List.of(input.path().toString(), output.toString()));
+        if (!options.isBlank()) {
+            arguments.addAll(List.of(options.strip().split("\\s+")));
+        }
+        args = arguments.toArray(String[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(output);
+    }
+
+    @Benchmark
+    public void main(WordCounter counter) {
+        counter.words += input.tokens();
+        App.main(args);
+    }
+
+}
@@ -0,0 +1,87 @@
+package nsu.parser.bench;
+
+import nsu.parser.io.*;
+import nsu.parser.io.interfaces.IStatReader;
+import nsu.parser.io.interfaces.IWriter;
+import nsu.parser.tables.ConcurrentWordTable;
+import nsu.parser.tables.OffHeapWordTable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+
+/**
+ * Класс {@code Backends} создаёт сравниваемые реализации {@link IStatReader} и {@link IWriter}
+ * по имени из параметра бенчмарка.
+ * <p>
+ * Кроме встроенных имён параметр может содержать полное имя любого класса: читатель должен иметь
+ * конструктор {@code (Path)}, а писатель — {@code (String)}. Так новую реализацию можно сравнить
+ * с существующими без изменения бенчмарков:
+ * </p>
+ * <pre>{@code
+ * java -jar target/benchmarks.jar StatReaderBenchmark -p reader=fast,com.example.MyReader -prof gc
+ * }</pre>
+ */
+public final class Backends {
+    private static final long PARALLEL_CHUNK_SIZE = 8L << 20;
+    private static final long OFFHEAP_LIMIT = 8L << 30;
+
+    private Backends() {
+    }
+
+    /**
+     * Создаёт читатель статистики.
+     *
+     * @param name {@code scanner}, {@code fast}, {@code mapped}, {@code parallel}, {@code concurrent}, {@code offheap}
+     *             или полное имя класса.
+     * @param input путь к входному файлу.
+     * @return читатель статистики.
+     */
+    public static IStatReader reader(String name, Path input) {
+        switch (name) {
+            case "scanner":
+                return new StatReader(input);
+            case "fast":
+                return new FastStatReader(input);
+            case "mapped":
+                return new MappedStatReader(input);
+            case "parallel":
+                return new ParallelStatReader(input, Runtime.getRuntime().availableProcessors(), PARALLEL_CHUNK_SIZE);
+            case "concurrent":
+                ConcurrentWordTable shared = new ConcurrentWordTable();
+                return new ParallelStatReader(input, Runtime.getRuntime().availableProcessors(), PARALLEL_CHUNK_SIZE,
+                        () -> shared, true);
+            case "offheap":
+                return new FastStatReader(input, () -> new OffHeapWordTable(OFFHEAP_LIMIT));
+            default:
+                return instantiate(name, IStatReader.class, Path.class, input);
+        }
+    }
+
+    /**
+     * Создаёт писатель статистики.
+     *
+     * @param name {@code tsv}, {@code csv} или полное имя класса.
+     * @param output путь к выходному файлу.
+     * @return писатель статистики.
+     */
+    public static IWriter writer(String name, String output) {
+        switch (name) {
+            case "tsv":
+                return new Writer(output);
+            case "csv":
+                return new CsvWriter(output);
+            default:
+                return instantiate(name, IWriter.class, String.class, output);
+        }
+    }
+
+    private static <T, A> T instantiate(String className, Class<T> type, Class<A> argumentType, A argument) {
+        try {
+            return Class.forName(className).asSubclass(type).getConstructor(argumentType).newInstance(argument);
+        } catch (ClassNotFoundException | NoSuchMethodException | InstantiationException | IllegalAccessException
+                 | InvocationTargetException | ClassCastException e) {
+            throw new IllegalArgumentException("Unknown backend " + className + " for " + type.getSimpleName(), e);
+        }
+    }
+
+}
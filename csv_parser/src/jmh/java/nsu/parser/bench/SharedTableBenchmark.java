@@ -0,0 +1,65 @@
+package nsu.parser.bench;
+
+import nsu.parser.io.ParallelStatReader;
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.tables.ConcurrentWordTable;
+import nsu.parser.tables.WordCountTable;
+import nsu.parser.validators.ArgumentValidator;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Бенчмарк параллельного подсчёта: таблица на каждый диапазон файла со слиянием ({@code local})
+ * против одной {@link ConcurrentWordTable}, в которую считают все потоки ({@code concurrent}).
+ * <p>
+ * Маленький {@code chunk} даёт много диапазонов с пересекающимися словарями, то есть много работы слиянию;
+ * большой — почти без слияния, где видна только цена CAS на общих слотах.
+ * </p>
+ *
+ * <pre>{@code
+ * java -jar target/benchmarks.jar SharedTableBenchmark -p corpus=100m -p threads=2,4,8 -prof gc
+ * }</pre>
+ *
+ * @see ZipfCorpus
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SharedTableBenchmark {
+
+    @Param({"100m", "1g"})
+    public String corpus;
+
+    @Param({"local", "concurrent"})
+    public String table;
+
+    @Param({"2", "4", "8"})
+    public int threads;
+
+    @Param({"1m", "8m"})
+    public String chunk;
+
+    private ZipfCorpus.Corpus input;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        input = ZipfCorpus.get(corpus);
+    }
+
+    @Benchmark
+    public IWordTable getWordTable(WordCounter counter) {
+        counter.words += input.tokens();
+        long chunkSize = ArgumentValidator.parseSize(chunk);
+        if (table.equals("concurrent")) {
+            ConcurrentWordTable shared = new ConcurrentWordTable();
+            return new ParallelStatReader(input.path(), threads, chunkSize, () -> shared, true).getWordTable();
+        }
+        return new ParallelStatReader(input.path(), threads, chunkSize, WordCountTable::new).getWordTable();
+    }
+
+}
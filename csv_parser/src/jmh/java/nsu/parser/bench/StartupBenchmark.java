@@ -0,0 +1,107 @@
+package nsu.parser.bench;
+
+import nsu.parser.App;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Бенчмарк старта: каждый вызов запускает {@link App} в новой JVM на маленьком файле и ждёт, пока она
+ * запишет результат и завершится. Для коротких запусков это время до первого вывода, и почти всё оно уходит
+ * на загрузку классов, а не на подсчёт слов.
+ * <p>
+ * Параметр {@code share} выбирает, откуда JVM берёт классы:
+ * </p>
+ * <ul>
+ *     <li>{@code off} — без CDS, все классы загружаются и проверяются заново ({@code -Xshare:off});</li>
+ *     <li>{@code jdk} — стандартный архив CDS самого JDK;</li>
+ *     <li>{@code app} — архив AppCDS, который {@link #setUp()} записывает тренировочным запуском на том же
+ *         файле, как профиль {@code cds} сборки.</li>
+ * </ul>
+ *
+ * <pre>{@code
+ * java -jar target/benchmarks.jar StartupBenchmark -p corpus=4k
+ * }</pre>
+ *
+ * @see ZipfCorpus
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Param({"4k", "64k"})
+    public String corpus;
+
+    @Param({"off", "jdk", "app"})
+    public String share;
+
+    private Path directory;
+    private List<String> command;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        directory = Files.createTempDirectory("bench-startup-");
+        Path archive = directory.resolve("app.jsa");
+        Path input = ZipfCorpus.get(corpus).path();
+        Path output = directory.resolve("output.tsv");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("java.class.path");
+
+        if (share.equals("app")) {
+            launch(List.of(java, "-XX:ArchiveClassesAtExit=" + archive, "-cp", classPath, App.class.getName(),
+                    input.toString(), output.toString()));
+        }
+
+        command = new ArrayList<>(List.of(java));
+        switch (share) {
+            case "off" -> command.add("-Xshare:off");
+            case "jdk" -> { }
+            case "app" -> command.add("-XX:SharedArchiveFile=" + archive);
+            default -> throw new IllegalArgumentException("Unknown share mode: " + share);
+        }
+        command.addAll(List.of("-cp", classPath, App.class.getName(), input.toString(), output.toString()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public int start() throws IOException, InterruptedException {
+        return launch(command);
+    }
+
+    /**
+     * Запускает JVM и ждёт её завершения. {@link App} печатает ошибки в {@code System.err},
+     * не меняя кода выхода, поэтому непустой вывод ошибок тоже считается сбоем.
+     */
+    private static int launch(List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        String errors = new String(process.getErrorStream().readAllBytes(), StandardCharsets.UTF_8);
+        int exitCode = process.waitFor();
+        if (exitCode != 0 || !errors.isEmpty()) {
+            throw new IllegalStateException("Launch failed with exit code " + exitCode + ": " + errors);
+        }
+        return exitCode;
+    }
+
+}
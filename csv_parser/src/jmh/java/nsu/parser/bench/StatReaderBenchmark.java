@@ -0,0 +1,55 @@
+package nsu.parser.bench;
+
+import nsu.parser.io.interfaces.IWordTable;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.google.common.collect.Multiset;
+
+/**
+ * Бенчмарк подсчёта слов: сколько слов в секунду обрабатывает каждая реализация
+ * {@link nsu.parser.io.interfaces.IStatReader} на корпусах разного размера.
+ *
+ * <pre>{@code
+ * java -jar target/benchmarks.jar StatReaderBenchmark -p corpus=100m -p reader=scanner,fast,mapped -prof gc
+ * }</pre>
+ *
+ * @see ZipfCorpus
+ * @see Backends
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class StatReaderBenchmark {
+
+    @Param({"1m", "100m", "1g"})
+    public String corpus;
+
+    @Param({"scanner", "fast", "mapped", "parallel"})
+    public String reader;
+
+    private ZipfCorpus.Corpus input;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        input = ZipfCorpus.get(corpus);
+    }
+
+    @Benchmark
+    public Multiset<String> getWordStatMultiset(WordCounter counter) {
+        counter.words += input.tokens();
+        return Backends.reader(reader, input.path()).getWordStatMultiset();
+    }
+
+    @Benchmark
+    public IWordTable getWordTable(WordCounter counter) {
+        counter.words += input.tokens();
+        return Backends.reader(reader, input.path()).getWordTable();
+    }
+
+}
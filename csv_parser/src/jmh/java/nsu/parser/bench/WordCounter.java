@@ -0,0 +1,23 @@
+package nsu.parser.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Вспомогательный счётчик JMH: в режиме {@code Throughput} поле {@link #words} выводится как
+ * количество обработанных слов в секунду рядом с количеством операций.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class WordCounter {
+    public long words;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        words = 0;
+    }
+
+}
@@ -0,0 +1,69 @@
+package nsu.parser.bench;
+
+import nsu.parser.io.FastStatReader;
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.tables.WordTables;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.google.common.collect.Multiset;
+
+/**
+ * Бенчмарк записи статистики: сколько уникальных слов в секунду упорядочивает и записывает каждая
+ * реализация {@link nsu.parser.io.interfaces.IWriter}. Таблица слов строится один раз до измерений.
+ *
+ * <pre>{@code
+ * java -jar target/benchmarks.jar WriterBenchmark -p corpus=1g -p writer=tsv,csv -prof gc
+ * }</pre>
+ *
+ * @see ZipfCorpus
+ * @see Backends
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class WriterBenchmark {
+
+    @Param({"1m", "100m", "1g"})
+    public String corpus;
+
+    @Param({"tsv", "csv"})
+    public String writer;
+
+    private IWordTable table;
+    private Multiset<String> multiset;
+    private Path output;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        table = new FastStatReader(ZipfCorpus.get(corpus).path()).getWordTable();
+        multiset = WordTables.toMultiset(table);
+        output = Files.createTempFile("bench-", ".csv");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(output);
+    }
+
+    @Benchmark
+    public void writeCSV(WordCounter counter) {
+        counter.words += table.distinctSize();
+        Backends.writer(writer, output.toString()).write(table);
+    }
+
+    @Benchmark
+    public void writeMultiset(WordCounter counter) {
+        counter.words += multiset.elementSet().size();
+        Backends.writer(writer, output.toString()).writeCSV(multiset);
+    }
+
+}
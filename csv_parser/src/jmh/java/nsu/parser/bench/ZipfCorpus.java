@@ -0,0 +1,150 @@
+package nsu.parser.bench;
+
+import nsu.parser.validators.ArgumentValidator;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Класс {@code ZipfCorpus} генерирует синтетические текстовые файлы, частоты слов в которых
+ * подчиняются закону Ципфа, как в естественном языке.
+ * <p>
+ * Генерация детерминирована: одинаковые размер и зерно всегда дают побайтно одинаковый файл, поэтому
+ * результаты бенчмарков сравнимы между запусками и машинами. Файлы кешируются в директории
+ * {@code bench.corpus.dir} (по умолчанию {@code target/jmh-corpus}) и создаются заново, только если их нет.
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>Словарь из {@value #VOCABULARY_SIZE} слов латиницей и кириллицей; ранг слова выбирается
+ *         с вероятностью, пропорциональной {@code 1 / rank^}{@value #EXPONENT}.</li>
+ *     <li>Часть слов пишется с заглавной буквы или со знаками препинания, чтобы нагрузить нормализацию.</li>
+ *     <li>Количество слов корпуса сохраняется рядом в файле {@code .tokens}.</li>
+ * </ul>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * ZipfCorpus.Corpus corpus = ZipfCorpus.get("100m");
+ * new FastStatReader(corpus.path()).getWordTable();
+ * }</pre>
+ */
+public final class ZipfCorpus {
+    private static final int VOCABULARY_SIZE = 1 << 17;
+    private static final double EXPONENT = 1.07;
+    private static final long SEED = 0x5EED_2024L;
+    private static final int WORDS_PER_LINE = 12;
+
+    private static final String LATIN = "abcdefghijklmnopqrstuvwxyz";
+    private static final String CYRILLIC = "абвгдеёжзийклмнопрстуфхцчшщъыьэюя";
+    private static final String[] PUNCTUATION = {",", ".", "!", "?", ";", "\"", "..."};
+
+    private ZipfCorpus() {
+    }
+
+    /**
+     * Описание готового корпуса.
+     *
+     * @param path путь к файлу корпуса.
+     * @param bytes размер файла в байтах.
+     * @param tokens количество слов в файле.
+     */
+    public record Corpus(Path path, long bytes, long tokens) {
+    }
+
+    /**
+     * Возвращает корпус указанного размера, при необходимости создавая его.
+     *
+     * @param size размер с суффиксом {@code k}, {@code m} или {@code g}, например {@code 100m}.
+     * @return корпус.
+     */
+    public static synchronized Corpus get(String size) {
+        long bytes = ArgumentValidator.parseSize(size);
+        Path dir = Path.of(System.getProperty("bench.corpus.dir", "target/jmh-corpus"));
+        Path path = dir.resolve("zipf-" + size.toLowerCase() + "-" + Long.toHexString(SEED) + ".txt");
+        Path tokensPath = dir.resolve(path.getFileName() + ".tokens");
+
+        try {
+            if (!Files.exists(tokensPath) || !Files.exists(path) || Files.size(path) < bytes) {
+                Files.createDirectories(dir);
+                long tokens = generate(path, bytes);
+                Files.writeString(tokensPath, Long.toString(tokens));
+            }
+            return new Corpus(path, Files.size(path), Long.parseLong(Files.readString(tokensPath).strip()));
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed generating corpus " + path, e);
+        }
+    }
+
+    private static long generate(Path path, long bytes) throws IOException {
+        SplittableRandom random = new SplittableRandom(SEED);
+        byte[][] vocabulary = vocabulary(random);
+        double[] cdf = cumulativeWeights();
+
+        long written = 0;
+        long tokens = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 20)) {
+            while (written < bytes) {
+                int rank = Arrays.binarySearch(cdf, random.nextDouble());
+                byte[] word = vocabulary[rank < 0 ? Math.min(-rank - 1, VOCABULARY_SIZE - 1) : rank];
+
+                byte[] decorated = decorate(word, random);
+                out.write(decorated);
+                out.write(++tokens % WORDS_PER_LINE == 0 ? '\n' : ' ');
+                written += decorated.length + 1;
+            }
+        }
+        return tokens;
+    }
+
+    private static byte[][] vocabulary(SplittableRandom random) {
+        byte[][] vocabulary = new byte[VOCABULARY_SIZE][];
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            String alphabet = random.nextInt(10) < 3 ? CYRILLIC : LATIN;
+            int length = 1 + Math.min(random.nextInt(6), random.nextInt(6)) + random.nextInt(4);
+            word.setLength(0);
+            for (int j = 0; j < length; j++) {
+                word.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            vocabulary[i] = word.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        return vocabulary;
+    }
+
+    private static byte[] decorate(byte[] word, SplittableRandom random) {
+        int dice = random.nextInt(100);
+        if (dice < 5) {
+            String text = new String(word, StandardCharsets.UTF_8);
+            return (Character.toUpperCase(text.charAt(0)) + text.substring(1)).getBytes(StandardCharsets.UTF_8);
+        }
+        if (dice < 13) {
+            byte[] punctuation = PUNCTUATION[random.nextInt(PUNCTUATION.length)].getBytes(StandardCharsets.UTF_8);
+            byte[] decorated = Arrays.copyOf(word, word.length + punctuation.length);
+            System.arraycopy(punctuation, 0, decorated, word.length, punctuation.length);
+            return decorated;
+        }
+        return word;
+    }
+
+    private static double[] cumulativeWeights() {
+        double[] cdf = new double[VOCABULARY_SIZE];
+        double sum = 0;
+        for (int rank = 0; rank < VOCABULARY_SIZE; rank++) {
+            sum += 1 / Math.pow(rank + 1, EXPONENT);
+            cdf[rank] = sum;
+        }
+        for (int rank = 0; rank < VOCABULARY_SIZE; rank++) {
+            cdf[rank] /= sum;
+        }
+        return cdf;
+    }
+
+}
@@ -1,12 +1,39 @@
 package nsu.parser;
 
+import nsu.parser.batch.BatchProcessor;
+import nsu.parser.batch.BatchSummary;
+import nsu.parser.external.SpillingWordTable;
+import nsu.parser.index.SourceInfo;
+import nsu.parser.index.WordIndex;
+import nsu.parser.index.WordIndexMerger;
+import nsu.parser.metrics.MeteredStatReader;
+import nsu.parser.metrics.MeteredWriter;
+import nsu.parser.metrics.Metrics;
+import nsu.parser.server.CountServer;
+import nsu.parser.server.TableCache;
 import nsu.parser.io.*;
+import nsu.parser.tables.ConcurrentWordTable;
+import nsu.parser.tables.DirectMemoryBudget;
+import nsu.parser.tables.FilteredWordTable;
+import nsu.parser.tables.NGramTable;
+import nsu.parser.tables.OffHeapWordTable;
+import nsu.parser.tables.SpaceSavingTable;
+import nsu.parser.tables.WordCountTable;
 import nsu.parser.validators.ArgumentValidator;
 import nsu.parser.io.interfaces.*;
+import nsu.parser.text.*;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
-
-import com.google.common.collect.Multiset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
 
 /**
  * Класс {@code App} является точкой входа в программу для конвертации текстового файла (TXT) 
@@ -23,37 +50,416 @@ import com.google.common.collect.Multiset;
  *
  * <p><b>Формат аргументов:</b></p>
  * <pre>
- *     java App input.txt output.csv
+ *     java App input.txt output.csv [--reader scanner|fast|mapped] [--table heap|offheap|concurrent] [--offheap-limit SIZE]
+ *                                   [--format tsv|csv|binary|columnar] [--delimiter C] [--top N] [--memory-budget SIZE] [--tmp-dir DIR] [--threads N] [--chunk-size SIZE]
+ *     zcat input.txt.gz | java App - output.csv [--snapshot-interval SECONDS] [--snapshot-tokens N] [--top N] ...
+ *     java App input.txt output.csv --index input.idx ...
+ *     java App input.txt bigrams.csv --ngram 2 [--top N] ...
+ *     java App merge all.idx a.idx b.idx... [--output all.csv] [--format ...] [--top N]
+ *     java App batch INPUT... [--manifest FILE] [--output-dir DIR] [--merged FILE] [--jobs N] [--reader ...] [--format ...] ...
+ *     java App serve [--port N] [--cache-size SIZE] [--jobs N] [--reader ...] [--format ...] ...
  * </pre>
  * <ul>
- *     <li><b>input.txt</b> — путь к входному текстовому файлу.</li>
+ *     <li><b>input.txt</b> — путь к входному текстовому файлу или {@code -} для чтения из стандартного ввода
+ *         ({@link StreamingStatReader}); выходной файл в этом случае заменяется атомарно.</li>
  *     <li><b>output.csv</b> — путь к выходному CSV файлу.</li>
+ *     <li><b>--reader</b> — способ чтения: {@link StatReader}, {@link FastStatReader} (по умолчанию)
+ *         или {@link MappedStatReader}.</li>
+ *     <li><b>--table</b> — хранение таблицы слов: {@link WordCountTable} в куче (по умолчанию),
+ *         {@link OffHeapWordTable} вне кучи или {@link ConcurrentWordTable}, в которую с {@code --threads}
+ *         все потоки считают без слияния частичных таблиц.</li>
+ *     <li><b>--offheap-limit</b> — общее ограничение прямой памяти всех таблиц вне кучи запуска, в том числе
+ *         частичных таблиц {@code --threads} и таблиц заданий пакетного режима (например, {@code 16g});
+ *         по умолчанию {@code 4g}, но не больше {@code -XX:MaxDirectMemorySize} (по умолчанию равного {@code -Xmx}).
+ *         Большее значение отклоняется при запуске. Таблица вне кучи вмещает не больше
+ *         {@value OffHeapWordTable#MAX_DISTINCT_WORDS} уникальных слов.</li>
+ *     <li><b>--format</b> — {@code tsv} ({@link Writer}, по умолчанию), {@code csv} ({@link CsvWriter}
+ *         с колонкой процентов), {@code binary} ({@link BinaryWriter}, записи с префиксом длины) или
+ *         {@code columnar} ({@link ColumnarWriter}, словарь слов и колонки varint) для загрузчиков.</li>
+ *     <li><b>--delimiter</b> — разделитель колонок для {@code csv} (по умолчанию запятая).</li>
+ *     <li><b>--top</b> — записать только {@code N} самых частых слов.</li>
+ *     <li><b>--memory-budget</b> — объём памяти для подсчёта и для сортировки поровну; при его превышении
+ *         данные сбрасываются во временные файлы ({@link SpillingWordTable}, {@link ExternalSortWriter}).</li>
+ *     <li><b>--tmp-dir</b> — директория для временных файлов.</li>
+ *     <li><b>--threads</b> — количество потоков; при значении больше 1 файл читается {@link ParallelStatReader}.</li>
+ *     <li><b>--chunk-size</b> — размер части файла для одного потока (например, {@code 64m}).</li>
+ *     <li><b>--snapshot-interval</b>, <b>--snapshot-tokens</b> — при чтении из стандартного ввода заменять выходной
+ *         файл снимком статистики каждые {@code SECONDS} секунд и/или каждые {@code N} слов ({@link SnapshotWriter}).</li>
+ *     <li><b>--normalize</b>, <b>--stop-words</b>, <b>--stem</b> — цепочка нормализации слов ({@link TokenFilterChain}):
+ *         знаки препинания Unicode и свёртывание регистра, стоп-слова, лёгкий стеммер. Слова фильтруются
+ *         до подсчёта в {@link FilteredWordTable}.</li>
+ *     <li><b>--ngram</b> — считать последовательности из {@code N} соседних слов ({@link NGramTable});
+ *         в выходном файле слова n-граммы разделены пробелом.</li>
+ *     <li><b>--counting approximate</b>, <b>--max-error</b> — приблизительный подсчёт самых частых слов
+ *         в памяти фиксированного размера ({@link SpaceSavingTable}) с колонкой ошибки в выходном файле.</li>
+ *     <li><b>--index</b> — хранить подсчёт в двоичном индексе ({@link IncrementalStatReader}): неизменённый файл
+ *         не перечитывается, а у дополненного читается только добавленный текст.</li>
  * </ul>
  *
+ * <p><b>Пакетный режим</b> ({@code batch}) обрабатывает файлы, директории, шаблоны и манифест {@code --manifest}
+ * в одной JVM на {@code --jobs} потоках ({@link BatchProcessor}): пишет по CSV на файл в {@code --output-dir}
+ * и/или общий CSV {@code --merged}, а затем печатает время обработки каждого файла и всего пакета.</p>
+ *
+ * <p><b>Статистика работы:</b> байты, слова, расширения таблиц и время этапов чтения и записи собираются
+ * в {@link Metrics} во всех режимах. Они доступны через JMX ({@value Metrics#OBJECT_NAME}) и события JFR,
+ * а с {@code --stats FILE} (или {@code --stats -}) печатаются в JSON при завершении программы. Одиночный
+ * запуск на файле меньше 64 МиБ без {@code --stats} не публикует MBean: создание сервера MBean заняло бы
+ * больше времени, чем сам подсчёт.</p>
+ *
+ * <p><b>Слияние индексов</b> ({@code merge}) складывает индексы, созданные с {@code --index}, k-путевым слиянием
+ * ({@link WordIndexMerger}), не загружая их в память, и при {@code --output} записывает результат в CSV.</p>
+ *
+ * <p><b>Сервер подсчёта</b> ({@code serve}) запускает HTTP-сервер на {@code localhost} ({@link CountServer}),
+ * который отвечает на запросы первых слов, количества одного слова и выходного файла целиком. Статистика файлов
+ * хранится в кэше размером {@code --cache-size} ({@link TableCache}), а повторный запрос к неизменённому файлу
+ * не перечитывает его.</p>
+ *
  * <p><b>Обработка ошибок:</b></p>
  * Если валидация аргументов или процесс чтения/записи завершается неудачно, в консоль выводится 
- * сообщение об ошибке с описанием проблемы.
+ * сообщение об ошибке с описанием проблемы, а процесс завершается с кодом {@link #EXIT_FAILURE}; так же
+ * завершается пакетный режим, если не удалось обработать хотя бы один файл.
  *
  * @see ArgumentValidator
  * @see IStatReader
  * @see IWriter
  */
 public class App {
-    public static void main(String[] args) { 
+    private static final long DEFAULT_CHUNK_SIZE = 8L << 20;
+    private static final long DEFAULT_OFFHEAP_LIMIT = 4L << 30;
+    private static final String DEFAULT_MAX_ERROR = "0.0001";
+    private static final int DEFAULT_PORT = 8080;
+    private static final long JMX_MIN_INPUT_SIZE = 64L << 20;
+
+    public static final int EXIT_SUCCESS = 0;
+    public static final int EXIT_FAILURE = 1;
+
+    public static void main(String[] args) {
+        int status = run(args);
+        if (status != EXIT_SUCCESS) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * Выполняет программу с аргументами командной строки и возвращает код завершения, не вызывая
+     * {@link System#exit(int)}, поэтому запуск можно проверить в тестах.
+     *
+     * @param args аргументы командной строки.
+     * @return {@link #EXIT_SUCCESS}, если все файлы обработаны, или {@link #EXIT_FAILURE}, если запуск завершился
+     *         ошибкой или в пакетном режиме не удалось обработать хотя бы один файл; сообщение об ошибке
+     *         печатается в {@code System.err}.
+     */
+    public static int run(String[] args) {
+        ArgumentValidator.Options options = null;
         try {
+            if (ArgumentValidator.isBatch(args)) {
+                var batchArgs = ArgumentValidator.validateBatch(args);
+                options = batchArgs;
+                Metrics.global().register();
+                return convertBatchToCSV(batchArgs).failedCount() == 0 ? EXIT_SUCCESS : EXIT_FAILURE;
+            }
+            if (ArgumentValidator.isMerge(args)) {
+                var mergeArgs = ArgumentValidator.validateMerge(args);
+                options = mergeArgs;
+                Metrics.global().register();
+                mergeIndexes(mergeArgs);
+                return EXIT_SUCCESS;
+            }
+            if (ArgumentValidator.isServe(args)) {
+                var serveArgs = ArgumentValidator.validateServe(args);
+                options = serveArgs;
+                Metrics.global().register();
+                serve(serveArgs);
+                return EXIT_SUCCESS;
+            }
             var validArgs = ArgumentValidator.validate(args);
+            options = validArgs;
+            if (isLongRun(validArgs)) {
+                Metrics.global().register();
+            }
             convertToCSV(validArgs);
+            return EXIT_SUCCESS;
         } catch (RuntimeException e) {
             System.err.println("Error: " + e.getMessage());
+            return EXIT_FAILURE;
+        } finally {
+            if (options != null) {
+                writeStats(options);
+            }
+        }
+    }
+
+    /**
+     * Проверяет, стоит ли публиковать метрики в JMX для одиночного запуска. Платформенный сервер MBean
+     * создаётся дольше, чем считается маленький файл, поэтому он нужен, только если метрики запрошены явно,
+     * вход читается из потока или файл достаточно велик, чтобы к процессу успели подключиться.
+     */
+    private static boolean isLongRun(ArgumentValidator.ValidatedArguments validArgs) {
+        if (validArgs.options().containsKey(ArgumentValidator.STATS)
+                || validArgs.options().containsKey(ArgumentValidator.MEMORY_BUDGET)
+                || validArgs.inputFilePath().equals(ArgumentValidator.STDIN)) {
+            return true;
+        }
+        try {
+            return Files.size(Path.of(validArgs.inputFilePath())) >= JMX_MIN_INPUT_SIZE;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void writeStats(ArgumentValidator.Options options) {
+        String statsFilePath = options.option(ArgumentValidator.STATS, null);
+        if (statsFilePath == null) {
+            return;
+        }
+
+        String json = Metrics.global().toJson();
+        if (statsFilePath.equals(ArgumentValidator.STDOUT)) {
+            System.out.println(json);
+            return;
+        }
+        try {
+            Files.writeString(Path.of(statsFilePath), json + System.lineSeparator());
+        } catch (IOException e) {
+            System.err.println("Can't write stats file: " + statsFilePath);
         }
     }
 
     private static void convertToCSV(ArgumentValidator.ValidatedArguments validArgs) {
-        IStatReader statReader = new StatReader(validArgs.inputFilePath());
-        Multiset<String> wordStatMultiset = statReader.getWordStatMultiset();
+        if (validArgs.options().containsKey(ArgumentValidator.MEMORY_BUDGET)) {
+            convertToCSVExternally(validArgs);
+            return;
+        }
+        if (validArgs.inputFilePath().equals(ArgumentValidator.STDIN)) {
+            convertStreamToCSV(validArgs);
+            return;
+        }
+
+        IStatReader statReader = createStatReader(validArgs, Path.of(validArgs.inputFilePath()), createTableFactory(validArgs));
+        IWordTable wordTable = statReader.getWordTable();
+
+        IWriter writer = createWriter(validArgs, validArgs.outputFilePath());
+        writer.write(wordTable);
+    }
+
+    private static BatchSummary convertBatchToCSV(ArgumentValidator.BatchArguments batchArgs) {
+        Supplier<IMutableWordTable> tableFactory = createTableFactory(batchArgs);
+        BatchProcessor processor = new BatchProcessor(inputFile -> createStatReader(batchArgs, inputFile, tableFactory),
+                batchArgs.intOption(ArgumentValidator.JOBS, Runtime.getRuntime().availableProcessors()));
+
+        boolean perFile = batchArgs.options().containsKey(ArgumentValidator.OUTPUT_DIR);
+        String mergedFilePath = batchArgs.option(ArgumentValidator.MERGED, null);
+        IMutableWordTable merged = mergedFilePath == null ? null : tableFactory.get();
+
+        BatchSummary summary = processor.process(batchArgs.inputFiles(),
+                perFile ? inputFile -> createWriter(batchArgs, batchArgs.outputFileFor(inputFile).toString()) : null,
+                merged);
+        if (merged != null) {
+            createWriter(batchArgs, mergedFilePath).write(merged);
+        }
+
+        summary.print(System.out);
+        return summary;
+    }
+
+    private static void mergeIndexes(ArgumentValidator.MergeArguments mergeArgs) {
+        WordIndexMerger.merge(mergeArgs.inputIndexes(), mergeArgs.outputIndex());
+
+        String outputFilePath = mergeArgs.option(ArgumentValidator.OUTPUT, null);
+        if (outputFilePath != null) {
+            createWriter(mergeArgs, outputFilePath).write(WordIndex.open(mergeArgs.outputIndex()));
+        }
+    }
+
+    private static void serve(ArgumentValidator.ServeArguments serveArgs) {
+        Supplier<IMutableWordTable> tableFactory = createTableFactory(serveArgs);
+        TableCache cache = new TableCache(inputFile -> createStatReader(serveArgs, inputFile, tableFactory).getWordTable(),
+                serveArgs.sizeOption(ArgumentValidator.CACHE_SIZE, Runtime.getRuntime().maxMemory() / 4));
+        int port = ArgumentValidator.parsePort(serveArgs.option(ArgumentValidator.PORT, String.valueOf(DEFAULT_PORT)));
+        CountServer server = CountServer.start(port, cache, outputFile -> createWriter(serveArgs, outputFile.toString()),
+                createTextFilters(serveArgs), serveArgs.intOption(ArgumentValidator.JOBS, Runtime.getRuntime().availableProcessors()));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+
+        InetSocketAddress address = server.address();
+        System.out.println("Listening on http://" + address.getHostString() + ":" + address.getPort());
+    }
+
+    private static IWriter createWriter(ArgumentValidator.Options validArgs, String outputFilePath) {
+        return new MeteredWriter(createFormatWriter(validArgs, outputFilePath), Path.of(outputFilePath));
+    }
+
+    private static IWriter createFormatWriter(ArgumentValidator.Options validArgs, String outputFilePath) {
+        int topN = validArgs.intOption(ArgumentValidator.TOP, 0);
+        switch (validArgs.option(ArgumentValidator.FORMAT, "tsv")) {
+            case "csv":
+                String delimiter = validArgs.option(ArgumentValidator.DELIMITER, String.valueOf(CsvWriter.DEFAULT_DELIMITER));
+                return new CsvWriter(outputFilePath, ArgumentValidator.parseDelimiter(delimiter), topN);
+            case "binary":
+                return new BinaryWriter(outputFilePath, topN);
+            case "columnar":
+                return new ColumnarWriter(outputFilePath, topN);
+            default:
+                return new Writer(outputFilePath, topN);
+        }
+    }
+
+    private static void convertStreamToCSV(ArgumentValidator.ValidatedArguments validArgs) {
+        SnapshotWriter snapshots = new SnapshotWriter(Path.of(validArgs.outputFilePath()),
+                validArgs.intOption(ArgumentValidator.TOP, 0), path -> createWriter(validArgs, path));
+        long intervalMillis = validArgs.intOption(ArgumentValidator.SNAPSHOT_INTERVAL, 0) * 1000L;
+        long snapshotTokens = validArgs.longOption(ArgumentValidator.SNAPSHOT_TOKENS, 0);
+
+        IStatReader statReader = new MeteredStatReader(new StreamingStatReader(Channels.newChannel(System.in),
+                createTableFactory(validArgs), snapshots, intervalMillis, snapshotTokens));
+        IWordTable wordTable = statReader.getWordTable();
+
+        snapshots.publish(wordTable);
+    }
+
+    private static void convertToCSVExternally(ArgumentValidator.ValidatedArguments validArgs) {
+        long halfBudget = validArgs.sizeOption(ArgumentValidator.MEMORY_BUDGET, 0) / 2;
+        Path tempDir = Path.of(validArgs.option(ArgumentValidator.TMP_DIR, System.getProperty("java.io.tmpdir")));
+
+        try (SpillingWordTable table = new SpillingWordTable(halfBudget, tempDir)) {
+            IStatReader statReader = createStatReader(validArgs, Path.of(validArgs.inputFilePath()),
+                    withTextFilters(validArgs, () -> table));
+            IWordTable wordTable = statReader.getWordTable();
+
+            IWriter writer = new MeteredWriter(new ExternalSortWriter(validArgs.outputFilePath(), halfBudget, tempDir,
+                    validArgs.intOption(ArgumentValidator.TOP, 0)), Path.of(validArgs.outputFilePath()));
+            writer.write(wordTable);
+        }
+    }
+
+    private static IStatReader createStatReader(ArgumentValidator.Options validArgs, Path inputFilePath,
+                                                Supplier<IMutableWordTable> tableFactory) {
+        return new MeteredStatReader(createFileStatReader(validArgs, inputFilePath, tableFactory));
+    }
+
+    private static IStatReader createFileStatReader(ArgumentValidator.Options validArgs, Path inputFilePath,
+                                                    Supplier<IMutableWordTable> tableFactory) {
+        String indexFile = validArgs.option(ArgumentValidator.INDEX, null);
+        if (indexFile != null) {
+            return new IncrementalStatReader(inputFilePath, Path.of(indexFile), tableFactory, textFiltersFingerprint(validArgs));
+        }
+
+        int threads = validArgs.intOption(ArgumentValidator.THREADS, 1);
+        if (threads > 1) {
+            long chunkSize = validArgs.sizeOption(ArgumentValidator.CHUNK_SIZE, DEFAULT_CHUNK_SIZE);
+            if (validArgs.option(ArgumentValidator.TABLE, "heap").equals("concurrent")) {
+                ConcurrentWordTable shared = new ConcurrentWordTable();
+                return new ParallelStatReader(inputFilePath, threads, chunkSize, withTextFilters(validArgs, () -> shared), true);
+            }
+            return new ParallelStatReader(inputFilePath, threads, chunkSize, tableFactory);
+        }
+
+        switch (validArgs.option(ArgumentValidator.READER, "fast")) {
+            case "scanner":
+                return new StatReader(inputFilePath);
+            case "mapped":
+                return new MappedStatReader(inputFilePath, tableFactory);
+            default:
+                return new FastStatReader(inputFilePath, tableFactory);
+        }
+    }
+
+    private static Supplier<IMutableWordTable> createTableFactory(ArgumentValidator.Options validArgs) {
+        if (validArgs.option(ArgumentValidator.COUNTING, "exact").equals("approximate")) {
+            double maxError = ArgumentValidator.parseMaxError(validArgs.option(ArgumentValidator.MAX_ERROR, DEFAULT_MAX_ERROR));
+            return withTextFilters(validArgs, () -> SpaceSavingTable.withMaxError(maxError));
+        }
+
+        int n = validArgs.intOption(ArgumentValidator.NGRAM, 0);
+        if (n > 0) {
+            return withTextFilters(validArgs, () -> new NGramTable(n));
+        }
+        if (validArgs.option(ArgumentValidator.TABLE, "heap").equals("concurrent")) {
+            return withTextFilters(validArgs, ConcurrentWordTable::new);
+        }
+        if (validArgs.option(ArgumentValidator.TABLE, "heap").equals("offheap")) {
+            long maxDirectMemory = OffHeapWordTable.maxDirectMemory();
+            long limit = validArgs.sizeOption(ArgumentValidator.OFFHEAP_LIMIT, Math.min(DEFAULT_OFFHEAP_LIMIT, maxDirectMemory));
+            if (limit > maxDirectMemory) {
+                throw new IllegalArgumentException("--" + ArgumentValidator.OFFHEAP_LIMIT + " of " + limit
+                        + " bytes exceeds the JVM direct memory limit of " + maxDirectMemory
+                        + " bytes; raise -XX:MaxDirectMemorySize or lower --" + ArgumentValidator.OFFHEAP_LIMIT);
+            }
+            DirectMemoryBudget budget = new DirectMemoryBudget(limit);
+            return withTextFilters(validArgs, () -> new OffHeapWordTable(budget));
+        }
+
+        return withTextFilters(validArgs, WordCountTable::new);
+    }
+
+    private static Supplier<IMutableWordTable> withTextFilters(ArgumentValidator.Options validArgs,
+                                                               Supplier<IMutableWordTable> tableFactory) {
+        TokenFilterChain filters = createTextFilters(validArgs);
+        if (filters.isEmpty()) {
+            return tableFactory;
+        }
+        return () -> new FilteredWordTable(tableFactory.get(), filters);
+    }
+
+    private static TokenFilterChain createTextFilters(ArgumentValidator.Options validArgs) {
+        List<TokenFilter> filters = new ArrayList<>();
+        if (validArgs.option(ArgumentValidator.NORMALIZE, "basic").equals("unicode")) {
+            filters.add(new UnicodePunctuationFilter());
+            filters.add(new CaseFoldingFilter());
+        }
+
+        List<String> stopWords = stopWords(validArgs);
+        if (stopWords != null) {
+            List<String> normalized = StopWords.normalize(stopWords, new TokenFilterChain(filters));
+            filters.add(new StopWordFilter(PerfectHashSet.of(normalized)));
+        }
+
+        String stem = validArgs.option(ArgumentValidator.STEM, null);
+        if (stem != null) {
+            List<String> languages = ArgumentValidator.parseList(stem);
+            filters.add(new LightStemmer(languages.contains("ru"), languages.contains("en")));
+        }
+        return new TokenFilterChain(filters);
+    }
+
+    private static List<String> stopWords(ArgumentValidator.Options validArgs) {
+        String stopWords = validArgs.option(ArgumentValidator.STOP_WORDS, null);
+        if (stopWords == null) {
+            return null;
+        }
+        List<String> languages = ArgumentValidator.parseList(stopWords);
+        List<String> words = new ArrayList<>();
+        if (StopWords.LANGUAGES.containsAll(languages)) {
+            languages.forEach(language -> words.addAll(StopWords.builtIn(language)));
+        } else {
+            words.addAll(StopWords.load(Path.of(stopWords)));
+        }
+        return words;
+    }
+
+    /**
+     * Вычисляет отпечаток настроек нормализации для заголовка индекса ({@link SourceInfo#settings()}).
+     * В него входит и сам список стоп-слов, поэтому изменённый файл стоп-слов тоже приводит к пересчёту.
+     */
+    private static long textFiltersFingerprint(ArgumentValidator.Options validArgs) {
+        List<String> settings = new ArrayList<>();
+        if (validArgs.option(ArgumentValidator.NORMALIZE, "basic").equals("unicode")) {
+            settings.add("normalize=unicode");
+        }
+        List<String> stopWords = stopWords(validArgs);
+        if (stopWords != null) {
+            settings.add("stop-words=" + String.join(" ", new TreeSet<>(stopWords)));
+        }
+        String stem = validArgs.option(ArgumentValidator.STEM, null);
+        if (stem != null) {
+            settings.add("stem=" + String.join(",", new TreeSet<>(ArgumentValidator.parseList(stem))));
+        }
+        if (settings.isEmpty()) {
+            return 0;
+        }
 
-        IWriter writer = new Writer(validArgs.outputFilePath());
-        writer.writeCSV(wordStatMultiset);
+        CRC32 crc = new CRC32();
+        crc.update(String.join("\n", settings).getBytes(StandardCharsets.UTF_8));
+        return crc.getValue() | 1L << 32;
     }
     
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package nsu.parser.batch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Класс {@code BatchInputs} раскрывает входные данные пакетного режима в список файлов.
+ *
+ * <p><b>Поддерживаемые записи:</b></p>
+ * <ul>
+ *     <li>путь к файлу — берётся как есть;</li>
+ *     <li>путь к директории — все обычные файлы в ней и во вложенных директориях;</li>
+ *     <li>шаблон с символами {@code * ? [ {}, например {@code logs/2024-*.txt} или {@code data/**.txt},
+ *         в синтаксисе {@link java.nio.file.FileSystem#getPathMatcher(String) glob};</li>
+ *     <li>манифест — текстовый файл с такими записями по одной на строку; пустые строки и строки,
+ *         начинающиеся с {@code #}, пропускаются, относительные пути отсчитываются от директории манифеста.</li>
+ * </ul>
+ * Файлы директорий и шаблонов упорядочиваются по пути, повторы убираются.
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * List<Path> files = BatchInputs.resolve(List.of("corpus/", "extra/*.txt"));
+ * }</pre>
+ */
+public final class BatchInputs {
+    private static final String GLOB_CHARS = "*?[{";
+    private static final String COMMENT_PREFIX = "#";
+
+    private BatchInputs() {
+    }
+
+    /**
+     * Раскрывает записи в список существующих обычных файлов.
+     *
+     * @param specs пути к файлам, директории и шаблоны.
+     * @return входные файлы без повторов.
+     * @throws IllegalArgumentException если файл или директория не существует.
+     */
+    public static List<Path> resolve(List<String> specs) {
+        Set<Path> files = new LinkedHashSet<>();
+        for (String spec : specs) {
+            if (isGlob(spec)) {
+                files.addAll(expandGlob(spec));
+                continue;
+            }
+
+            Path path = Path.of(spec).normalize();
+            if (Files.isDirectory(path)) {
+                files.addAll(listFiles(path, file -> true));
+            } else if (Files.isRegularFile(path)) {
+                files.add(path);
+            } else {
+                throw new IllegalArgumentException("Failed open file " + spec);
+            }
+        }
+        return new ArrayList<>(files);
+    }
+
+    /**
+     * Читает записи из манифеста.
+     *
+     * @param manifest путь к файлу манифеста.
+     * @return записи манифеста с путями, разрешёнными относительно его директории.
+     * @throws IllegalArgumentException если манифест не удалось прочитать.
+     */
+    public static List<String> readManifest(Path manifest) {
+        Path baseDir = manifest.toAbsolutePath().getParent();
+        try (Stream<String> lines = Files.lines(manifest)) {
+            return lines.map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith(COMMENT_PREFIX))
+                    .map(line -> baseDir.resolve(line).toString())
+                    .collect(Collectors.toList());
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalArgumentException("Failed reading manifest " + manifest, e);
+        }
+    }
+
+    private static boolean isGlob(String spec) {
+        for (int i = 0; i < spec.length(); i++) {
+            if (GLOB_CHARS.indexOf(spec.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Path> expandGlob(String spec) {
+        Path pattern = Path.of(spec.replace('\\', '/')).normalize();
+        Path baseDir = pattern.isAbsolute() ? pattern.getRoot() : Path.of("");
+        for (Path part : pattern) {
+            if (isGlob(part.toString())) {
+                break;
+            }
+            baseDir = baseDir.resolve(part);
+        }
+        if (!Files.isDirectory(baseDir)) {
+            return List.of();
+        }
+
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        return listFiles(baseDir, matcher);
+    }
+
+    private static List<Path> listFiles(Path dir, PathMatcher matcher) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(matcher::matches)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalArgumentException("Failed listing directory " + dir, e);
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+package nsu.parser.batch;
+
+import nsu.parser.io.interfaces.IMutableWordTable;
+import nsu.parser.io.interfaces.IStatReader;
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.io.interfaces.IWriter;
+import nsu.parser.tables.WordTables;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Класс {@code BatchProcessor} обрабатывает много входных файлов в одной JVM на общем пуле потоков.
+ * <p>
+ * Каждый файл читается своим {@link IStatReader} в отдельной задаче. Результат записывается в собственный
+ * выходной файл и/или прибавляется к общей таблице всех файлов. Пул ограничен {@code jobs} потоками
+ * и очередью той же длины; когда очередь заполнена, следующий файл обрабатывает поток, который ставит задачи
+ * ({@link ThreadPoolExecutor.CallerRunsPolicy}). Так в памяти одновременно находится не больше
+ * {@code 2 * jobs + 1} таблиц, сколько бы файлов ни было в пакете.
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>Ошибка в одном файле не останавливает пакет: она попадает в {@link BatchSummary}.</li>
+ *     <li>Таблицы файлов добавляются к общей таблице по одной, под её монитором.</li>
+ *     <li>Для каждого файла отдельно измеряется время чтения, записи собственного результата и общее время
+ *         вместе со слиянием в общую таблицу.</li>
+ * </ul>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * BatchProcessor processor = new BatchProcessor(FastStatReader::new, 8);
+ * IMutableWordTable merged = new WordCountTable();
+ * BatchSummary summary = processor.process(files, file -> new Writer(file + ".csv"), merged);
+ * summary.print(System.out);
+ * }</pre>
+ *
+ * @see BatchInputs
+ * @see BatchSummary
+ */
+public class BatchProcessor {
+    private final Function<Path, ? extends IStatReader> readerFactory;
+    private final int jobs;
+
+    /**
+     * Создает новый экземпляр {@code BatchProcessor}.
+     *
+     * @param readerFactory создаёт читатель статистики для входного файла.
+     * @param jobs количество одновременно обрабатываемых файлов.
+     */
+    public BatchProcessor(Function<Path, ? extends IStatReader> readerFactory, int jobs) {
+        if (jobs < 1) {
+            throw new IllegalArgumentException("Jobs must be positive: " + jobs);
+        }
+        this.readerFactory = readerFactory;
+        this.jobs = jobs;
+    }
+
+    /**
+     * Обрабатывает файлы и ждёт завершения всех задач.
+     *
+     * @param inputFiles входные файлы.
+     * @param writerFactory создаёт {@link IWriter} для результата одного файла или {@code null},
+     *                      если отдельные результаты не нужны.
+     * @param merged таблица, к которой прибавляется статистика всех файлов, или {@code null}.
+     * @return время и объём обработки каждого файла в порядке {@code inputFiles}.
+     */
+    public BatchSummary process(List<Path> inputFiles, Function<Path, ? extends IWriter> writerFactory,
+                                IMutableWordTable merged) {
+        BatchSummary.FileResult[] results = new BatchSummary.FileResult[inputFiles.size()];
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(jobs, jobs, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(jobs), new ThreadPoolExecutor.CallerRunsPolicy());
+
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < results.length; i++) {
+                int index = i;
+                executor.execute(() -> results[index] = processFile(inputFiles.get(index), writerFactory, merged));
+            }
+        } finally {
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+        return new BatchSummary(List.of(results), System.nanoTime() - start);
+    }
+
+    private BatchSummary.FileResult processFile(Path inputFile, Function<Path, ? extends IWriter> writerFactory,
+                                                IMutableWordTable merged) {
+        long start = System.nanoTime();
+        long readNanos = 0;
+        long writeNanos = 0;
+        try {
+            long bytes = Files.size(inputFile);
+            IWordTable table = readerFactory.apply(inputFile).getWordTable();
+            readNanos = System.nanoTime() - start;
+            try {
+                if (writerFactory != null) {
+                    long writeStart = System.nanoTime();
+                    writerFactory.apply(inputFile).write(table);
+                    writeNanos = System.nanoTime() - writeStart;
+                }
+                if (merged != null) {
+                    mergeInto(merged, table);
+                }
+                return new BatchSummary.FileResult(inputFile, bytes, table.totalCount(), table.distinctSize(),
+                        readNanos, writeNanos, System.nanoTime() - start, null);
+            } finally {
+                WordTables.close(table);
+            }
+
+        } catch (Exception e) {
+            return new BatchSummary.FileResult(inputFile, 0, 0, 0, readNanos, writeNanos, System.nanoTime() - start,
+                    e.getMessage() == null ? e.toString() : e.getMessage());
+        }
+    }
+
+    private static void mergeInto(IMutableWordTable merged, IWordTable table) {
+        synchronized (merged) {
+            if (table instanceof IMutableWordTable) {
+                merged.mergeFrom((IMutableWordTable) table);
+            } else {
+                table.forEachEntry((word, count) -> {
+                    byte[] key = word.getBytes(StandardCharsets.UTF_8);
+                    merged.add(key, 0, key.length, count);
+                });
+            }
+        }
+    }
+
+    private static void awaitTermination(ThreadPoolExecutor executor) {
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
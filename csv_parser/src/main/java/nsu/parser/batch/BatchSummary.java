@@ -0,0 +1,106 @@
+package nsu.parser.batch;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Класс {@code BatchSummary} — итоги пакетной обработки: время и объём по каждому файлу и по всему пакету.
+ *
+ * <p><b>Пример вывода {@link #print(PrintStream)}:</b></p>
+ * <pre>
+ *        bytes        words   distinct    read ms   write ms    time ms     MB/s  file
+ *      1048576       155486      21004      40.57       6.93      48.12    20.78  corpus/a.txt
+ * total: 1 files, 0 failed, 1048576 bytes, 155486 words in 51.30 ms (busy 48.12 ms, 19.49 MB/s)
+ * </pre>
+ *
+ * @see BatchProcessor
+ */
+public final class BatchSummary {
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double BYTES_PER_MB = 1 << 20;
+
+    private final List<FileResult> results;
+    private final long wallNanos;
+
+    /**
+     * Создает итоги пакета.
+     *
+     * @param results итоги по файлам.
+     * @param wallNanos время обработки всего пакета в наносекундах.
+     */
+    public BatchSummary(List<FileResult> results, long wallNanos) {
+        this.results = List.copyOf(results);
+        this.wallNanos = wallNanos;
+    }
+
+    /**
+     * Итоги обработки одного файла.
+     *
+     * @param inputFile входной файл.
+     * @param bytes размер файла в байтах.
+     * @param words количество слов.
+     * @param distinctWords количество уникальных слов.
+     * @param readNanos время чтения и подсчёта слов в наносекундах.
+     * @param writeNanos время записи собственного результата файла в наносекундах ({@code 0} без {@code --output-dir}).
+     * @param nanos всё время обработки файла, включая слияние в общую таблицу, в наносекундах.
+     * @param error описание ошибки или {@code null}, если файл обработан.
+     */
+    public record FileResult(Path inputFile, long bytes, long words, int distinctWords, long readNanos, long writeNanos,
+                             long nanos, String error) {
+
+        public boolean failed() {
+            return error != null;
+        }
+    }
+
+    public List<FileResult> results() {
+        return results;
+    }
+
+    public long wallNanos() {
+        return wallNanos;
+    }
+
+    public long failedCount() {
+        return results.stream().filter(FileResult::failed).count();
+    }
+
+    /**
+     * Печатает строку на каждый файл и итоговую строку пакета.
+     *
+     * @param out поток вывода.
+     */
+    public void print(PrintStream out) {
+        out.printf(Locale.ROOT, "%12s %12s %10s %10s %10s %10s %8s  %s%n", "bytes", "words", "distinct", "read ms",
+                "write ms", "time ms", "MB/s", "file");
+
+        long bytes = 0;
+        long words = 0;
+        long busyNanos = 0;
+        for (FileResult result : results) {
+            busyNanos += result.nanos();
+            if (result.failed()) {
+                out.printf(Locale.ROOT, "%12s %12s %10s %10s %10s %10.2f %8s  %s: %s%n", "-", "-", "-", "-", "-",
+                        result.nanos() / NANOS_PER_MILLI, "-", result.inputFile(), result.error());
+                continue;
+            }
+            bytes += result.bytes();
+            words += result.words();
+            out.printf(Locale.ROOT, "%12d %12d %10d %10.2f %10.2f %10.2f %8.2f  %s%n", result.bytes(), result.words(),
+                    result.distinctWords(), result.readNanos() / NANOS_PER_MILLI, result.writeNanos() / NANOS_PER_MILLI,
+                    result.nanos() / NANOS_PER_MILLI,
+                    megabytesPerSecond(result.bytes(), result.nanos()), result.inputFile());
+        }
+
+        out.printf(Locale.ROOT, "total: %d files, %d failed, %d bytes, %d words in %.2f ms (busy %.2f ms, %.2f MB/s)%n",
+                results.size(), failedCount(), bytes, words, wallNanos / NANOS_PER_MILLI, busyNanos / NANOS_PER_MILLI,
+                megabytesPerSecond(bytes, wallNanos));
+    }
+
+    private static double megabytesPerSecond(long bytes, long nanos) {
+        return nanos == 0 ? 0 : bytes / BYTES_PER_MB / (nanos / 1e9);
+    }
+
+}
@@ -0,0 +1,11 @@
+package nsu.parser.exceptions;
+
+public class IndexFormatException extends RuntimeException {
+    public IndexFormatException(String message) {
+        super(message);
+    }
+
+    public IndexFormatException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
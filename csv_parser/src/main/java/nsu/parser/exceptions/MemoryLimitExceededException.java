@@ -0,0 +1,7 @@
+package nsu.parser.exceptions;
+
+public class MemoryLimitExceededException extends RuntimeException {
+    public MemoryLimitExceededException(String message) {
+        super(message);
+    }
+}
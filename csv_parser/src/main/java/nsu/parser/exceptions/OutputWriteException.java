@@ -0,0 +1,7 @@
+package nsu.parser.exceptions;
+
+public class OutputWriteException extends RuntimeException {
+    public OutputWriteException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
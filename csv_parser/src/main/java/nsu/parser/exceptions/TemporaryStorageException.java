@@ -0,0 +1,7 @@
+package nsu.parser.exceptions;
+
+public class TemporaryStorageException extends RuntimeException {
+    public TemporaryStorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package nsu.parser.exceptions;
+
+public class UnsupportedCompressionException extends RuntimeException {
+    public UnsupportedCompressionException(String message) {
+        super(message);
+    }
+}
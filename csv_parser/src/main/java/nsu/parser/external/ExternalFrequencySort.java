@@ -0,0 +1,73 @@
+package nsu.parser.external;
+
+import nsu.parser.io.interfaces.IMutableWordTable;
+import nsu.parser.io.interfaces.IMutableWordTable.EntryVisitor;
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.tables.EntryOrder;
+import nsu.parser.tables.WordCountTable;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Класс {@code ExternalFrequencySort} упорядочивает записи таблицы слов по убыванию количества
+ * ({@link EntryOrder#COUNT_DESCENDING}), используя не больше заданного объёма памяти.
+ * <p>
+ * Записи накапливаются в {@link WordCountTable}; при превышении бюджета памяти накопленное сортируется
+ * и сбрасывается во временный файл. В конце серии сливаются k-путевым слиянием. Если бюджета хватило,
+ * записи сортируются в памяти без временных файлов.
+ * </p>
+ *
+ * @see SortedRuns
+ */
+public final class ExternalFrequencySort {
+
+    private ExternalFrequencySort() {}
+
+    /**
+     * Передаёт записи таблицы в {@code visitor} по убыванию количества, при равном количестве — по возрастанию слова.
+     *
+     * @param table таблица слов.
+     * @param memoryBudget объём памяти в байтах для сортировки.
+     * @param tempDir директория для временных файлов.
+     * @param visitor обработчик записей.
+     */
+    public static void sort(IWordTable table, long memoryBudget, Path tempDir, EntryVisitor visitor) {
+        List<Path> runs = new ArrayList<>();
+        WordCountTable[] buffer = {new WordCountTable()};
+        EntryVisitor collector = (bytes, offset, length, count) -> {
+            buffer[0].add(bytes, offset, length, count);
+            if (buffer[0].estimatedBytes() > memoryBudget) {
+                runs.add(SortedRuns.write(tempDir, buffer[0], EntryOrder.COUNT_DESCENDING));
+                buffer[0] = new WordCountTable();
+            }
+        };
+
+        try {
+            if (table instanceof IMutableWordTable) {
+                ((IMutableWordTable) table).forEachKey(collector);
+            } else {
+                table.forEachEntry((word, count) -> {
+                    byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+                    collector.visit(bytes, 0, bytes.length, count);
+                });
+            }
+
+            if (runs.isEmpty()) {
+                buffer[0].forEachKeySorted(EntryOrder.COUNT_DESCENDING, visitor);
+                return;
+            }
+            if (buffer[0].distinctSize() > 0) {
+                runs.add(SortedRuns.write(tempDir, buffer[0], EntryOrder.COUNT_DESCENDING));
+            }
+            buffer[0] = null;
+            SortedRuns.merge(runs, tempDir, memoryBudget, EntryOrder.COUNT_DESCENDING, false, visitor);
+
+        } finally {
+            SortedRuns.delete(runs);
+        }
+    }
+
+}
@@ -0,0 +1,231 @@
+package nsu.parser.external;
+
+import nsu.parser.exceptions.*;
+import nsu.parser.io.interfaces.IMutableWordTable.EntryVisitor;
+import nsu.parser.tables.EntryOrder;
+import nsu.parser.tables.WordCountTable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Класс {@code SortedRuns} записывает отсортированные серии записей «слово → количество»
+ * во временные файлы и сливает их k-путевым слиянием.
+ * <p>
+ * Формат записи серии: длина слова {@code int}, байты слова в UTF-8, количество {@code long}.
+ * Если серий больше {@link #MAX_FAN_IN}, они сначала сливаются группами в промежуточные серии,
+ * чтобы не держать открытыми слишком много файлов. Буферы чтения серий делят между собой бюджет памяти
+ * слияния, но не меньше {@value #MIN_BUFFER_SIZE} и не больше {@value #BUFFER_SIZE} байт на файл.
+ * </p>
+ */
+final class SortedRuns {
+    static final int MAX_FAN_IN = 64;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MIN_BUFFER_SIZE = 1 << 12;
+
+    private SortedRuns() {}
+
+    static Path write(Path tempDir, WordCountTable table, EntryOrder order) {
+        Path run = createRunFile(tempDir);
+        try (DataOutputStream out = openOutput(run)) {
+            table.forEachKeySorted(order, (buffer, offset, length, count) -> writeRecord(out, buffer, offset, length, count));
+
+        } catch (IOException | UncheckedIOException e) {
+            throw new TemporaryStorageException("Failed writing temporary run " + run, e);
+        }
+        return run;
+    }
+
+    static void merge(List<Path> runs, Path tempDir, long memoryBudget, EntryOrder order, boolean combine,
+                      EntryVisitor visitor) {
+        int bufferSize = bufferSize(memoryBudget, runs.size());
+        List<Path> current = runs;
+        List<Path> intermediate = new ArrayList<>();
+        try {
+            while (current.size() > MAX_FAN_IN) {
+                List<Path> next = new ArrayList<>();
+                for (int from = 0; from < current.size(); from += MAX_FAN_IN) {
+                    List<Path> group = current.subList(from, Math.min(current.size(), from + MAX_FAN_IN));
+                    Path run = createRunFile(tempDir);
+                    try (DataOutputStream out = openOutput(run, bufferSize)) {
+                        mergeOnce(group, bufferSize, order, combine,
+                                (buffer, offset, length, count) -> writeRecord(out, buffer, offset, length, count));
+                    } catch (IOException | UncheckedIOException e) {
+                        throw new TemporaryStorageException("Failed writing temporary run " + run, e);
+                    }
+                    next.add(run);
+                    intermediate.add(run);
+                }
+                current = next;
+            }
+            mergeOnce(current, bufferSize, order, combine, visitor);
+
+        } finally {
+            delete(intermediate);
+        }
+    }
+
+    /**
+     * Сливает серии в одну новую серию и передаёт её записи в {@code visitor}.
+     *
+     * @return временный файл слитой серии; исходные серии не удаляются.
+     */
+    static Path mergeToRun(List<Path> runs, Path tempDir, long memoryBudget, EntryOrder order, boolean combine,
+                           EntryVisitor visitor) {
+        Path run = createRunFile(tempDir);
+        try (DataOutputStream out = openOutput(run, bufferSize(memoryBudget, runs.size()))) {
+            merge(runs, tempDir, memoryBudget, order, combine, (buffer, offset, length, count) -> {
+                writeRecord(out, buffer, offset, length, count);
+                visitor.visit(buffer, offset, length, count);
+            });
+
+        } catch (IOException | UncheckedIOException e) {
+            delete(List.of(run));
+            throw new TemporaryStorageException("Failed writing temporary run " + run, e);
+        } catch (RuntimeException e) {
+            delete(List.of(run));
+            throw e;
+        }
+        return run;
+    }
+
+    static void delete(List<Path> runs) {
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException e) {
+                run.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    private static void mergeOnce(List<Path> runs, int bufferSize, EntryOrder order, boolean combine,
+                                  EntryVisitor visitor) {
+        PriorityQueue<RunCursor> queue = new PriorityQueue<>(Math.max(1, runs.size()), (a, b) ->
+                order.compare(a.key, 0, a.length, a.count, b.key, 0, b.length, b.count));
+        List<RunCursor> cursors = new ArrayList<>();
+        try {
+            for (Path run : runs) {
+                RunCursor cursor = new RunCursor(run, bufferSize);
+                cursors.add(cursor);
+                if (cursor.next()) {
+                    queue.add(cursor);
+                }
+            }
+
+            byte[] pending = new byte[64];
+            int pendingLength = -1;
+            long pendingCount = 0;
+            while (!queue.isEmpty()) {
+                RunCursor cursor = queue.poll();
+                if (combine && pendingLength >= 0
+                        && EntryOrder.compareKeys(pending, 0, pendingLength, cursor.key, 0, cursor.length) == 0) {
+                    pendingCount += cursor.count;
+                } else {
+                    if (pendingLength >= 0) {
+                        visitor.visit(pending, 0, pendingLength, pendingCount);
+                    }
+                    if (pending.length < cursor.length) {
+                        pending = new byte[Math.max(cursor.length, pending.length * 2)];
+                    }
+                    System.arraycopy(cursor.key, 0, pending, 0, cursor.length);
+                    pendingLength = cursor.length;
+                    pendingCount = cursor.count;
+                }
+
+                if (cursor.next()) {
+                    queue.add(cursor);
+                }
+            }
+            if (pendingLength >= 0) {
+                visitor.visit(pending, 0, pendingLength, pendingCount);
+            }
+
+        } catch (IOException e) {
+            throw new TemporaryStorageException("Failed reading temporary runs", e);
+        } finally {
+            for (RunCursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+    }
+
+    private static Path createRunFile(Path tempDir) {
+        try {
+            return Files.createTempFile(tempDir, "csv_parser-run-", ".bin");
+        } catch (IOException e) {
+            throw new TemporaryStorageException("Failed creating temporary file in " + tempDir, e);
+        }
+    }
+
+    private static DataOutputStream openOutput(Path run) throws IOException {
+        return openOutput(run, BUFFER_SIZE);
+    }
+
+    private static DataOutputStream openOutput(Path run, int bufferSize) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), bufferSize));
+    }
+
+    /**
+     * Делит бюджет между буферами открытых одновременно файлов: серий одной группы и промежуточной серии.
+     */
+    private static int bufferSize(long memoryBudget, int runs) {
+        long perFile = memoryBudget / (Math.min(runs, MAX_FAN_IN) + 1);
+        return (int) Math.max(MIN_BUFFER_SIZE, Math.min(BUFFER_SIZE, perFile));
+    }
+
+    private static void writeRecord(DataOutputStream out, byte[] buffer, int offset, int length, long count) {
+        try {
+            out.writeInt(length);
+            out.write(buffer, offset, length);
+            out.writeLong(count);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class RunCursor {
+        private final DataInputStream in;
+        private byte[] key = new byte[64];
+        private int length;
+        private long count;
+
+        RunCursor(Path run, int bufferSize) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), bufferSize));
+        }
+
+        boolean next() throws IOException {
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return false;
+            }
+            if (key.length < length) {
+                key = Arrays.copyOf(key, Math.max(length, key.length * 2));
+            }
+            in.readFully(key, 0, length);
+            count = in.readLong();
+            return true;
+        }
+
+        void close() {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+                // Временный файл будет удалён, ошибка закрытия ни на что не влияет.
+            }
+        }
+    }
+
+}
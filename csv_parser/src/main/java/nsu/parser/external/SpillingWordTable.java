@@ -0,0 +1,164 @@
+package nsu.parser.external;
+
+import nsu.parser.io.interfaces.IMutableWordTable;
+import nsu.parser.tables.EntryOrder;
+import nsu.parser.tables.WordCountTable;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Класс {@code SpillingWordTable} — таблица слов с ограниченным объёмом памяти, которая при
+ * заполнении сбрасывает содержимое на диск.
+ * <p>
+ * Слова считаются в {@link WordCountTable}. Когда её оценка занятой памяти превышает {@code memoryBudget},
+ * таблица записывается во временный файл как серия, отсортированная по слову, и начинается заново.
+ * При обходе серии сливаются k-путевым слиянием, а счётчики одинаковых слов складываются, поэтому
+ * записи выдаются по возрастанию слова (в порядке {@link EntryOrder#KEY}). Результат первого слияния
+ * сохраняется одной серией вместе с количеством уникальных слов, и следующие обходы читают только её,
+ * пока в таблицу не добавят новые слова.
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>Объём памяти не зависит от размера словаря, размер входных данных ограничен только диском.</li>
+ *     <li>После сброса на диск первый обход сливает серии; {@link #distinctSize()} затем берётся из памяти,
+ *         а {@link #count(String)} читает одну слитую серию.</li>
+ *     <li>Таблицу нужно закрыть методом {@link #close()}, чтобы удалить временные файлы.</li>
+ * </ul>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * try (SpillingWordTable table = new SpillingWordTable(256L << 20, Path.of("/tmp"))) {
+ *     IStatReader reader = new FastStatReader(Path.of("input.txt"), () -> table);
+ *     new ExternalSortWriter("output.csv", 256L << 20, Path.of("/tmp")).write(reader.getWordTable());
+ * }
+ * }</pre>
+ *
+ * @see SortedRuns
+ * @see ExternalFrequencySort
+ */
+public final class SpillingWordTable implements IMutableWordTable, AutoCloseable {
+    private final long memoryBudget;
+    private final Path tempDir;
+    private final List<Path> runs = new ArrayList<>();
+
+    private WordCountTable current = new WordCountTable();
+    private long totalCount;
+    private int distinctSize = -1;
+
+    /**
+     * Создает пустую таблицу.
+     *
+     * @param memoryBudget объём памяти в байтах, при превышении которого таблица сбрасывается на диск.
+     * @param tempDir директория для временных файлов.
+     */
+    public SpillingWordTable(long memoryBudget, Path tempDir) {
+        this.memoryBudget = memoryBudget;
+        this.tempDir = tempDir;
+    }
+
+    @Override
+    public void add(byte[] buffer, int offset, int length, long count) {
+        current.add(buffer, offset, length, count);
+        totalCount += count;
+        distinctSize = -1;
+        if (current.estimatedBytes() > memoryBudget) {
+            spill();
+        }
+    }
+
+    /**
+     * Возвращает количество серий, сброшенных на диск.
+     *
+     * @return количество временных файлов.
+     */
+    public int spilledRuns() {
+        return runs.size();
+    }
+
+    @Override
+    public void forEachKey(EntryVisitor visitor) {
+        if (runs.isEmpty()) {
+            current.forEachKeySorted(EntryOrder.KEY, visitor);
+            return;
+        }
+
+        if (current.distinctSize() > 0) {
+            spill();
+        }
+        if (runs.size() == 1 && distinctSize >= 0) {
+            SortedRuns.merge(runs, tempDir, memoryBudget, EntryOrder.KEY, true, visitor);
+            return;
+        }
+
+        int[] size = {0};
+        Path merged = SortedRuns.mergeToRun(runs, tempDir, memoryBudget, EntryOrder.KEY, true,
+                (buffer, offset, length, count) -> {
+                    size[0]++;
+                    visitor.visit(buffer, offset, length, count);
+                });
+        SortedRuns.delete(runs);
+        runs.clear();
+        runs.add(merged);
+        distinctSize = size[0];
+    }
+
+    @Override
+    public void forEachEntry(ObjLongConsumer<String> action) {
+        forEachKey((buffer, offset, length, count) ->
+                action.accept(new String(buffer, offset, length, StandardCharsets.UTF_8), count));
+    }
+
+    @Override
+    public long count(String word) {
+        if (runs.isEmpty()) {
+            return current.count(word);
+        }
+
+        byte[] key = word.getBytes(StandardCharsets.UTF_8);
+        long[] count = {0};
+        forEachKey((buffer, offset, length, entryCount) -> {
+            if (EntryOrder.compareKeys(buffer, offset, length, key, 0, key.length) == 0) {
+                count[0] = entryCount;
+            }
+        });
+        return count[0];
+    }
+
+    @Override
+    public int distinctSize() {
+        if (runs.isEmpty()) {
+            return current.distinctSize();
+        }
+
+        if (distinctSize < 0) {
+            forEachKey((buffer, offset, length, count) -> { });
+        }
+        return distinctSize;
+    }
+
+    @Override
+    public long totalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Удаляет временные файлы таблицы.
+     */
+    @Override
+    public void close() {
+        SortedRuns.delete(runs);
+        runs.clear();
+        current = new WordCountTable();
+    }
+
+    private void spill() {
+        runs.add(SortedRuns.write(tempDir, current, EntryOrder.KEY));
+        current = new WordCountTable();
+    }
+
+}
@@ -0,0 +1,98 @@
+package nsu.parser.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Сведения о входном файле, по которому построен индекс.
+ * <p>
+ * По ним {@link nsu.parser.io.IncrementalStatReader} решает, можно ли взять индекс как есть (файл не менялся),
+ * дочитать только добавленный в конец файла текст или нужно пересчитать файл целиком.
+ * </p>
+ *
+ * @param size размер файла в байтах на момент подсчёта.
+ * @param modifiedMillis время изменения файла в миллисекундах.
+ * @param lastOffset смещение сразу после последнего пробельного символа: слова до него закончены,
+ *                   а после него может идти только одно незаконченное слово; {@code 0}, если дочитывание невозможно.
+ * @param fingerprint контрольная сумма CRC32 трёх окон по {@value #FINGERPRINT_WINDOW} байт файла до {@code size}:
+ *                    в начале, в середине и в конце; по ней видно, что файл не переписан, а только дополнен.
+ * @param settings отпечаток настроек нормализации слов, с которыми подсчитан файл; {@code 0} — без нормализации.
+ *                 Индекс с другими настройками содержит другие слова и для подсчёта не подходит.
+ */
+public record SourceInfo(long size, long modifiedMillis, long lastOffset, long fingerprint, long settings) {
+    public static final int FINGERPRINT_WINDOW = 1 << 12;
+
+    /**
+     * Сведения для индекса, не привязанного к одному файлу (например, результата слияния).
+     */
+    public static final SourceInfo NONE = new SourceInfo(0, 0, 0, 0);
+
+    /**
+     * Создаёт сведения о файле, подсчитанном без нормализации слов.
+     *
+     * @param size размер файла в байтах на момент подсчёта.
+     * @param modifiedMillis время изменения файла в миллисекундах.
+     * @param lastOffset смещение сразу после последнего пробельного символа.
+     * @param fingerprint контрольная сумма конца файла.
+     */
+    public SourceInfo(long size, long modifiedMillis, long lastOffset, long fingerprint) {
+        this(size, modifiedMillis, lastOffset, fingerprint, 0);
+    }
+
+    /**
+     * Вычисляет контрольную сумму начала, середины и конца первых {@code end} байт файла. Правка в любом
+     * из этих окон меняет сумму; переписанный файл той же длины с правкой в другом месте отличает время изменения.
+     *
+     * @param file путь к файлу.
+     * @param end длина проверяемой части файла; должна быть не больше размера файла.
+     * @return значение CRC32.
+     * @throws IOException если файл не удалось прочитать.
+     */
+    public static long fingerprint(Path file, long end) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            updateWindow(crc, channel, 0, Math.min(end, FINGERPRINT_WINDOW));
+            updateWindow(crc, channel, Math.max(0, (end - FINGERPRINT_WINDOW) / 2), Math.min(end, FINGERPRINT_WINDOW));
+            updateWindow(crc, channel, Math.max(0, end - FINGERPRINT_WINDOW), Math.min(end, FINGERPRINT_WINDOW));
+        }
+        return crc.getValue();
+    }
+
+    private static void updateWindow(CRC32 crc, FileChannel channel, long start, long length) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate((int) length);
+        while (window.hasRemaining() && channel.read(window, start + window.position()) > 0) {
+            // дочитываем окно целиком
+        }
+        crc.update(window.flip());
+    }
+
+    /**
+     * Проверяет, что файл с момента подсчёта не менялся.
+     *
+     * @param file путь к файлу.
+     * @return {@code true}, если совпадают размер, время изменения и контрольная сумма.
+     * @throws IOException если файл не удалось прочитать.
+     */
+    public boolean isUnchanged(Path file) throws IOException {
+        return Files.size(file) == size && Files.getLastModifiedTime(file).toMillis() == modifiedMillis
+                && fingerprint(file, size) == fingerprint;
+    }
+
+    /**
+     * Проверяет, что файл был только дополнен в конце и подсчёт можно продолжить с {@link #lastOffset()}.
+     *
+     * @param file путь к файлу.
+     * @return {@code true}, если файл стал длиннее прежнего, а его прежнее содержимое, судя по контрольной сумме,
+     *         не изменилось. Файл той же длины с другим временем изменения переписан, а не дополнен.
+     * @throws IOException если файл не удалось прочитать.
+     */
+    public boolean isAppendedTo(Path file) throws IOException {
+        return lastOffset > 0 && Files.size(file) > size && fingerprint(file, size) == fingerprint;
+    }
+
+}
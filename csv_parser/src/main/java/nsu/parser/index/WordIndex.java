@@ -0,0 +1,283 @@
+package nsu.parser.index;
+
+import nsu.parser.exceptions.*;
+import nsu.parser.io.interfaces.IMutableWordTable.EntryVisitor;
+import nsu.parser.io.interfaces.IWordTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Класс {@code WordIndex} — таблица «слово → количество», сохранённая на диске {@link WordIndexWriter}.
+ * <p>
+ * Файл целиком отображается в память только для чтения, поэтому открытие индекса не читает его содержимое,
+ * а страницы подгружаются операционной системой по мере обращения к ним. Слова упорядочены по байтам UTF-8.
+ * </p>
+ *
+ * <p><b>Формат файла</b> (числа в заголовке — big-endian):</p>
+ * <ul>
+ *     <li>Заголовок {@value #HEADER_SIZE} байт: сигнатура {@code WIDX}, версия, размер, время изменения,
+ *         последнее смещение и контрольная сумма входного файла ({@link SourceInfo}), количество слов,
+ *         суммарное количество вхождений, смещение таблицы точек перезапуска и отпечаток настроек нормализации.</li>
+ *     <li>Записи: varint длины общего с предыдущим словом префикса, varint длины суффикса, байты суффикса
+ *         и varint количества.</li>
+ *     <li>Таблица точек перезапуска: смещения {@code int} каждой {@value #RESTART_INTERVAL}-й записи,
+ *         слово в которой хранится целиком.</li>
+ * </ul>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * WordIndex index = WordIndex.open(Path.of("input.idx"));
+ * long count = index.count("привет");
+ * }</pre>
+ *
+ * @see WordIndexWriter
+ * @see WordIndexMerger
+ */
+public final class WordIndex implements IWordTable {
+    static final int MAGIC = 0x57494458;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 72;
+    static final int RESTART_INTERVAL = 32;
+
+    private final Path indexFile;
+    private final ByteBuffer data;
+    private final SourceInfo source;
+    private final long entryCount;
+    private final long totalCount;
+    private final int restartsOffset;
+    private final int restartCount;
+
+    private WordIndex(Path indexFile, ByteBuffer data) {
+        this.indexFile = indexFile;
+        this.data = data;
+        if (data.capacity() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IndexFormatException("Not a word index: " + indexFile);
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new IndexFormatException("Unsupported word index version " + data.getInt(4) + ": " + indexFile);
+        }
+
+        source = new SourceInfo(data.getLong(8), data.getLong(16), data.getLong(24), data.getLong(32), data.getLong(64));
+        entryCount = data.getLong(40);
+        totalCount = data.getLong(48);
+        long restarts = data.getLong(56);
+        long expectedRestarts = (entryCount + RESTART_INTERVAL - 1) / RESTART_INTERVAL;
+        if (entryCount < 0 || entryCount > Integer.MAX_VALUE || restarts < HEADER_SIZE
+                || restarts + expectedRestarts * Integer.BYTES != data.capacity()) {
+            throw new IndexFormatException("Corrupted word index: " + indexFile);
+        }
+        restartsOffset = (int) restarts;
+        restartCount = (int) expectedRestarts;
+    }
+
+    /**
+     * Открывает индекс, отображая файл в память.
+     *
+     * @param indexFile путь к файлу индекса.
+     * @return открытый индекс.
+     * @throws IndexFormatException если файл не удалось прочитать или он не является индексом.
+     */
+    public static WordIndex open(Path indexFile) {
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IndexFormatException("Word index is too large: " + indexFile);
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new WordIndex(indexFile, data);
+
+        } catch (IOException e) {
+            throw new IndexFormatException("Failed reading index " + indexFile, e);
+        }
+    }
+
+    /**
+     * Возвращает сведения о входном файле, по которому построен индекс.
+     *
+     * @return сведения о входном файле.
+     */
+    public SourceInfo source() {
+        return source;
+    }
+
+    @Override
+    public long count(String word) {
+        byte[] key = word.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = restartCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (compareRestartKey(middle, key) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (high < 0) {
+            return 0;
+        }
+
+        Cursor cursor = new Cursor(restartOffset(high), Math.min(RESTART_INTERVAL, entryCount - (long) high * RESTART_INTERVAL));
+        while (cursor.next()) {
+            int cmp = Arrays.compareUnsigned(cursor.key, 0, cursor.keyLength, key, 0, key.length);
+            if (cmp == 0) {
+                return cursor.count;
+            }
+            if (cmp > 0) {
+                break;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int distinctSize() {
+        return (int) entryCount;
+    }
+
+    @Override
+    public long totalCount() {
+        return totalCount;
+    }
+
+    @Override
+    public void forEachEntry(ObjLongConsumer<String> action) {
+        forEachKey((buffer, offset, length, count) -> action.accept(new String(buffer, offset, length, StandardCharsets.UTF_8), count));
+    }
+
+    /**
+     * Передаёт байты каждого слова и его количество в {@code visitor} по возрастанию слов.
+     * Массив, переданный в {@code visitor}, переиспользуется между вызовами.
+     *
+     * @param visitor обработчик записи индекса.
+     */
+    public void forEachKey(EntryVisitor visitor) {
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            visitor.visit(cursor.key, 0, cursor.keyLength, cursor.count);
+        }
+    }
+
+    /**
+     * Создаёт курсор, который обходит записи индекса по возрастанию слов.
+     *
+     * @return курсор перед первой записью.
+     */
+    public Cursor cursor() {
+        return new Cursor(HEADER_SIZE, entryCount);
+    }
+
+    private int restartOffset(int restart) {
+        return data.getInt(restartsOffset + restart * Integer.BYTES);
+    }
+
+    private int compareRestartKey(int restart, byte[] key) {
+        int[] position = {restartOffset(restart)};
+        readVarint(position);
+        int length = (int) readVarint(position);
+        int start = position[0];
+        int limit = Math.min(length, key.length);
+        for (int i = 0; i < limit; i++) {
+            int cmp = Byte.compareUnsigned(data.get(start + i), key[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - key.length;
+    }
+
+    private long readVarint(int[] position) {
+        long value = 0;
+        int shift = 0;
+        int p = position[0];
+        while (true) {
+            if (p >= restartsOffset || shift > 63) {
+                throw new IndexFormatException("Corrupted word index: " + indexFile);
+            }
+            byte b = data.get(p++);
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                position[0] = p;
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    /**
+     * Курсор по записям индекса. Байты текущего слова лежат в переиспользуемом массиве {@link #key()}.
+     */
+    public final class Cursor {
+        private final int[] position = new int[1];
+        private long remaining;
+        private byte[] key = new byte[64];
+        private int keyLength;
+        private long count;
+
+        private Cursor(int offset, long entries) {
+            position[0] = offset;
+            remaining = entries;
+        }
+
+        /**
+         * Переходит к следующей записи.
+         *
+         * @return {@code false}, если записи закончились.
+         */
+        public boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+
+            int shared = (int) readVarint(position);
+            int suffix = (int) readVarint(position);
+            if (shared > keyLength || suffix < 0 || position[0] + suffix > restartsOffset) {
+                throw new IndexFormatException("Corrupted word index: " + indexFile);
+            }
+            if (key.length < shared + suffix) {
+                key = Arrays.copyOf(key, Math.max(shared + suffix, key.length * 2));
+            }
+            data.get(position[0], key, shared, suffix);
+            position[0] += suffix;
+            keyLength = shared + suffix;
+            count = readVarint(position);
+            return true;
+        }
+
+        /**
+         * Возвращает массив с байтами текущего слова; действителен до следующего вызова {@link #next()}.
+         *
+         * @return массив, в начале которого лежит слово.
+         */
+        public byte[] key() {
+            return key;
+        }
+
+        /**
+         * Возвращает длину текущего слова в байтах.
+         *
+         * @return длина слова.
+         */
+        public int keyLength() {
+            return keyLength;
+        }
+
+        /**
+         * Возвращает количество вхождений текущего слова.
+         *
+         * @return количество вхождений.
+         */
+        public long count() {
+            return count;
+        }
+    }
+
+}
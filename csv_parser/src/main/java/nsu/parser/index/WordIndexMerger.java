@@ -0,0 +1,76 @@
+package nsu.parser.index;
+
+import nsu.parser.tables.EntryOrder;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Класс {@code WordIndexMerger} объединяет несколько индексов {@link WordIndex} в один, складывая количества
+ * одинаковых слов.
+ * <p>
+ * Все индексы уже упорядочены по словам, поэтому они сливаются k-путевым слиянием: в куче лежит по одному курсору
+ * на входной индекс, и в памяти одновременно находится только текущее слово каждого индекса. Входные индексы
+ * отображаются в память, а результат записывается потоком через {@link WordIndexWriter}.
+ * </p>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * WordIndexMerger.merge(List.of(Path.of("a.idx"), Path.of("b.idx")), Path.of("all.idx"));
+ * }</pre>
+ *
+ * @see WordIndex
+ */
+public final class WordIndexMerger {
+
+    private WordIndexMerger() {
+    }
+
+    /**
+     * Сливает индексы в один.
+     *
+     * @param inputs пути к входным индексам.
+     * @param output путь к результирующему индексу; может совпадать с одним из входных.
+     * @throws nsu.parser.exceptions.IndexFormatException если индекс не удалось прочитать или записать.
+     */
+    public static void merge(List<Path> inputs, Path output) {
+        PriorityQueue<WordIndex.Cursor> heap = new PriorityQueue<>(Math.max(1, inputs.size()),
+                (a, b) -> EntryOrder.compareKeys(a.key(), 0, a.keyLength(), b.key(), 0, b.keyLength()));
+        for (Path input : inputs) {
+            WordIndex.Cursor cursor = WordIndex.open(input).cursor();
+            if (cursor.next()) {
+                heap.add(cursor);
+            }
+        }
+
+        byte[] key = new byte[64];
+        try (WordIndexWriter writer = new WordIndexWriter(output, SourceInfo.NONE)) {
+            while (!heap.isEmpty()) {
+                WordIndex.Cursor cursor = heap.poll();
+                int keyLength = cursor.keyLength();
+                if (key.length < keyLength) {
+                    key = Arrays.copyOf(key, Math.max(keyLength, key.length * 2));
+                }
+                System.arraycopy(cursor.key(), 0, key, 0, keyLength);
+                long count = advance(heap, cursor);
+
+                while (!heap.isEmpty() && EntryOrder.compareKeys(heap.peek().key(), 0, heap.peek().keyLength(),
+                        key, 0, keyLength) == 0) {
+                    count += advance(heap, heap.poll());
+                }
+                writer.add(key, 0, keyLength, count);
+            }
+        }
+    }
+
+    private static long advance(PriorityQueue<WordIndex.Cursor> heap, WordIndex.Cursor cursor) {
+        long count = cursor.count();
+        if (cursor.next()) {
+            heap.add(cursor);
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,227 @@
+package nsu.parser.index;
+
+import nsu.parser.exceptions.*;
+import nsu.parser.io.interfaces.IMutableWordTable;
+import nsu.parser.tables.EntryOrder;
+import nsu.parser.tables.WordCountTable;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Класс {@code WordIndexWriter} записывает таблицу «слово → количество» в двоичный индекс,
+ * который затем читает {@link WordIndex}.
+ * <p>
+ * Слова передаются строго по возрастанию байтов UTF-8. Каждое слово хранится как длина общего
+ * префикса с предыдущим словом и оставшийся суффикс (front coding), количество — как varint.
+ * Через каждые {@value WordIndex#RESTART_INTERVAL} слов префикс не используется, а смещение такого слова
+ * запоминается в таблице точек перезапуска: по ней {@link WordIndex#count(String)} ищет слово двоичным поиском.
+ * Индекс пишется во временный файл и атомарно заменяет прежний только после записи заголовка.
+ * </p>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * WordIndexWriter.write(Path.of("input.idx"), table, SourceInfo.NONE);
+ * }</pre>
+ *
+ * @see WordIndex
+ */
+public final class WordIndexWriter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path indexFile;
+    private final Path tempFile;
+    private final SourceInfo source;
+    private final OutputStream out;
+
+    private long position = WordIndex.HEADER_SIZE;
+    private long entryCount;
+    private long totalCount;
+    private int[] restarts = new int[64];
+    private byte[] previous = new byte[64];
+    private int previousLength = -1;
+    private boolean closed;
+
+    /**
+     * Начинает запись индекса.
+     *
+     * @param indexFile путь к файлу индекса; прежний файл заменяется при {@link #close()}.
+     * @param source сведения о входном файле для заголовка.
+     * @throws IndexFormatException если временный файл не удалось создать.
+     */
+    public WordIndexWriter(Path indexFile, SourceInfo source) {
+        this.indexFile = indexFile.toAbsolutePath();
+        this.source = source;
+        try {
+            tempFile = Files.createTempFile(this.indexFile.getParent(), "." + this.indexFile.getFileName(), ".tmp");
+            out = new BufferedOutputStream(Files.newOutputStream(tempFile), BUFFER_SIZE);
+            out.write(new byte[WordIndex.HEADER_SIZE]);
+
+        } catch (IOException e) {
+            throw new IndexFormatException("Failed creating index " + indexFile, e);
+        }
+    }
+
+    /**
+     * Записывает таблицу в индекс целиком, упорядочив слова.
+     *
+     * @param indexFile путь к файлу индекса.
+     * @param table таблица слов.
+     * @param source сведения о входном файле для заголовка.
+     */
+    public static void write(Path indexFile, IMutableWordTable table, SourceInfo source) {
+        WordCountTable sortable;
+        if (table instanceof WordCountTable) {
+            sortable = (WordCountTable) table;
+        } else {
+            sortable = new WordCountTable(table.distinctSize());
+            sortable.mergeFrom(table);
+        }
+
+        try (WordIndexWriter writer = new WordIndexWriter(indexFile, source)) {
+            sortable.forEachKeySorted(EntryOrder.KEY, writer::add);
+        }
+    }
+
+    /**
+     * Добавляет слово в индекс.
+     *
+     * @param buffer массив с байтами слова в UTF-8.
+     * @param offset начало слова в массиве.
+     * @param length длина слова в байтах.
+     * @param count количество вхождений слова.
+     * @throws IllegalArgumentException если слово не больше предыдущего или количество отрицательно.
+     */
+    public void add(byte[] buffer, int offset, int length, long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative: " + count);
+        }
+        if (previousLength >= 0 && EntryOrder.compareKeys(previous, 0, previousLength, buffer, offset, length) >= 0) {
+            throw new IllegalArgumentException("Index keys must be added in strictly ascending order");
+        }
+
+        int shared = 0;
+        if (entryCount % WordIndex.RESTART_INTERVAL == 0) {
+            addRestart();
+        } else {
+            int limit = Math.min(previousLength, length);
+            while (shared < limit && previous[shared] == buffer[offset + shared]) {
+                shared++;
+            }
+        }
+
+        try {
+            writeVarint(shared);
+            writeVarint(length - shared);
+            out.write(buffer, offset + shared, length - shared);
+            position += length - shared;
+            writeVarint(count);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (previous.length < length) {
+            previous = new byte[Math.max(length, previous.length * 2)];
+        }
+        System.arraycopy(buffer, offset, previous, 0, length);
+        previousLength = length;
+        entryCount++;
+        totalCount += count;
+    }
+
+    /**
+     * Дописывает таблицу точек перезапуска и заголовок и атомарно заменяет файл индекса.
+     *
+     * @throws IndexFormatException если индекс не удалось записать.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            long restartsOffset = position;
+            int restartCount = (int) ((entryCount + WordIndex.RESTART_INTERVAL - 1) / WordIndex.RESTART_INTERVAL);
+            ByteBuffer restartBytes = ByteBuffer.allocate(restartCount * Integer.BYTES);
+            restartBytes.asIntBuffer().put(restarts, 0, restartCount);
+            out.write(restartBytes.array());
+            out.close();
+            checkSize(restartsOffset + restartBytes.capacity());
+
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(WordIndex.HEADER_SIZE)
+                        .putInt(WordIndex.MAGIC)
+                        .putInt(WordIndex.VERSION)
+                        .putLong(source.size())
+                        .putLong(source.modifiedMillis())
+                        .putLong(source.lastOffset())
+                        .putLong(source.fingerprint())
+                        .putLong(entryCount)
+                        .putLong(totalCount)
+                        .putLong(restartsOffset)
+                        .putLong(source.settings());
+                channel.write(header.flip(), 0);
+            }
+            moveIntoPlace();
+
+        } catch (IOException | UncheckedIOException e) {
+            deleteQuietly();
+            throw new IndexFormatException("Failed writing index " + indexFile, e);
+        }
+    }
+
+    private void addRestart() {
+        checkSize(position);
+        int index = (int) (entryCount / WordIndex.RESTART_INTERVAL);
+        if (index == restarts.length) {
+            restarts = Arrays.copyOf(restarts, restarts.length * 2);
+        }
+        restarts[index] = (int) position;
+    }
+
+    private void checkSize(long size) {
+        if (size > Integer.MAX_VALUE) {
+            throw new IndexFormatException("Index " + indexFile + " cannot be larger than 2 GB");
+        }
+    }
+
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+            position++;
+        }
+        out.write((int) value);
+        position++;
+    }
+
+    private void moveIntoPlace() throws IOException {
+        try {
+            Files.move(tempFile, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void deleteQuietly() {
+        try {
+            out.close();
+            Files.deleteIfExists(tempFile);
+        } catch (IOException ignored) {
+            // Недописанный временный файл не мешает прежнему индексу.
+        }
+    }
+
+}
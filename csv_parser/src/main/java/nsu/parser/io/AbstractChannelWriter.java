@@ -0,0 +1,197 @@
+package nsu.parser.io;
+
+import nsu.parser.exceptions.OutputWriteException;
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.io.interfaces.IWriter;
+import nsu.parser.metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Класс {@code AbstractChannelWriter} — общая основа для двоичных форматов выходного файла.
+ * <p>
+ * Упорядочивает слова в {@link RankedRows} и передаёт их методу {@link #write(RankedRows, long)} наследника,
+ * который кодирует строки методами {@code put...} в прямой буфер размером до 4 МиБ по числу строк. Заполненный буфер сбрасывается
+ * в файл через {@link FileChannel}; заголовок, размеры которого известны только в конце, можно дописать
+ * на его место методом {@link #writeAt(ByteBuffer, long)}. Файл открывается с усечением.
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>Многобайтовые числа записываются в порядке big-endian, как их читает {@link java.io.DataInputStream}.</li>
+ *     <li>{@link #putVarint(long)} записывает неотрицательное число по 7 бит в байте, младшими битами вперёд;
+ *         старший бит байта означает, что число продолжается.</li>
+ *     <li>Ошибка открытия или записи файла бросается как {@link OutputWriteException}, как в {@link CsvWriter}.</li>
+ * </ul>
+ *
+ * @see BinaryWriter
+ * @see ColumnarWriter
+ */
+public abstract class AbstractChannelWriter implements IWriter {
+    private static final int BUFFER_SIZE = 4 << 20;
+    private static final int MIN_BUFFER_SIZE = 1 << 13;
+    private static final int ESTIMATED_ROW_SIZE = 32;
+
+    private final Path outputFilePath;
+    private final int topN;
+
+    private ByteBuffer buffer;
+    private FileChannel channel;
+
+    /**
+     * Создает писатель для указанного выходного файла.
+     *
+     * @param outputFilePath путь к выходному файлу.
+     * @param topN сколько слов записать; {@code 0} — все слова.
+     */
+    protected AbstractChannelWriter(String outputFilePath, int topN) {
+        if (topN < 0) {
+            throw new IllegalArgumentException("Top N must not be negative: " + topN);
+        }
+        this.outputFilePath = Path.of(outputFilePath);
+        this.topN = topN;
+    }
+
+    @Override
+    public void write(IWordTable wordTable) {
+        RankedRows rows = RankedRows.of(wordTable, topN);
+
+        try (FileChannel out = FileChannel.open(outputFilePath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel = out;
+            buffer = ByteBuffer.allocateDirect(bufferSize(rows.size()));
+            write(rows, wordTable.totalCount());
+            flush();
+            Metrics.global().addWritten(rows.size(), 0);
+
+        } catch (IOException e) {
+            throw new OutputWriteException("Can't open/create output file: " + outputFilePath, e);
+        } finally {
+            channel = null;
+            buffer = null;
+        }
+    }
+
+    /**
+     * Записывает упорядоченные строки в формате наследника.
+     *
+     * @param rows строки в порядке убывания количества.
+     * @param totalCount суммарное количество вхождений всех слов исходной таблицы.
+     * @throws IOException если запись в файл не удалась.
+     */
+    protected abstract void write(RankedRows rows, long totalCount) throws IOException;
+
+    /**
+     * Возвращает смещение следующего записываемого байта от начала файла.
+     *
+     * @return смещение в байтах.
+     * @throws IOException если позицию канала не удалось получить.
+     */
+    protected long position() throws IOException {
+        return channel.position() + buffer.position();
+    }
+
+    /**
+     * Записывает младший байт числа.
+     *
+     * @param value число.
+     * @throws IOException если сброс буфера в файл не удался.
+     */
+    protected void putByte(int value) throws IOException {
+        ensureCapacity(1);
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Записывает число в 4 байтах big-endian.
+     *
+     * @param value число.
+     * @throws IOException если сброс буфера в файл не удался.
+     */
+    protected void putInt(int value) throws IOException {
+        ensureCapacity(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    /**
+     * Записывает число в 8 байтах big-endian.
+     *
+     * @param value число.
+     * @throws IOException если сброс буфера в файл не удался.
+     */
+    protected void putLong(long value) throws IOException {
+        ensureCapacity(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    /**
+     * Записывает часть массива байтов.
+     *
+     * @param bytes массив.
+     * @param offset начало записываемой части.
+     * @param length длина записываемой части.
+     * @throws IOException если сброс буфера в файл не удался.
+     */
+    protected void putBytes(byte[] bytes, int offset, int length) throws IOException {
+        ensureCapacity(length);
+        buffer.put(bytes, offset, length);
+    }
+
+    /**
+     * Записывает неотрицательное число в формате varint: от 1 до 10 байт.
+     *
+     * @param value число.
+     * @throws IOException если сброс буфера в файл не удался.
+     */
+    protected void putVarint(long value) throws IOException {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Сбрасывает буфер и записывает {@code bytes} с указанного смещения файла, не меняя позицию записи.
+     *
+     * @param bytes записываемые байты от позиции до предела буфера.
+     * @param position смещение от начала файла.
+     * @throws IOException если запись в файл не удалась.
+     */
+    protected void writeAt(ByteBuffer bytes, long position) throws IOException {
+        flush();
+        while (bytes.hasRemaining()) {
+            position += channel.write(bytes, position);
+        }
+    }
+
+    /**
+     * Выбирает размер буфера по числу строк, чтобы маленький файл не занимал мегабайты прямой памяти.
+     */
+    private static int bufferSize(int rows) {
+        return (int) Math.min(BUFFER_SIZE, Math.max(MIN_BUFFER_SIZE, (long) rows * ESTIMATED_ROW_SIZE));
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocateDirect(bytes);
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+}
@@ -0,0 +1,122 @@
+package nsu.parser.io;
+
+import nsu.parser.exceptions.*;
+import nsu.parser.io.compression.Compression;
+import nsu.parser.io.interfaces.IStatReader;
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.tables.WordTables;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.google.common.collect.Multiset;
+
+/**
+ * Класс {@code AbstractFileStatReader} — общая основа для реализаций {@link IStatReader},
+ * читающих статистику слов из файла.
+ * <p>
+ * Перед чтением проверяет, что входной файл существует и не является директорией,
+ * после чего передаёт управление методу {@link #readWordStatMultiset()} или {@link #readWordTable()} наследника.
+ * Наследники открывают файл через {@link #openInput(int)}, поэтому сжатые файлы ({@code .gz}, {@code .zst})
+ * читаются без предварительной распаковки на диск.
+ * </p>
+ *
+ * @see StatReader
+ * @see FastStatReader
+ */
+public abstract class AbstractFileStatReader implements IStatReader {
+    protected final Path inputFilePath;
+
+    /**
+     * Создает читатель для указанного входного файла.
+     *
+     * @param inputFilePath путь к текстовому файлу для чтения слов.
+     */
+    protected AbstractFileStatReader(Path inputFilePath) {
+        this.inputFilePath = inputFilePath;
+    }
+
+    /**
+     * Проверяет существование входного файла и возвращает статистику слов.
+     *
+     * @return {@link Multiset} со словами и их количеством.
+     * @throws RuntimeException если файл не существует или произошла ошибка чтения.
+     */
+    @Override
+    public Multiset<String> getWordStatMultiset() {
+        checkInputFileExists();
+        return readWordStatMultiset();
+    }
+
+    /**
+     * Проверяет существование входного файла и возвращает таблицу слов.
+     *
+     * @return {@link IWordTable} со словами и их количеством.
+     * @throws RuntimeException если файл не существует или произошла ошибка чтения.
+     */
+    @Override
+    public IWordTable getWordTable() {
+        checkInputFileExists();
+        return readWordTable();
+    }
+
+    /**
+     * Считывает слова из уже проверенного входного файла.
+     *
+     * @return {@link Multiset} со словами и их количеством.
+     */
+    protected abstract Multiset<String> readWordStatMultiset();
+
+    /**
+     * Считывает слова из уже проверенного входного файла в таблицу.
+     * По умолчанию оборачивает результат {@link #readWordStatMultiset()}.
+     *
+     * @return {@link IWordTable} со словами и их количеством.
+     */
+    protected IWordTable readWordTable() {
+        return WordTables.fromMultiset(readWordStatMultiset());
+    }
+
+    /**
+     * Открывает входной файл; сжатый файл распаковывается на лету (см. {@link Compression}).
+     *
+     * @param decompressionThreads сколько потоков можно занять распаковкой.
+     * @return поток байтов текста.
+     * @throws IOException если файл не удалось открыть.
+     */
+    protected InputStream openInput(int decompressionThreads) throws IOException {
+        return Compression.open(inputFilePath, decompressionThreads);
+    }
+
+    /**
+     * Проверяет, сжат ли входной файл.
+     *
+     * @return {@code true}, если файл сжат и его нельзя читать напрямую по смещениям.
+     */
+    protected boolean isCompressed() {
+        try {
+            return Compression.detect(inputFilePath) != Compression.NONE;
+        } catch (IOException e) {
+            throw new InvalidReadFromFileException("Failed reading from file: " + inputFilePath);
+        }
+    }
+
+    private void checkInputFileExists() {
+        try {
+            checkInputFile();
+
+        } catch (FileNotFoundException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    private void checkInputFile() throws FileNotFoundException {
+        if (Files.notExists(inputFilePath) || Files.isDirectory(inputFilePath)) {
+            throw new FileNotFoundException("Failed to open file " + inputFilePath);
+        }
+    }
+
+}
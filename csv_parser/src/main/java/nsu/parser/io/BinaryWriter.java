@@ -0,0 +1,71 @@
+package nsu.parser.io;
+
+import java.io.IOException;
+
+/**
+ * Класс {@code BinaryWriter} записывает статистику слов в двоичный файл из записей с префиксом длины,
+ * который загрузчик читает без разбора текста и экранирования.
+ * <p>
+ * Строки идут в том же порядке, что и в {@link Writer}. Все числа — big-endian, поэтому файл читается
+ * {@link java.io.DataInputStream}:
+ * </p>
+ * <pre>
+ *     magic      4 байта  "WCB1"
+ *     flags      1 байт   бит 0 — у каждой записи есть ошибка количества (приблизительный подсчёт)
+ *     rows       8 байт   количество записей
+ *     total      8 байт   суммарное количество вхождений всех слов исходной таблицы
+ *     rows раз:
+ *         length 4 байта  длина слова в байтах
+ *         word   length   слово в UTF-8
+ *         count  8 байт   количество вхождений
+ *         error  8 байт   максимальная ошибка количества, только если установлен бит 0
+ * </pre>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * IWriter writer = new BinaryWriter("output.bin", 0);
+ * writer.write(table);
+ * }</pre>
+ *
+ * @see ColumnarWriter
+ */
+public class BinaryWriter extends AbstractChannelWriter {
+    public static final byte[] MAGIC = {'W', 'C', 'B', '1'};
+    public static final int FLAG_APPROXIMATE = 1;
+
+    private byte[] key = new byte[64];
+
+    /**
+     * Создает новый экземпляр {@code BinaryWriter}.
+     *
+     * @param outputFilePath путь к выходному файлу.
+     * @param topN сколько слов записать; {@code 0} — все слова.
+     */
+    public BinaryWriter(String outputFilePath, int topN) {
+        super(outputFilePath, topN);
+    }
+
+    @Override
+    protected void write(RankedRows rows, long totalCount) throws IOException {
+        putBytes(MAGIC, 0, MAGIC.length);
+        putByte(rows.isApproximate() ? FLAG_APPROXIMATE : 0);
+        putLong(rows.size());
+        putLong(totalCount);
+
+        for (int rank = 0; rank < rows.size(); rank++) {
+            int length = rows.keyLength(rank);
+            if (key.length < length) {
+                key = new byte[Math.max(length, key.length * 2)];
+            }
+            rows.copyKey(rank, key, 0);
+
+            putInt(length);
+            putBytes(key, 0, length);
+            putLong(rows.count(rank));
+            if (rows.isApproximate()) {
+                putLong(rows.error(rank));
+            }
+        }
+    }
+
+}
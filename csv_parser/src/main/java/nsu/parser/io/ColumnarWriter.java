@@ -0,0 +1,126 @@
+package nsu.parser.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Класс {@code ColumnarWriter} записывает статистику слов по колонкам: словарь слов, колонку номеров слов
+ * в словаре и колонку количеств. Загрузчик читает нужную колонку целиком, не просматривая остальные.
+ * <p>
+ * Строки идут в том же порядке, что и в {@link Writer}, поэтому количества не возрастают и хранятся разностями
+ * с предыдущей строкой — для длинного хвоста редких слов это в основном нулевые однобайтовые varint.
+ * Словарь упорядочен по байтам слова и сжат front coding, как в {@link nsu.parser.index.WordIndex}:
+ * каждое слово хранится длиной общего с предыдущим префикса и суффиксом.
+ * </p>
+ * <pre>
+ *     magic           4 байта  "WCC1"
+ *     flags           1 байт   бит 0 — есть колонка ошибок (приблизительный подсчёт)
+ *     rows            8 байт   количество строк
+ *     total           8 байт   суммарное количество вхождений всех слов исходной таблицы
+ *     dictionaryBytes 8 байт   размеры колонок в байтах, в порядке следования
+ *     wordBytes       8 байт
+ *     countBytes      8 байт
+ *     errorBytes      8 байт
+ *     словарь: rows раз varint shared, varint suffixLength, suffix — слова по возрастанию байтов UTF-8
+ *     слова:   rows раз varint номер слова в словаре
+ *     количества: varint первого количества, затем rows - 1 раз varint (предыдущее - текущее)
+ *     ошибки:  rows раз varint, только если установлен бит 0
+ * </pre>
+ * Числа заголовка — big-endian; varint — по 7 бит в байте, младшими битами вперёд.
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * IWriter writer = new ColumnarWriter("output.wcc", 0);
+ * writer.write(table);
+ * }</pre>
+ *
+ * @see BinaryWriter
+ */
+public class ColumnarWriter extends AbstractChannelWriter {
+    public static final byte[] MAGIC = {'W', 'C', 'C', '1'};
+    public static final int FLAG_APPROXIMATE = 1;
+    public static final int HEADER_SIZE = 4 + 1 + 6 * Long.BYTES;
+
+    private byte[] previous = new byte[64];
+    private byte[] current = new byte[64];
+
+    /**
+     * Создает новый экземпляр {@code ColumnarWriter}.
+     *
+     * @param outputFilePath путь к выходному файлу.
+     * @param topN сколько слов записать; {@code 0} — все слова.
+     */
+    public ColumnarWriter(String outputFilePath, int topN) {
+        super(outputFilePath, topN);
+    }
+
+    @Override
+    protected void write(RankedRows rows, long totalCount) throws IOException {
+        putBytes(new byte[HEADER_SIZE], 0, HEADER_SIZE);
+
+        long start = position();
+        int[] dictionaryIds = writeDictionary(rows);
+        long dictionaryBytes = position() - start;
+
+        start = position();
+        for (int rank = 0; rank < rows.size(); rank++) {
+            putVarint(dictionaryIds[rank]);
+        }
+        long wordBytes = position() - start;
+
+        start = position();
+        for (int rank = 0; rank < rows.size(); rank++) {
+            putVarint(rank == 0 ? rows.count(0) : rows.count(rank - 1) - rows.count(rank));
+        }
+        long countBytes = position() - start;
+
+        start = position();
+        if (rows.isApproximate()) {
+            for (int rank = 0; rank < rows.size(); rank++) {
+                putVarint(rows.error(rank));
+            }
+        }
+        long errorBytes = position() - start;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.put(MAGIC).put((byte) (rows.isApproximate() ? FLAG_APPROXIMATE : 0));
+        header.putLong(rows.size()).putLong(totalCount);
+        header.putLong(dictionaryBytes).putLong(wordBytes).putLong(countBytes).putLong(errorBytes);
+        writeAt(header.flip(), 0);
+    }
+
+    /**
+     * Записывает словарь и возвращает номер слова каждой строки в нём.
+     */
+    private int[] writeDictionary(RankedRows rows) throws IOException {
+        int[] dictionaryIds = new int[rows.size()];
+        int[] ranks = rows.ranksByKey();
+        int previousLength = 0;
+        for (int id = 0; id < ranks.length; id++) {
+            int rank = ranks[id];
+            dictionaryIds[rank] = id;
+
+            int length = rows.keyLength(rank);
+            if (current.length < length) {
+                current = new byte[Math.max(length, current.length * 2)];
+            }
+            rows.copyKey(rank, current, 0);
+
+            int shared = 0;
+            int limit = Math.min(previousLength, length);
+            while (shared < limit && previous[shared] == current[shared]) {
+                shared++;
+            }
+            putVarint(shared);
+            putVarint(length - shared);
+            putBytes(current, shared, length - shared);
+
+            byte[] swap = previous;
+            previous = current;
+            current = swap;
+            previousLength = length;
+        }
+        return dictionaryIds;
+    }
+
+}
@@ -0,0 +1,235 @@
+package nsu.parser.io;
+
+import nsu.parser.exceptions.OutputWriteException;
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.io.interfaces.IWriter;
+import nsu.parser.metrics.Metrics;
+import nsu.parser.tables.WordRanking;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Класс {@code CsvWriter} записывает статистику слов в CSV-файл по RFC 4180 с тремя колонками:
+ * слово, количество вхождений и доля слова в процентах от общего количества слов.
+ * <p>
+ * Слова упорядочиваются так же, как в {@link Writer} ({@link WordRanking}). Строки не собираются
+ * конкатенацией: слово кодируется в UTF-8, а числа форматируются прямо в прямой буфер до мегабайта,
+ * который сбрасывается в файл через {@link FileChannel}. Буфер выделяется при первой записи и остаётся
+ * у писателя для следующих вызовов {@link #write(IWordTable)}; больший буфер выделяется, только если
+ * прежнего не хватает. Файл открывается с усечением, поэтому от предыдущего, более длинного результата
+ * ничего не остаётся.
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>Разделитель колонок задаётся в конструкторе (по умолчанию запятая).</li>
+ *     <li>Поле берётся в кавычки, если содержит разделитель, кавычку или перевод строки;
+ *         кавычки внутри поля удваиваются.</li>
+ *     <li>Строки завершаются {@code CRLF}, как требует RFC 4180.</li>
+ *     <li>Процент выводится с двумя знаками после точки.</li>
+ *     <li>Для приблизительной таблицы ({@link IWordTable#isApproximate()}) добавляется четвёртая колонка —
+ *         максимальная ошибка количества.</li>
+ *     <li>Если файл не удалось открыть или записать, бросается {@link OutputWriteException}.</li>
+ *     <li>Не потокобезопасен: один экземпляр не должен писать из нескольких потоков одновременно.</li>
+ * </ul>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * IWriter writer = new CsvWriter("output.csv", ';', 0);
+ * writer.write(table); // привет;3;42.86
+ * }</pre>
+ *
+ * @see Writer
+ * @see IWriter
+ */
+public class CsvWriter implements IWriter {
+    public static final char DEFAULT_DELIMITER = ',';
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MIN_BUFFER_SIZE = 1 << 13;
+    private static final int ESTIMATED_LINE_SIZE = 32;
+    private static final int MAX_LINE_OVERHEAD = 96;
+    private static final int PERCENT_SCALE = 100;
+
+    private final Path outputFilePath;
+    private final char delimiter;
+    private final int topN;
+
+    private ByteBuffer buffer;
+    private FileChannel channel;
+    private final byte[] digits = new byte[20];
+
+    /**
+     * Создает новый экземпляр {@code CsvWriter} с разделителем-запятой.
+     *
+     * @param outputFilePath путь к выходному файлу CSV.
+     */
+    public CsvWriter(String outputFilePath) {
+        this(outputFilePath, DEFAULT_DELIMITER, 0);
+    }
+
+    /**
+     * Создает новый экземпляр {@code CsvWriter}.
+     *
+     * @param outputFilePath путь к выходному файлу CSV.
+     * @param delimiter разделитель колонок; не может быть кавычкой или переводом строки.
+     * @param topN сколько слов записать; {@code 0} — все слова.
+     */
+    public CsvWriter(String outputFilePath, char delimiter, int topN) {
+        if (delimiter == '"' || delimiter == '\r' || delimiter == '\n') {
+            throw new IllegalArgumentException("Illegal CSV delimiter " + delimiter);
+        }
+        if (topN < 0) {
+            throw new IllegalArgumentException("Top N must not be negative: " + topN);
+        }
+        this.outputFilePath = Path.of(outputFilePath);
+        this.delimiter = delimiter;
+        this.topN = topN;
+    }
+
+    @Override
+    public void write(IWordTable wordTable) {
+        var ranking = topN > 0 ? WordRanking.top(wordTable, topN) : WordRanking.sorted(wordTable);
+        long totalCount = wordTable.totalCount();
+
+        try (FileChannel out = FileChannel.open(outputFilePath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel = out;
+            int size = bufferSize(ranking.size());
+            if (buffer == null || buffer.capacity() < size) {
+                buffer = ByteBuffer.allocateDirect(size);
+            }
+            buffer.clear();
+            for (int i = 0; i < ranking.size(); i++) {
+                writeLine(ranking, i, totalCount);
+            }
+            flush();
+            Metrics.global().addWritten(ranking.size(), 0);
+
+        } catch (IOException e) {
+            throw new OutputWriteException("Can't open/create output file: " + outputFilePath, e);
+        } finally {
+            channel = null;
+        }
+    }
+
+    private void writeLine(WordRanking ranking, int i, long totalCount) throws IOException {
+        String word = ranking.word(i);
+        ensureCapacity(word.length() * 3 * 2 + MAX_LINE_OVERHEAD);
+
+        writeField(word);
+        putChar(delimiter);
+        writeLong(ranking.count(i));
+        putChar(delimiter);
+        writePercent(ranking.count(i), totalCount);
+        if (ranking.isApproximate()) {
+            putChar(delimiter);
+            writeLong(ranking.error(i));
+        }
+        buffer.put((byte) '\r').put((byte) '\n');
+    }
+
+    private void writeField(String field) {
+        boolean quoted = needsQuotes(field);
+        if (quoted) {
+            buffer.put((byte) '"');
+        }
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"') {
+                buffer.put((byte) '"');
+            }
+            if (Character.isHighSurrogate(c) && i + 1 < field.length() && Character.isLowSurrogate(field.charAt(i + 1))) {
+                putCodePoint(Character.toCodePoint(c, field.charAt(++i)));
+            } else {
+                putChar(c);
+            }
+        }
+        if (quoted) {
+            buffer.put((byte) '"');
+        }
+    }
+
+    private boolean needsQuotes(String field) {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == delimiter || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeLong(long value) {
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        buffer.put(digits, position, digits.length - position);
+    }
+
+    private void writePercent(long count, long totalCount) {
+        long scaled = totalCount == 0 ? 0 : Math.round(count * 100.0 * PERCENT_SCALE / totalCount);
+        writeLong(scaled / PERCENT_SCALE);
+        buffer.put((byte) '.');
+        long fraction = scaled % PERCENT_SCALE;
+        buffer.put((byte) ('0' + fraction / 10)).put((byte) ('0' + fraction % 10));
+    }
+
+    private void putChar(char c) {
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else {
+            putCodePoint(c);
+        }
+    }
+
+    private void putCodePoint(int cp) {
+        if (cp < 0x80) {
+            buffer.put((byte) cp);
+        } else if (cp < 0x800) {
+            buffer.put((byte) (0xC0 | (cp >>> 6)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+        } else if (cp < 0x10000) {
+            buffer.put((byte) (0xE0 | (cp >>> 12)));
+            buffer.put((byte) (0x80 | ((cp >>> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+        } else {
+            buffer.put((byte) (0xF0 | (cp >>> 18)));
+            buffer.put((byte) (0x80 | ((cp >>> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((cp >>> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+        }
+    }
+
+    /**
+     * Выбирает размер буфера по числу строк: короткому выходному файлу не нужен мегабайтный буфер,
+     * а слишком длинная строка всё равно получит свой буфер в {@link #ensureCapacity(int)}.
+     */
+    private static int bufferSize(int lines) {
+        return (int) Math.min(BUFFER_SIZE, Math.max(MIN_BUFFER_SIZE, (long) lines * ESTIMATED_LINE_SIZE));
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocateDirect(bytes);
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+}
@@ -0,0 +1,109 @@
+package nsu.parser.io;
+
+import nsu.parser.exceptions.OutputWriteException;
+import nsu.parser.external.ExternalFrequencySort;
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.io.interfaces.IWriter;
+import nsu.parser.metrics.Metrics;
+import nsu.parser.tables.WordRanking;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Класс {@code ExternalSortWriter} записывает статистику слов в CSV-файл в том же формате, что и {@link Writer},
+ * сортируя слова по количеству с ограниченным объёмом памяти.
+ * <p>
+ * Сортировка выполняется {@link ExternalFrequencySort}: по убыванию количества, при равном количестве — по
+ * возрастанию слова. Если отсортированные данные не помещаются в {@code memoryBudget}, они сбрасываются во
+ * временные файлы в {@code tempDir} и сливаются при записи. В режиме {@code topN} слова выбираются
+ * ограниченной кучей ({@link WordRanking#top(IWordTable, int)}) за один проход по таблице, без сортировки.
+ * Ошибка записи файла бросается как {@link OutputWriteException}.
+ * </p>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * IWriter writer = new ExternalSortWriter("output.csv", 256L << 20, Path.of("/tmp"));
+ * writer.write(table);
+ * }</pre>
+ *
+ * @see IWriter
+ * @see ExternalFrequencySort
+ */
+public class ExternalSortWriter implements IWriter {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private final Path outputFilePath;
+    private final long memoryBudget;
+    private final Path tempDir;
+    private final int topN;
+
+    /**
+     * Создает новый экземпляр {@code ExternalSortWriter}.
+     *
+     * @param outputFilePath путь к выходному файлу CSV.
+     * @param memoryBudget объём памяти в байтах для сортировки.
+     * @param tempDir директория для временных файлов.
+     */
+    public ExternalSortWriter(String outputFilePath, long memoryBudget, Path tempDir) {
+        this(outputFilePath, memoryBudget, tempDir, 0);
+    }
+
+    /**
+     * Создает новый экземпляр {@code ExternalSortWriter}, записывающий только {@code topN} самых частых слов.
+     *
+     * @param outputFilePath путь к выходному файлу CSV.
+     * @param memoryBudget объём памяти в байтах для сортировки.
+     * @param tempDir директория для временных файлов.
+     * @param topN сколько слов записать; {@code 0} — все слова.
+     */
+    public ExternalSortWriter(String outputFilePath, long memoryBudget, Path tempDir, int topN) {
+        this.outputFilePath = Path.of(outputFilePath);
+        this.memoryBudget = memoryBudget;
+        this.tempDir = tempDir;
+        this.topN = topN;
+    }
+
+    @Override
+    public void write(IWordTable wordTable) {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(outputFilePath), BUFFER_SIZE)) {
+            if (topN > 0) {
+                WordRanking ranking = WordRanking.top(wordTable, topN);
+                for (int i = 0; i < ranking.size(); i++) {
+                    byte[] word = ranking.word(i).getBytes(StandardCharsets.UTF_8);
+                    writeLine(out, word, 0, word.length, ranking.count(i));
+                }
+                Metrics.global().addWritten(ranking.size(), 0);
+                return;
+            }
+
+            long[] words = {0};
+            ExternalFrequencySort.sort(wordTable, memoryBudget, tempDir, (buffer, offset, length, count) -> {
+                writeLine(out, buffer, offset, length, count);
+                words[0]++;
+            });
+            Metrics.global().addWritten(words[0], 0);
+
+        } catch (IOException | UncheckedIOException e) {
+            throw new OutputWriteException("Can't open/create output file: " + outputFilePath, e);
+        }
+    }
+
+    private static void writeLine(OutputStream out, byte[] buffer, int offset, int length, long count) {
+        try {
+            out.write(buffer, offset, length);
+            out.write('\t');
+            out.write(Long.toString(count).getBytes(StandardCharsets.US_ASCII));
+            out.write(LINE_SEPARATOR);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
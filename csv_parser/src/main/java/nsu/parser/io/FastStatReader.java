@@ -0,0 +1,112 @@
+package nsu.parser.io;
+
+import nsu.parser.exceptions.*;
+import nsu.parser.io.interfaces.IMutableWordTable;
+import nsu.parser.io.interfaces.IStatReader;
+import nsu.parser.tables.WordCountTable;
+import nsu.parser.tables.WordTables;
+import nsu.parser.text.Utf8Tokenizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+import com.google.common.collect.Multiset;
+
+/**
+ * Класс {@code FastStatReader} подсчитывает слова во входном файле за один проход по байтам.
+ * <p>
+ * Даёт тот же результат, что и {@link StatReader}, но вместо {@link java.util.Scanner} и регулярного
+ * выражения на каждое слово использует {@link Utf8Tokenizer}, который очищает слово от знаков
+ * препинания и приводит его к нижнему регистру прямо в переиспользуемом буфере. Слова считаются
+ * в {@link WordCountTable} (или в другой {@link IMutableWordTable}, переданной в конструктор),
+ * поэтому строка создаётся только для каждого уникального слова. Сжатый файл распаковывается в отдельном
+ * потоке одновременно с разбором слов.
+ * </p>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * IStatReader reader = new FastStatReader(Path.of("input.txt"));
+ * Multiset<String> wordStats = reader.getWordStatMultiset();
+ * }</pre>
+ *
+ * @see IStatReader
+ * @see Utf8Tokenizer
+ * @see WordCountTable
+ */
+public class FastStatReader extends AbstractFileStatReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Supplier<? extends IMutableWordTable> tableFactory;
+    private final int decompressionThreads;
+
+    /**
+     * Создает новый экземпляр {@code FastStatReader} с указанным путем к входному файлу.
+     *
+     * @param inputFilePath путь к текстовому файлу для чтения слов.
+     */
+    public FastStatReader(String inputFilePath) {
+        this(Path.of(inputFilePath));
+    }
+
+    /**
+     * Создает новый экземпляр {@code FastStatReader} с указанным путем к входному файлу.
+     *
+     * @param inputFilePath путь к текстовому файлу для чтения слов.
+     */
+    public FastStatReader(Path inputFilePath) {
+        this(inputFilePath, WordCountTable::new);
+    }
+
+    /**
+     * Создает новый экземпляр {@code FastStatReader}, считающий слова в таблице из {@code tableFactory}.
+     *
+     * @param inputFilePath путь к текстовому файлу для чтения слов.
+     * @param tableFactory фабрика таблицы слов.
+     */
+    public FastStatReader(Path inputFilePath, Supplier<? extends IMutableWordTable> tableFactory) {
+        this(inputFilePath, tableFactory, 1);
+    }
+
+    /**
+     * Создает новый экземпляр {@code FastStatReader}, который распаковывает сжатый файл
+     * на {@code decompressionThreads} потоках, если формат это позволяет.
+     *
+     * @param inputFilePath путь к текстовому файлу для чтения слов.
+     * @param tableFactory фабрика таблицы слов.
+     * @param decompressionThreads сколько потоков можно занять распаковкой.
+     */
+    public FastStatReader(Path inputFilePath, Supplier<? extends IMutableWordTable> tableFactory,
+                          int decompressionThreads) {
+        super(inputFilePath);
+        this.tableFactory = tableFactory;
+        this.decompressionThreads = decompressionThreads;
+    }
+
+    @Override
+    protected Multiset<String> readWordStatMultiset() {
+        return WordTables.toMultiset(readWordTable());
+    }
+
+    @Override
+    protected IMutableWordTable readWordTable() {
+        IMutableWordTable table = tableFactory.get();
+        Utf8Tokenizer tokenizer = new Utf8Tokenizer(table::add);
+        byte[] buffer = new byte[BUFFER_SIZE];
+
+        try (InputStream in = openInput(decompressionThreads)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                tokenizer.feed(buffer, 0, read);
+            }
+            tokenizer.finish();
+
+        } catch (IOException e) {
+            throw new InvalidReadFromFileException("Failed reading from file: " + inputFilePath);
+        }
+
+        return table;
+    }
+
+}
@@ -0,0 +1,239 @@
+package nsu.parser.io;
+
+import nsu.parser.exceptions.*;
+import nsu.parser.index.SourceInfo;
+import nsu.parser.index.WordIndex;
+import nsu.parser.index.WordIndexWriter;
+import nsu.parser.io.interfaces.IMutableWordTable;
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.tables.EntryOrder;
+import nsu.parser.tables.WordCountTable;
+import nsu.parser.tables.WordTables;
+import nsu.parser.text.Utf8Tokenizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.google.common.collect.Multiset;
+
+/**
+ * Класс {@code IncrementalStatReader} подсчитывает слова во входном файле и сохраняет результат
+ * в двоичный индекс ({@link WordIndex}), чтобы при следующем запуске не читать файл заново.
+ * <p>
+ * В заголовке индекса хранятся размер, время изменения и контрольная сумма конца входного файла, а также
+ * смещение сразу после последнего пробельного символа. При следующем запуске возможны три случая:
+ * </p>
+ * <ul>
+ *     <li>Файл не менялся — возвращается сам индекс, отображённый в память; файл не читается.</li>
+ *     <li>Файл только дополнен в конце (журнал, {@code >>}) — счётчики загружаются из индекса, из них вычитаются
+ *         слова хвоста после последнего пробельного символа (последнее слово могло продолжиться в добавленном тексте),
+ *         и файл дочитывается с этого смещения.</li>
+ *     <li>Иначе файл подсчитывается целиком.</li>
+ * </ul>
+ * После подсчёта индекс перезаписывается. Сжатый файл дочитать по смещению нельзя, поэтому для него индекс
+ * используется, только если файл не менялся. Индекс, подсчитанный с другими настройками нормализации слов
+ * ({@link SourceInfo#settings()}), не используется вовсе: файл подсчитывается заново.
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * IStatReader reader = new IncrementalStatReader(Path.of("app.log"), Path.of("app.log.idx"));
+ * IWordTable table = reader.getWordTable();
+ * }</pre>
+ *
+ * @see WordIndex
+ * @see FastStatReader
+ */
+public class IncrementalStatReader extends AbstractFileStatReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path indexFile;
+    private final Supplier<? extends IMutableWordTable> tableFactory;
+    private final long settings;
+
+    private long lastOffset;
+
+    /**
+     * Создает новый экземпляр {@code IncrementalStatReader}.
+     *
+     * @param inputFilePath путь к текстовому файлу для чтения слов.
+     * @param indexFile путь к файлу индекса; если его нет, он будет создан.
+     */
+    public IncrementalStatReader(Path inputFilePath, Path indexFile) {
+        this(inputFilePath, indexFile, WordCountTable::new);
+    }
+
+    /**
+     * Создает новый экземпляр {@code IncrementalStatReader}, считающий слова в таблице из {@code tableFactory}.
+     *
+     * @param inputFilePath путь к текстовому файлу для чтения слов.
+     * @param indexFile путь к файлу индекса; если его нет, он будет создан.
+     * @param tableFactory фабрика таблицы слов.
+     */
+    public IncrementalStatReader(Path inputFilePath, Path indexFile, Supplier<? extends IMutableWordTable> tableFactory) {
+        this(inputFilePath, indexFile, tableFactory, 0);
+    }
+
+    /**
+     * Создает новый экземпляр {@code IncrementalStatReader}, таблица которого нормализует слова.
+     *
+     * @param inputFilePath путь к текстовому файлу для чтения слов.
+     * @param indexFile путь к файлу индекса; если его нет, он будет создан.
+     * @param tableFactory фабрика таблицы слов.
+     * @param settings отпечаток настроек нормализации, с которыми работает {@code tableFactory};
+     *                 {@code 0} — без нормализации.
+     */
+    public IncrementalStatReader(Path inputFilePath, Path indexFile, Supplier<? extends IMutableWordTable> tableFactory,
+                                 long settings) {
+        super(inputFilePath);
+        this.indexFile = indexFile;
+        this.tableFactory = tableFactory;
+        this.settings = settings;
+    }
+
+    @Override
+    protected Multiset<String> readWordStatMultiset() {
+        return WordTables.toMultiset(readWordTable());
+    }
+
+    @Override
+    protected IWordTable readWordTable() {
+        try {
+            long size = Files.size(inputFilePath);
+            long modified = Files.getLastModifiedTime(inputFilePath).toMillis();
+            boolean compressed = isCompressed();
+            WordIndex index = openIndex();
+            if (index != null && index.source().settings() != settings) {
+                index = null;
+            }
+
+            if (index != null && index.source().isUnchanged(inputFilePath)) {
+                return index;
+            }
+
+            IMutableWordTable table = tableFactory.get();
+            if (index != null && !compressed && index.source().isAppendedTo(inputFilePath)) {
+                SourceInfo source = index.source();
+                loadWithoutTail(index, table, source.lastOffset(), source.size());
+                readRange(table, source.lastOffset(), size);
+            } else if (compressed) {
+                readCompressed(table);
+            } else {
+                readRange(table, 0, size);
+            }
+
+            SourceInfo source = new SourceInfo(size, modified, compressed ? 0 : lastOffset,
+                    SourceInfo.fingerprint(inputFilePath, size), settings);
+            WordIndexWriter.write(indexFile, table, source);
+            return table;
+
+        } catch (IOException e) {
+            throw new InvalidReadFromFileException("Failed reading from file: " + inputFilePath);
+        }
+    }
+
+    private WordIndex openIndex() {
+        if (Files.notExists(indexFile)) {
+            return null;
+        }
+        try {
+            return WordIndex.open(indexFile);
+        } catch (IndexFormatException e) {
+            System.err.println("Ignoring index " + indexFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void loadWithoutTail(WordIndex index, IMutableWordTable table, long from, long to) throws IOException {
+        IMutableWordTable tailTokens = tableFactory.get();
+        Utf8Tokenizer tokenizer = new Utf8Tokenizer(tailTokens::add);
+        try (FileChannel channel = FileChannel.open(inputFilePath, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            for (long position = from; position < to; ) {
+                buffer.clear().limit((int) Math.min(BUFFER_SIZE, to - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                tokenizer.feed(buffer.array(), 0, read);
+                position += read;
+            }
+        }
+        tokenizer.finish();
+        WordCountTable tail = new WordCountTable();
+        tail.mergeFrom(tailTokens);
+
+        List<byte[]> tailKeys = new ArrayList<>();
+        List<Long> tailCounts = new ArrayList<>();
+        tail.forEachKeySorted(EntryOrder.KEY, (buffer, offset, length, count) -> {
+            tailKeys.add(Arrays.copyOfRange(buffer, offset, offset + length));
+            tailCounts.add(count);
+        });
+
+        int[] next = {0};
+        index.forEachKey((buffer, offset, length, count) -> {
+            while (next[0] < tailKeys.size() && compare(tailKeys.get(next[0]), buffer, offset, length) < 0) {
+                next[0]++;
+            }
+            if (next[0] < tailKeys.size() && compare(tailKeys.get(next[0]), buffer, offset, length) == 0) {
+                count -= tailCounts.get(next[0]++);
+            }
+            if (count > 0) {
+                table.add(buffer, offset, length, count);
+            }
+        });
+    }
+
+    private void readRange(IMutableWordTable table, long from, long to) throws IOException {
+        Utf8Tokenizer tokenizer = new Utf8Tokenizer(table::add);
+        lastOffset = from;
+        try (FileChannel channel = FileChannel.open(inputFilePath, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            for (long position = from; position < to; ) {
+                buffer.clear().limit((int) Math.min(BUFFER_SIZE, to - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                tokenizer.feed(buffer.array(), 0, read);
+                trackLastWhitespace(buffer.array(), read, position);
+                position += read;
+            }
+        }
+        tokenizer.finish();
+    }
+
+    private void readCompressed(IMutableWordTable table) throws IOException {
+        Utf8Tokenizer tokenizer = new Utf8Tokenizer(table::add);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = openInput(1)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                tokenizer.feed(buffer, 0, read);
+            }
+        }
+        tokenizer.finish();
+    }
+
+    private void trackLastWhitespace(byte[] buffer, int length, long position) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (Utf8Tokenizer.isAsciiWhitespace(buffer[i])) {
+                lastOffset = position + i + 1;
+                return;
+            }
+        }
+    }
+
+    private static int compare(byte[] key, byte[] buffer, int offset, int length) {
+        return EntryOrder.compareKeys(key, 0, key.length, buffer, offset, length);
+    }
+
+}
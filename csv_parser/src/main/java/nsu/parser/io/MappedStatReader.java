@@ -0,0 +1,127 @@
+package nsu.parser.io;
+
+import nsu.parser.exceptions.*;
+import nsu.parser.io.interfaces.IMutableWordTable;
+import nsu.parser.io.interfaces.IStatReader;
+import nsu.parser.tables.WordCountTable;
+import nsu.parser.tables.WordTables;
+import nsu.parser.text.Utf8Tokenizer;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+
+import com.google.common.collect.Multiset;
+
+/**
+ * Класс {@code MappedStatReader} подсчитывает слова, читая входной файл через отображение в память
+ * ({@link FileChannel#map}).
+ * <p>
+ * {@link Utf8Tokenizer} разбирает байты прямо из {@link MappedByteBuffer}, без копирования в промежуточные
+ * буферы и без декодирования в символы. Строка создаётся только для каждого уникального слова при
+ * обходе {@link WordCountTable} (или другой {@link IMutableWordTable}, переданной в конструктор).
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>Файлы больше 2 ГБ отображаются последовательными окнами по {@code windowSize} байт.
+ *         Токенизатор сохраняет незаконченное слово между окнами, поэтому границы окон произвольны.</li>
+ *     <li>Результат совпадает с результатом {@link FastStatReader}.</li>
+ *     <li>Сжатый файл отобразить нельзя, поэтому он читается {@link FastStatReader} с распаковкой на лету.</li>
+ * </ul>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * IStatReader reader = new MappedStatReader(Path.of("input.txt"));
+ * Multiset<String> wordStats = reader.getWordStatMultiset();
+ * }</pre>
+ *
+ * @see IStatReader
+ * @see FastStatReader
+ */
+public class MappedStatReader extends AbstractFileStatReader {
+    private static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+    private final long windowSize;
+    private final Supplier<? extends IMutableWordTable> tableFactory;
+
+    /**
+     * Создает новый экземпляр {@code MappedStatReader} с окном отображения 1 ГБ.
+     *
+     * @param inputFilePath путь к текстовому файлу для чтения слов.
+     */
+    public MappedStatReader(Path inputFilePath) {
+        this(inputFilePath, DEFAULT_WINDOW_SIZE, WordCountTable::new);
+    }
+
+    /**
+     * Создает новый экземпляр {@code MappedStatReader} с окном отображения 1 ГБ,
+     * считающий слова в таблице из {@code tableFactory}.
+     *
+     * @param inputFilePath путь к текстовому файлу для чтения слов.
+     * @param tableFactory фабрика таблицы слов.
+     */
+    public MappedStatReader(Path inputFilePath, Supplier<? extends IMutableWordTable> tableFactory) {
+        this(inputFilePath, DEFAULT_WINDOW_SIZE, tableFactory);
+    }
+
+    /**
+     * Создает новый экземпляр {@code MappedStatReader} с указанным размером окна отображения.
+     *
+     * @param inputFilePath путь к текстовому файлу для чтения слов.
+     * @param windowSize размер окна отображения в байтах, не больше {@link Integer#MAX_VALUE}.
+     */
+    public MappedStatReader(Path inputFilePath, long windowSize) {
+        this(inputFilePath, windowSize, WordCountTable::new);
+    }
+
+    /**
+     * Создает новый экземпляр {@code MappedStatReader}.
+     *
+     * @param inputFilePath путь к текстовому файлу для чтения слов.
+     * @param windowSize размер окна отображения в байтах, не больше {@link Integer#MAX_VALUE}.
+     * @param tableFactory фабрика таблицы слов.
+     */
+    public MappedStatReader(Path inputFilePath, long windowSize, Supplier<? extends IMutableWordTable> tableFactory) {
+        super(inputFilePath);
+        if (windowSize < 1 || windowSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Illegal window size " + windowSize);
+        }
+        this.windowSize = windowSize;
+        this.tableFactory = tableFactory;
+    }
+
+    @Override
+    protected Multiset<String> readWordStatMultiset() {
+        return WordTables.toMultiset(readWordTable());
+    }
+
+    @Override
+    protected IMutableWordTable readWordTable() {
+        if (isCompressed()) {
+            return new FastStatReader(inputFilePath, tableFactory).readWordTable();
+        }
+
+        IMutableWordTable table = tableFactory.get();
+        Utf8Tokenizer tokenizer = new Utf8Tokenizer(table::add);
+
+        try (FileChannel channel = FileChannel.open(inputFilePath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += windowSize) {
+                long length = Math.min(windowSize, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                tokenizer.feed(window);
+            }
+            tokenizer.finish();
+
+        } catch (IOException e) {
+            throw new InvalidReadFromFileException("Failed reading from file: " + inputFilePath);
+        }
+
+        return table;
+    }
+
+}
@@ -0,0 +1,238 @@
+package nsu.parser.io;
+
+import nsu.parser.exceptions.*;
+import nsu.parser.io.interfaces.IMutableWordTable;
+import nsu.parser.io.interfaces.IStatReader;
+import nsu.parser.metrics.Metrics;
+import nsu.parser.metrics.Stage;
+import nsu.parser.tables.ConcurrentWordTable;
+import nsu.parser.tables.WordCountTable;
+import nsu.parser.tables.WordTables;
+import nsu.parser.text.Utf8Tokenizer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+import com.google.common.collect.Multiset;
+
+/**
+ * Класс {@code ParallelStatReader} подсчитывает слова во входном файле на нескольких потоках.
+ * <p>
+ * Файл делится на диапазоны байтов примерно по {@code chunkSize} байт. Границы диапазонов сдвигаются
+ * вперёд до ближайшего пробельного символа ASCII, поэтому ни одно слово и ни одна последовательность UTF-8
+ * не разрезается. Каждый диапазон обрабатывается задачей {@link ForkJoinPool} со своим
+ * {@link Utf8Tokenizer} и своей таблицей ({@link WordCountTable} по умолчанию), после чего частичные таблицы попарно
+ * объединяются. Результат совпадает с результатом {@link FastStatReader}.
+ * </p>
+ * <p>
+ * В режиме общей таблицы ({@code sharedTable}) фабрика возвращает представления одной потокобезопасной таблицы,
+ * например {@link ConcurrentWordTable}, и все задачи считают прямо в неё — частичные таблицы не сливаются.
+ * Это выгодно, когда словари диапазонов велики и сильно пересекаются, и слияние занимает столько же, сколько подсчёт.
+ * </p>
+ * Сжатый файл нельзя делить по смещениям, поэтому он читается {@link FastStatReader}, а потоки
+ * используются для параллельной распаковки участков многочастного gzip.
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * IStatReader reader = new ParallelStatReader(Path.of("input.txt"), 32, 64L << 20);
+ * Multiset<String> wordStats = reader.getWordStatMultiset();
+ * }</pre>
+ *
+ * @see IStatReader
+ * @see FastStatReader
+ */
+public class ParallelStatReader extends AbstractFileStatReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int BOUNDARY_SCAN_SIZE = 1 << 12;
+
+    private final int threads;
+    private final long chunkSize;
+    private final Supplier<? extends IMutableWordTable> tableFactory;
+    private final boolean sharedTable;
+
+    /**
+     * Создает новый экземпляр {@code ParallelStatReader}.
+     *
+     * @param inputFilePath путь к текстовому файлу для чтения слов.
+     * @param threads количество рабочих потоков.
+     * @param chunkSize желаемый размер диапазона байтов, обрабатываемого одной задачей.
+     */
+    public ParallelStatReader(Path inputFilePath, int threads, long chunkSize) {
+        this(inputFilePath, threads, chunkSize, WordCountTable::new);
+    }
+
+    /**
+     * Создает новый экземпляр {@code ParallelStatReader}, считающий каждый диапазон
+     * в отдельной таблице из {@code tableFactory}.
+     *
+     * @param inputFilePath путь к текстовому файлу для чтения слов.
+     * @param threads количество рабочих потоков.
+     * @param chunkSize желаемый размер диапазона байтов, обрабатываемого одной задачей.
+     * @param tableFactory фабрика таблиц слов; вызывается из рабочих потоков.
+     */
+    public ParallelStatReader(Path inputFilePath, int threads, long chunkSize,
+                              Supplier<? extends IMutableWordTable> tableFactory) {
+        this(inputFilePath, threads, chunkSize, tableFactory, false);
+    }
+
+    /**
+     * Создает новый экземпляр {@code ParallelStatReader}.
+     *
+     * @param inputFilePath путь к текстовому файлу для чтения слов.
+     * @param threads количество рабочих потоков.
+     * @param chunkSize желаемый размер диапазона байтов, обрабатываемого одной задачей.
+     * @param tableFactory фабрика таблиц слов; вызывается из рабочих потоков.
+     * @param sharedTable {@code true}, если все таблицы из фабрики считают в одну потокобезопасную таблицу
+     *                    и сливать их не нужно.
+     */
+    public ParallelStatReader(Path inputFilePath, int threads, long chunkSize,
+                              Supplier<? extends IMutableWordTable> tableFactory, boolean sharedTable) {
+        super(inputFilePath);
+        if (threads < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("Threads and chunk size must be positive");
+        }
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.tableFactory = tableFactory;
+        this.sharedTable = sharedTable;
+    }
+
+    @Override
+    protected Multiset<String> readWordStatMultiset() {
+        return WordTables.toMultiset(readWordTable());
+    }
+
+    @Override
+    protected IMutableWordTable readWordTable() {
+        if (isCompressed()) {
+            return new FastStatReader(inputFilePath, tableFactory, threads).readWordTable();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (FileChannel channel = FileChannel.open(inputFilePath, StandardOpenOption.READ)) {
+            List<Long> bounds = splitToChunks(channel);
+            return pool.invoke(new CountTask(channel, bounds, 0, bounds.size() - 1));
+
+        } catch (IOException | UncheckedIOException e) {
+            throw new InvalidReadFromFileException("Failed reading from file: " + inputFilePath);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private List<Long> splitToChunks(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+
+        long position = chunkSize;
+        while (position < size) {
+            long boundary = findWhitespace(channel, position, size);
+            if (boundary >= size) {
+                break;
+            }
+            bounds.add(boundary);
+            position = boundary + chunkSize;
+        }
+        bounds.add(size);
+
+        return bounds;
+    }
+
+    private static long findWhitespace(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (Utf8Tokenizer.isAsciiWhitespace(buffer.get(i))) {
+                    return position + i;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private IMutableWordTable countRange(FileChannel channel, long start, long end) {
+        IMutableWordTable table = tableFactory.get();
+        Utf8Tokenizer tokenizer = new Utf8Tokenizer(table::add);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        Metrics metrics = Metrics.global();
+        long cpuNanos = metrics.threadCpuNanos();
+
+        try {
+            long position = start;
+            while (position < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, end - position));
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                tokenizer.feed(buffer.array(), 0, read);
+                position += read;
+            }
+            tokenizer.finish();
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            metrics.addWorkerCpu(Stage.READ, metrics.threadCpuNanos() - cpuNanos);
+        }
+
+        return table;
+    }
+
+    private final class CountTask extends RecursiveTask<IMutableWordTable> {
+        private final FileChannel channel;
+        private final List<Long> bounds;
+        private final int from;
+        private final int to;
+
+        CountTask(FileChannel channel, List<Long> bounds, int from, int to) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected IMutableWordTable compute() {
+            if (to - from == 1) {
+                return countRange(channel, bounds.get(from), bounds.get(to));
+            }
+
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(channel, bounds, from, middle);
+            left.fork();
+            IMutableWordTable right = new CountTask(channel, bounds, middle, to).compute();
+            IMutableWordTable joined = left.join();
+            if (sharedTable) {
+                return joined;
+            }
+
+            if (joined.distinctSize() < right.distinctSize()) {
+                right.mergeFrom(joined);
+                WordTables.close(joined);
+                return right;
+            }
+            joined.mergeFrom(right);
+            WordTables.close(right);
+            return joined;
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+package nsu.parser.io;
+
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.tables.EntryOrder;
+import nsu.parser.tables.WordCountTable;
+import nsu.parser.tables.WordRanking;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Класс {@code RankedRows} — строки выходного файла в порядке {@link EntryOrder#COUNT_DESCENDING}, у которых слово
+ * доступно байтами UTF-8 прямо из {@link WordCountTable}, без создания строк.
+ * <p>
+ * Если записывается вся таблица и она сама является {@link WordCountTable}, строки ссылаются на её записи,
+ * и слова не копируются. Иначе (первые {@code N} слов, приблизительная или другая таблица) слова упорядочиваются
+ * {@link WordRanking} и один раз кодируются в UTF-8 в новую {@link WordCountTable}.
+ * </p>
+ *
+ * @see AbstractChannelWriter
+ */
+public final class RankedRows {
+    private final WordCountTable table;
+    private final int[] entries;
+    private final long[] counts;
+    private final long[] errors;
+
+    private RankedRows(WordCountTable table, int[] entries, long[] counts, long[] errors) {
+        this.table = table;
+        this.entries = entries;
+        this.counts = counts;
+        this.errors = errors;
+    }
+
+    /**
+     * Упорядочивает слова таблицы.
+     *
+     * @param wordTable таблица слов.
+     * @param topN сколько слов взять; {@code 0} — все слова.
+     * @return упорядоченные строки.
+     */
+    public static RankedRows of(IWordTable wordTable, int topN) {
+        if (topN == 0 && wordTable instanceof WordCountTable) {
+            WordCountTable table = (WordCountTable) wordTable;
+            int size = table.distinctSize();
+            int[] entries = new int[size];
+            long[] counts = new long[size];
+            int[] rank = {0};
+            table.forEachKeySorted(EntryOrder.COUNT_DESCENDING, (buffer, offset, length, count) -> {
+                entries[rank[0]] = table.idOf(buffer, offset, length);
+                counts[rank[0]++] = count;
+            });
+            return new RankedRows(table, entries, counts, null);
+        }
+
+        WordRanking ranking = topN > 0 ? WordRanking.top(wordTable, topN) : WordRanking.sorted(wordTable);
+        int size = ranking.size();
+        WordCountTable table = new WordCountTable(size);
+        int[] entries = new int[size];
+        long[] counts = new long[size];
+        long[] errors = ranking.isApproximate() ? new long[size] : null;
+        for (int i = 0; i < size; i++) {
+            byte[] word = ranking.word(i).getBytes(StandardCharsets.UTF_8);
+            entries[i] = table.intern(word, 0, word.length);
+            counts[i] = ranking.count(i);
+            if (errors != null) {
+                errors[i] = ranking.error(i);
+            }
+        }
+        return new RankedRows(table, entries, counts, errors);
+    }
+
+    /**
+     * Возвращает количество строк.
+     *
+     * @return количество строк.
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * Возвращает длину слова строки в байтах UTF-8.
+     *
+     * @param rank номер строки.
+     * @return длина слова.
+     */
+    public int keyLength(int rank) {
+        return table.keyLength(entries[rank]);
+    }
+
+    /**
+     * Копирует байты слова строки в массив.
+     *
+     * @param rank номер строки.
+     * @param target массив, в который копируется слово.
+     * @param offset начало слова в {@code target}.
+     */
+    public void copyKey(int rank, byte[] target, int offset) {
+        table.copyKey(entries[rank], target, offset);
+    }
+
+    /**
+     * Возвращает количество вхождений слова строки.
+     *
+     * @param rank номер строки.
+     * @return количество вхождений.
+     */
+    public long count(int rank) {
+        return counts[rank];
+    }
+
+    /**
+     * Возвращает максимальную ошибку количества строки.
+     *
+     * @param rank номер строки.
+     * @return ошибка или {@code 0} для точного подсчёта.
+     */
+    public long error(int rank) {
+        return errors == null ? 0 : errors[rank];
+    }
+
+    /**
+     * Проверяет, приблизительны ли количества.
+     *
+     * @return {@code true}, если у строк есть ошибка количества.
+     */
+    public boolean isApproximate() {
+        return errors != null;
+    }
+
+    /**
+     * Возвращает номера строк в порядке возрастания байтов слова ({@link EntryOrder#KEY}).
+     *
+     * @return номера строк.
+     */
+    public int[] ranksByKey() {
+        int[] rankOfEntry = new int[table.distinctSize()];
+        for (int rank = 0; rank < entries.length; rank++) {
+            rankOfEntry[entries[rank]] = rank;
+        }
+
+        int[] ranks = new int[entries.length];
+        int[] position = {0};
+        table.forEachKeySorted(EntryOrder.KEY, (buffer, offset, length, count) ->
+                ranks[position[0]++] = rankOfEntry[table.idOf(buffer, offset, length)]);
+        return ranks;
+    }
+
+}
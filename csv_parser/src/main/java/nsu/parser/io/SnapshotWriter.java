@@ -0,0 +1,128 @@
+package nsu.parser.io;
+
+import nsu.parser.exceptions.*;
+import nsu.parser.io.interfaces.IMutableWordTable;
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.io.interfaces.IWriter;
+import nsu.parser.tables.FilteredWordTable;
+import nsu.parser.tables.SpaceSavingTable;
+import nsu.parser.tables.WordCountTable;
+import nsu.parser.tables.WordRanking;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Function;
+
+/**
+ * Класс {@code SnapshotWriter} публикует снимки статистики слов, атомарно заменяя выходной файл.
+ * <p>
+ * Снимок сначала записывается любым {@link IWriter} во временный файл в той же директории,
+ * а затем переименовывается поверх выходного файла. Читатель выходного файла видит либо
+ * предыдущий снимок, либо новый целиком, но никогда не видит наполовину записанный файл.
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>Снимок разделён на два шага: {@link #capture(IWordTable)} быстро копирует таблицу, пока она заблокирована,
+ *         а {@link #publish(IWordTable)} упорядочивает слова ({@link WordRanking}), в том числе выбирает
+ *         {@code topN} первых, и записывает их на диск уже без блокировки. Точная таблица копируется байтами
+ *         ключей в новую {@link WordCountTable}, а {@link SpaceSavingTable} — в таблицу той же ёмкости вместе
+ *         с ошибками, без создания строк.</li>
+ *     <li>Если запись временного файла не удалась ({@link OutputWriteException}, например, закончилось место
+ *         на диске), он удаляется, а выходной файл сохраняет предыдущий снимок.</li>
+ *     <li>Если файловая система не поддерживает атомарное переименование, файл заменяется обычным.</li>
+ * </ul>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * SnapshotWriter snapshots = new SnapshotWriter(Path.of("output.csv"), 10, path -> new Writer(path, 10));
+ * snapshots.publish(snapshots.capture(table));
+ * }</pre>
+ *
+ * @see StreamingStatReader
+ * @see IWriter
+ */
+public class SnapshotWriter {
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path outputFilePath;
+    private final int topN;
+    private final Function<String, ? extends IWriter> writerFactory;
+
+    /**
+     * Создает новый экземпляр {@code SnapshotWriter}.
+     *
+     * @param outputFilePath путь к выходному файлу, который заменяется каждым снимком.
+     * @param topN сколько слов сохранять в снимке; {@code 0} — все слова.
+     * @param writerFactory создаёт {@link IWriter} для временного файла по его пути.
+     */
+    public SnapshotWriter(Path outputFilePath, int topN, Function<String, ? extends IWriter> writerFactory) {
+        if (topN < 0) {
+            throw new IllegalArgumentException("Top N must not be negative: " + topN);
+        }
+        this.outputFilePath = outputFilePath.toAbsolutePath();
+        this.topN = topN;
+        this.writerFactory = writerFactory;
+    }
+
+    /**
+     * Копирует таблицу для последующей публикации.
+     *
+     * @param table таблица слов; не должна изменяться во время вызова.
+     * @return снимок таблицы, который не зависит от её дальнейших изменений.
+     */
+    public IWordTable capture(IWordTable table) {
+        IWordTable source = table instanceof FilteredWordTable ? ((FilteredWordTable) table).delegate() : table;
+        if (source instanceof SpaceSavingTable) {
+            SpaceSavingTable copy = new SpaceSavingTable(((SpaceSavingTable) source).capacity());
+            copy.mergeFrom((SpaceSavingTable) source);
+            return copy;
+        }
+        if (source.isApproximate() || !(source instanceof IMutableWordTable)) {
+            return WordRanking.sorted(source);
+        }
+
+        WordCountTable copy = new WordCountTable(source.distinctSize());
+        copy.mergeFrom((IMutableWordTable) source);
+        return copy;
+    }
+
+    /**
+     * Записывает снимок во временный файл и атомарно заменяет им выходной файл.
+     *
+     * @param snapshot снимок, полученный из {@link #capture(IWordTable)}, или таблица, которая больше не меняется.
+     * @throws TemporaryStorageException если временный файл не удалось создать, записать или переименовать;
+     *                                   выходной файл в этом случае не меняется.
+     */
+    public synchronized void publish(IWordTable snapshot) {
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(outputFilePath.getParent(), "." + outputFilePath.getFileName(), TEMP_SUFFIX);
+            writerFactory.apply(tempFile.toString()).write(topN > 0 ? WordRanking.top(snapshot, topN) : snapshot);
+            try {
+                Files.move(tempFile, outputFilePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, outputFilePath, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+        } catch (IOException | OutputWriteException e) {
+            deleteQuietly(tempFile);
+            throw new TemporaryStorageException("Failed replacing output file " + outputFilePath, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // Временный файл останется рядом с выходным, но сам снимок уже не удался.
+        }
+    }
+
+}
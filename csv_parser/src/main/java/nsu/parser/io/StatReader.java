@@ -2,10 +2,14 @@ package nsu.parser.io;
 
 import nsu.parser.exceptions.*;
 import nsu.parser.io.interfaces.IStatReader;
+import nsu.parser.metrics.CountingInputStream;
+import nsu.parser.metrics.Metrics;
 
-import java.io.FileNotFoundException;
-import java.nio.file.Files;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.Locale;
 import java.util.Scanner;
 
 import com.google.common.collect.HashMultiset;
@@ -19,6 +23,7 @@ import com.google.common.collect.Multiset;
  * <p><b>Особенности:</b></p>
  * <ul>
  *     <li>Проверяет существование входного файла перед чтением.</li>
+ *     <li>Сжатые файлы ({@code .gz}, {@code .zst}) распознаются по сигнатуре и распаковываются на лету.</li>
  *     <li>Считанные слова приводятся к нижнему регистру и очищаются от знаков препинания.</li>
  *     <li>Результатом работы является {@link Multiset}, где каждому слову соответствует его количество в тексте.</li>
  * </ul>
@@ -35,8 +40,7 @@ import com.google.common.collect.Multiset;
  * @see Multiset
  * @see HashMultiset
  */
-public class StatReader implements IStatReader {
-    private final Path inputFilePath;
+public class StatReader extends AbstractFileStatReader {
     private static final String WORD_REGEX = "\\p{Punct}";
 
     /**
@@ -45,46 +49,37 @@ public class StatReader implements IStatReader {
      * @param inputFilePath путь к текстовому файлу для чтения слов.
      */
     public StatReader(String inputFilePath) {
-        this.inputFilePath = Path.of(inputFilePath);        
+        this(Path.of(inputFilePath));
     }
 
     /**
-     * Возвращает {@link Multiset}, содержащий статистику по словам из входного файла.
-     * <ul>
-     *     <li>Проверяет существование входного файла.</li>
-     *     <li>Читает файл построчно, удаляет знаки препинания, приводит слова к нижнему регистру и подсчитывает их количество.</li>
-     * </ul>
+     * Создает новый экземпляр {@code StatReader} с указанным путем к входному файлу.
      *
-     * @return {@link Multiset} со словами и их количеством.
-     * @throws RuntimeException если файл не существует или произошла ошибка чтения.
+     * @param inputFilePath путь к текстовому файлу для чтения слов.
      */
-    @Override
-    public Multiset<String> getWordStatMultiset() {
-        try {
-            checkInputFile();
-
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException(e.getMessage(), e);
-        }
-
-        return readWordStatMultiset();
+    public StatReader(Path inputFilePath) {
+        super(inputFilePath);
     }
 
-    private void checkInputFile() throws FileNotFoundException {
-        if (Files.notExists(inputFilePath) || Files.isDirectory(inputFilePath)) {
-            throw new FileNotFoundException("Failed to open file " + inputFilePath);
-        }
-    }
-
-    private Multiset<String> readWordStatMultiset() {
+    /**
+     * Читает файл построчно, удаляет знаки препинания, приводит слова к нижнему регистру и подсчитывает их количество.
+     *
+     * @return {@link Multiset} со словами и их количеством.
+     */
+    @Override
+    protected Multiset<String> readWordStatMultiset() {
         Multiset<String> wordStatMultiset = HashMultiset.create();
 
-        try (Scanner scan = new Scanner(Files.newBufferedReader(inputFilePath))) {
+        try (Scanner scan = new Scanner(new BufferedReader(
+                new InputStreamReader(new CountingInputStream(openInput(1)), StandardCharsets.UTF_8.newDecoder())))) {
             while (scan.hasNext()) {
-                String correctWord = scan.next().replaceAll(WORD_REGEX, "").toLowerCase();
+                String correctWord = scan.next().replaceAll(WORD_REGEX, "").toLowerCase(Locale.ROOT);
                 wordStatMultiset.add(correctWord);
             }
+            Metrics.global().addRead(0, wordStatMultiset.size());
 
+        } catch (UnsupportedCompressionException e) {
+            throw e;
         } catch (Exception e) {
             throw new InvalidReadFromFileException("Failed reading from file: " + inputFilePath);
         }
@@ -0,0 +1,179 @@
+package nsu.parser.io;
+
+import nsu.parser.exceptions.*;
+import nsu.parser.io.interfaces.IMutableWordTable;
+import nsu.parser.io.interfaces.IStatReader;
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.tables.WordCountTable;
+import nsu.parser.tables.WordTables;
+import nsu.parser.text.Utf8Tokenizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import com.google.common.collect.Multiset;
+
+/**
+ * Класс {@code StreamingStatReader} подсчитывает слова в потоке байтов, конец которого заранее неизвестен:
+ * в стандартном вводе, канале или выводе {@code zcat}/{@code tail -F}.
+ * <p>
+ * Слова разбираются {@link Utf8Tokenizer} по мере поступления данных и сразу добавляются в таблицу. Если задан
+ * {@link SnapshotWriter}, то во время чтения выходной файл периодически заменяется снимком текущей статистики:
+ * каждые {@code intervalMillis} миллисекунд и/или каждые {@code snapshotTokens} слов. Снимки записываются отдельным
+ * потоком, поэтому чтение не ждёт записи на диск, а блокируется только на время копирования таблицы
+ * ({@link SnapshotWriter#capture(IWordTable)}); слова упорядочиваются уже после снятия блокировки.
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>Снимок по времени выполняется, даже если поток долго не присылает данных.</li>
+ *     <li>Количество слов проверяется после каждого прочитанного буфера, поэтому снимок по количеству может
+ *         запоздать не больше чем на один буфер.</li>
+ *     <li>Если предыдущий снимок ещё записывается, следующий снимок по количеству слов не ставится в очередь.</li>
+ *     <li>Поток читается один раз; повторные вызовы возвращают уже подсчитанную таблицу.</li>
+ * </ul>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * SnapshotWriter snapshots = new SnapshotWriter(Path.of("output.csv"), 10, path -> new Writer(path, 10));
+ * IStatReader reader = new StreamingStatReader(Channels.newChannel(System.in), WordCountTable::new,
+ *         snapshots, 5_000, 0);
+ * snapshots.publish(reader.getWordTable());
+ * }</pre>
+ *
+ * @see SnapshotWriter
+ * @see FastStatReader
+ */
+public class StreamingStatReader implements IStatReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final Supplier<? extends IMutableWordTable> tableFactory;
+    private final SnapshotWriter snapshots;
+    private final long intervalMillis;
+    private final long snapshotTokens;
+
+    private final Object tableLock = new Object();
+    private final AtomicBoolean snapshotPending = new AtomicBoolean();
+    private IMutableWordTable table;
+    private long tokens;
+
+    /**
+     * Создает новый экземпляр {@code StreamingStatReader} без промежуточных снимков.
+     *
+     * @param in входной поток; закрывается после чтения.
+     */
+    public StreamingStatReader(InputStream in) {
+        this(Channels.newChannel(in), WordCountTable::new, null, 0, 0);
+    }
+
+    /**
+     * Создает новый экземпляр {@code StreamingStatReader}.
+     *
+     * @param channel входной канал; закрывается после чтения.
+     * @param tableFactory фабрика таблицы слов.
+     * @param snapshots получатель промежуточных снимков или {@code null}, если снимки не нужны.
+     * @param intervalMillis период снимков в миллисекундах; {@code 0} — без снимков по времени.
+     * @param snapshotTokens через сколько слов делать снимок; {@code 0} — без снимков по количеству слов.
+     */
+    public StreamingStatReader(ReadableByteChannel channel, Supplier<? extends IMutableWordTable> tableFactory,
+                               SnapshotWriter snapshots, long intervalMillis, long snapshotTokens) {
+        if (intervalMillis < 0 || snapshotTokens < 0) {
+            throw new IllegalArgumentException("Snapshot interval and token count must not be negative");
+        }
+        this.channel = channel;
+        this.tableFactory = tableFactory;
+        this.snapshots = snapshots;
+        this.intervalMillis = intervalMillis;
+        this.snapshotTokens = snapshotTokens;
+    }
+
+    @Override
+    public Multiset<String> getWordStatMultiset() {
+        return WordTables.toMultiset(getWordTable());
+    }
+
+    @Override
+    public synchronized IWordTable getWordTable() {
+        if (table == null) {
+            table = tableFactory.get();
+            read();
+        }
+        return table;
+    }
+
+    private void read() {
+        boolean snapshotsEnabled = snapshots != null && (intervalMillis > 0 || snapshotTokens > 0);
+        ScheduledExecutorService scheduler = !snapshotsEnabled ? null : Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (scheduler != null && intervalMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::snapshot, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        Utf8Tokenizer tokenizer = new Utf8Tokenizer((buffer, offset, length) -> {
+            table.add(buffer, offset, length);
+            tokens++;
+        });
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long nextSnapshot = snapshotTokens;
+
+        try (channel) {
+            while (channel.read(buffer.clear()) != -1) {
+                synchronized (tableLock) {
+                    tokenizer.feed(buffer.array(), 0, buffer.position());
+                }
+                if (scheduler != null && snapshotTokens > 0 && tokens >= nextSnapshot) {
+                    nextSnapshot = tokens + snapshotTokens;
+                    if (snapshotPending.compareAndSet(false, true)) {
+                        scheduler.execute(this::snapshot);
+                    }
+                }
+            }
+            synchronized (tableLock) {
+                tokenizer.finish();
+            }
+
+        } catch (IOException e) {
+            throw new InvalidReadFromFileException("Failed reading from stream: " + e.getMessage());
+        } finally {
+            if (scheduler != null) {
+                awaitSnapshots(scheduler);
+            }
+        }
+    }
+
+    private void snapshot() {
+        snapshotPending.set(false);
+        IWordTable snapshot;
+        synchronized (tableLock) {
+            snapshot = snapshots.capture(table);
+        }
+
+        try {
+            snapshots.publish(snapshot);
+        } catch (RuntimeException e) {
+            System.err.println("Can't write snapshot: " + e.getMessage());
+        }
+    }
+
+    private static void awaitSnapshots(ScheduledExecutorService scheduler) {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -1,31 +1,34 @@
 package nsu.parser.io;
 
+import nsu.parser.exceptions.OutputWriteException;
+import nsu.parser.io.interfaces.IWordTable;
 import nsu.parser.io.interfaces.IWriter;
+import nsu.parser.metrics.Metrics;
+import nsu.parser.tables.WordRanking;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.util.List;
-import java.util.stream.Stream;
-import java.util.stream.Collectors;
-import java.util.Comparator;
 
 import com.google.common.collect.Multiset;
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
 
 /**
  * Класс {@code Writer} выполняет сортировку слов по их количеству в тексте и записывает результат в выходной CSV-файл.
- * <p>Использует {@link Multimap} для хранения отсортированной информации, где ключом является количество вхождений слова, 
- * а значением — само слово.</p>
+ * <p>Порядок строк детерминирован: по убыванию количества вхождений, при равном количестве — по возрастанию слова.
+ * Упорядочивание выполняет {@link WordRanking}: слова группируются по количеству сортировкой подсчётом
+ * (или поразрядной сортировкой при очень больших количествах), а не общей сортировкой сравнением.</p>
  *
  * <p><b>Основные функции:</b></p>
  * <ul>
  *     <li>Сортирует слова по количеству их вхождений в текст.</li>
+ *     <li>В режиме {@code topN} выбирает только {@code topN} самых частых слов ограниченной кучей,
+ *         не сортируя всю таблицу.</li>
  *     <li>Сохраняет отсортированные данные в CSV-файл с разделителем табуляции.</li>
+ *     <li>Для приблизительной таблицы ({@link IWordTable#isApproximate()}) добавляет третью колонку —
+ *         максимальную ошибку количества.</li>
+ *     <li>Если файл не удалось открыть или записать, бросает {@link OutputWriteException}.</li>
  * </ul>
  *
  * <p><b>Пример использования:</b></p>
@@ -39,12 +42,12 @@ import com.google.common.collect.Multimap;
  * }</pre>
  *
  * @see Multiset
- * @see Multimap
- * @see HashMultimap
+ * @see WordRanking
  * @see IWriter
  */
 public class Writer implements IWriter {
     private Path outputFilePath;
+    private final int topN;
 
      /**
      * Конструктор {@code Writer}, инициализирующий путь для записи выходного файла.
@@ -52,38 +55,48 @@ public class Writer implements IWriter {
      * @param outputFilePath путь к выходному файлу CSV.
      */
     public Writer(String outputFilePath) {
-        this.outputFilePath = Path.of(outputFilePath);
+        this(outputFilePath, 0);
     }
 
     /**
-     * Сортирует слова по количеству их вхождений и записывает результаты в CSV-файл.
+     * Конструктор {@code Writer}, записывающий только {@code topN} самых частых слов.
      *
-     * @param wordStatMultiset {@link Multiset} с количеством каждого слова.
+     * @param outputFilePath путь к выходному файлу CSV.
+     * @param topN сколько слов записать; {@code 0} — все слова.
      */
-    @Override
-    public void writeCSV(Multiset<String> wordStatMultiset) {
-        var sortedWordCountMap = getSortedMap(wordStatMultiset);
-        writeFromSortedMap(sortedWordCountMap);
+    public Writer(String outputFilePath, int topN) {
+        if (topN < 0) {
+            throw new IllegalArgumentException("Top N must not be negative: " + topN);
+        }
+        this.outputFilePath = Path.of(outputFilePath);
+        this.topN = topN;
     }
 
-    private Multimap<Integer, String> getSortedMap(Multiset<String> wordStatMultiset) {
-        Multimap<Integer, String> sortedMap = HashMultimap.create();
-
-        wordStatMultiset.entrySet().stream()
-        .sorted(Comparator.comparingInt((Multiset.Entry<String> entry) -> entry.getCount()))
-        .forEach(entry -> sortedMap.put(entry.getCount(), entry.getElement()));
-
-        return sortedMap;
+    /**
+     * Сортирует слова из таблицы по количеству их вхождений и записывает результаты в CSV-файл.
+     * Таблица обходится напрямую, без копирования в {@link Multiset}.
+     *
+     * @param wordTable {@link IWordTable} с количеством каждого слова.
+     */
+    @Override
+    public void write(IWordTable wordTable) {
+        var ranking = topN > 0 ? WordRanking.top(wordTable, topN) : WordRanking.sorted(wordTable);
+        writeFromRanking(ranking);
     }
 
-    private void writeFromSortedMap(Multimap<Integer, String> sortedWordCountMap) {
-        try (BufferedWriter writer = Files.newBufferedWriter(outputFilePath, StandardOpenOption.CREATE)) {
-            for (var countAndWordPair : sortedWordCountMap.entries()) {
-                writer.write(countAndWordPair.getValue() + "\t" + countAndWordPair.getKey());
+    private void writeFromRanking(WordRanking ranking) {
+        try (BufferedWriter writer = Files.newBufferedWriter(outputFilePath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < ranking.size(); i++) {
+                writer.write(ranking.word(i) + "\t" + ranking.count(i));
+                if (ranking.isApproximate()) {
+                    writer.write("\t" + ranking.error(i));
+                }
                 writer.newLine();
             }
+            Metrics.global().addWritten(ranking.size(), 0);
         } catch (IOException e) {
-            System.err.println("Can't open/create output file: " + outputFilePath);
+            throw new OutputWriteException("Can't open/create output file: " + outputFilePath, e);
         }
     }
     
@@ -0,0 +1,135 @@
+package nsu.parser.io.compression;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Ограниченное кольцо буферов между потоком распаковки и потоком разбора слов.
+ * <p>
+ * Буферы ходят по кругу: производитель берёт свободный буфер, заполняет его и публикует, потребитель
+ * забирает заполненный буфер и после разбора возвращает его свободным. Когда все буферы заполнены,
+ * производитель ждёт, поэтому распаковка не убегает вперёд разбора и память не растёт.
+ * </p>
+ */
+final class BufferRing {
+    private static final Chunk END = new Chunk(new byte[0]);
+
+    private final BlockingQueue<Chunk> free;
+    private final BlockingQueue<Chunk> filled;
+    private volatile Throwable failure;
+    private volatile boolean last;
+
+    private Chunk current;
+
+    BufferRing(int buffers, int bufferSize) {
+        free = new ArrayBlockingQueue<>(buffers);
+        filled = new ArrayBlockingQueue<>(buffers + 1);
+        for (int i = 0; i < buffers; i++) {
+            free.add(new Chunk(new byte[bufferSize]));
+        }
+    }
+
+    /**
+     * Заполненная часть буфера кольца.
+     */
+    static final class Chunk {
+        final byte[] data;
+        int length;
+
+        Chunk(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    /**
+     * Возвращает свободный буфер; ждёт, пока потребитель не освободит хотя бы один.
+     */
+    Chunk acquire() throws InterruptedException {
+        Chunk chunk = free.take();
+        chunk.length = 0;
+        return chunk;
+    }
+
+    void publish(Chunk chunk) throws InterruptedException {
+        filled.put(chunk);
+    }
+
+    /**
+     * Копирует байты в текущий буфер производителя, публикуя буферы по мере заполнения.
+     */
+    void write(byte[] buffer, int offset, int length) throws InterruptedException {
+        while (length > 0) {
+            if (current == null) {
+                current = acquire();
+            }
+            int count = Math.min(length, current.data.length - current.length);
+            System.arraycopy(buffer, offset, current.data, current.length, count);
+            current.length += count;
+            offset += count;
+            length -= count;
+            if (current.length == current.data.length) {
+                publish(current);
+                current = null;
+            }
+        }
+    }
+
+    /**
+     * Публикует недозаполненный буфер и отмечает конец данных.
+     */
+    void finish() throws InterruptedException {
+        finish(false);
+    }
+
+    /**
+     * Публикует недозаполненный буфер и отмечает конец данных.
+     *
+     * @param last {@code true}, если в этом кольце кончаются данные всего потока и следующие кольца
+     *             читать не нужно.
+     */
+    void finish(boolean last) throws InterruptedException {
+        this.last = last;
+        if (current != null && current.length > 0) {
+            publish(current);
+        }
+        current = null;
+        filled.offer(END);
+    }
+
+    /**
+     * Отмечает конец данных из-за ошибки; потребитель получит её из {@link #take()}.
+     */
+    void fail(Throwable cause) {
+        failure = cause;
+        filled.offer(END);
+    }
+
+    /**
+     * Возвращает следующий заполненный буфер или {@code null} в конце данных.
+     */
+    Chunk take() throws IOException, InterruptedException {
+        Chunk chunk = filled.take();
+        if (chunk != END) {
+            return chunk;
+        }
+        filled.offer(END);
+        if (failure != null) {
+            throw failure instanceof IOException ? (IOException) failure : new IOException(failure.getMessage(), failure);
+        }
+        return null;
+    }
+
+    /**
+     * Проверяет, закончились ли в этом кольце данные всего потока; имеет смысл после того,
+     * как {@link #take()} вернул {@code null}.
+     */
+    boolean isLast() {
+        return last;
+    }
+
+    void release(Chunk chunk) {
+        free.offer(chunk);
+    }
+
+}
@@ -0,0 +1,198 @@
+package nsu.parser.io.compression;
+
+import nsu.parser.exceptions.*;
+import nsu.parser.metrics.Metrics;
+import nsu.parser.metrics.Stage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Перечисление {@code Compression} — форматы сжатия входного файла, определяемые по первым байтам
+ * (сигнатуре), а не по расширению.
+ * <p>
+ * {@link #open(Path, int)} возвращает поток уже распакованных байтов. Распаковка идёт в отдельном потоке
+ * и передаётся читателю через ограниченное кольцо буферов, поэтому распаковка и разбор слов выполняются
+ * одновременно, а на диск ничего не распаковывается.
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>{@link #GZIP} распаковывается {@link GZIPInputStream}; если разрешено больше одного потока, файл
+ *         достаточно велик и в нём нашлось больше одного участка, участки распаковываются параллельно.</li>
+ *     <li>{@link #ZSTD} требует необязательную библиотеку {@code zstd-jni} в classpath; без неё бросается
+ *         {@link UnsupportedCompressionException}. Других зависимостей, в том числе сетевых, нет.</li>
+ *     <li>{@link #NONE} открывается как обычный файл, без дополнительного потока.</li>
+ * </ul>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * try (InputStream in = Compression.open(Path.of("corpus.txt.gz"), 4)) {
+ *     tokenizer.feed(...);
+ * }
+ * }</pre>
+ *
+ * @see nsu.parser.io.FastStatReader
+ */
+public enum Compression {
+    NONE,
+    GZIP,
+    ZSTD;
+
+    private static final int GZIP_MAGIC = 0x1F8B;
+    private static final int ZSTD_MAGIC = 0xFD2FB528;
+    private static final String ZSTD_STREAM_CLASS = "com.github.luben.zstd.ZstdInputStream";
+
+    private static final int RING_BUFFERS = 8;
+    private static final int BUFFER_SIZE = 1 << 18;
+    private static final long MIN_PARALLEL_SIZE = 8L << 20;
+
+    /**
+     * Определяет формат сжатия файла по сигнатуре.
+     *
+     * @param path путь к файлу.
+     * @return формат сжатия или {@link #NONE}.
+     * @throws IOException если файл не удалось прочитать.
+     */
+    public static Compression detect(Path path) throws IOException {
+        byte[] magic = new byte[4];
+        int length;
+        try (InputStream in = Files.newInputStream(path)) {
+            length = in.readNBytes(magic, 0, magic.length);
+        }
+
+        if (length >= 2 && ((magic[0] & 0xFF) << 8 | (magic[1] & 0xFF)) == GZIP_MAGIC) {
+            return GZIP;
+        }
+        if (length == 4 && ((magic[0] & 0xFF) | (magic[1] & 0xFF) << 8 | (magic[2] & 0xFF) << 16
+                | (magic[3] & 0xFF) << 24) == ZSTD_MAGIC) {
+            return ZSTD;
+        }
+        return NONE;
+    }
+
+    /**
+     * Открывает файл и, если он сжат, распаковывает его в фоновом потоке.
+     *
+     * @param path путь к файлу.
+     * @param threads сколько потоков можно занять распаковкой многочастного gzip.
+     * @return поток распакованных байтов; его закрытие останавливает распаковку.
+     * @throws IOException если файл не удалось открыть.
+     * @throws UnsupportedCompressionException если для формата нет распаковщика.
+     */
+    public static InputStream open(Path path, int threads) throws IOException {
+        switch (detect(path)) {
+            case GZIP:
+                if (threads > 1 && Files.size(path) >= MIN_PARALLEL_SIZE) {
+                    InputStream members = openMembers(path, threads);
+                    if (members != null) {
+                        return members;
+                    }
+                }
+                return pipeline(() -> new GZIPInputStream(Files.newInputStream(path), BUFFER_SIZE));
+            case ZSTD:
+                checkZstdAvailable();
+                return pipeline(() -> zstdInputStream(Files.newInputStream(path)));
+            default:
+                return Files.newInputStream(path);
+        }
+    }
+
+    /**
+     * Распаковывает участки gzip параллельно или возвращает {@code null}, если в файле нашёлся только
+     * первый участок.
+     */
+    private static InputStream openMembers(Path path, int threads) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long[] starts = GzipMembers.memberStarts(channel, threads);
+            if (starts.length > 1) {
+                return GzipMembers.open(channel, starts, RING_BUFFERS, BUFFER_SIZE, DecompressorThreads.INSTANCE);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        channel.close();
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface StreamOpener {
+        InputStream open() throws IOException;
+    }
+
+    private static InputStream pipeline(StreamOpener opener) {
+        BufferRing ring = new BufferRing(RING_BUFFERS, BUFFER_SIZE);
+        ExecutorService worker = Executors.newSingleThreadExecutor(DecompressorThreads.INSTANCE);
+        worker.execute(() -> {
+            try (InputStream in = opener.open()) {
+                while (true) {
+                    BufferRing.Chunk chunk = ring.acquire();
+                    chunk.length = in.readNBytes(chunk.data, 0, chunk.data.length);
+                    if (chunk.length == 0) {
+                        ring.release(chunk);
+                        break;
+                    }
+                    ring.publish(chunk);
+                }
+                ring.finish();
+
+            } catch (Throwable e) {
+                ring.fail(e);
+            }
+        });
+        worker.shutdown();
+        return new PipelinedInputStream(List.of(ring), worker);
+    }
+
+    private static void checkZstdAvailable() {
+        try {
+            Class.forName(ZSTD_STREAM_CLASS);
+        } catch (ClassNotFoundException e) {
+            throw new UnsupportedCompressionException("Zstandard input requires zstd-jni on the classpath");
+        }
+    }
+
+    private static InputStream zstdInputStream(InputStream in) throws IOException {
+        try {
+            return (InputStream) Class.forName(ZSTD_STREAM_CLASS).getConstructor(InputStream.class).newInstance(in);
+        } catch (InvocationTargetException e) {
+            in.close();
+            throw new IOException("Failed opening Zstandard stream", e.getCause());
+        } catch (ReflectiveOperationException | LinkageError e) {
+            in.close();
+            throw new IOException("Failed opening Zstandard stream", e);
+        }
+    }
+
+    private enum DecompressorThreads implements ThreadFactory {
+        INSTANCE;
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(() -> {
+                Metrics metrics = Metrics.global();
+                long cpuNanos = metrics.threadCpuNanos();
+                try {
+                    runnable.run();
+                } finally {
+                    metrics.addWorkerCpu(Stage.READ, metrics.threadCpuNanos() - cpuNanos);
+                }
+            }, "decompressor");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,339 @@
+package nsu.parser.io.compression;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Параллельная распаковка gzip-файла из нескольких участков ({@code cat a.gz b.gz}, {@code bgzip} и т. п.).
+ * <p>
+ * {@link #memberStarts(FileChannel, int)} заранее делит файл на {@code parts} диапазонов байтов и ищет
+ * в начале каждого, не дальше {@value #SCAN_LIMIT} байт, заголовок участка gzip, проверяя находку пробной
+ * распаковкой. Затем каждый найденный диапазон обрабатывает свой поток: распаковывает участки подряд, пока
+ * не дойдёт до начала следующего диапазона. Участки распаковываются {@link Inflater} напрямую, чтобы знать,
+ * где каждый из них кончается; контрольная сумма и длина каждого участка проверяются.
+ * </p>
+ * <p>
+ * Первый диапазон распаковывается сразу в своё {@link BufferRing}, и разбор слов начинается без ожидания.
+ * Остальные потоки не могут отдать данные, пока потребитель не прочитает все предыдущие диапазоны, поэтому
+ * распаковывают свой диапазон целиком во временный файл в {@code java.io.tmpdir} и только потом переписывают
+ * его в кольцо. Так распаковка всех диапазонов идёт одновременно, а {@link PipelinedInputStream} читает кольца
+ * по порядку, и байты выходят в исходном порядке.
+ * </p>
+ * <p>
+ * Если участок диапазона заканчивается дальше начала следующего (найденная сигнатура оказалась случайным
+ * совпадением внутри сжатых данных) или за ним нет заголовка, поток распаковывает файл дальше последовательно,
+ * как {@link java.util.zip.GZIPInputStream}, а результаты следующих диапазонов отбрасываются.
+ * Если заголовок найден только в начале файла (файл из одного участка или из нескольких очень больших),
+ * параллельно распаковывать нечего, и {@link Compression} читает файл одним {@link java.util.zip.GZIPInputStream}.
+ * </p>
+ */
+final class GzipMembers {
+    private static final int ID1 = 0x1F;
+    private static final int ID2 = 0x8B;
+    private static final int DEFLATE = 8;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final int RESERVED_FLAGS = 0xE0;
+    private static final int HEADER_SIZE = 10;
+    private static final int TRAILER_SIZE = 8;
+
+    private static final int INPUT_BUFFER_SIZE = 1 << 16;
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    private static final int PROBE_SIZE = 1 << 16;
+    private static final int SCAN_LIMIT = 1 << 20;
+    private static final long NO_MEMBER = -1;
+
+    private GzipMembers() {
+    }
+
+    @FunctionalInterface
+    private interface Output {
+        void write(byte[] buffer, int offset, int length) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Ищет начала участков, с которых могут начать распаковку отдельные потоки. Первое смещение всегда
+     * {@code 0}; если возвращено только оно, файл выгоднее распаковать одним потоком.
+     *
+     * @param channel сжатый файл.
+     * @param parts на сколько диапазонов делится файл.
+     * @return возрастающие смещения начал участков.
+     * @throws IOException если файл не удалось прочитать.
+     */
+    static long[] memberStarts(FileChannel channel, int parts) throws IOException {
+        Source source = new Source(channel, channel.size());
+        if (headerEnd(source, 0) < 0) {
+            return new long[] {0};
+        }
+
+        long[] starts = new long[parts];
+        int count = 1;
+        for (int part = 1; part < parts; part++) {
+            long from = source.size * part / parts;
+            long to = Math.min(source.size * (part + 1) / parts, from + SCAN_LIMIT);
+            long start = findMemberStart(source, from, to);
+            if (start != NO_MEMBER) {
+                starts[count++] = start;
+            }
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
+    static InputStream open(FileChannel channel, long[] starts, int ringBuffers, int bufferSize,
+                            ThreadFactory threadFactory) throws IOException {
+        long size = channel.size();
+        List<BufferRing> rings = new ArrayList<>();
+        for (int part = 0; part < starts.length; part++) {
+            rings.add(new BufferRing(ringBuffers, bufferSize));
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(starts.length, threadFactory);
+        AtomicInteger running = new AtomicInteger(starts.length);
+        for (int part = 0; part < starts.length; part++) {
+            int index = part;
+            long stop = index + 1 < starts.length ? starts[index + 1] : size;
+            workers.execute(() -> {
+                try {
+                    decodePart(new Source(channel, size), index, starts[index], stop, rings.get(index));
+                } catch (Throwable e) {
+                    rings.get(index).fail(e);
+                } finally {
+                    if (running.decrementAndGet() == 0) {
+                        closeQuietly(channel);
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        return new PipelinedInputStream(rings, workers);
+    }
+
+    private static void decodePart(Source source, int part, long start, long stop, BufferRing ring)
+            throws IOException, InterruptedException {
+        if (part == 0) {
+            ring.finish(decodeMembers(source, start, stop, ring::write));
+            return;
+        }
+
+        Path spool = Files.createTempFile("csv-parser-gzip-", ".part");
+        try {
+            boolean last;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(spool), OUTPUT_BUFFER_SIZE)) {
+                last = decodeMembers(source, start, stop, out::write);
+            }
+            try (InputStream in = Files.newInputStream(spool)) {
+                byte[] buffer = new byte[OUTPUT_BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    ring.write(buffer, 0, read);
+                }
+            }
+            ring.finish(last);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    /**
+     * Распаковывает участки от {@code start} до начала следующего диапазона {@code stop}.
+     *
+     * @return {@code true}, если распаковка дошла до конца данных файла и следующие диапазоны не нужны.
+     */
+    private static boolean decodeMembers(Source source, long start, long stop, Output output)
+            throws IOException, InterruptedException {
+        long position = start;
+        while (position != stop) {
+            if (position != start && headerEnd(source, position) < 0) {
+                return true; // как и GZIPInputStream, данные после последнего целого участка игнорируются
+            }
+            position = inflateMember(source, position, output, Long.MAX_VALUE);
+            if (position > stop) {
+                stop = source.size; // начало следующего диапазона ложное: дальше файл читается последовательно
+            }
+        }
+        return stop == source.size;
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Канал только читался, все данные уже переданы в кольца.
+        }
+    }
+
+    private static long findMemberStart(Source source, long from, long to) throws IOException {
+        for (long position = from; position < to; position++) {
+            if (source.byteAt(position) != ID1 || source.byteAt(position + 1) != ID2
+                    || source.byteAt(position + 2) != DEFLATE) {
+                continue;
+            }
+            try {
+                inflateMember(source, position, (buffer, offset, length) -> { }, PROBE_SIZE);
+                return position;
+            } catch (IOException | InterruptedException e) {
+                // Случайное совпадение с сигнатурой внутри сжатых данных.
+            }
+        }
+        return NO_MEMBER;
+    }
+
+    private static long headerEnd(Source source, long position) throws IOException {
+        int flags = source.byteAt(position + 3);
+        if (source.byteAt(position) != ID1 || source.byteAt(position + 1) != ID2
+                || source.byteAt(position + 2) != DEFLATE || flags < 0 || (flags & RESERVED_FLAGS) != 0) {
+            return -1;
+        }
+
+        long end = position + HEADER_SIZE;
+        if ((flags & FEXTRA) != 0) {
+            int low = source.byteAt(end);
+            int high = source.byteAt(end + 1);
+            if (low < 0 || high < 0) {
+                return -1;
+            }
+            end += 2 + (low | high << 8);
+        }
+        if ((flags & FNAME) != 0) {
+            end = skipZeroTerminated(source, end);
+        }
+        if ((flags & FCOMMENT) != 0 && end >= 0) {
+            end = skipZeroTerminated(source, end);
+        }
+        if ((flags & FHCRC) != 0 && end >= 0) {
+            end += 2;
+        }
+        return end >= 0 && end <= source.size ? end : -1;
+    }
+
+    private static long skipZeroTerminated(Source source, long position) throws IOException {
+        int value;
+        while ((value = source.byteAt(position++)) > 0) {
+            // пропускаем имя файла или комментарий
+        }
+        return value < 0 ? -1 : position;
+    }
+
+    /**
+     * Распаковывает участок, начинающийся с {@code position}, и возвращает смещение следующего участка.
+     * Если распаковано {@code outputLimit} байт, возвращает {@code -1}, не дочитывая участок.
+     */
+    private static long inflateMember(Source source, long position, Output output, long outputLimit)
+            throws IOException, InterruptedException {
+        long inputPosition = headerEnd(source, position);
+        if (inputPosition < 0) {
+            throw new ZipException("Not in GZIP format at offset " + position);
+        }
+
+        Inflater inflater = new Inflater(true);
+        CRC32 crc = new CRC32();
+        byte[] input = new byte[INPUT_BUFFER_SIZE];
+        byte[] buffer = new byte[OUTPUT_BUFFER_SIZE];
+        long size = 0;
+        try {
+            while (!inflater.finished()) {
+                if (inflater.needsInput()) {
+                    int read = source.read(inputPosition, input);
+                    if (read <= 0) {
+                        throw new EOFException("Unexpected end of gzip member at offset " + position);
+                    }
+                    inflater.setInput(input, 0, read);
+                    inputPosition += read;
+                }
+
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && inflater.needsDictionary()) {
+                    throw new ZipException("Unsupported gzip preset dictionary at offset " + position);
+                }
+                crc.update(buffer, 0, inflated);
+                output.write(buffer, 0, inflated);
+                size += inflated;
+                if (size >= outputLimit) {
+                    return -1;
+                }
+            }
+
+            long trailer = inputPosition - inflater.getRemaining();
+            if (source.int32At(trailer) != (int) crc.getValue() || source.int32At(trailer + 4) != (int) size) {
+                throw new ZipException("Corrupt gzip trailer at offset " + trailer);
+            }
+            return trailer + TRAILER_SIZE;
+
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Чтение сжатого файла по произвольным смещениям; у каждого потока свой экземпляр.
+     */
+    private static final class Source {
+        private final FileChannel channel;
+        private final long size;
+        private final ByteBuffer window = ByteBuffer.allocate(INPUT_BUFFER_SIZE);
+        private long windowStart;
+        private int windowLength;
+
+        Source(FileChannel channel, long size) {
+            this.channel = channel;
+            this.size = size;
+        }
+
+        int read(long position, byte[] buffer) throws IOException {
+            if (position >= size) {
+                return -1;
+            }
+            return channel.read(ByteBuffer.wrap(buffer), position);
+        }
+
+        int byteAt(long position) throws IOException {
+            if (position >= size) {
+                return -1;
+            }
+            if (position < windowStart || position >= windowStart + windowLength) {
+                window.clear();
+                windowLength = Math.max(0, channel.read(window, position));
+                windowStart = position;
+                if (windowLength == 0) {
+                    return -1;
+                }
+            }
+            return window.get((int) (position - windowStart)) & 0xFF;
+        }
+
+        int int32At(long position) throws IOException {
+            int value = 0;
+            for (int i = 3; i >= 0; i--) {
+                int b = byteAt(position + i);
+                if (b < 0) {
+                    throw new EOFException("Unexpected end of gzip trailer at offset " + position);
+                }
+                value = value << 8 | b;
+            }
+            return value;
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package nsu.parser.io.compression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Поток, отдающий данные из нескольких {@link BufferRing} по очереди: сначала всё из первого кольца,
+ * затем из второго и так далее. Кольца заполняются задачами {@code workers}; при закрытии потока
+ * задачи прерываются, даже если данные прочитаны не до конца. Кольцо, закончившееся с отметкой
+ * {@link BufferRing#isLast()}, завершает поток: следующие кольца не читаются, а их задачи прерываются.
+ */
+final class PipelinedInputStream extends InputStream {
+    private final List<BufferRing> rings;
+    private final ExecutorService workers;
+
+    private int ringIndex;
+    private BufferRing.Chunk chunk;
+    private int position;
+
+    PipelinedInputStream(List<BufferRing> rings, ExecutorService workers) {
+        this.rings = rings;
+        this.workers = workers;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        while (chunk == null || position == chunk.length) {
+            if (!nextChunk()) {
+                return -1;
+            }
+        }
+
+        int count = Math.min(length, chunk.length - position);
+        System.arraycopy(chunk.data, position, buffer, offset, count);
+        position += count;
+        return count;
+    }
+
+    private boolean nextChunk() throws IOException {
+        if (chunk != null) {
+            rings.get(ringIndex).release(chunk);
+            chunk = null;
+        }
+        try {
+            while (ringIndex < rings.size()) {
+                chunk = rings.get(ringIndex).take();
+                if (chunk != null) {
+                    position = 0;
+                    return true;
+                }
+                if (rings.get(ringIndex).isLast()) {
+                    ringIndex = rings.size();
+                    workers.shutdownNow();
+                    break;
+                }
+                ringIndex++;
+            }
+            return false;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for decompressed data");
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+}
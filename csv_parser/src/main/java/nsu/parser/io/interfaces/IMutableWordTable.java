@@ -0,0 +1,63 @@
+package nsu.parser.io.interfaces;
+
+/**
+ * Интерфейс {@code IMutableWordTable} — таблица слов, в которую реализации {@link IStatReader}
+ * добавляют слова, заданные срезами байтового массива в кодировке UTF-8.
+ * <p>
+ * Позволяет подключать к читателям разные способы хранения счётчиков (в куче, вне кучи и т.д.),
+ * не меняя токенизацию. Метод {@link #forEachKey(EntryVisitor)} обходит таблицу без создания строк.
+ * </p>
+ *
+ * @see IWordTable
+ * @see nsu.parser.tables.WordCountTable
+ * @see nsu.parser.tables.OffHeapWordTable
+ */
+public interface IMutableWordTable extends IWordTable {
+
+    /**
+     * Увеличивает на единицу счётчик слова, заданного срезом массива.
+     *
+     * @param buffer массив с байтами слова.
+     * @param offset индекс первого байта слова.
+     * @param length длина слова в байтах.
+     */
+    public default void add(byte[] buffer, int offset, int length) {
+        add(buffer, offset, length, 1);
+    }
+
+    /**
+     * Увеличивает на {@code count} счётчик слова, заданного срезом массива.
+     *
+     * @param buffer массив с байтами слова.
+     * @param offset индекс первого байта слова.
+     * @param length длина слова в байтах.
+     * @param count на сколько увеличить счётчик.
+     */
+    public void add(byte[] buffer, int offset, int length, long count);
+
+    /**
+     * Передаёт байты каждого слова и его количество в {@code visitor}. Порядок обхода не определён.
+     * Массив, переданный в {@code visitor}, может переиспользоваться между вызовами.
+     *
+     * @param visitor обработчик записи таблицы.
+     */
+    public void forEachKey(EntryVisitor visitor);
+
+    /**
+     * Переносит в таблицу все слова и счётчики из {@code other}.
+     *
+     * @param other таблица, счётчики которой прибавляются к текущей.
+     */
+    public default void mergeFrom(IMutableWordTable other) {
+        other.forEachKey(this::add);
+    }
+
+    /**
+     * Обработчик записи таблицы: слова в виде среза массива UTF-8 и его количества.
+     */
+    @FunctionalInterface
+    public interface EntryVisitor {
+        public void visit(byte[] buffer, int offset, int length, long count);
+    }
+
+}
@@ -2,6 +2,8 @@ package nsu.parser.io.interfaces;
 
 import java.io.FileNotFoundException;
 
+import nsu.parser.tables.WordTables;
+
 import com.google.common.collect.Multiset;
 
 /**
@@ -39,4 +41,18 @@ public interface IStatReader {
      */
     public Multiset<String> getWordStatMultiset();
 
+    /**
+     * Считывает слова из входного файла и возвращает их количество в виде {@link IWordTable}.
+     * <p>
+     * Реализация по умолчанию оборачивает результат {@link #getWordStatMultiset()}. Реализации,
+     * которые считают слова в собственной таблице, возвращают её напрямую без ограничения
+     * {@link Multiset} на {@link Integer#MAX_VALUE} вхождений.
+     * </p>
+     *
+     * @return таблица со словами и количеством их вхождений.
+     */
+    public default IWordTable getWordTable() {
+        return WordTables.fromMultiset(getWordStatMultiset());
+    }
+
 }
\ No newline at end of file
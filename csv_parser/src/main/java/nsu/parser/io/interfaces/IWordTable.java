@@ -0,0 +1,73 @@
+package nsu.parser.io.interfaces;
+
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Интерфейс {@code IWordTable} определяет контракт для таблиц «слово → количество»,
+ * которые строят реализации {@link IStatReader} и принимают реализации {@link IWriter}.
+ * <p>
+ * В отличие от {@link com.google.common.collect.Multiset}, количество хранится в {@code long},
+ * поэтому таблица не ограничена значением {@link Integer#MAX_VALUE} для одного слова.
+ * </p>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * IWordTable table = new FastStatReader(Path.of("input.txt")).getWordTable();
+ * table.forEachEntry((word, count) -> System.out.println(word + ": " + count));
+ * }</pre>
+ *
+ * @see IStatReader#getWordTable()
+ * @see IWriter#write(IWordTable)
+ */
+public interface IWordTable {
+
+    /**
+     * Возвращает количество вхождений слова.
+     *
+     * @param word слово.
+     * @return количество вхождений или {@code 0}, если слова нет в таблице.
+     */
+    public long count(String word);
+
+    /**
+     * Возвращает количество уникальных слов.
+     *
+     * @return количество уникальных слов.
+     */
+    public int distinctSize();
+
+    /**
+     * Возвращает суммарное количество вхождений всех слов.
+     *
+     * @return суммарное количество вхождений.
+     */
+    public long totalCount();
+
+    /**
+     * Передаёт каждое слово и его количество в {@code action}. Порядок обхода не определён.
+     *
+     * @param action обработчик пары «слово, количество».
+     */
+    public void forEachEntry(ObjLongConsumer<String> action);
+
+    /**
+     * Проверяет, являются ли количества приблизительными, как в {@link nsu.parser.tables.SpaceSavingTable}.
+     *
+     * @return {@code true}, если количества являются оценками сверху с ограниченной ошибкой.
+     */
+    public default boolean isApproximate() {
+        return false;
+    }
+
+    /**
+     * Возвращает максимальную ошибку количества слова: настоящее количество лежит в отрезке
+     * {@code [count(word) - error(word), count(word)]}.
+     *
+     * @param word слово.
+     * @return ошибка количества; у точных таблиц всегда {@code 0}.
+     */
+    public default long error(String word) {
+        return 0;
+    }
+
+}
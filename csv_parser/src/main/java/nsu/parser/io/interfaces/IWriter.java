@@ -1,14 +1,14 @@
 package nsu.parser.io.interfaces;
 
 import nsu.parser.io.*;
+import nsu.parser.tables.WordTables;
 
 import com.google.common.collect.Multiset;
-import com.google.common.collect.Multimap;
 
 /**
  * Интерфейс {@code IWriter} определяет контракт для классов, 
  * реализующих функциональность сортировки слов по их количеству во входном файле 
- * и записи результатов в выходной файл в формате CSV.
+ * и записи результатов в выходной файл.
  * <p>
  * Основное предназначение — обеспечение единого способа сохранения статистики слов 
  * после их подсчёта. Сортировка, как правило, производится по количеству вхождений слов 
@@ -18,27 +18,54 @@ import com.google.common.collect.Multimap;
  * <p><b>Особенности:</b></p>
  * <ul>
  *     <li>Сортировка коллекции слов по количеству вхождений.</li>
- *     <li>Запись отсортированных данных в CSV-файл.</li>
+ *     <li>Запись отсортированных данных в выходной файл.</li>
  *     <li>Гибкость для различных реализаций записи.</li>
  * </ul>
  *
+ * <p>Формат выходного файла определяет реализация: {@link #write(IWordTable)} записывает
+ * текст ({@link Writer}, {@link CsvWriter}) или двоичный файл для загрузчиков ({@link BinaryWriter},
+ * {@link ColumnarWriter}). Новый двоичный формат удобно строить на {@link AbstractChannelWriter}.
+ * Методы {@code writeCSV} оставлены для совместимости и вызывают {@link #write(IWordTable)}.</p>
+ *
  * <p><b>Пример использования:</b></p>
  * <pre>{@code
- * IWriter writer = new Writer(Path.of("output.csv"));
- * Multiset<String> wordStats = ...; // Получение статистики слов
- * writer.writeCSV(wordStats);       // Запись в CSV
+ * IWriter writer = new Writer("output.csv");
+ * IWordTable wordTable = ...; // Получение статистики слов
+ * writer.write(wordTable);    // Запись в формате писателя
  * }</pre>
  *
- * @see Multiset
+ * @see IWordTable
  */
 public interface IWriter {
-    
+
+    /**
+     * Сортирует слова из таблицы по количеству вхождений и записывает результат в выходной файл
+     * в формате реализации.
+     *
+     * @param wordTable таблица, содержащая слова и количество их вхождений.
+     * @throws nsu.parser.exceptions.OutputWriteException если выходной файл не удалось записать.
+     */
+    public void write(IWordTable wordTable);
+
     /**
-     * Сортирует переданную коллекцию слов по количеству вхождений и записывает результат в выходной CSV-файл.
+     * Копирует коллекцию слов в таблицу и записывает её через {@link #write(IWordTable)}.
      *
      * @param wordStatMultiset {@link Multiset} — коллекция, содержащая слова и количество их вхождений.
      *                         Ключ — слово, значение — количество его появлений в тексте.
+     * @throws nsu.parser.exceptions.OutputWriteException если выходной файл не удалось записать.
+     */
+    public default void writeCSV(Multiset<String> wordStatMultiset) {
+        write(WordTables.fromMultiset(wordStatMultiset));
+    }
+
+    /**
+     * Прежнее название {@link #write(IWordTable)}: формат файла определяет реализация, а не CSV.
+     *
+     * @param wordTable таблица, содержащая слова и количество их вхождений.
+     * @throws nsu.parser.exceptions.OutputWriteException если выходной файл не удалось записать.
      */
-    public void writeCSV(Multiset<String> wordStatMultiset);
+    public default void writeCSV(IWordTable wordTable) {
+        write(wordTable);
+    }
 
-}
\ No newline at end of file
+}
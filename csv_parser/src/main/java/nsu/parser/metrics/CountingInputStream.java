@@ -0,0 +1,40 @@
+package nsu.parser.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Поток, который учитывает прочитанные через него байты в {@link Metrics#addRead(long, long)}.
+ * Нужен читателям, которые разбирают текст не через {@link nsu.parser.text.Utf8Tokenizer}.
+ */
+public class CountingInputStream extends FilterInputStream {
+
+    /**
+     * Создает новый экземпляр {@code CountingInputStream}.
+     *
+     * @param in исходный поток.
+     */
+    public CountingInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            Metrics.global().addRead(1, 0);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            Metrics.global().addRead(read, 0);
+        }
+        return read;
+    }
+
+}
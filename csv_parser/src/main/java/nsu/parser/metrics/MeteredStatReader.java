@@ -0,0 +1,55 @@
+package nsu.parser.metrics;
+
+import nsu.parser.io.interfaces.IStatReader;
+import nsu.parser.io.interfaces.IWordTable;
+
+import com.google.common.collect.Multiset;
+
+/**
+ * Класс {@code MeteredStatReader} измеряет этап {@link Stage#READ} любого {@link IStatReader}
+ * и учитывает количество уникальных слов результата в {@link Metrics}.
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * IStatReader reader = new MeteredStatReader(new FastStatReader(Path.of("input.txt")));
+ * }</pre>
+ *
+ * @see Metrics
+ */
+public class MeteredStatReader implements IStatReader {
+    private final IStatReader delegate;
+
+    /**
+     * Создает новый экземпляр {@code MeteredStatReader}.
+     *
+     * @param delegate читатель, время работы которого измеряется.
+     */
+    public MeteredStatReader(IStatReader delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Multiset<String> getWordStatMultiset() {
+        Metrics.StageTimer timer = Metrics.global().start(Stage.READ);
+        try {
+            Multiset<String> multiset = delegate.getWordStatMultiset();
+            Metrics.global().addDistinctWords(multiset.elementSet().size());
+            return multiset;
+        } finally {
+            timer.close();
+        }
+    }
+
+    @Override
+    public IWordTable getWordTable() {
+        Metrics.StageTimer timer = Metrics.global().start(Stage.READ);
+        try {
+            IWordTable table = delegate.getWordTable();
+            Metrics.global().addDistinctWords(table.distinctSize());
+            return table;
+        } finally {
+            timer.close();
+        }
+    }
+
+}
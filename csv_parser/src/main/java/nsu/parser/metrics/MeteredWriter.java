@@ -0,0 +1,57 @@
+package nsu.parser.metrics;
+
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.io.interfaces.IWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Класс {@code MeteredWriter} измеряет этап {@link Stage#WRITE} любого {@link IWriter}
+ * и учитывает размер записанного файла в {@link Metrics}.
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * IWriter writer = new MeteredWriter(new Writer("output.csv"), Path.of("output.csv"));
+ * }</pre>
+ *
+ * @see Metrics
+ */
+public class MeteredWriter implements IWriter {
+    private final IWriter delegate;
+    private final Path outputFilePath;
+
+    /**
+     * Создает новый экземпляр {@code MeteredWriter}.
+     *
+     * @param delegate писатель, время работы которого измеряется.
+     * @param outputFilePath файл, который записывает {@code delegate}.
+     */
+    public MeteredWriter(IWriter delegate, Path outputFilePath) {
+        this.delegate = delegate;
+        this.outputFilePath = outputFilePath;
+    }
+
+    @Override
+    public void write(IWordTable wordTable) {
+        Metrics.StageTimer timer = Metrics.global().start(Stage.WRITE);
+        try {
+            delegate.write(wordTable);
+            countOutputBytes();
+        } finally {
+            timer.close();
+        }
+    }
+
+    private void countOutputBytes() {
+        try {
+            if (Files.exists(outputFilePath)) {
+                Metrics.global().addWritten(0, Files.size(outputFilePath));
+            }
+        } catch (IOException ignored) {
+            // Размер файла нужен только для статистики.
+        }
+    }
+
+}
@@ -0,0 +1,378 @@
+package nsu.parser.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Класс {@code Metrics} — счётчики работы программы: сколько байтов и слов прочитано, сколько уникальных слов
+ * получилось, сколько раз расширялись таблицы, сколько слов и байтов записано, время этапов {@link Stage}
+ * и процессорное время процесса.
+ * <p>
+ * Процессорное время этапа складывается по потокам из {@link ThreadMXBean#getCurrentThreadCpuTime()}:
+ * {@link StageTimer} учитывает поток, открывший этап, а рабочие потоки этапа (диапазоны {@code --threads},
+ * распаковка) передают своё время через {@link #addWorkerCpu(Stage, long)}. Поэтому одновременные этапы
+ * разных файлов пакета не приписывают себе чужую работу. Время сборщика мусора и JIT в этапы не входит,
+ * его видно только в общем процессорном времени процесса.
+ * </p>
+ * <p>
+ * Счётчики — {@link LongAdder}, поэтому их можно увеличивать из многих потоков ({@code --threads}, {@code batch})
+ * без общей блокировки. Горячий цикл их не трогает: {@link nsu.parser.text.Utf8Tokenizer} добавляет байты и слова
+ * один раз на переданный буфер, а таблицы — один раз на расширение.
+ * </p>
+ *
+ * <p><b>Где видны значения:</b></p>
+ * <ul>
+ *     <li>JMX — {@link #register()} публикует {@link MetricsMXBean} под именем {@value #OBJECT_NAME}.</li>
+ *     <li>JSON — {@link #toJson()}, его печатает параметр {@code --stats}.</li>
+ *     <li>JFR — события {@code nsu.parser.Stage} и {@code nsu.parser.TableResize}. Они создаются, только если
+ *         JFR уже запущен в процессе ({@code -XX:StartFlightRecording} или {@code jcmd JFR.start}), поэтому
+ *         короткий запуск без записи не загружает классы JFR.</li>
+ * </ul>
+ * Сами счётчики не требуют ни JMX, ни JFR: платформенный сервер MBean создаётся только в {@link #register()},
+ * а из {@code java.management} при первом этапе загружается только {@link ThreadMXBean}, поэтому запуск
+ * на маленьком файле не тратит на них заметного времени старта JVM.
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * Metrics.StageTimer timer = Metrics.global().start(Stage.READ);
+ * try {
+ *     table = reader.getWordTable();
+ * } finally {
+ *     timer.close();
+ * }
+ * System.out.println(Metrics.global().toJson());
+ * }</pre>
+ *
+ * @see MeteredStatReader
+ * @see MeteredWriter
+ */
+public final class Metrics implements MetricsMXBean {
+    public static final String OBJECT_NAME = "nsu.parser:type=Metrics";
+
+    private static final Metrics GLOBAL = new Metrics();
+
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder distinctWords = new LongAdder();
+    private final LongAdder tableResizes = new LongAdder();
+    private final LongAdder wordsWritten = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+
+    private final LongAdder[] stageCounts = newAdders();
+    private final LongAdder[] stageWallNanos = newAdders();
+    private final LongAdder[] stageCpuNanos = newAdders();
+    private final ThreadLocal<Stage> openStage = new ThreadLocal<>();
+    private volatile long cpuBaselineNanos;
+
+    private Metrics() {
+    }
+
+    /**
+     * Возвращает счётчики процесса.
+     *
+     * @return общий экземпляр {@code Metrics}.
+     */
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Публикует счётчики в платформенном сервере MBean. Повторный вызов ничего не делает.
+     */
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Can't register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Учитывает прочитанные байты и найденные в них слова.
+     *
+     * @param bytes количество байтов.
+     * @param words количество слов.
+     */
+    public void addRead(long bytes, long words) {
+        if (bytes != 0) {
+            bytesRead.add(bytes);
+        }
+        if (words != 0) {
+            tokens.add(words);
+        }
+    }
+
+    /**
+     * Учитывает количество уникальных слов подсчитанной таблицы; для нескольких таблиц значения складываются.
+     *
+     * @param words количество уникальных слов.
+     */
+    public void addDistinctWords(long words) {
+        distinctWords.add(words);
+    }
+
+    /**
+     * Учитывает расширение таблицы слов.
+     *
+     * @param table вид таблицы, например {@code heap} или {@code offheap}.
+     * @param capacity новая ёмкость массива слотов.
+     */
+    public void tableResized(String table, long capacity) {
+        tableResizes.increment();
+        if (!FlightRecorder.isInitialized()) {
+            return;
+        }
+
+        TableResizeEvent event = new TableResizeEvent();
+        if (event.shouldCommit()) {
+            event.table = table;
+            event.capacity = capacity;
+            event.commit();
+        }
+    }
+
+    /**
+     * Учитывает записанные слова и байты.
+     *
+     * @param words количество строк со словами.
+     * @param bytes размер записанного файла.
+     */
+    public void addWritten(long words, long bytes) {
+        if (words != 0) {
+            wordsWritten.add(words);
+        }
+        if (bytes != 0) {
+            bytesWritten.add(bytes);
+        }
+    }
+
+    /**
+     * Начинает измерение этапа. Этапы могут выполняться одновременно в разных потоках.
+     *
+     * @param stage этап.
+     * @return таймер, который нужно закрыть по окончании этапа.
+     */
+    public StageTimer start(Stage stage) {
+        return new StageTimer(stage);
+    }
+
+    /**
+     * Возвращает процессорное время текущего потока.
+     *
+     * @return время в наносекундах или {@code 0}, если JVM его не измеряет.
+     */
+    public long threadCpuNanos() {
+        return ThreadCpu.SUPPORTED ? ThreadCpu.THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * Добавляет к этапу процессорное время рабочего потока. Если поток сам открыл этап через
+     * {@link #start(Stage)} (например, {@link java.util.concurrent.ForkJoinPool#invoke} выполнил задачу
+     * в вызывающем потоке), время уже учтено его таймером и не добавляется второй раз.
+     *
+     * @param stage этап.
+     * @param cpuNanos разница {@link #threadCpuNanos()} в конце и в начале работы потока.
+     */
+    public void addWorkerCpu(Stage stage, long cpuNanos) {
+        if (cpuNanos > 0 && openStage.get() == null) {
+            stageCpuNanos[stage.ordinal()].add(cpuNanos);
+        }
+    }
+
+    /**
+     * Обнуляет все счётчики, например между прогонами в одном процессе.
+     */
+    public void reset() {
+        for (LongAdder adder : new LongAdder[]{bytesRead, tokens, distinctWords, tableResizes, wordsWritten, bytesWritten}) {
+            adder.reset();
+        }
+        for (Stage stage : Stage.values()) {
+            stageCounts[stage.ordinal()].reset();
+            stageWallNanos[stage.ordinal()].reset();
+            stageCpuNanos[stage.ordinal()].reset();
+        }
+        cpuBaselineNanos = processCpuNanos();
+    }
+
+    /**
+     * Возвращает значения счётчиков в виде объекта JSON.
+     *
+     * @return строка JSON.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\n");
+        appendField(json, "bytesRead", getBytesRead(), "  ");
+        appendField(json, "tokens", getTokens(), "  ");
+        appendField(json, "distinctWords", getDistinctWords(), "  ");
+        appendField(json, "tableResizes", getTableResizes(), "  ");
+        appendField(json, "wordsWritten", getWordsWritten(), "  ");
+        appendField(json, "bytesWritten", getBytesWritten(), "  ");
+        appendField(json, "processCpuNanos", getProcessCpuNanos(), "  ");
+        json.append("  \"stages\": {\n");
+        Stage[] stages = Stage.values();
+        for (int i = 0; i < stages.length; i++) {
+            int stage = stages[i].ordinal();
+            json.append("    \"").append(stages[i].label()).append("\": {\n");
+            appendField(json, "count", stageCounts[stage].sum(), "      ");
+            appendField(json, "cpuNanos", stageCpuNanos[stage].sum(), "      ");
+            json.append("      \"wallNanos\": ").append(stageWallNanos[stage].sum()).append('\n');
+            json.append(i + 1 < stages.length ? "    },\n" : "    }\n");
+        }
+        return json.append("  }\n}").toString();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getTokens() {
+        return tokens.sum();
+    }
+
+    @Override
+    public long getDistinctWords() {
+        return distinctWords.sum();
+    }
+
+    @Override
+    public long getTableResizes() {
+        return tableResizes.sum();
+    }
+
+    @Override
+    public long getWordsWritten() {
+        return wordsWritten.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getProcessCpuNanos() {
+        return Math.max(0, processCpuNanos() - cpuBaselineNanos);
+    }
+
+    @Override
+    public long getReadCount() {
+        return stageCounts[Stage.READ.ordinal()].sum();
+    }
+
+    @Override
+    public long getReadWallNanos() {
+        return stageWallNanos[Stage.READ.ordinal()].sum();
+    }
+
+    @Override
+    public long getReadCpuNanos() {
+        return stageCpuNanos[Stage.READ.ordinal()].sum();
+    }
+
+    @Override
+    public long getWriteCount() {
+        return stageCounts[Stage.WRITE.ordinal()].sum();
+    }
+
+    @Override
+    public long getWriteWallNanos() {
+        return stageWallNanos[Stage.WRITE.ordinal()].sum();
+    }
+
+    @Override
+    public long getWriteCpuNanos() {
+        return stageCpuNanos[Stage.WRITE.ordinal()].sum();
+    }
+
+    private static void appendField(StringBuilder json, String name, long value, String indent) {
+        json.append(indent).append('"').append(name).append("\": ").append(value).append(",\n");
+    }
+
+    private static LongAdder[] newAdders() {
+        LongAdder[] adders = new LongAdder[Stage.values().length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static long processCpuNanos() {
+        return ProcessHandle.current().info().totalCpuDuration().map(Duration::toNanos).orElse(0L);
+    }
+
+    /**
+     * Загружает {@link ThreadMXBean} при первом измерении, а не при загрузке {@code Metrics}.
+     */
+    private static final class ThreadCpu {
+        private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+        private static final boolean SUPPORTED = THREADS.isCurrentThreadCpuTimeSupported()
+                && THREADS.isThreadCpuTimeEnabled();
+    }
+
+    /**
+     * Таймер одного этапа: при закрытии добавляет время этапа и процессорное время открывшего его потока
+     * к счётчикам и записывает событие JFR.
+     */
+    public final class StageTimer implements AutoCloseable {
+        private final Stage stage;
+        private final StageEvent event = FlightRecorder.isInitialized() ? new StageEvent() : null;
+        private final Stage enclosing;
+        private final long startNanos;
+        private final long startCpuNanos;
+        private final long startBytes;
+        private final long startTokens;
+
+        private StageTimer(Stage stage) {
+            this.stage = stage;
+            startBytes = getBytesRead();
+            startTokens = getTokens();
+            enclosing = openStage.get();
+            openStage.set(stage);
+            if (event != null) {
+                event.begin();
+            }
+            startCpuNanos = threadCpuNanos();
+            startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            long wallNanos = System.nanoTime() - startNanos;
+            long cpuNanos = threadCpuNanos() - startCpuNanos;
+            if (enclosing == null) {
+                openStage.remove();
+            } else {
+                openStage.set(enclosing);
+            }
+            stageCounts[stage.ordinal()].increment();
+            stageWallNanos[stage.ordinal()].add(wallNanos);
+            stageCpuNanos[stage.ordinal()].add(cpuNanos);
+
+            if (event == null) {
+                return;
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.stage = stage.label();
+                event.bytesRead = getBytesRead() - startBytes;
+                event.tokens = getTokens() - startTokens;
+                event.commit();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,38 @@
+package nsu.parser.metrics;
+
+/**
+ * Счётчики {@link Metrics}, доступные через JMX под именем {@value Metrics#OBJECT_NAME}.
+ * Все значения накапливаются с начала работы процесса; время — в наносекундах.
+ */
+public interface MetricsMXBean {
+
+    long getBytesRead();
+
+    long getTokens();
+
+    long getDistinctWords();
+
+    long getTableResizes();
+
+    long getWordsWritten();
+
+    long getBytesWritten();
+
+    /**
+     * Процессорное время всех потоков процесса с его запуска или с последнего {@link Metrics#reset()}.
+     */
+    long getProcessCpuNanos();
+
+    long getReadCount();
+
+    long getReadWallNanos();
+
+    long getReadCpuNanos();
+
+    long getWriteCount();
+
+    long getWriteWallNanos();
+
+    long getWriteCpuNanos();
+
+}
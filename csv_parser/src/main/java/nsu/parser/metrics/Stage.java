@@ -0,0 +1,27 @@
+package nsu.parser.metrics;
+
+/**
+ * Этапы обработки, время которых измеряет {@link Metrics}.
+ */
+public enum Stage {
+    /** Чтение входных данных и подсчёт слов ({@link nsu.parser.io.interfaces.IStatReader}). */
+    READ("read"),
+    /** Упорядочивание и запись результата ({@link nsu.parser.io.interfaces.IWriter}). */
+    WRITE("write");
+
+    private final String label;
+
+    Stage(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Возвращает имя этапа для JSON и событий JFR.
+     *
+     * @return имя этапа в нижнем регистре.
+     */
+    public String label() {
+        return label;
+    }
+
+}
@@ -0,0 +1,31 @@
+package nsu.parser.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR о завершении одного этапа обработки; длительность события — время этапа.
+ */
+@Name("nsu.parser.Stage")
+@Label("Parser Stage")
+@Category("CSV Parser")
+@Description("Reading or writing stage of a word count run")
+@StackTrace(false)
+final class StageEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead;
+
+    @Label("Tokens")
+    long tokens;
+
+}
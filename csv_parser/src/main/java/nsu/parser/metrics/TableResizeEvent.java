@@ -0,0 +1,26 @@
+package nsu.parser.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Событие JFR о расширении массива слотов таблицы слов.
+ */
+@Name("nsu.parser.TableResize")
+@Label("Word Table Resize")
+@Category("CSV Parser")
+@Description("Word table grew its slot array")
+@StackTrace(false)
+final class TableResizeEvent extends Event {
+
+    @Label("Table")
+    String table;
+
+    @Label("New Capacity")
+    long capacity;
+
+}
@@ -0,0 +1,94 @@
+package nsu.parser.server;
+
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.tables.WordRanking;
+
+/**
+ * Класс {@code CachedTable} — посчитанная статистика одного файла в том виде, в котором её хранит
+ * {@link TableCache}: упорядоченные слова ({@link WordRanking}) и хеш-индекс позиций слов в них.
+ * <p>
+ * Исходная таблица после построения не хранится: первые {@code n} слов берутся из начала ранжирования,
+ * а количество одного слова — по индексу за одно-два сравнения строк, без перебора {@link WordRanking#count(String)}.
+ * Индекс — массив {@code int} с открытой адресацией, заполненный не больше чем наполовину, поэтому занимает
+ * 8–16 байт на слово.
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>Объект неизменяем и безопасно читается из нескольких потоков.</li>
+ *     <li>{@link #weight()} — оценка занимаемой памяти, по которой кэш ограничивает свой размер.</li>
+ * </ul>
+ *
+ * @see TableCache
+ */
+public final class CachedTable {
+    private static final long ENTRY_BYTES = 64;
+
+    private final WordRanking ranking;
+    private final int[] slots;
+    private final int mask;
+    private final long weight;
+
+    /**
+     * Упорядочивает слова таблицы и строит индекс.
+     *
+     * @param table посчитанная таблица слов.
+     */
+    public CachedTable(IWordTable table) {
+        this.ranking = WordRanking.sorted(table);
+        int size = ranking.size();
+        this.slots = new int[Integer.highestOneBit(Math.max(1, size) * 2 - 1) << 1];
+        this.mask = slots.length - 1;
+
+        long wordBytes = 0;
+        for (int i = 0; i < size; i++) {
+            String word = ranking.word(i);
+            int slot = spread(word.hashCode()) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i + 1;
+            wordBytes += 2L * word.length();
+        }
+        this.weight = ENTRY_BYTES * size + wordBytes + 4L * slots.length;
+    }
+
+    /**
+     * Возвращает все слова файла в порядке убывания количества.
+     *
+     * @return упорядоченные слова.
+     */
+    public WordRanking ranking() {
+        return ranking;
+    }
+
+    /**
+     * Возвращает позицию слова в {@link #ranking()}.
+     *
+     * @param word слово.
+     * @return позиция слова или {@code -1}, если слова нет.
+     */
+    public int indexOf(String word) {
+        for (int slot = spread(word.hashCode()) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int index = slots[slot] - 1;
+            if (ranking.word(index).equals(word)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Возвращает оценку памяти, занимаемой статистикой.
+     *
+     * @return размер в байтах.
+     */
+    public long weight() {
+        return weight;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+}
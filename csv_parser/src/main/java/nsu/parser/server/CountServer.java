@@ -0,0 +1,300 @@
+package nsu.parser.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import nsu.parser.io.interfaces.IWriter;
+import nsu.parser.metrics.Metrics;
+import nsu.parser.tables.WordRanking;
+import nsu.parser.text.TokenFilterChain;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Класс {@code CountServer} — долгоживущий HTTP-сервер, который считает слова файлов по запросу и отвечает
+ * из {@link TableCache}. Повторные запросы к неизменённому файлу не читают его и выполняются JIT-компилированным
+ * кодом уже прогретой JVM.
+ * <p>
+ * Сервер слушает только адрес {@code localhost} и обрабатывает запросы {@code GET} на пуле из {@code threads}
+ * потоков. Путь к файлу передаётся параметром {@code path}; параметры чтения и формат выходного файла
+ * задаются при запуске сервера и одинаковы для всех запросов.
+ * </p>
+ *
+ * <p><b>Запросы:</b></p>
+ * <ul>
+ *     <li>{@code /top?path=FILE&n=N} — первые {@code N} слов (по умолчанию {@value #DEFAULT_TOP}) строками
+ *         «слово TAB количество», для приблизительного подсчёта — с колонкой ошибки.</li>
+ *     <li>{@code /count?path=FILE&word=W} — количество слова {@code W} ({@code 0}, если его нет). Слово
+ *         нормализуется так же, как при подсчёте: приводится к нижнему регистру, очищается от знаков препинания
+ *         и проходит цепочку {@link TokenFilterChain} сервера, поэтому {@code word=Привет} находит {@code привет},
+ *         а стоп-слово даёт {@code 0}.</li>
+ *     <li>{@code /csv?path=FILE} — выходной файл целиком, записанный {@link IWriter} сервера.</li>
+ *     <li>{@code /stats} — состояние кэша и счётчики {@link Metrics} в JSON.</li>
+ * </ul>
+ * Неверные параметры дают ответ {@code 400}, отсутствующий файл — {@code 404}, ошибка подсчёта — {@code 500};
+ * тело ответа — текст ошибки. Если ошибка случилась, когда заголовки ответа уже отправлены (например, при
+ * передаче {@code /csv}), статус изменить нельзя: ошибка печатается в {@code System.err}, а соединение
+ * закрывается с неполным телом.
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * TableCache cache = new TableCache(file -> new FastStatReader(file).getWordTable(), 256L << 20);
+ * try (CountServer server = CountServer.start(8080, cache, file -> new Writer(file.toString()), 4)) {
+ *     // curl 'http://localhost:8080/top?path=/data/input.txt&n=10'
+ * }
+ * }</pre>
+ *
+ * @see TableCache
+ */
+public final class CountServer implements AutoCloseable {
+    public static final int DEFAULT_TOP = 10;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final TableCache cache;
+    private final Function<Path, ? extends IWriter> writerFactory;
+    private final TokenFilterChain filters;
+
+    private CountServer(HttpServer server, ExecutorService executor, TableCache cache,
+                        Function<Path, ? extends IWriter> writerFactory, TokenFilterChain filters) {
+        this.server = server;
+        this.executor = executor;
+        this.cache = cache;
+        this.writerFactory = writerFactory;
+        this.filters = filters;
+    }
+
+    /**
+     * Запускает сервер на {@code localhost} для таблиц, посчитанных без фильтров слов.
+     *
+     * @param port номер порта или {@code 0} для любого свободного порта.
+     * @param cache кэш посчитанной статистики.
+     * @param writerFactory создаёт {@link IWriter} для ответа на {@code /csv}.
+     * @param threads количество потоков обработки запросов.
+     * @return запущенный сервер.
+     * @throws UncheckedIOException если порт занят.
+     */
+    public static CountServer start(int port, TableCache cache, Function<Path, ? extends IWriter> writerFactory,
+                                    int threads) {
+        return start(port, cache, writerFactory, new TokenFilterChain(List.of()), threads);
+    }
+
+    /**
+     * Запускает сервер на {@code localhost}.
+     *
+     * @param port номер порта или {@code 0} для любого свободного порта.
+     * @param cache кэш посчитанной статистики.
+     * @param writerFactory создаёт {@link IWriter} для ответа на {@code /csv}.
+     * @param filters фильтры, через которые проходили слова при подсчёте таблиц кэша; ими нормализуется
+     *                слово запроса {@code /count}.
+     * @param threads количество потоков обработки запросов.
+     * @return запущенный сервер.
+     * @throws UncheckedIOException если порт занят.
+     */
+    public static CountServer start(int port, TableCache cache, Function<Path, ? extends IWriter> writerFactory,
+                                    TokenFilterChain filters, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+        HttpServer server;
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed binding port " + port, e);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountServer countServer = new CountServer(server, executor, cache, writerFactory, filters);
+        server.createContext("/top", exchange -> countServer.respond(exchange, countServer::top));
+        server.createContext("/count", exchange -> countServer.respond(exchange, countServer::count));
+        server.createContext("/csv", exchange -> countServer.respond(exchange, countServer::csv));
+        server.createContext("/stats", exchange -> countServer.respond(exchange, countServer::stats));
+        server.setExecutor(executor);
+        server.start();
+        return countServer;
+    }
+
+    /**
+     * Возвращает адрес, на котором слушает сервер.
+     *
+     * @return адрес и фактический номер порта.
+     */
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    /**
+     * Возвращает кэш сервера.
+     *
+     * @return кэш посчитанной статистики.
+     */
+    public TableCache cache() {
+        return cache;
+    }
+
+    /**
+     * Останавливает сервер, не дожидаясь незавершённых запросов.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void top(Map<String, String> query, HttpExchange exchange) throws IOException {
+        int n = parseCount(query.getOrDefault("n", String.valueOf(DEFAULT_TOP)));
+        WordRanking ranking = cache.get(requiredPath(query)).ranking();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < Math.min(n, ranking.size()); i++) {
+            body.append(ranking.word(i)).append('\t').append(ranking.count(i));
+            if (ranking.isApproximate()) {
+                body.append('\t').append(ranking.error(i));
+            }
+            body.append('\n');
+        }
+        send(exchange, body.toString());
+    }
+
+    private void count(Map<String, String> query, HttpExchange exchange) throws IOException {
+        String word = filters.normalize(required(query, "word"));
+        CachedTable table = cache.get(requiredPath(query));
+        int index = word.isEmpty() ? -1 : table.indexOf(word);
+        WordRanking ranking = table.ranking();
+        String body = index < 0 ? "0" : String.valueOf(ranking.count(index));
+        if (ranking.isApproximate()) {
+            body += "\t" + (index < 0 ? 0 : ranking.error(index));
+        }
+        send(exchange, body + "\n");
+    }
+
+    private void csv(Map<String, String> query, HttpExchange exchange) throws IOException {
+        CachedTable table = cache.get(requiredPath(query));
+        Path outputFile = Files.createTempFile("count-server", ".csv");
+        try {
+            writerFactory.apply(outputFile).write(table.ranking());
+            exchange.getResponseHeaders().set("Content-Type", "text/csv; charset=utf-8");
+            exchange.sendResponseHeaders(200, bodyLength(Files.size(outputFile)));
+            try (OutputStream body = exchange.getResponseBody()) {
+                Files.copy(outputFile, body);
+            }
+        } finally {
+            Files.deleteIfExists(outputFile);
+        }
+    }
+
+    private void stats(Map<String, String> query, HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        send(exchange, "{\"cache\": {\"entries\": " + cache.size() + ", \"bytes\": " + cache.weight()
+                + ", \"hits\": " + cache.hits() + ", \"misses\": " + cache.misses() + "}, \"metrics\": "
+                + Metrics.global().toJson() + "}\n");
+    }
+
+    private void respond(HttpExchange exchange, Handler handler) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                sendError(exchange, 405, "Only GET is supported");
+                return;
+            }
+            try {
+                handler.handle(parseQuery(exchange.getRequestURI().getRawQuery()), exchange);
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (NoSuchFileException e) {
+                sendError(exchange, 404, "No such file " + e.getFile());
+            } catch (IOException | RuntimeException e) {
+                sendError(exchange, 500, String.valueOf(e.getMessage()));
+            }
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            String name = equals < 0 ? parameter : parameter.substring(0, equals);
+            String value = equals < 0 ? "" : parameter.substring(equals + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static String required(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing query parameter " + name);
+        }
+        return value;
+    }
+
+    private static Path requiredPath(Map<String, String> query) {
+        return Path.of(required(query, "path"));
+    }
+
+    private static int parseCount(String value) {
+        try {
+            int n = Integer.parseInt(value);
+            if (n < 0) {
+                throw new IllegalArgumentException("Parameter n must not be negative");
+            }
+            return n;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Illegal value " + value + " for parameter n", e);
+        }
+    }
+
+    private static void send(HttpExchange exchange, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (!exchange.getResponseHeaders().containsKey("Content-Type")) {
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        }
+        exchange.sendResponseHeaders(200, bodyLength(bytes.length));
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() >= 0) {
+            // Заголовки уже отправлены с другим статусом: остаётся только оборвать ответ.
+            System.err.println("Failed sending response to " + exchange.getRequestURI() + ": " + message);
+            return;
+        }
+        byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    /**
+     * Длина тела для {@link HttpExchange#sendResponseHeaders}: {@code 0} там означает ответ частями
+     * неизвестной длины, а пустое тело обозначается {@code -1}.
+     */
+    private static long bodyLength(long length) {
+        return length == 0 ? -1 : length;
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(Map<String, String> query, HttpExchange exchange) throws IOException;
+    }
+
+}
@@ -0,0 +1,215 @@
+package nsu.parser.server;
+
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.tables.WordTables;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Класс {@code TableCache} — кэш посчитанной статистики файлов, ограниченный оценкой занимаемой памяти.
+ * <p>
+ * Ключ записи — реальный путь к файлу, его размер и время изменения, которые проверяются при каждом запросе.
+ * Если файл изменился, запрос не совпадает с ключом, файл считается заново, а запись прежней версии удаляется.
+ * Записи вытесняются в порядке давности использования (LRU), пока сумма {@link CachedTable#weight()}
+ * больше {@code maxBytes}; только что посчитанная запись не вытесняется, даже если она одна больше ограничения.
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>Попадание в кэш стоит двух системных вызовов ({@link Path#toRealPath} и чтения атрибутов) и поиска
+ *         в {@link LinkedHashMap} под монитором кэша.</li>
+ *     <li>Файл, который уже считается, не считается повторно: остальные запросы ждут тот же
+ *         {@link CompletableFuture}. Подсчёт выполняется вне монитора, поэтому разные файлы считаются параллельно.</li>
+ *     <li>Ошибка подсчёта не кэшируется: следующий запрос попробует снова.</li>
+ * </ul>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * TableCache cache = new TableCache(file -> new FastStatReader(file).getWordTable(), 256L << 20);
+ * CachedTable table = cache.get(Path.of("input.txt"));
+ * }</pre>
+ *
+ * @see CachedTable
+ * @see CountServer
+ */
+public final class TableCache {
+    private final Function<Path, ? extends IWordTable> loader;
+    private final long maxBytes;
+    private final LinkedHashMap<Key, CompletableFuture<CachedTable>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Path, Key> latest = new HashMap<>();
+    private long weight;
+    private long hits;
+    private long misses;
+
+    /**
+     * Создает пустой кэш.
+     *
+     * @param loader считает статистику файла по его реальному пути.
+     * @param maxBytes ограничение суммарной оценки памяти записей.
+     */
+    public TableCache(Function<Path, ? extends IWordTable> loader, long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+        }
+        this.loader = loader;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Возвращает статистику текущей версии файла, при необходимости посчитав её.
+     *
+     * @param file путь к файлу.
+     * @return статистика файла.
+     * @throws IOException если файл не существует или недоступен.
+     */
+    public CachedTable get(Path file) throws IOException {
+        Path path = file.toRealPath();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        Key key = new Key(path, attributes.size(), attributes.lastModifiedTime());
+
+        CompletableFuture<CachedTable> future;
+        boolean owner = false;
+        synchronized (this) {
+            future = entries.get(key);
+            if (future != null) {
+                hits++;
+            } else {
+                misses++;
+                future = new CompletableFuture<>();
+                entries.put(key, future);
+                Key previous = latest.put(path, key);
+                if (previous != null) {
+                    remove(previous);
+                }
+                owner = true;
+            }
+        }
+        return owner ? load(key, future) : join(future);
+    }
+
+    /**
+     * Считает файл вне монитора кэша, чтобы запросы к остальным файлам не ждали подсчёта.
+     */
+    private CachedTable load(Key key, CompletableFuture<CachedTable> future) {
+        CachedTable table;
+        try {
+            IWordTable loaded = loader.apply(key.path());
+            try {
+                table = new CachedTable(loaded);
+            } finally {
+                WordTables.close(loaded);
+            }
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                if (entries.remove(key, future)) {
+                    latest.remove(key.path(), key);
+                }
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+
+        synchronized (this) {
+            future.complete(table);
+            if (entries.get(key) == future) {
+                weight += table.weight();
+                evict(key);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Возвращает количество запросов, на которые ответил кэш.
+     *
+     * @return количество попаданий.
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * Возвращает количество запросов, для которых файл пришлось считать.
+     *
+     * @return количество промахов.
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * Возвращает количество записей, включая считающиеся сейчас.
+     *
+     * @return количество записей.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Возвращает суммарную оценку памяти посчитанных записей.
+     *
+     * @return размер в байтах.
+     */
+    public synchronized long weight() {
+        return weight;
+    }
+
+    /**
+     * Удаляет все посчитанные записи; считающиеся сейчас записи остаются.
+     */
+    public synchronized void clear() {
+        for (Key key : entries.keySet().toArray(new Key[0])) {
+            if (entries.get(key).isDone()) {
+                remove(key);
+            }
+        }
+    }
+
+    private void evict(Key keep) {
+        Iterator<Map.Entry<Key, CompletableFuture<CachedTable>>> iterator = entries.entrySet().iterator();
+        while (weight > maxBytes && iterator.hasNext()) {
+            Map.Entry<Key, CompletableFuture<CachedTable>> entry = iterator.next();
+            if (entry.getKey().equals(keep) || !entry.getValue().isDone()) {
+                continue;
+            }
+            iterator.remove();
+            latest.remove(entry.getKey().path(), entry.getKey());
+            weight -= entry.getValue().join().weight();
+        }
+    }
+
+    private void remove(Key key) {
+        CompletableFuture<CachedTable> future = entries.remove(key);
+        latest.remove(key.path(), key);
+        if (future != null && future.isDone() && !future.isCompletedExceptionally()) {
+            weight -= future.join().weight();
+        }
+    }
+
+    private static CachedTable join(CompletableFuture<CachedTable> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private record Key(Path path, long size, FileTime modified) {
+    }
+
+}
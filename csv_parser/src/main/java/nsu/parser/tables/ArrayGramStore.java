@@ -0,0 +1,125 @@
+package nsu.parser.tables;
+
+import java.util.Arrays;
+
+/**
+ * Хранилище n-грамм для {@code n > 3} или для словаря, номера слов которого не помещаются
+ * в упакованный ключ {@link PackedGramStore}.
+ * <p>
+ * Номера слов всех n-грамм лежат подряд в одном массиве {@code int[]} ({@code n} чисел на запись), рядом —
+ * параллельные массивы счётчиков и хешей, а массив слотов с открытой адресацией хранит номер записи.
+ * Отдельный массив на каждую n-грамму не создаётся.
+ * </p>
+ */
+final class ArrayGramStore extends GramStore {
+    private static final int INITIAL_ENTRIES = 1 << 9;
+
+    private int[] slots = new int[INITIAL_ENTRIES * 2];
+    private int mask = slots.length - 1;
+    private int[] grams;
+    private long[] counts = new long[INITIAL_ENTRIES];
+    private int[] hashes = new int[INITIAL_ENTRIES];
+    private int size;
+
+    ArrayGramStore(int n) {
+        super(n);
+        grams = new int[INITIAL_ENTRIES * n];
+    }
+
+    @Override
+    boolean fits(int[] ids) {
+        return true;
+    }
+
+    @Override
+    void add(int[] ids, long count) {
+        int hash = hash(ids);
+        int slot = hash & mask;
+        while (true) {
+            int entry = slots[slot] - 1;
+            if (entry < 0) {
+                slots[slot] = insert(ids, hash, count) + 1;
+                if (size * 2 > slots.length) {
+                    resize();
+                }
+                return;
+            }
+            if (hashes[entry] == hash && equalsAt(entry, ids)) {
+                counts[entry] += count;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    @Override
+    long count(int[] ids) {
+        int hash = hash(ids);
+        for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            if (hashes[entry] == hash && equalsAt(entry, ids)) {
+                return counts[entry];
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    long estimatedBytes() {
+        return (long) slots.length * Integer.BYTES + (long) grams.length * Integer.BYTES
+                + (long) counts.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    @Override
+    void forEach(GramVisitor visitor) {
+        int[] ids = new int[n];
+        for (int entry = 0; entry < size; entry++) {
+            System.arraycopy(grams, entry * n, ids, 0, n);
+            visitor.visit(ids, counts[entry]);
+        }
+    }
+
+    private int insert(int[] ids, int hash, long count) {
+        if (size == counts.length) {
+            int capacity = size * 2;
+            grams = Arrays.copyOf(grams, capacity * n);
+            counts = Arrays.copyOf(counts, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+        }
+        int entry = size++;
+        System.arraycopy(ids, 0, grams, entry * n, n);
+        counts[entry] = count;
+        hashes[entry] = hash;
+        return entry;
+    }
+
+    private boolean equalsAt(int entry, int[] ids) {
+        return Arrays.equals(grams, entry * n, entry * n + n, ids, 0, n);
+    }
+
+    private int hash(int[] ids) {
+        long h = n;
+        for (int i = 0; i < n; i++) {
+            h = h * 0x9E3779B97F4A7C15L + ids[i];
+        }
+        return mix(h);
+    }
+
+    private void resize() {
+        slots = new int[slots.length * 2];
+        mask = slots.length - 1;
+        for (int entry = 0; entry < size; entry++) {
+            int slot = hashes[entry] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry + 1;
+        }
+    }
+
+}
@@ -0,0 +1,280 @@
+package nsu.parser.tables;
+
+import nsu.parser.io.interfaces.IMutableWordTable;
+import nsu.parser.metrics.Metrics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Класс {@code ConcurrentWordTable} — таблица «слово → количество», в которую одновременно добавляют слова
+ * несколько потоков без блокировок. Используется {@link nsu.parser.io.ParallelStatReader} вместо таблиц на каждый
+ * диапазон файла, когда их слияние обходится дороже самого подсчёта.
+ * <p>
+ * Таблица с открытой адресацией хранит в слоте ссылку на неизменяемый ключ (байты слова и хеш) и количество
+ * в массиве {@code long[]}. Новый ключ занимает пустой слот через CAS, количество увеличивается CAS-циклом
+ * по своему слоту, поэтому потоки, считающие разные слова, не мешают друг другу.
+ * </p>
+ * <p>
+ * При заполнении больше чем наполовину создаётся таблица вдвое больше, и все потоки, добавляющие слова, помогают
+ * перенести в неё слоты частями. Перенос слота замораживает его: пустой слот помечается ключом-заглушкой, а
+ * количество занятого слота атомарно заменяется меткой {@code MOVED} и прибавляется к тому же слову в новой
+ * таблице. Поток, увидевший заглушку или метку, продолжает в новой таблице; сложение коммутативно, поэтому
+ * порядок переноса и новых добавлений не важен, и ни одно вхождение не теряется.
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>Методы чтения ({@link #count(String)}, {@link #forEachEntry(ObjLongConsumer)} и другие) предназначены
+ *         для таблицы, в которую больше не добавляют слова; во время добавления они видят часть вхождений.</li>
+ *     <li>Байты каждого слова хранятся в отдельном массиве, а не в общих страницах, как в {@link WordCountTable}:
+ *         общую страницу нельзя дописывать из нескольких потоков без блокировки.</li>
+ * </ul>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * ConcurrentWordTable table = new ConcurrentWordTable();
+ * IStatReader reader = new ParallelStatReader(Path.of("input.txt"), 8, 8L << 20, () -> table, true);
+ * }</pre>
+ *
+ * @see WordCountTable
+ */
+public final class ConcurrentWordTable implements IMutableWordTable {
+    private static final int INITIAL_CAPACITY = 1 << 12;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final int MIGRATION_CHUNK = 1 << 10;
+    private static final long MOVED = Long.MIN_VALUE;
+    private static final Key FROZEN = new Key(new byte[0], 0);
+
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(Key[].class);
+    private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final AtomicReference<Table> root;
+    private final LongAdder totalCount = new LongAdder();
+
+    /**
+     * Создает пустую таблицу.
+     */
+    public ConcurrentWordTable() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Создает пустую таблицу, рассчитанную примерно на {@code expectedWords} слов без увеличения.
+     *
+     * @param expectedWords ожидаемое количество уникальных слов.
+     */
+    public ConcurrentWordTable(int expectedWords) {
+        int capacity = Integer.highestOneBit(Math.max(INITIAL_CAPACITY, Math.min(expectedWords, 1 << 29)) - 1) << 2;
+        root = new AtomicReference<>(new Table(capacity));
+    }
+
+    @Override
+    public void add(byte[] buffer, int offset, int length, long count) {
+        add(root.get(), buffer, offset, length, WordCountTable.hash(buffer, offset, length), count, null);
+        totalCount.add(count);
+    }
+
+    @Override
+    public void forEachKey(EntryVisitor visitor) {
+        Table table = settled();
+        for (int slot = 0; slot < table.capacity; slot++) {
+            Key key = table.keys[slot];
+            if (key != null && key != FROZEN) {
+                visitor.visit(key.bytes, 0, key.bytes.length, table.counts[slot]);
+            }
+        }
+    }
+
+    @Override
+    public long count(String word) {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        int hash = WordCountTable.hash(bytes, 0, bytes.length);
+        Table table = settled();
+        for (int slot = hash & table.mask, probes = 0; probes < table.capacity; slot = (slot + 1) & table.mask, probes++) {
+            Key key = table.keys[slot];
+            if (key == null) {
+                return 0;
+            }
+            if (key.matches(bytes, 0, bytes.length, hash)) {
+                return table.counts[slot];
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int distinctSize() {
+        return settled().size.get();
+    }
+
+    @Override
+    public long totalCount() {
+        return totalCount.sum();
+    }
+
+    @Override
+    public void forEachEntry(ObjLongConsumer<String> action) {
+        forEachKey((buffer, offset, length, count) ->
+                action.accept(new String(buffer, offset, length, StandardCharsets.UTF_8), count));
+    }
+
+    /**
+     * Возвращает количество слотов текущей таблицы.
+     *
+     * @return ёмкость таблицы.
+     */
+    public int capacity() {
+        return settled().capacity;
+    }
+
+    /**
+     * Прибавляет {@code count} к слову, начиная с таблицы {@code table}. Если слово переносится в следующую
+     * таблицу, продолжает в ней; {@code migrated} — уже созданный ключ при переносе, чтобы не копировать байты снова.
+     */
+    private void add(Table table, byte[] buffer, int offset, int length, int hash, long count, Key migrated) {
+        while (true) {
+            Table next = table.next.get();
+            if (next != null) {
+                help(table);
+                table = next;
+                continue;
+            }
+
+            int slot = hash & table.mask;
+            Key key = null;
+            for (int probes = 0; probes < table.capacity; probes++, slot = (slot + 1) & table.mask) {
+                key = (Key) KEYS.getAcquire(table.keys, slot);
+                if (key == null) {
+                    Key created = migrated != null ? migrated : new Key(Arrays.copyOfRange(buffer, offset, offset + length), hash);
+                    key = (Key) KEYS.compareAndExchange(table.keys, slot, null, created);
+                    if (key == null) {
+                        key = created;
+                        if (table.size.incrementAndGet() * 2 > table.capacity) {
+                            resize(table);
+                        }
+                        break;
+                    }
+                }
+                if (key == FROZEN || key.matches(buffer, offset, length, hash)) {
+                    break;
+                }
+            }
+
+            if (key != FROZEN && key != null && key.matches(buffer, offset, length, hash) && increment(table, slot, count)) {
+                return;
+            }
+            resize(table);
+            table = table.next.get();
+        }
+    }
+
+    private static boolean increment(Table table, int slot, long count) {
+        long current = (long) COUNTS.getVolatile(table.counts, slot);
+        while (current != MOVED) {
+            long witness = (long) COUNTS.compareAndExchange(table.counts, slot, current, current + count);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+        return false;
+    }
+
+    private void resize(Table table) {
+        if (table.capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Concurrent word table cannot grow beyond " + MAX_CAPACITY + " slots");
+        }
+        if (table.next.get() == null && table.next.compareAndSet(null, new Table(table.capacity * 2))) {
+            Metrics.global().tableResized("concurrent", table.capacity * 2L);
+        }
+        help(table);
+    }
+
+    /**
+     * Переносит части таблицы, пока не останется незанятых частей. Каждая часть переносится целиком тем потоком,
+     * который её взял, поэтому когда все добавления завершились, перенос тоже завершён. Таблицы могут завершить
+     * перенос не по порядку, поэтому корень сдвигает любой поток, заставший перенос своей таблицы завершённым.
+     */
+    private void help(Table table) {
+        Table next = table.next.get();
+        while (table.claimed.get() < table.capacity) {
+            int from = table.claimed.getAndAdd(MIGRATION_CHUNK);
+            if (from >= table.capacity) {
+                break;
+            }
+            int to = Math.min(from + MIGRATION_CHUNK, table.capacity);
+            for (int slot = from; slot < to; slot++) {
+                migrate(table, next, slot);
+            }
+            table.migrated.addAndGet(to - from);
+        }
+        if (table.migrated.get() == table.capacity) {
+            root.compareAndSet(table, next);
+        }
+    }
+
+    /**
+     * Замораживает слот и переносит его количество. Нулевое количество не переносится: слот только что занят,
+     * и занявший его поток, увидев {@code MOVED}, сам добавит слово в новую таблицу.
+     */
+    private void migrate(Table table, Table next, int slot) {
+        Key key = (Key) KEYS.compareAndExchange(table.keys, slot, null, FROZEN);
+        if (key == null || key == FROZEN) {
+            return;
+        }
+        long count = (long) COUNTS.getAndSet(table.counts, slot, MOVED);
+        if (count != MOVED && count != 0) {
+            add(next, key.bytes, 0, key.bytes.length, key.hash, count, key);
+        }
+    }
+
+    private Table settled() {
+        Table table = root.get();
+        while (table.next.get() != null) {
+            help(table);
+            table = table.next.get();
+        }
+        return table;
+    }
+
+    private static final class Key {
+        private final byte[] bytes;
+        private final int hash;
+
+        Key(byte[] bytes, int hash) {
+            this.bytes = bytes;
+            this.hash = hash;
+        }
+
+        boolean matches(byte[] buffer, int offset, int length, int hash) {
+            return this.hash == hash && bytes.length == length
+                    && Arrays.equals(bytes, 0, length, buffer, offset, offset + length);
+        }
+    }
+
+    private static final class Table {
+        private final int capacity;
+        private final int mask;
+        private final Key[] keys;
+        private final long[] counts;
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicReference<Table> next = new AtomicReference<>();
+        private final AtomicInteger claimed = new AtomicInteger();
+        private final AtomicInteger migrated = new AtomicInteger();
+
+        Table(int capacity) {
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.keys = new Key[capacity];
+            this.counts = new long[capacity];
+        }
+    }
+
+}
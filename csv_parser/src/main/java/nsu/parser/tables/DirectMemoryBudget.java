@@ -0,0 +1,87 @@
+package nsu.parser.tables;
+
+import nsu.parser.exceptions.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Класс {@code DirectMemoryBudget} — общее ограничение прямой памяти для нескольких {@link OffHeapWordTable},
+ * которые заполняются одновременно: частичные таблицы потоков {@code --threads}, таблицы заданий пакетного
+ * режима и общая таблица {@code --merged}.
+ * <p>
+ * Каждая таблица резервирует память перед {@link java.nio.ByteBuffer#allocateDirect(int)} и возвращает её,
+ * когда освобождает массив слотов при расширении или закрывается после слияния. Поэтому
+ * {@code --offheap-limit} ограничивает всю прямую память запуска, а не каждую таблицу в отдельности.
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>Потокобезопасен: резервирование выполняется без блокировок.</li>
+ *     <li>При нехватке бросает {@link MemoryLimitExceededException}, не выделяя память.</li>
+ * </ul>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * DirectMemoryBudget budget = new DirectMemoryBudget(4L << 30);
+ * IStatReader reader = new ParallelStatReader(path, 4, 8L << 20, () -> new OffHeapWordTable(budget));
+ * }</pre>
+ *
+ * @see OffHeapWordTable
+ */
+public final class DirectMemoryBudget {
+    private final long limit;
+    private final AtomicLong reserved = new AtomicLong();
+
+    /**
+     * Создает ограничение прямой памяти.
+     *
+     * @param limit наибольший объём прямой памяти всех таблиц в байтах.
+     */
+    public DirectMemoryBudget(long limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Возвращает ограничение прямой памяти.
+     *
+     * @return ограничение в байтах.
+     */
+    public long limit() {
+        return limit;
+    }
+
+    /**
+     * Возвращает объём памяти, который ещё можно зарезервировать.
+     *
+     * @return свободный объём в байтах.
+     */
+    public long available() {
+        return Math.max(0, limit - reserved.get());
+    }
+
+    /**
+     * Резервирует память.
+     *
+     * @param bytes объём в байтах.
+     * @throws MemoryLimitExceededException если резерв превысил бы ограничение.
+     */
+    public void reserve(long bytes) {
+        long current;
+        do {
+            current = reserved.get();
+            if (current + bytes > limit) {
+                throw new MemoryLimitExceededException("Off-heap word table exceeds limit of " + limit + " bytes");
+            }
+        } while (!reserved.compareAndSet(current, current + bytes));
+    }
+
+    /**
+     * Возвращает ранее зарезервированную память.
+     *
+     * @param bytes объём в байтах.
+     */
+    public void release(long bytes) {
+        reserved.addAndGet(-bytes);
+    }
+
+}
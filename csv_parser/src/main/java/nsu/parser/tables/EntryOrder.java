@@ -0,0 +1,59 @@
+package nsu.parser.tables;
+
+import java.util.Arrays;
+
+/**
+ * Перечисление {@code EntryOrder} задаёт порядок записей «слово → количество»,
+ * где слово представлено байтами в кодировке UTF-8.
+ * <p>
+ * Слова сравниваются побайтово как беззнаковые числа, что для UTF-8 совпадает
+ * с порядком кодовых точек Unicode.
+ * </p>
+ *
+ * @see WordCountTable#forEachKeySorted(EntryOrder, nsu.parser.io.interfaces.IMutableWordTable.EntryVisitor)
+ */
+public enum EntryOrder {
+
+    /**
+     * По возрастанию слова.
+     */
+    KEY {
+        @Override
+        public int compare(byte[] a, int aOffset, int aLength, long aCount,
+                           byte[] b, int bOffset, int bLength, long bCount) {
+            return compareKeys(a, aOffset, aLength, b, bOffset, bLength);
+        }
+    },
+
+    /**
+     * По убыванию количества, при равном количестве — по возрастанию слова.
+     */
+    COUNT_DESCENDING {
+        @Override
+        public int compare(byte[] a, int aOffset, int aLength, long aCount,
+                           byte[] b, int bOffset, int bLength, long bCount) {
+            int byCount = Long.compare(bCount, aCount);
+            return byCount != 0 ? byCount : compareKeys(a, aOffset, aLength, b, bOffset, bLength);
+        }
+    };
+
+    /**
+     * Сравнивает две записи.
+     *
+     * @return отрицательное число, ноль или положительное число, если первая запись
+     *         соответственно меньше, равна или больше второй.
+     */
+    public abstract int compare(byte[] a, int aOffset, int aLength, long aCount,
+                                byte[] b, int bOffset, int bLength, long bCount);
+
+    /**
+     * Сравнивает два слова побайтово как беззнаковые числа.
+     *
+     * @return отрицательное число, ноль или положительное число, если первое слово
+     *         соответственно меньше, равно или больше второго.
+     */
+    public static int compareKeys(byte[] a, int aOffset, int aLength, byte[] b, int bOffset, int bLength) {
+        return Arrays.compareUnsigned(a, aOffset, aOffset + aLength, b, bOffset, bOffset + bLength);
+    }
+
+}
@@ -0,0 +1,108 @@
+package nsu.parser.tables;
+
+import nsu.parser.io.interfaces.IMutableWordTable;
+import nsu.parser.text.TokenFilterChain;
+import nsu.parser.text.TokenSink;
+
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Класс {@code FilteredWordTable} пропускает слова от токенизатора через {@link TokenFilterChain}
+ * и считает результат в другой таблице.
+ * <p>
+ * Так нормализация подключается ко всем читателям, которые получают фабрику таблиц, без изменения самих
+ * читателей. Через цепочку проходят только отдельные вхождения слов ({@link #add(byte[], int, int)}), которые
+ * передаёт токенизатор. Добавление с количеством ({@link #add(byte[], int, int, long)}) используется при слиянии
+ * таблиц и загрузке индекса, где слова уже нормализованы, поэтому оно передаётся в таблицу без изменений.
+ * </p>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * IStatReader reader = new FastStatReader(Path.of("input.txt"), () -> new FilteredWordTable(new WordCountTable(), chain));
+ * }</pre>
+ *
+ * @see TokenFilterChain
+ */
+public final class FilteredWordTable implements IMutableWordTable, AutoCloseable {
+    private final IMutableWordTable delegate;
+    private final TokenSink filtered;
+
+    /**
+     * Создает таблицу, нормализующую слова перед подсчётом.
+     *
+     * @param delegate таблица, в которой считаются нормализованные слова.
+     * @param filters цепочка фильтров.
+     */
+    public FilteredWordTable(IMutableWordTable delegate, TokenFilterChain filters) {
+        this.delegate = delegate;
+        this.filtered = filters.wrap(delegate::add);
+    }
+
+    /**
+     * Возвращает таблицу с нормализованными словами.
+     *
+     * @return исходная таблица.
+     */
+    public IMutableWordTable delegate() {
+        return delegate;
+    }
+
+    @Override
+    public void add(byte[] buffer, int offset, int length) {
+        filtered.accept(buffer, offset, length);
+    }
+
+    @Override
+    public void add(byte[] buffer, int offset, int length, long count) {
+        delegate.add(buffer, offset, length, count);
+    }
+
+    /**
+     * Закрывает исходную таблицу, если она держит ресурсы.
+     */
+    @Override
+    public void close() {
+        WordTables.close(delegate);
+    }
+
+    @Override
+    public void forEachKey(EntryVisitor visitor) {
+        delegate.forEachKey(visitor);
+    }
+
+    @Override
+    public void mergeFrom(IMutableWordTable other) {
+        delegate.mergeFrom(other instanceof FilteredWordTable ? ((FilteredWordTable) other).delegate : other);
+    }
+
+    @Override
+    public long count(String word) {
+        return delegate.count(word);
+    }
+
+    @Override
+    public int distinctSize() {
+        return delegate.distinctSize();
+    }
+
+    @Override
+    public long totalCount() {
+        return delegate.totalCount();
+    }
+
+    @Override
+    public void forEachEntry(ObjLongConsumer<String> action) {
+        delegate.forEachEntry(action);
+    }
+
+    @Override
+    public boolean isApproximate() {
+        return delegate.isApproximate();
+    }
+
+    @Override
+    public long error(String word) {
+        return delegate.error(word);
+    }
+
+}
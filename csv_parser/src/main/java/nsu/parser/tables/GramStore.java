@@ -0,0 +1,44 @@
+package nsu.parser.tables;
+
+/**
+ * Хранилище счётчиков n-грамм для {@link NGramTable}: n-грамма задаётся массивом номеров слов.
+ * Массив, переданный в методы, не сохраняется и может переиспользоваться вызывающим.
+ */
+abstract class GramStore {
+    protected final int n;
+
+    GramStore(int n) {
+        this.n = n;
+    }
+
+    /**
+     * Проверяет, можно ли сохранить n-грамму с такими номерами слов.
+     */
+    abstract boolean fits(int[] ids);
+
+    abstract void add(int[] ids, long count);
+
+    abstract long count(int[] ids);
+
+    abstract int size();
+
+    abstract long estimatedBytes();
+
+    /**
+     * Передаёт каждую n-грамму в {@code visitor}; массив номеров переиспользуется.
+     */
+    abstract void forEach(GramVisitor visitor);
+
+    @FunctionalInterface
+    interface GramVisitor {
+        void visit(int[] ids, long count);
+    }
+
+    static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+}
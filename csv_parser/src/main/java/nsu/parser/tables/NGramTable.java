@@ -0,0 +1,243 @@
+package nsu.parser.tables;
+
+import nsu.parser.io.interfaces.IMutableWordTable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Класс {@code NGramTable} считает n-граммы — последовательности из {@code n} соседних слов — вместо отдельных слов.
+ * <p>
+ * Таблица получает слова по одному от токенизатора ({@link #add(byte[], int, int)}) и ведёт скользящее окно
+ * из последних {@code n} слов: каждое новое слово, начиная с {@code n}-го, даёт одну n-грамму. Слова заменяются
+ * плотными номерами в словаре ({@link WordCountTable#intern(byte[], int, int)}), и n-грамма хранится как
+ * набор номеров, а не как строка:
+ * </p>
+ * <ul>
+ *     <li>при {@code n <= 3} номера упаковываются в один {@code long} (по 32 бита для биграмм и по 21 биту
+ *         для триграмм);</li>
+ *     <li>при {@code n > 3}, а также если в словаре больше {@code 2^21} слов для триграмм, номера всех n-грамм
+ *         лежат подряд в одном массиве {@code int[]}.</li>
+ * </ul>
+ * <p>
+ * Поэтому каждое слово хранится один раз, а сама n-грамма занимает порядка 16–32 байт, как запись в таблице слов.
+ * Текст n-граммы — слова через один пробел — собирается только при обходе таблицы, так что {@code Writer} и
+ * {@code CsvWriter} выводят n-граммы без изменений.
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>Пустые слова (строки из одной пунктуации) в окно не попадают.</li>
+ *     <li>Окно не сбрасывается на границах строк: n-грамма может включать слова соседних строк.</li>
+ *     <li>Добавление с количеством ({@link #add(byte[], int, int, long)}) принимает уже собранный текст n-граммы;
+ *         так n-граммы переносятся из таблиц другого типа при слиянии.</li>
+ * </ul>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * IStatReader reader = new FastStatReader(Path.of("input.txt"), () -> new NGramTable(2));
+ * reader.getWordTable().count("добрый день"); // сколько раз слова встретились подряд
+ * }</pre>
+ *
+ * @see WordCountTable
+ */
+public final class NGramTable implements IMutableWordTable {
+    public static final byte SEPARATOR = ' ';
+    public static final int MAX_N = 16;
+
+    private final int n;
+    private final WordCountTable words = new WordCountTable();
+    private final int[] window;
+    private int filled;
+
+    private GramStore grams;
+    private long totalCount;
+    private byte[] keyBuffer = new byte[256];
+
+    /**
+     * Создает пустую таблицу n-грамм.
+     *
+     * @param n длина n-граммы в словах, от {@code 1} до {@link #MAX_N}.
+     */
+    public NGramTable(int n) {
+        if (n < 1 || n > MAX_N) {
+            throw new IllegalArgumentException("N-gram length must be from 1 to " + MAX_N + ": " + n);
+        }
+        this.n = n;
+        this.window = new int[n];
+        this.grams = n <= 3 ? new PackedGramStore(n) : new ArrayGramStore(n);
+    }
+
+    /**
+     * Возвращает длину n-граммы.
+     *
+     * @return количество слов в n-грамме.
+     */
+    public int n() {
+        return n;
+    }
+
+    /**
+     * Добавляет следующее слово потока в скользящее окно и считает n-грамму, которая им заканчивается.
+     */
+    @Override
+    public void add(byte[] buffer, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        int id = words.intern(buffer, offset, length);
+        if (filled < n) {
+            window[filled++] = id;
+            if (filled < n) {
+                return;
+            }
+        } else {
+            System.arraycopy(window, 1, window, 0, n - 1);
+            window[n - 1] = id;
+        }
+        addGram(window, 1);
+    }
+
+    /**
+     * Добавляет n-грамму, заданную текстом (слова через один пробел), с количеством {@code count}.
+     * Скользящее окно при этом не меняется.
+     *
+     * @throws IllegalArgumentException если в тексте не {@code n} слов.
+     */
+    @Override
+    public void add(byte[] buffer, int offset, int length, long count) {
+        int[] ids = new int[n];
+        int end = offset + length;
+        int start = offset;
+        int word = 0;
+        for (int i = offset; i <= end; i++) {
+            if (i == end || buffer[i] == SEPARATOR) {
+                if (word == n || i == start) {
+                    throw malformed(buffer, offset, length);
+                }
+                ids[word++] = words.intern(buffer, start, i - start);
+                start = i + 1;
+            }
+        }
+        if (word != n) {
+            throw malformed(buffer, offset, length);
+        }
+        addGram(ids, count);
+    }
+
+    @Override
+    public void forEachKey(EntryVisitor visitor) {
+        grams.forEach((ids, count) -> visitor.visit(keyBuffer, 0, render(ids), count));
+    }
+
+    /**
+     * Прибавляет n-граммы другой таблицы. Таблица n-грамм той же длины сливается по номерам слов,
+     * без сборки текста каждой n-граммы: номера её словаря один раз переводятся в номера этого словаря.
+     */
+    @Override
+    public void mergeFrom(IMutableWordTable other) {
+        if (!(other instanceof NGramTable) || ((NGramTable) other).n != n) {
+            IMutableWordTable.super.mergeFrom(other);
+            return;
+        }
+
+        NGramTable source = (NGramTable) other;
+        int[] ids = new int[source.words.distinctSize()];
+        byte[] key = new byte[64];
+        for (int id = 0; id < ids.length; id++) {
+            int length = source.words.keyLength(id);
+            if (key.length < length) {
+                key = new byte[Math.max(length, key.length * 2)];
+            }
+            source.words.copyKey(id, key, 0);
+            ids[id] = words.intern(key, 0, length);
+        }
+
+        int[] mapped = new int[n];
+        source.grams.forEach((gram, count) -> {
+            for (int i = 0; i < n; i++) {
+                mapped[i] = ids[gram[i]];
+            }
+            addGram(mapped, count);
+        });
+    }
+
+    @Override
+    public long count(String gram) {
+        String[] parts = gram.split(" ", -1);
+        if (parts.length != n) {
+            return 0;
+        }
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            byte[] bytes = parts[i].getBytes(StandardCharsets.UTF_8);
+            ids[i] = words.idOf(bytes, 0, bytes.length);
+            if (ids[i] < 0) {
+                return 0;
+            }
+        }
+        return grams.fits(ids) ? grams.count(ids) : 0;
+    }
+
+    @Override
+    public int distinctSize() {
+        return grams.size();
+    }
+
+    @Override
+    public long totalCount() {
+        return totalCount;
+    }
+
+    @Override
+    public void forEachEntry(ObjLongConsumer<String> action) {
+        grams.forEach((ids, count) ->
+                action.accept(new String(keyBuffer, 0, render(ids), StandardCharsets.UTF_8), count));
+    }
+
+    /**
+     * Возвращает приблизительный объём памяти словаря и n-грамм в байтах.
+     *
+     * @return оценка занятой памяти.
+     */
+    public long estimatedBytes() {
+        return words.estimatedBytes() + grams.estimatedBytes();
+    }
+
+    private void addGram(int[] ids, long count) {
+        if (!grams.fits(ids)) {
+            GramStore wide = new ArrayGramStore(n);
+            grams.forEach(wide::add);
+            grams = wide;
+        }
+        grams.add(ids, count);
+        totalCount += count;
+    }
+
+    private int render(int[] ids) {
+        int length = n - 1;
+        for (int id : ids) {
+            length += words.keyLength(id);
+        }
+        if (keyBuffer.length < length) {
+            keyBuffer = Arrays.copyOf(keyBuffer, Math.max(length, keyBuffer.length * 2));
+        }
+
+        int position = 0;
+        for (int i = 0; i < n; i++) {
+            if (i > 0) {
+                keyBuffer[position++] = SEPARATOR;
+            }
+            words.copyKey(ids[i], keyBuffer, position);
+            position += words.keyLength(ids[i]);
+        }
+        return length;
+    }
+
+    private IllegalArgumentException malformed(byte[] buffer, int offset, int length) {
+        return new IllegalArgumentException("Expected " + n + " words separated by spaces: "
+                + new String(buffer, offset, length, StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,331 @@
+package nsu.parser.tables;
+
+import nsu.parser.exceptions.*;
+import nsu.parser.io.interfaces.IMutableWordTable;
+import nsu.parser.metrics.Metrics;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+/**
+ * Класс {@code OffHeapWordTable} — хеш-таблица слов с открытой адресацией, все данные которой
+ * лежат вне кучи, в буферах {@link ByteBuffer#allocateDirect(int)}.
+ * <p>
+ * Нужна для входных файлов, словарь которых не помещается в разумный {@code -Xmx}: в куче остаются
+ * только несколько полей и список страниц, поэтому её размер почти не зависит от количества
+ * уникальных слов. Объём прямой памяти ограничен параметром {@code maxBytes} или общим для нескольких таблиц
+ * {@link DirectMemoryBudget}; при его превышении, как и при нехватке прямой памяти JVM,
+ * бросается {@link MemoryLimitExceededException}. Итоговый объём прямой памяти JVM дополнительно
+ * ограничивается флагом {@code -XX:MaxDirectMemorySize}, по умолчанию равным {@code -Xmx}
+ * (см. {@link #maxDirectMemory()}); все таблицы вне кучи одной JVM делят этот объём.
+ * Количество уникальных слов не может превышать {@value #MAX_DISTINCT_WORDS}.
+ * </p>
+ *
+ * <p><b>Устройство:</b></p>
+ * <ul>
+ *     <li>Массив слотов — прямой буфер из {@code long}, каждый слот хранит ссылку на запись
+ *         (номер страницы и смещение) или {@code 0}.</li>
+ *     <li>Записи лежат подряд в страницах, растущих вдвое от 64 КБ до 16 МБ (последняя страница может быть
+ *         меньше, если так требует ограничение памяти): счётчик {@code long}, хеш {@code int}, длина {@code int}
+ *         и байты слова в UTF-8.</li>
+ *     <li>При расширении перестраивается только массив слотов, записи не перемещаются.</li>
+ * </ul>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * IMutableWordTable table = new OffHeapWordTable(8L << 30);
+ * IStatReader reader = new FastStatReader(Path.of("input.txt"), () -> table);
+ * new Writer("output.csv").write(reader.getWordTable());
+ * }</pre>
+ *
+ * @see WordCountTable
+ * @see IMutableWordTable
+ */
+public final class OffHeapWordTable implements IMutableWordTable, AutoCloseable {
+    private static final int FIRST_PAGE_SIZE = 1 << 16;
+    private static final int PAGE_SIZE = 16 << 20;
+    private static final int INITIAL_CAPACITY = 1 << 12;
+    private static final int MAX_CAPACITY = 1 << 27;
+
+    /** Наибольшее количество уникальных слов в таблице: массив слотов заполняется не больше чем наполовину. */
+    public static final int MAX_DISTINCT_WORDS = MAX_CAPACITY / 2;
+
+    private static final int COUNT_OFFSET = 0;
+    private static final int HASH_OFFSET = 8;
+    private static final int LENGTH_OFFSET = 12;
+    private static final int KEY_OFFSET = 16;
+
+    private final DirectMemoryBudget budget;
+    private long allocatedBytes;
+
+    private ByteBuffer slots;
+    private int capacity;
+    private int mask;
+    private int size;
+    private long totalCount;
+
+    private final List<ByteBuffer> pages = new ArrayList<>();
+    private int[] pageEnds = new int[4];
+    private ByteBuffer currentPage;
+    private int pageOffset;
+
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Создает пустую таблицу, занимающую не больше {@code maxBytes} байт прямой памяти.
+     *
+     * @param maxBytes ограничение на объём прямой памяти таблицы в байтах.
+     * @throws MemoryLimitExceededException если ограничения не хватает даже на пустую таблицу.
+     */
+    public OffHeapWordTable(long maxBytes) {
+        this(new DirectMemoryBudget(maxBytes));
+    }
+
+    /**
+     * Создает пустую таблицу, которая берёт прямую память из общего ограничения {@code budget}.
+     * Так несколько таблиц, заполняемых одновременно, вместе не выходят за одно ограничение.
+     *
+     * @param budget общее ограничение прямой памяти.
+     * @throws MemoryLimitExceededException если ограничения не хватает даже на пустую таблицу.
+     */
+    public OffHeapWordTable(DirectMemoryBudget budget) {
+        this.budget = budget;
+        slots = allocateSlots(INITIAL_CAPACITY);
+        capacity = INITIAL_CAPACITY;
+        mask = capacity - 1;
+    }
+
+    /**
+     * Возвращает наибольший объём прямой памяти JVM: значение {@code -XX:MaxDirectMemorySize}
+     * или, если флаг не задан, {@link Runtime#maxMemory()}.
+     * <p>
+     * Флаг читается через {@link HotSpotDiagnosticMXBean}, поэтому метод загружает {@code java.management};
+     * его стоит вызывать только когда таблица вне кучи действительно нужна.
+     * </p>
+     *
+     * @return ограничение прямой памяти в байтах.
+     */
+    public static long maxDirectMemory() {
+        HotSpotDiagnosticMXBean diagnostics = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+        if (diagnostics != null) {
+            try {
+                long value = Long.parseLong(diagnostics.getVMOption("MaxDirectMemorySize").getValue());
+                if (value > 0) {
+                    return value;
+                }
+            } catch (IllegalArgumentException e) {
+                // JVM без этого флага: ограничение такое же, как у кучи.
+            }
+        }
+        return Runtime.getRuntime().maxMemory();
+    }
+
+    @Override
+    public void add(byte[] buffer, int offset, int length, long count) {
+        int hash = WordCountTable.hash(buffer, offset, length);
+        int slot = hash & mask;
+        while (true) {
+            long ref = slots.getLong(slot << 3);
+            if (ref == 0) {
+                slots.putLong(slot << 3, insert(buffer, offset, length, hash, count));
+                totalCount += count;
+                if (size * 2 > capacity) {
+                    resize();
+                }
+                return;
+            }
+
+            ByteBuffer page = pages.get(page(ref));
+            int recordOffset = recordOffset(ref);
+            if (page.getInt(recordOffset + HASH_OFFSET) == hash && keyEquals(page, recordOffset, buffer, offset, length)) {
+                page.putLong(recordOffset + COUNT_OFFSET, page.getLong(recordOffset + COUNT_OFFSET) + count);
+                totalCount += count;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    @Override
+    public long count(String word) {
+        byte[] key = word.getBytes(StandardCharsets.UTF_8);
+        int hash = WordCountTable.hash(key, 0, key.length);
+        int slot = hash & mask;
+        while (true) {
+            long ref = slots.getLong(slot << 3);
+            if (ref == 0) {
+                return 0;
+            }
+
+            ByteBuffer page = pages.get(page(ref));
+            int recordOffset = recordOffset(ref);
+            if (page.getInt(recordOffset + HASH_OFFSET) == hash && keyEquals(page, recordOffset, key, 0, key.length)) {
+                return page.getLong(recordOffset + COUNT_OFFSET);
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    @Override
+    public int distinctSize() {
+        return size;
+    }
+
+    @Override
+    public long totalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Возвращает объём прямой памяти, выделенной таблицей.
+     *
+     * @return объём прямой памяти в байтах.
+     */
+    public long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Возвращает прямую память таблицы в общее ограничение. Буферы освобождаются сборщиком мусора;
+     * после закрытия таблицей пользоваться нельзя.
+     */
+    @Override
+    public void close() {
+        budget.release(allocatedBytes);
+        allocatedBytes = 0;
+        slots = null;
+        pages.clear();
+        currentPage = null;
+    }
+
+    @Override
+    public void forEachKey(EntryVisitor visitor) {
+        for (int i = 0; i < pages.size(); i++) {
+            ByteBuffer page = pages.get(i);
+            int end = page == currentPage ? pageOffset : pageEnds[i];
+            int recordOffset = 0;
+            while (recordOffset < end) {
+                int length = page.getInt(recordOffset + LENGTH_OFFSET);
+                visitor.visit(copyKey(page, recordOffset, length), 0, length, page.getLong(recordOffset + COUNT_OFFSET));
+                recordOffset += KEY_OFFSET + length;
+            }
+        }
+    }
+
+    @Override
+    public void forEachEntry(ObjLongConsumer<String> action) {
+        forEachKey((buffer, offset, length, count) ->
+                action.accept(new String(buffer, offset, length, StandardCharsets.UTF_8), count));
+    }
+
+    private long insert(byte[] buffer, int offset, int length, int hash, long count) {
+        int recordSize = KEY_OFFSET + length;
+        if (currentPage == null || pageOffset + recordSize > currentPage.capacity()) {
+            if (currentPage != null) {
+                pageEnds[pages.size() - 1] = pageOffset;
+            }
+            int nextPageSize = currentPage == null ? FIRST_PAGE_SIZE : Math.min(PAGE_SIZE, currentPage.capacity() * 2);
+            long pageSize = Math.min(nextPageSize, budget.available());
+            currentPage = allocate((int) Math.max(pageSize, recordSize));
+            pages.add(currentPage);
+            if (pages.size() > pageEnds.length) {
+                pageEnds = Arrays.copyOf(pageEnds, pageEnds.length * 2);
+            }
+            pageOffset = 0;
+        }
+
+        currentPage.putLong(pageOffset + COUNT_OFFSET, count);
+        currentPage.putInt(pageOffset + HASH_OFFSET, hash);
+        currentPage.putInt(pageOffset + LENGTH_OFFSET, length);
+        currentPage.put(pageOffset + KEY_OFFSET, buffer, offset, length);
+
+        long ref = ((long) (pages.size() - 1) << 32) | pageOffset;
+        pageOffset += recordSize;
+        size++;
+        return ref + 1;
+    }
+
+    private void resize() {
+        if (capacity == MAX_CAPACITY) {
+            throw new MemoryLimitExceededException("Off-heap word table cannot hold more than "
+                    + MAX_DISTINCT_WORDS + " distinct words");
+        }
+
+        ByteBuffer oldSlots = slots;
+        int oldCapacity = capacity;
+        slots = allocateSlots(oldCapacity * 2);
+        allocatedBytes -= (long) oldCapacity << 3;
+        budget.release((long) oldCapacity << 3);
+        capacity = oldCapacity * 2;
+        mask = capacity - 1;
+        Metrics.global().tableResized("offheap", capacity);
+
+        for (int i = 0; i < oldCapacity; i++) {
+            long ref = oldSlots.getLong(i << 3);
+            if (ref != 0) {
+                int hash = pages.get(page(ref)).getInt(recordOffset(ref) + HASH_OFFSET);
+                int slot = hash & mask;
+                while (slots.getLong(slot << 3) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots.putLong(slot << 3, ref);
+            }
+        }
+    }
+
+    private ByteBuffer allocateSlots(int slotCount) {
+        return allocate(slotCount << 3);
+    }
+
+    private ByteBuffer allocate(int bytes) {
+        budget.reserve(bytes);
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.allocateDirect(bytes);
+        } catch (OutOfMemoryError e) {
+            budget.release(bytes);
+            throw new MemoryLimitExceededException("Off-heap word table cannot allocate " + bytes
+                    + " bytes of direct memory: " + e.getMessage() + "; raise -XX:MaxDirectMemorySize");
+        }
+        allocatedBytes += bytes;
+        return buffer.order(ByteOrder.nativeOrder());
+    }
+
+    private static boolean keyEquals(ByteBuffer page, int recordOffset, byte[] buffer, int offset, int length) {
+        if (page.getInt(recordOffset + LENGTH_OFFSET) != length) {
+            return false;
+        }
+        int keyOffset = recordOffset + KEY_OFFSET;
+        for (int i = 0; i < length; i++) {
+            if (page.get(keyOffset + i) != buffer[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] copyKey(ByteBuffer page, int recordOffset, int length) {
+        if (scratch.length < length) {
+            scratch = Arrays.copyOf(scratch, Math.max(length, scratch.length * 2));
+        }
+        page.get(recordOffset + KEY_OFFSET, scratch, 0, length);
+        return scratch;
+    }
+
+    private static int page(long ref) {
+        return (int) ((ref - 1) >>> 32);
+    }
+
+    private static int recordOffset(long ref) {
+        return (int) (ref - 1);
+    }
+
+}
@@ -0,0 +1,127 @@
+package nsu.parser.tables;
+
+import java.util.Arrays;
+
+/**
+ * Хранилище n-грамм для {@code n <= 3}: номера слов упаковываются в один {@code long}
+ * по {@code 64 / n} бит на слово (32 бита для биграмм, 21 бит для триграмм).
+ * <p>
+ * Ключи и счётчики лежат в двух параллельных массивах с открытой адресацией; пустой слот — нулевой счётчик.
+ * На n-грамму приходится 16 байт при заполнении 1/2, без объектов и без ссылок на слова.
+ * </p>
+ */
+final class PackedGramStore extends GramStore {
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private final int bits;
+    private final long idLimit;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private long[] counts = new long[INITIAL_CAPACITY];
+    private int mask = INITIAL_CAPACITY - 1;
+    private int size;
+
+    PackedGramStore(int n) {
+        super(n);
+        if (n < 1 || n > 3) {
+            throw new IllegalArgumentException("Packed n-grams support n from 1 to 3: " + n);
+        }
+        bits = Long.SIZE / n;
+        idLimit = bits >= Integer.SIZE ? Long.MAX_VALUE : 1L << bits;
+    }
+
+    @Override
+    boolean fits(int[] ids) {
+        for (int i = 0; i < n; i++) {
+            if (ids[i] >= idLimit) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    void add(int[] ids, long count) {
+        long key = pack(ids);
+        int slot = mix(key) & mask;
+        while (counts[slot] != 0) {
+            if (keys[slot] == key) {
+                counts[slot] += count;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        counts[slot] = count;
+        if (++size * 2 > keys.length) {
+            resize();
+        }
+    }
+
+    @Override
+    long count(int[] ids) {
+        long key = pack(ids);
+        for (int slot = mix(key) & mask; counts[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return counts[slot];
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    long estimatedBytes() {
+        return (long) keys.length * (Long.BYTES + Long.BYTES);
+    }
+
+    @Override
+    void forEach(GramVisitor visitor) {
+        int[] ids = new int[n];
+        long idMask = bits >= Long.SIZE ? -1L : (1L << bits) - 1;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (counts[slot] != 0) {
+                long key = keys[slot];
+                for (int i = n - 1; i >= 0; i--) {
+                    ids[i] = (int) (key & idMask);
+                    key = bits >= Long.SIZE ? 0 : key >>> bits;
+                }
+                visitor.visit(ids, counts[slot]);
+            }
+        }
+    }
+
+    private long pack(int[] ids) {
+        long key = 0;
+        for (int i = 0; i < n; i++) {
+            key = (bits >= Long.SIZE ? 0 : key << bits) | ids[i];
+        }
+        return key;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new long[oldKeys.length * 2];
+        mask = keys.length - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (counts[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+        Arrays.fill(oldKeys, 0);
+    }
+
+}
@@ -0,0 +1,361 @@
+package nsu.parser.tables;
+
+import nsu.parser.io.interfaces.IMutableWordTable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Класс {@code SpaceSavingTable} приблизительно считает самые частые слова алгоритмом Space-Saving
+ * (Metwally, Agrawal, El Abbadi) в памяти фиксированного размера, независимо от размера словаря.
+ * <p>
+ * Таблица хранит не больше {@code capacity} счётчиков. Новое слово при заполненной таблице вытесняет слово
+ * с наименьшим счётчиком {@code min} и получает счётчик {@code min + 1} с ошибкой {@code min}. Поэтому:
+ * </p>
+ * <ul>
+ *     <li>количество слова в таблице — оценка сверху: настоящее количество лежит в отрезке
+ *         {@code [count - error, count]};</li>
+ *     <li>ошибка любого слова не больше {@code N / capacity}, где {@code N} — количество всех слов потока;</li>
+ *     <li>каждое слово, встретившееся больше {@code N / capacity} раз, гарантированно есть в таблице.</li>
+ * </ul>
+ * <p>
+ * Счётчики лежат в параллельных массивах, выделенных при создании: хеш-индекс с открытой адресацией
+ * и индексированная двоичная куча по возрастанию количества. Увеличение счётчика частого слова почти
+ * всегда стоит O(1), так как частые слова лежат в листьях кучи, а вытеснение стоит O(log capacity).
+ * Байты слова хранятся в массиве своего счётчика и переиспользуются при вытеснении.
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>{@link #count(String)} возвращает {@code 0} для слова, которого нет в таблице, хотя настоящее количество
+ *         может достигать {@link #errorBound()}.</li>
+ *     <li>Таблицы сливаются ({@link #mergeFrom(IMutableWordTable)}) с сохранением оценки сверху: слово,
+ *         отсутствующее в одной из таблиц, получает её {@link #errorBound()} и в количество, и в ошибку.</li>
+ *     <li>{@link #totalCount()} точен: это количество всех слов потока, а не только отслеживаемых.</li>
+ * </ul>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * IStatReader reader = new FastStatReader(Path.of("huge.txt"), () -> SpaceSavingTable.withMaxError(0.0001));
+ * new Writer("top.csv", 100).write(reader.getWordTable()); // слово, оценка, ошибка
+ * }</pre>
+ *
+ * @see WordCountTable
+ */
+public final class SpaceSavingTable implements IMutableWordTable {
+    public static final int MAX_CAPACITY = 1 << 26;
+
+    private static final int INITIAL_KEY_CAPACITY = 16;
+
+    private final int capacity;
+    private final int[] slots;
+    private final int mask;
+
+    private final byte[][] keys;
+    private final int[] keyLengths;
+    private final int[] hashes;
+    private final long[] counts;
+    private final long[] errors;
+
+    private final int[] heap;
+    private final int[] heapIndex;
+
+    private int size;
+    private long totalCount;
+    private long floor;
+
+    /**
+     * Создает таблицу с фиксированным количеством счётчиков.
+     *
+     * @param capacity количество счётчиков, от {@code 1} до {@link #MAX_CAPACITY}.
+     */
+    public SpaceSavingTable(int capacity) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be from 1 to " + MAX_CAPACITY + ": " + capacity);
+        }
+        this.capacity = capacity;
+        this.slots = new int[Integer.highestOneBit(capacity) << 2];
+        this.mask = slots.length - 1;
+        this.keys = new byte[capacity][];
+        this.keyLengths = new int[capacity];
+        this.hashes = new int[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.heap = new int[capacity];
+        this.heapIndex = new int[capacity];
+    }
+
+    /**
+     * Создает таблицу, ошибка количеств которой не превышает доли {@code maxError} от количества всех слов.
+     *
+     * @param maxError допустимая относительная ошибка, например {@code 0.0001}.
+     * @return таблица с {@code ceil(1 / maxError)} счётчиками.
+     */
+    public static SpaceSavingTable withMaxError(double maxError) {
+        return new SpaceSavingTable(capacityFor(maxError));
+    }
+
+    /**
+     * Вычисляет количество счётчиков для допустимой относительной ошибки.
+     *
+     * @param maxError допустимая относительная ошибка из интервала {@code (0, 1)}.
+     * @return количество счётчиков.
+     * @throws IllegalArgumentException если ошибка вне интервала или требует больше {@link #MAX_CAPACITY} счётчиков.
+     */
+    public static int capacityFor(double maxError) {
+        if (!(maxError > 0 && maxError < 1)) {
+            throw new IllegalArgumentException("Max error must be between 0 and 1: " + maxError);
+        }
+        double capacity = Math.ceil(1 / maxError);
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Max error " + maxError + " needs more than " + MAX_CAPACITY + " counters");
+        }
+        return (int) capacity;
+    }
+
+    /**
+     * Возвращает количество счётчиков.
+     *
+     * @return наибольшее количество отслеживаемых слов.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Возвращает наибольшее возможное количество слова, которого нет в таблице. Пока в таблицу не сливались
+     * другие таблицы и она не заполнена, это {@code 0}; потом — наименьший счётчик, не превышающий
+     * {@code totalCount() / capacity()} для таблицы без слияний.
+     *
+     * @return граница количества неотслеживаемых слов.
+     */
+    public long errorBound() {
+        return size < capacity ? floor : counts[heap[0]];
+    }
+
+    @Override
+    public void add(byte[] buffer, int offset, int length, long count) {
+        offer(buffer, offset, length, WordCountTable.hash(buffer, offset, length), count);
+        totalCount += count;
+    }
+
+    @Override
+    public void forEachKey(EntryVisitor visitor) {
+        for (int counter = 0; counter < size; counter++) {
+            visitor.visit(keys[counter], 0, keyLengths[counter], counts[counter]);
+        }
+    }
+
+    /**
+     * Прибавляет статистику другой таблицы. Для другой {@code SpaceSavingTable} таблицы сливаются как сводки
+     * Space-Saving: к слову, которого нет в одной из таблиц, прибавляется её {@link #errorBound()} (и в количество,
+     * и в ошибку), а из объединения остаются {@code capacity} слов с наибольшими оценками. Оценка остаётся оценкой
+     * сверху, а ошибка каждого слова — не больше {@code (N1 + N2) / capacity}.
+     */
+    @Override
+    public void mergeFrom(IMutableWordTable other) {
+        if (!(other instanceof SpaceSavingTable)) {
+            IMutableWordTable.super.mergeFrom(other);
+            return;
+        }
+
+        SpaceSavingTable source = (SpaceSavingTable) other;
+        long sourceFloor = source.errorBound();
+        long ownFloor = errorBound();
+        for (int counter = 0; counter < size; counter++) {
+            int found = source.find(keys[counter], 0, keyLengths[counter], hashes[counter]);
+            counts[counter] += found < 0 ? sourceFloor : source.counts[found];
+            errors[counter] += found < 0 ? sourceFloor : source.errors[found];
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+
+        floor = Math.max(floor, ownFloor + sourceFloor);
+        for (int counter = 0; counter < source.size; counter++) {
+            byte[] key = source.keys[counter];
+            int length = source.keyLengths[counter];
+            int hash = source.hashes[counter];
+            if (find(key, 0, length, hash) >= 0) {
+                continue;
+            }
+
+            long count = source.counts[counter] + ownFloor;
+            if (size < capacity) {
+                insert(key, 0, length, hash, count, source.errors[counter] + ownFloor);
+            } else if (count > counts[heap[0]]) {
+                int evicted = heap[0];
+                floor = Math.max(floor, counts[evicted]);
+                removeSlot(evicted);
+                setKey(evicted, key, 0, length, hash);
+                counts[evicted] = count;
+                errors[evicted] = source.errors[counter] + ownFloor;
+                siftDown(0);
+            } else {
+                floor = Math.max(floor, count);
+            }
+        }
+        totalCount += source.totalCount;
+    }
+
+    @Override
+    public long count(String word) {
+        byte[] key = word.getBytes(StandardCharsets.UTF_8);
+        int counter = find(key, 0, key.length, WordCountTable.hash(key, 0, key.length));
+        return counter < 0 ? 0 : counts[counter];
+    }
+
+    @Override
+    public long error(String word) {
+        byte[] key = word.getBytes(StandardCharsets.UTF_8);
+        int counter = find(key, 0, key.length, WordCountTable.hash(key, 0, key.length));
+        return counter < 0 ? 0 : errors[counter];
+    }
+
+    @Override
+    public boolean isApproximate() {
+        return true;
+    }
+
+    @Override
+    public int distinctSize() {
+        return size;
+    }
+
+    @Override
+    public long totalCount() {
+        return totalCount;
+    }
+
+    @Override
+    public void forEachEntry(ObjLongConsumer<String> action) {
+        for (int counter = 0; counter < size; counter++) {
+            action.accept(new String(keys[counter], 0, keyLengths[counter], StandardCharsets.UTF_8), counts[counter]);
+        }
+    }
+
+    /**
+     * Возвращает объём памяти таблицы в байтах, считая по {@value #INITIAL_KEY_CAPACITY} байт на слово.
+     *
+     * @return размер массивов счётчиков, индекса и слов.
+     */
+    public long estimatedBytes() {
+        return (long) slots.length * Integer.BYTES
+                + (long) capacity * (Integer.BYTES * 4 + Long.BYTES * 2 + INITIAL_KEY_CAPACITY);
+    }
+
+    private void offer(byte[] buffer, int offset, int length, int hash, long count) {
+        int counter = find(buffer, offset, length, hash);
+        if (counter >= 0) {
+            counts[counter] += count;
+            siftDown(heapIndex[counter]);
+            return;
+        }
+
+        if (size < capacity) {
+            insert(buffer, offset, length, hash, floor + count, floor);
+            return;
+        }
+
+        counter = heap[0];
+        long min = counts[counter];
+        removeSlot(counter);
+        setKey(counter, buffer, offset, length, hash);
+        counts[counter] = min + count;
+        errors[counter] = min;
+        siftDown(0);
+    }
+
+    private void insert(byte[] buffer, int offset, int length, int hash, long count, long error) {
+        int counter = size++;
+        setKey(counter, buffer, offset, length, hash);
+        counts[counter] = count;
+        errors[counter] = error;
+        heap[counter] = counter;
+        heapIndex[counter] = counter;
+        siftUp(counter);
+    }
+
+    private void setKey(int counter, byte[] buffer, int offset, int length, int hash) {
+        if (keys[counter] == null || keys[counter].length < length) {
+            keys[counter] = new byte[Math.max(length, INITIAL_KEY_CAPACITY)];
+        }
+        System.arraycopy(buffer, offset, keys[counter], 0, length);
+        keyLengths[counter] = length;
+        hashes[counter] = hash;
+
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = counter + 1;
+    }
+
+    private int find(byte[] buffer, int offset, int length, int hash) {
+        for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int counter = slots[slot] - 1;
+            if (hashes[counter] == hash && keyLengths[counter] == length
+                    && Arrays.equals(keys[counter], 0, length, buffer, offset, offset + length)) {
+                return counter;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Удаляет счётчик из индекса сдвигом следующих слотов цепочки назад, чтобы поиск не прерывался на дыре.
+     */
+    private void removeSlot(int counter) {
+        int slot = hashes[counter] & mask;
+        while (slots[slot] != counter + 1) {
+            slot = (slot + 1) & mask;
+        }
+
+        int hole = slot;
+        for (int next = (hole + 1) & mask; slots[next] != 0; next = (next + 1) & mask) {
+            int home = hashes[slots[next] - 1] & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                slots[hole] = slots[next];
+                hole = next;
+            }
+        }
+        slots[hole] = 0;
+    }
+
+    private void siftUp(int index) {
+        int counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[counter]) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        int counter = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[counter] <= counts[heap[child]]) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(int counter, int index) {
+        heap[index] = counter;
+        heapIndex[counter] = index;
+    }
+
+}
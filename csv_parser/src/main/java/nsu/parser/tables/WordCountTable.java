@@ -0,0 +1,380 @@
+package nsu.parser.tables;
+
+import nsu.parser.io.interfaces.IMutableWordTable;
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.metrics.Metrics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Класс {@code WordCountTable} — хеш-таблица с открытой адресацией для подсчёта слов,
+ * заданных срезами байтового массива в кодировке UTF-8.
+ * <p>
+ * Поиск слова выполняется прямо по срезу буфера токенизатора, поэтому на каждое вхождение
+ * не создаётся ни одного объекта. Байты слова копируются в арену только при первой встрече,
+ * а {@link String} создаётся лишь при обходе таблицы.
+ * </p>
+ *
+ * <p><b>Устройство:</b></p>
+ * <ul>
+ *     <li>Массив слотов {@code int[]} с линейным пробированием хранит номер записи; ёмкость — степень двойки,
+ *         коэффициент заполнения не выше 1/2. При расширении перестраивается только этот массив.</li>
+ *     <li>Записи лежат подряд в параллельных примитивных массивах: ссылка на ключ в арене, длина ключа,
+ *         хеш ключа и счётчик {@code long}.</li>
+ *     <li>Ключи хранятся в арене — наборе страниц {@code byte[]}, а не отдельными объектами. Страницы растут
+ *         вдвое от 4 КБ до 1 МБ, чтобы маленькие таблицы не занимали лишнего.</li>
+ * </ul>
+ * На одно уникальное слово приходится около 32 байт плюс байты самого слова, без объектов-обёрток.
+ *
+ * @see nsu.parser.text.Utf8Tokenizer
+ * @see IWordTable
+ */
+public final class WordCountTable implements IMutableWordTable {
+    private static final int DEFAULT_CAPACITY = 1 << 10;
+    private static final int FIRST_PAGE_SIZE = 1 << 12;
+    private static final int PAGE_SIZE = 1 << 20;
+
+    private int[] slots;
+    private int mask;
+
+    private long[] keyRefs;
+    private int[] keyLengths;
+    private int[] hashes;
+    private long[] counts;
+    private int size;
+    private long totalCount;
+
+    private byte[][] pages = new byte[4][];
+    private int pageCount;
+    private int pageOffset;
+    private long pageBytes;
+
+    /**
+     * Создает пустую таблицу начальной ёмкости.
+     */
+    public WordCountTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Создает пустую таблицу, рассчитанную примерно на {@code expectedSize} уникальных слов.
+     *
+     * @param expectedSize ожидаемое количество уникальных слов.
+     */
+    public WordCountTable(int expectedSize) {
+        int entries = Math.max(16, expectedSize);
+        int capacity = Integer.highestOneBit(entries * 2 - 1) << 1;
+        slots = new int[capacity];
+        mask = capacity - 1;
+
+        keyRefs = new long[entries];
+        keyLengths = new int[entries];
+        hashes = new int[entries];
+        counts = new long[entries];
+    }
+
+    @Override
+    public void add(byte[] buffer, int offset, int length) {
+        add(buffer, offset, length, 1);
+    }
+
+    @Override
+    public void add(byte[] buffer, int offset, int length, long count) {
+        add(buffer, offset, length, hash(buffer, offset, length), count);
+    }
+
+    /**
+     * Переносит в таблицу все слова и счётчики из {@code other}.
+     * Для другой {@code WordCountTable} сохранённые хеши ключей не пересчитываются.
+     *
+     * @param other таблица, счётчики которой прибавляются к текущей.
+     */
+    @Override
+    public void mergeFrom(IMutableWordTable other) {
+        if (!(other instanceof WordCountTable)) {
+            IMutableWordTable.super.mergeFrom(other);
+            return;
+        }
+
+        mergeFrom((WordCountTable) other);
+    }
+
+    @Override
+    public void forEachKey(EntryVisitor visitor) {
+        for (int entry = 0; entry < size; entry++) {
+            long ref = keyRefs[entry];
+            visitor.visit(pages[page(ref)], pageOffset(ref), keyLengths[entry], counts[entry]);
+        }
+    }
+
+    private void mergeFrom(WordCountTable other) {
+        for (int entry = 0; entry < other.size; entry++) {
+            long ref = other.keyRefs[entry];
+            add(other.pages[page(ref)], pageOffset(ref), other.keyLengths[entry], other.hashes[entry], other.counts[entry]);
+        }
+    }
+
+    /**
+     * Возвращает номер записи слова, добавляя слово с нулевым количеством, если его ещё нет.
+     * Записи не перемещаются, поэтому номер слова не меняется при росте таблицы: таблицу можно использовать
+     * как словарь, сопоставляющий словам плотные номера {@code 0..distinctSize()-1}.
+     *
+     * @param buffer массив с байтами слова.
+     * @param offset индекс первого байта слова.
+     * @param length длина слова в байтах.
+     * @return номер записи слова.
+     */
+    public int intern(byte[] buffer, int offset, int length) {
+        int hash = hash(buffer, offset, length);
+        int slot = hash & mask;
+        while (true) {
+            int entry = slots[slot] - 1;
+            if (entry < 0) {
+                entry = insert(buffer, offset, length, hash, 0);
+                slots[slot] = entry + 1;
+                if (size * 2 > slots.length) {
+                    resize();
+                }
+                return entry;
+            }
+            if (hashes[entry] == hash && keyEquals(entry, buffer, offset, length)) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Возвращает номер записи слова, не добавляя его.
+     *
+     * @param buffer массив с байтами слова.
+     * @param offset индекс первого байта слова.
+     * @param length длина слова в байтах.
+     * @return номер записи или {@code -1}, если слова нет.
+     */
+    public int idOf(byte[] buffer, int offset, int length) {
+        return find(buffer, offset, length, hash(buffer, offset, length));
+    }
+
+    /**
+     * Возвращает длину слова с номером {@code id} в байтах.
+     *
+     * @param id номер записи.
+     * @return длина слова.
+     */
+    public int keyLength(int id) {
+        return keyLengths[id];
+    }
+
+    /**
+     * Копирует байты слова с номером {@code id} в {@code target}.
+     *
+     * @param id номер записи.
+     * @param target массив, в котором достаточно места для {@link #keyLength(int)} байт.
+     * @param targetOffset позиция в {@code target}.
+     */
+    public void copyKey(int id, byte[] target, int targetOffset) {
+        long ref = keyRefs[id];
+        System.arraycopy(pages[page(ref)], pageOffset(ref), target, targetOffset, keyLengths[id]);
+    }
+
+    @Override
+    public long count(String word) {
+        byte[] key = word.getBytes(StandardCharsets.UTF_8);
+        int entry = find(key, 0, key.length, hash(key, 0, key.length));
+        return entry < 0 ? 0 : counts[entry];
+    }
+
+    @Override
+    public int distinctSize() {
+        return size;
+    }
+
+    @Override
+    public long totalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Оценивает объём памяти, занятой массивами таблицы и ареной ключей.
+     *
+     * @return приблизительный объём памяти в байтах.
+     */
+    public long estimatedBytes() {
+        return (long) slots.length * Integer.BYTES
+                + (long) counts.length * (Long.BYTES + Integer.BYTES + Integer.BYTES + Long.BYTES)
+                + pageBytes;
+    }
+
+    /**
+     * Передаёт байты каждого слова и его количество в {@code visitor} в заданном порядке.
+     * Сортируется только массив номеров записей, сами ключи не перемещаются.
+     *
+     * @param order порядок обхода.
+     * @param visitor обработчик записи таблицы.
+     */
+    public void forEachKeySorted(EntryOrder order, EntryVisitor visitor) {
+        int[] entries = new int[size];
+        for (int entry = 0; entry < size; entry++) {
+            entries[entry] = entry;
+        }
+        mergeSort(entries, new int[size], 0, size, order);
+
+        for (int entry : entries) {
+            long ref = keyRefs[entry];
+            visitor.visit(pages[page(ref)], pageOffset(ref), keyLengths[entry], counts[entry]);
+        }
+    }
+
+    @Override
+    public void forEachEntry(ObjLongConsumer<String> action) {
+        for (int entry = 0; entry < size; entry++) {
+            long ref = keyRefs[entry];
+            action.accept(new String(pages[page(ref)], pageOffset(ref), keyLengths[entry], StandardCharsets.UTF_8), counts[entry]);
+        }
+    }
+
+    private void add(byte[] buffer, int offset, int length, int hash, long count) {
+        totalCount += count;
+        int slot = hash & mask;
+        while (true) {
+            int entry = slots[slot] - 1;
+            if (entry < 0) {
+                slots[slot] = insert(buffer, offset, length, hash, count) + 1;
+                if (size * 2 > slots.length) {
+                    resize();
+                }
+                return;
+            }
+
+            if (hashes[entry] == hash && keyEquals(entry, buffer, offset, length)) {
+                counts[entry] += count;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int find(byte[] buffer, int offset, int length, int hash) {
+        int slot = hash & mask;
+        while (true) {
+            int entry = slots[slot] - 1;
+            if (entry < 0) {
+                return -1;
+            }
+            if (hashes[entry] == hash && keyEquals(entry, buffer, offset, length)) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean keyEquals(int entry, byte[] buffer, int offset, int length) {
+        if (keyLengths[entry] != length) {
+            return false;
+        }
+        long ref = keyRefs[entry];
+        int keyOffset = pageOffset(ref);
+        return Arrays.equals(pages[page(ref)], keyOffset, keyOffset + length, buffer, offset, offset + length);
+    }
+
+    private int insert(byte[] buffer, int offset, int length, int hash, long count) {
+        if (size == counts.length) {
+            int capacity = size * 2;
+            keyRefs = Arrays.copyOf(keyRefs, capacity);
+            keyLengths = Arrays.copyOf(keyLengths, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+
+        int entry = size++;
+        keyRefs[entry] = store(buffer, offset, length);
+        keyLengths[entry] = length;
+        hashes[entry] = hash;
+        counts[entry] = count;
+        return entry;
+    }
+
+    private long store(byte[] buffer, int offset, int length) {
+        if (pageCount == 0 || pageOffset + length > pages[pageCount - 1].length) {
+            if (pageCount == pages.length) {
+                pages = Arrays.copyOf(pages, pageCount * 2);
+            }
+            int pageSize = pageCount == 0 ? FIRST_PAGE_SIZE : Math.min(PAGE_SIZE, pages[pageCount - 1].length * 2);
+            pages[pageCount++] = new byte[Math.max(pageSize, length)];
+            pageBytes += pages[pageCount - 1].length;
+            pageOffset = 0;
+        }
+
+        System.arraycopy(buffer, offset, pages[pageCount - 1], pageOffset, length);
+        long ref = ((long) (pageCount - 1) << 32) | pageOffset;
+        pageOffset += length;
+        return ref;
+    }
+
+    private void mergeSort(int[] entries, int[] buffer, int from, int to, EntryOrder order) {
+        if (to - from < 2) {
+            return;
+        }
+
+        int middle = (from + to) >>> 1;
+        mergeSort(entries, buffer, from, middle, order);
+        mergeSort(entries, buffer, middle, to, order);
+        if (compareEntries(entries[middle - 1], entries[middle], order) <= 0) {
+            return;
+        }
+
+        System.arraycopy(entries, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && compareEntries(buffer[left], buffer[right], order) <= 0)) {
+                entries[i] = buffer[left++];
+            } else {
+                entries[i] = buffer[right++];
+            }
+        }
+    }
+
+    private int compareEntries(int a, int b, EntryOrder order) {
+        long aRef = keyRefs[a];
+        long bRef = keyRefs[b];
+        return order.compare(pages[page(aRef)], pageOffset(aRef), keyLengths[a], counts[a],
+                pages[page(bRef)], pageOffset(bRef), keyLengths[b], counts[b]);
+    }
+
+    private void resize() {
+        int capacity = slots.length * 2;
+        slots = new int[capacity];
+        mask = capacity - 1;
+        Metrics.global().tableResized("heap", capacity);
+
+        for (int entry = 0; entry < size; entry++) {
+            int slot = hashes[entry] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry + 1;
+        }
+    }
+
+    private static int page(long ref) {
+        return (int) (ref >>> 32);
+    }
+
+    private static int pageOffset(long ref) {
+        return (int) ref;
+    }
+
+    static int hash(byte[] buffer, int offset, int length) {
+        int h = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            h = 31 * h + buffer[i];
+        }
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+}
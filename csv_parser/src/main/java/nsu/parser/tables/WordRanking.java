@@ -0,0 +1,341 @@
+package nsu.parser.tables;
+
+import nsu.parser.io.interfaces.IWordTable;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Класс {@code WordRanking} — слова таблицы, упорядоченные по убыванию количества,
+ * а при равном количестве — по возрастанию слова (в порядке кодовых точек Unicode,
+ * что совпадает с {@link EntryOrder#COUNT_DESCENDING}).
+ * <p>
+ * Порядок детерминирован и не зависит от порядка обхода таблицы. Сам {@code WordRanking} тоже является
+ * {@link IWordTable}: он обходится в упорядоченном виде и хранит суммарное количество слов исходной таблицы,
+ * поэтому его можно передать любому {@link nsu.parser.io.interfaces.IWriter} как неизменяемый снимок.
+ * Если исходная таблица приблизительная ({@link IWordTable#isApproximate()}), вместе с количеством сохраняется
+ * ошибка каждого слова.
+ * </p>
+ *
+ * <p><b>Способы построения:</b></p>
+ * <ul>
+ *     <li>{@link #sorted(IWordTable)} — все слова. Количество ограничено числом слов во входном файле, поэтому
+ *         слова группируются по количеству сортировкой подсчётом за O(n + max), а при большом максимуме —
+ *         поразрядной сортировкой по байтам количества. Сравнением сортируются только слова с равным количеством.</li>
+ *     <li>{@link #top(IWordTable, int)} — только первые {@code n} слов. Используется ограниченная куча
+ *         размера {@code n}, вся таблица не сортируется.</li>
+ * </ul>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * WordRanking ranking = WordRanking.top(table, 10);
+ * for (int i = 0; i < ranking.size(); i++) {
+ *     System.out.println(ranking.word(i) + " " + ranking.count(i));
+ * }
+ * }</pre>
+ *
+ * @see IWordTable
+ */
+public final class WordRanking implements IWordTable {
+    private static final int COUNTING_SORT_FACTOR = 4;
+    private static final int COUNTING_SORT_MIN_RANGE = 1 << 16;
+
+    /**
+     * Сравнивает строки в порядке кодовых точек Unicode, в отличие от {@link String#compareTo(String)},
+     * который сравнивает кодовые единицы UTF-16.
+     */
+    public static final Comparator<String> WORD_ORDER = WordRanking::compareWords;
+
+    private final String[] words;
+    private final long[] counts;
+    private final long[] errors;
+    private final long totalCount;
+
+    private WordRanking(String[] words, long[] counts, long[] errors, long totalCount) {
+        this.words = words;
+        this.counts = counts;
+        this.errors = errors;
+        this.totalCount = totalCount;
+    }
+
+    private WordRanking(String[] words, long[] counts, IWordTable table) {
+        this(words, counts, errorsOf(table, words), table.totalCount());
+    }
+
+    /**
+     * Упорядочивает все слова таблицы.
+     *
+     * @param table таблица слов.
+     * @return упорядоченные слова.
+     */
+    public static WordRanking sorted(IWordTable table) {
+        if (table instanceof WordRanking) {
+            return (WordRanking) table;
+        }
+
+        int size = table.distinctSize();
+        String[] words = new String[size];
+        long[] counts = new long[size];
+        int[] index = {0};
+        table.forEachEntry((word, count) -> {
+            words[index[0]] = word;
+            counts[index[0]++] = count;
+        });
+
+        long max = 0;
+        for (long count : counts) {
+            max = Math.max(max, count);
+        }
+        int[] order = max <= (long) COUNTING_SORT_FACTOR * size + COUNTING_SORT_MIN_RANGE
+                ? countingSortDescending(counts, (int) max)
+                : radixSortDescending(counts, max);
+
+        String[] sortedWords = new String[size];
+        long[] sortedCounts = new long[size];
+        for (int i = 0; i < size; i++) {
+            sortedWords[i] = words[order[i]];
+            sortedCounts[i] = counts[order[i]];
+        }
+
+        for (int from = 0; from < size; ) {
+            int to = from + 1;
+            while (to < size && sortedCounts[to] == sortedCounts[from]) {
+                to++;
+            }
+            if (to - from > 1) {
+                Arrays.sort(sortedWords, from, to, WORD_ORDER);
+            }
+            from = to;
+        }
+
+        return new WordRanking(sortedWords, sortedCounts, table);
+    }
+
+    /**
+     * Выбирает {@code n} первых слов таблицы, не сортируя её целиком.
+     *
+     * @param table таблица слов.
+     * @param n сколько слов выбрать.
+     * @return упорядоченные первые {@code n} слов (или меньше, если в таблице меньше слов).
+     */
+    public static WordRanking top(IWordTable table, int n) {
+        if (table instanceof WordRanking) {
+            WordRanking ranking = (WordRanking) table;
+            int size = Math.min(n, ranking.size());
+            return new WordRanking(Arrays.copyOf(ranking.words, size), Arrays.copyOf(ranking.counts, size),
+                    ranking.errors == null ? null : Arrays.copyOf(ranking.errors, size), ranking.totalCount);
+        }
+
+        Comparator<Entry> worstFirst = (a, b) -> compare(b.word, b.count, a.word, a.count);
+        PriorityQueue<Entry> heap = new PriorityQueue<>(Math.max(1, Math.min(n, table.distinctSize())), worstFirst);
+        table.forEachEntry((word, count) -> {
+            if (heap.size() < n) {
+                heap.add(new Entry(word, count));
+            } else if (n > 0 && compare(word, count, heap.peek().word, heap.peek().count) < 0) {
+                heap.poll();
+                heap.add(new Entry(word, count));
+            }
+        });
+
+        int size = heap.size();
+        String[] words = new String[size];
+        long[] counts = new long[size];
+        for (int i = size - 1; i >= 0; i--) {
+            Entry entry = heap.poll();
+            words[i] = entry.word;
+            counts[i] = entry.count;
+        }
+        return new WordRanking(words, counts, table);
+    }
+
+    /**
+     * Возвращает количество слов.
+     *
+     * @return количество слов.
+     */
+    public int size() {
+        return words.length;
+    }
+
+    /**
+     * Возвращает слово на позиции {@code i}.
+     *
+     * @param i позиция слова, начиная с {@code 0}.
+     * @return слово.
+     */
+    public String word(int i) {
+        return words[i];
+    }
+
+    /**
+     * Возвращает количество слова на позиции {@code i}.
+     *
+     * @param i позиция слова, начиная с {@code 0}.
+     * @return количество вхождений слова.
+     */
+    public long count(int i) {
+        return counts[i];
+    }
+
+    /**
+     * Возвращает ошибку количества слова на позиции {@code i}.
+     *
+     * @param i позиция слова, начиная с {@code 0}.
+     * @return ошибка количества; {@code 0}, если ранжирование точное.
+     */
+    public long error(int i) {
+        return errors == null ? 0 : errors[i];
+    }
+
+    @Override
+    public boolean isApproximate() {
+        return errors != null;
+    }
+
+    @Override
+    public long error(String word) {
+        for (int i = 0; errors != null && i < words.length; i++) {
+            if (words[i].equals(word)) {
+                return errors[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Ищет слово перебором, так как {@code WordRanking} не хранит хеш-индекса.
+     *
+     * @param word слово.
+     * @return количество вхождений или {@code 0}, если слова нет.
+     */
+    @Override
+    public long count(String word) {
+        for (int i = 0; i < words.length; i++) {
+            if (words[i].equals(word)) {
+                return counts[i];
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int distinctSize() {
+        return words.length;
+    }
+
+    /**
+     * Возвращает суммарное количество вхождений всех слов исходной таблицы, включая не попавшие в выборку.
+     *
+     * @return суммарное количество вхождений.
+     */
+    @Override
+    public long totalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Обходит слова в порядке ранжирования.
+     *
+     * @param action обработчик пары «слово, количество».
+     */
+    @Override
+    public void forEachEntry(ObjLongConsumer<String> action) {
+        for (int i = 0; i < words.length; i++) {
+            action.accept(words[i], counts[i]);
+        }
+    }
+
+    private static long[] errorsOf(IWordTable table, String[] words) {
+        if (!table.isApproximate()) {
+            return null;
+        }
+        long[] errors = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            errors[i] = table.error(words[i]);
+        }
+        return errors;
+    }
+
+    private static int compare(String aWord, long aCount, String bWord, long bCount) {
+        int byCount = Long.compare(bCount, aCount);
+        return byCount != 0 ? byCount : compareWords(aWord, bWord);
+    }
+
+    private static int compareWords(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(i);
+            if (ca != cb) {
+                if (ca >= Character.MIN_SURROGATE && cb >= Character.MIN_SURROGATE) {
+                    ca = fixupForCodePointOrder(ca);
+                    cb = fixupForCodePointOrder(cb);
+                }
+                return ca - cb;
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    private static char fixupForCodePointOrder(char c) {
+        return (char) (c >= 0xE000 ? c - 0x800 : c + 0x2000);
+    }
+
+    private static int[] countingSortDescending(long[] counts, int max) {
+        int[] starts = new int[max + 2];
+        for (long count : counts) {
+            starts[max - (int) count + 1]++;
+        }
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+
+        int[] order = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            order[starts[max - (int) counts[i]]++] = i;
+        }
+        return order;
+    }
+
+    private static int[] radixSortDescending(long[] counts, long max) {
+        int size = counts.length;
+        int[] order = new int[size];
+        int[] buffer = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+
+        int passes = (Long.SIZE - Long.numberOfLeadingZeros(max) + 7) / 8;
+        for (int pass = 0; pass < passes; pass++) {
+            int shift = pass * 8;
+            int[] starts = new int[257];
+            for (int i = 0; i < size; i++) {
+                starts[(int) (((max - counts[i]) >>> shift) & 0xFF) + 1]++;
+            }
+            for (int i = 1; i < starts.length; i++) {
+                starts[i] += starts[i - 1];
+            }
+            for (int i = 0; i < size; i++) {
+                int entry = order[i];
+                buffer[starts[(int) (((max - counts[entry]) >>> shift) & 0xFF)]++] = entry;
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        return order;
+    }
+
+    private static final class Entry {
+        private final String word;
+        private final long count;
+
+        Entry(String word, long count) {
+            this.word = word;
+            this.count = count;
+        }
+    }
+
+}
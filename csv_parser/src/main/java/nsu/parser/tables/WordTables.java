@@ -0,0 +1,90 @@
+package nsu.parser.tables;
+
+import nsu.parser.io.interfaces.IWordTable;
+
+import java.util.function.ObjLongConsumer;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+
+/**
+ * Класс {@code WordTables} содержит адаптеры между {@link IWordTable} и {@link Multiset}.
+ * <p>
+ * Нужен для совместимости: реализации {@link nsu.parser.io.interfaces.IStatReader}, которые строят только
+ * {@link Multiset}, получают представление в виде {@link IWordTable}, а реализации
+ * {@link nsu.parser.io.interfaces.IWriter}, которые принимают только {@link Multiset}, — копию таблицы.
+ * </p>
+ *
+ * @see IWordTable
+ */
+public final class WordTables {
+
+    private WordTables() {}
+
+    /**
+     * Копирует таблицу в {@link HashMultiset}.
+     *
+     * @param table таблица слов.
+     * @return {@link Multiset} со словами и их количеством.
+     * @throws IllegalStateException если количество какого-либо слова превышает {@link Integer#MAX_VALUE}.
+     */
+    public static Multiset<String> toMultiset(IWordTable table) {
+        Multiset<String> multiset = HashMultiset.create(table.distinctSize());
+        table.forEachEntry((word, count) -> {
+            if (count > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Count of word '" + word + "' does not fit into Multiset: " + count);
+            }
+            multiset.add(word, (int) count);
+        });
+        return multiset;
+    }
+
+    /**
+     * Возвращает представление {@link Multiset} в виде {@link IWordTable} без копирования.
+     *
+     * @param multiset {@link Multiset} со словами и их количеством.
+     * @return таблица, отражающая {@code multiset}.
+     */
+    public static IWordTable fromMultiset(Multiset<String> multiset) {
+        return new IWordTable() {
+            @Override
+            public long count(String word) {
+                return multiset.count(word);
+            }
+
+            @Override
+            public int distinctSize() {
+                return multiset.elementSet().size();
+            }
+
+            @Override
+            public long totalCount() {
+                return multiset.size();
+            }
+
+            @Override
+            public void forEachEntry(ObjLongConsumer<String> action) {
+                multiset.forEachEntry(action::accept);
+            }
+        };
+    }
+
+    /**
+     * Закрывает таблицу, которая больше не нужна, если она держит ресурсы: прямую память
+     * ({@link OffHeapWordTable}) или временные файлы. Остальные таблицы просто оставляются сборщику мусора.
+     *
+     * @param table таблица слов.
+     */
+    public static void close(IWordTable table) {
+        if (table instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) table).close();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to close word table", e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+package nsu.parser.text;
+
+/**
+ * Фильтр {@code CaseFoldingFilter} приводит слово к единому регистру одинаково при любой локали JVM.
+ * <p>
+ * Каждый code point заменяется на {@code Character.toLowerCase(Character.toUpperCase(cp))} — простое
+ * свёртывание регистра Unicode без учёта локали. В отличие от {@link String#toLowerCase()}, результат не зависит
+ * от локали по умолчанию (турецкая {@code I} не превращается в {@code ı}), а варианты одной буквы совпадают:
+ * греческая конечная {@code ς} и {@code σ}, длинная {@code ſ} и {@code s}.
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>Если длина в байтах не меняется ни у одного символа (почти всегда), символы заменяются на месте
+ *         за один проход.</li>
+ *     <li>Иначе слово сначала сдвигается в конец массива, а затем записывается с начала — даже если в целом
+ *         оно укорачивается: удлинившийся символ в начале затёр бы ещё не прочитанные байты. Запись не догоняет
+ *         чтение, так как символ удлиняется не больше чем в полтора раза.</li>
+ * </ul>
+ *
+ * @see TokenFilter
+ */
+public final class CaseFoldingFilter implements TokenFilter {
+
+    @Override
+    public int apply(byte[] buffer, int length) {
+        boolean resized = false;
+        for (int i = 0; i < length && !resized; ) {
+            if (buffer[i] >= 0) {
+                i++;
+                continue;
+            }
+            int sequence = Utf8.sequenceLength(buffer, i, length);
+            int cp = Utf8.decode(buffer, i, length);
+            resized = cp != Utf8.INVALID && Utf8.encodedLength(fold(cp)) != sequence;
+            i += sequence;
+        }
+
+        int from = 0;
+        if (resized) {
+            from = buffer.length - length;
+            System.arraycopy(buffer, 0, buffer, from, length);
+        }
+
+        int out = 0;
+        for (int i = from, end = from + length; i < end; ) {
+            byte b = buffer[i];
+            if (b >= 0) {
+                buffer[out++] = (byte) fold(b);
+                i++;
+                continue;
+            }
+
+            int sequence = Utf8.sequenceLength(buffer, i, end);
+            int cp = Utf8.decode(buffer, i, end);
+            if (cp == Utf8.INVALID) {
+                buffer[out++] = b;
+            } else {
+                out = Utf8.encode(fold(cp), buffer, out);
+            }
+            i += sequence;
+        }
+        return out;
+    }
+
+    private static int fold(int cp) {
+        if (cp < 0x80) {
+            return cp >= 'A' && cp <= 'Z' ? cp + ('a' - 'A') : cp;
+        }
+        return Character.toLowerCase(Character.toUpperCase(cp));
+    }
+
+}
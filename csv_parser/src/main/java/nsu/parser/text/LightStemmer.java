@@ -0,0 +1,149 @@
+package nsu.parser.text;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Фильтр {@code LightStemmer} — «лёгкий» стеммер для русского и английского языков: отрезает только
+ * окончания словоизменения, чтобы формы одного слова («книга», «книги», «книгами»; «book», «books»)
+ * считались вместе. Словообразовательные суффиксы не трогаются, поэтому разные слова почти не склеиваются.
+ * <p>
+ * Русский стеммер следует «лёгкому» стеммеру Ж. Савуа: сначала отрезается самое длинное подходящее падежное
+ * окончание, затем конечные {@code ь}, {@code и} и удвоенная {@code н}; основа при этом не короче трёх букв.
+ * Английский — S-stemmer Д. Харман: снимается только окончание множественного числа
+ * ({@code -ies → -y}, {@code -es}, {@code -s}).
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>Язык слова определяется по первому байту: кириллица ({@code 0xD0}, {@code 0xD1}) или латинская буква.</li>
+ *     <li>Окончания сравниваются с заранее закодированными байтами UTF-8, слово только укорачивается на месте.</li>
+ *     <li>Слово должно быть в нижнем регистре.</li>
+ * </ul>
+ *
+ * @see TokenFilter
+ */
+public final class LightStemmer implements TokenFilter {
+    private static final int MIN_RUSSIAN_STEM = 3;
+
+    private static final byte[][][] RUSSIAN_ENDINGS = {
+            encode("иями", "оями"),
+            encode("иям", "иях", "оях", "ями", "оям", "ами", "его", "ему", "ими", "ого", "ому", "ыми", "оев", "иев"),
+            encode("ая", "яя", "ях", "юю", "ах", "ею", "их", "ия", "ию", "ою", "ую", "ям", "ых", "ея", "ам", "ем",
+                    "ей", "ём", "ев", "ий", "им", "ое", "ой", "ом", "ов", "ые", "ый", "ым", "ми"),
+            encode("а", "е", "и", "о", "у", "й", "ы", "я", "ь"),
+    };
+    private static final byte[] SOFT_SIGN = encode("ь")[0];
+    private static final byte[] I = encode("и")[0];
+    private static final byte[] DOUBLE_N = encode("нн")[0];
+
+    private final boolean russian;
+    private final boolean english;
+
+    /**
+     * Создает стеммер для выбранных языков.
+     *
+     * @param russian отрезать русские окончания.
+     * @param english снимать английское множественное число.
+     */
+    public LightStemmer(boolean russian, boolean english) {
+        this.russian = russian;
+        this.english = english;
+    }
+
+    @Override
+    public int apply(byte[] buffer, int length) {
+        if (length == 0) {
+            return length;
+        }
+        int first = buffer[0] & 0xFF;
+        if (russian && (first == 0xD0 || first == 0xD1)) {
+            return stemRussian(buffer, length);
+        }
+        if (english && first >= 'a' && first <= 'z') {
+            return stemEnglish(buffer, length);
+        }
+        return length;
+    }
+
+    private static int stemRussian(byte[] buffer, int length) {
+        int letters = 0;
+        for (int i = 0; i < length; i++) {
+            int b = buffer[i] & 0xFF;
+            if (b != 0xD0 && b != 0xD1) {
+                if ((b & 0xC0) != 0x80) {
+                    return length;
+                }
+            } else {
+                letters++;
+            }
+        }
+
+        for (byte[][] endings : RUSSIAN_ENDINGS) {
+            int endingLetters = endings[0].length / 2;
+            if (letters - endingLetters < MIN_RUSSIAN_STEM) {
+                continue;
+            }
+            for (byte[] ending : endings) {
+                if (endsWith(buffer, length, ending)) {
+                    length -= ending.length;
+                    letters -= endingLetters;
+                    return normalizeRussian(buffer, length, letters);
+                }
+            }
+        }
+        return normalizeRussian(buffer, length, letters);
+    }
+
+    private static int normalizeRussian(byte[] buffer, int length, int letters) {
+        if (letters > MIN_RUSSIAN_STEM && (endsWith(buffer, length, SOFT_SIGN) || endsWith(buffer, length, I)
+                || endsWith(buffer, length, DOUBLE_N))) {
+            return length - 2;
+        }
+        return length;
+    }
+
+    private static int stemEnglish(byte[] buffer, int length) {
+        if (length < 3 || buffer[length - 1] != 's') {
+            return length;
+        }
+
+        switch (buffer[length - 2]) {
+            case 'u':
+            case 's':
+                return length;
+            case 'e':
+                if (length > 3 && buffer[length - 3] == 'i' && buffer[length - 4] != 'a' && buffer[length - 4] != 'e') {
+                    buffer[length - 3] = 'y';
+                    return length - 2;
+                }
+                if (buffer[length - 3] == 'i' || buffer[length - 3] == 'a' || buffer[length - 3] == 'o'
+                        || buffer[length - 3] == 'e') {
+                    return length;
+                }
+                return length - 1;
+            default:
+                return length - 1;
+        }
+    }
+
+    private static boolean endsWith(byte[] buffer, int length, byte[] suffix) {
+        if (length < suffix.length) {
+            return false;
+        }
+        for (int i = 0, from = length - suffix.length; i < suffix.length; i++) {
+            if (buffer[from + i] != suffix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[][] encode(String... endings) {
+        byte[][] bytes = new byte[endings.length][];
+        for (int i = 0; i < endings.length; i++) {
+            bytes[i] = endings[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+}
@@ -0,0 +1,177 @@
+package nsu.parser.text;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Класс {@code PerfectHashSet} — неизменяемое множество слов с совершенной хеш-функцией,
+ * построенной по алгоритму «hash, displace» (CHD).
+ * <p>
+ * Слова раскладываются по корзинам старшей половиной 64-битного хеша; для каждой корзины, начиная с самых
+ * больших, подбирается число-«смещение», при котором младшая половина, перемешанная со смещением, отправляет
+ * все её слова в ещё свободные слоты. Проверка слова поэтому стоит один проход по байтам и одно сравнение,
+ * без пробирования и без создания строк: слово задаётся срезом массива UTF-8.
+ * </p>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * PerfectHashSet stopWords = PerfectHashSet.of(List.of("и", "в", "the"));
+ * boolean stop = stopWords.contains(buffer, 0, length);
+ * }</pre>
+ *
+ * @see StopWordFilter
+ */
+public final class PerfectHashSet {
+    private static final int WORDS_PER_BUCKET = 4;
+    private static final int MAX_SEED = 1 << 16;
+
+    private final byte[][] slots;
+    private final int[] seeds;
+    private final int salt;
+    private final int size;
+
+    private PerfectHashSet(byte[][] slots, int[] seeds, int salt, int size) {
+        this.slots = slots;
+        this.seeds = seeds;
+        this.salt = salt;
+        this.size = size;
+    }
+
+    /**
+     * Строит множество из слов.
+     *
+     * @param words слова; повторы не учитываются.
+     * @return множество.
+     */
+    public static PerfectHashSet of(Collection<String> words) {
+        Set<String> unique = new LinkedHashSet<>(words);
+        byte[][] keys = new byte[unique.size()][];
+        int index = 0;
+        for (String word : unique) {
+            keys[index++] = word.getBytes(StandardCharsets.UTF_8);
+        }
+
+        int capacity = Math.max(1, keys.length + keys.length / 4);
+        for (int salt = 0; ; salt++, capacity += capacity / 4 + 1) {
+            PerfectHashSet set = build(keys, capacity, salt);
+            if (set != null) {
+                return set;
+            }
+        }
+    }
+
+    /**
+     * Проверяет, есть ли слово в множестве.
+     *
+     * @param buffer массив со словом в UTF-8.
+     * @param offset начало слова.
+     * @param length длина слова в байтах.
+     * @return {@code true}, если слово есть в множестве.
+     */
+    public boolean contains(byte[] buffer, int offset, int length) {
+        long hash = hash(buffer, offset, length, salt);
+        byte[] key = slots[slot(hash, seeds[bucket(hash, seeds.length)], slots.length)];
+        return key != null && Arrays.equals(key, 0, key.length, buffer, offset, offset + length);
+    }
+
+    /**
+     * Возвращает количество слов.
+     *
+     * @return количество слов.
+     */
+    public int size() {
+        return size;
+    }
+
+    private static PerfectHashSet build(byte[][] keys, int capacity, int salt) {
+        int bucketCount = Math.max(1, keys.length / WORDS_PER_BUCKET);
+        List<List<byte[]>> buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        long[] hashes = new long[keys.length];
+        Map<byte[], Long> keyHashes = new IdentityHashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            hashes[i] = hash(keys[i], 0, keys[i].length, salt);
+            keyHashes.put(keys[i], hashes[i]);
+            buckets.get(bucket(hashes[i], bucketCount)).add(keys[i]);
+        }
+
+        Integer[] order = new Integer[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> buckets.get(b).size() - buckets.get(a).size());
+
+        byte[][] slots = new byte[capacity][];
+        int[] seeds = new int[bucketCount];
+        int[] positions = new int[WORDS_PER_BUCKET * 8];
+        for (int bucket : order) {
+            List<byte[]> bucketKeys = buckets.get(bucket);
+            if (bucketKeys.isEmpty()) {
+                break;
+            }
+            if (positions.length < bucketKeys.size()) {
+                positions = new int[bucketKeys.size()];
+            }
+
+            int seed = findSeed(bucketKeys, keyHashes, slots, positions);
+            if (seed < 0) {
+                return null;
+            }
+            seeds[bucket] = seed;
+            for (int i = 0; i < bucketKeys.size(); i++) {
+                slots[positions[i]] = bucketKeys.get(i);
+            }
+        }
+        return new PerfectHashSet(slots, seeds, salt, keys.length);
+    }
+
+    private static int findSeed(List<byte[]> bucketKeys, Map<byte[], Long> keyHashes, byte[][] slots, int[] positions) {
+        for (int seed = 1; seed < MAX_SEED; seed++) {
+            boolean free = true;
+            for (int i = 0; i < bucketKeys.size() && free; i++) {
+                int slot = slot(keyHashes.get(bucketKeys.get(i)), seed, slots.length);
+                free = slots[slot] == null;
+                for (int j = 0; j < i && free; j++) {
+                    free = positions[j] != slot;
+                }
+                positions[i] = slot;
+            }
+            if (free) {
+                return seed;
+            }
+        }
+        return -1;
+    }
+
+    private static int bucket(long hash, int bucketCount) {
+        return Math.floorMod((int) (hash >>> 32), bucketCount);
+    }
+
+    private static int slot(long hash, int seed, int capacity) {
+        int h = (int) hash ^ seed * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return Math.floorMod(h, capacity);
+    }
+
+    private static long hash(byte[] buffer, int offset, int length, int salt) {
+        long h = 0xCBF29CE484222325L ^ salt ^ ((long) length << 32);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            h = (h ^ buffer[i]) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        return h ^ (h >>> 33);
+    }
+
+}
@@ -0,0 +1,32 @@
+package nsu.parser.text;
+
+/**
+ * Фильтр {@code StopWordFilter} отбрасывает стоп-слова — предлоги, союзы, местоимения и другие
+ * частые служебные слова, которые обычно занимают верх частотного списка.
+ * <p>
+ * Стоп-слова хранятся в {@link PerfectHashSet}, поэтому проверка слова не создаёт строк и всегда стоит
+ * два хеша и одно сравнение. Фильтр ставится после приведения к нижнему регистру: слова сравниваются
+ * побайтно.
+ * </p>
+ *
+ * @see StopWords
+ * @see TokenFilter
+ */
+public final class StopWordFilter implements TokenFilter {
+    private final PerfectHashSet stopWords;
+
+    /**
+     * Создает фильтр для заданного множества стоп-слов.
+     *
+     * @param stopWords стоп-слова в нижнем регистре.
+     */
+    public StopWordFilter(PerfectHashSet stopWords) {
+        this.stopWords = stopWords;
+    }
+
+    @Override
+    public int apply(byte[] buffer, int length) {
+        return stopWords.contains(buffer, 0, length) ? DROP : length;
+    }
+
+}
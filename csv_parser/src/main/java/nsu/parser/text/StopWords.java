@@ -0,0 +1,121 @@
+package nsu.parser.text;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Класс {@code StopWords} — встроенные списки стоп-слов и чтение списка из файла.
+ * <p>
+ * Встроенные списки — самые частые служебные слова русского ({@code ru}) и английского ({@code en}) языков
+ * в нижнем регистре. В файле каждое слово пишется на отдельной строке; пустые строки и строки,
+ * начинающиеся с {@code #}, пропускаются. Слова файла могут быть записаны в любом регистре и со знаками
+ * препинания: перед построением {@link StopWordFilter} их нужно пропустить через {@link #normalize(List, TokenFilterChain)}
+ * с теми же фильтрами, что стоят в цепочке перед ним, иначе они не совпадут с нормализованными словами текста.
+ * </p>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * List<String> words = new ArrayList<>(StopWords.builtIn("ru"));
+ * words.addAll(StopWords.load(Path.of("stop-words.txt")));
+ * TokenFilter filter = new StopWordFilter(PerfectHashSet.of(StopWords.normalize(words, precedingFilters)));
+ * }</pre>
+ *
+ * @see StopWordFilter
+ */
+public final class StopWords {
+    public static final Set<String> LANGUAGES = Set.of("ru", "en");
+
+    private static final String RUSSIAN = """
+            а без более бы был была были было быть в вам вас весь во вот все всего всех вы где да даже для до
+            его ее её если есть еще ещё же за здесь и из или им их к как ко когда кто ли либо мне может мы на
+            надо наш не него нее неё нет ни них но ну о об однако он она они оно от очень по под при с со так
+            также такой там те тем то того тоже той только том ты у уже хотя чего чей чем что чтобы чье чья эта
+            эти это этого этой этом этот я
+            """;
+
+    private static final String ENGLISH = """
+            a about above after again against all am an and any are as at be because been before being below
+            between both but by can could did do does doing down during each few for from further had has have
+            having he her here hers herself him himself his how i if in into is it its itself just me more most
+            my myself no nor not now of off on once only or other our ours ourselves out over own same she
+            should so some such than that the their theirs them themselves then there these they this those
+            through to too under until up very was we were what when where which while who whom why will with
+            would you your yours yourself yourselves
+            """;
+
+    private StopWords() {
+    }
+
+    /**
+     * Возвращает встроенный список стоп-слов.
+     *
+     * @param language код языка из {@link #LANGUAGES}.
+     * @return стоп-слова в нижнем регистре.
+     * @throws IllegalArgumentException если встроенного списка для языка нет.
+     */
+    public static List<String> builtIn(String language) {
+        switch (language) {
+            case "ru":
+                return split(RUSSIAN);
+            case "en":
+                return split(ENGLISH);
+            default:
+                throw new IllegalArgumentException("No built-in stop words for language " + language
+                        + ", expected one of " + LANGUAGES);
+        }
+    }
+
+    /**
+     * Читает список стоп-слов из файла в UTF-8.
+     *
+     * @param file путь к файлу.
+     * @return стоп-слова в том виде, в каком они записаны в файле.
+     * @throws IllegalArgumentException если файл не удалось прочитать.
+     */
+    public static List<String> load(Path file) {
+        try {
+            List<String> words = new ArrayList<>();
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String word = line.strip();
+                if (!word.isEmpty() && !word.startsWith("#")) {
+                    words.add(word);
+                }
+            }
+            return words;
+
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed reading stop words from " + file, e);
+        }
+    }
+
+    /**
+     * Приводит стоп-слова к виду, в котором их увидит {@link StopWordFilter}: делит и очищает их, как
+     * {@link Utf8Tokenizer}, и пропускает через фильтры, стоящие в цепочке перед {@link StopWordFilter}
+     * (например, {@link UnicodePunctuationFilter} и {@link CaseFoldingFilter} для {@code --normalize unicode}).
+     *
+     * @param words стоп-слова, например из {@link #load(Path)}.
+     * @param precedingFilters фильтры перед {@link StopWordFilter}.
+     * @return нормализованные стоп-слова без пустых и повторов.
+     */
+    public static List<String> normalize(List<String> words, TokenFilterChain precedingFilters) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String word : words) {
+            String stopWord = precedingFilters.normalize(word);
+            if (!stopWord.isEmpty()) {
+                normalized.add(stopWord);
+            }
+        }
+        return new ArrayList<>(normalized);
+    }
+
+    private static List<String> split(String words) {
+        return List.of(words.strip().split("\\s+"));
+    }
+
+}
@@ -0,0 +1,32 @@
+package nsu.parser.text;
+
+/**
+ * Интерфейс {@code TokenFilter} — шаг нормализации слова в {@link TokenFilterChain}.
+ * <p>
+ * Фильтр изменяет слово прямо в переданном массиве и возвращает его новую длину, поэтому
+ * цепочка из нескольких фильтров не создаёт ни строк, ни промежуточных массивов. Слово всегда
+ * начинается с индекса {@code 0}, а ёмкость массива не меньше удвоенной длины слова: фильтр может
+ * удлинить слово (например, при смене регистра двухбайтовый символ становится трёхбайтовым),
+ * но не больше чем вдвое.
+ * </p>
+ *
+ * @see TokenFilterChain
+ */
+@FunctionalInterface
+public interface TokenFilter {
+
+    /**
+     * Результат {@link #apply(byte[], int)}, означающий, что слово нужно отбросить.
+     */
+    public static final int DROP = -1;
+
+    /**
+     * Нормализует слово.
+     *
+     * @param buffer массив, в начале которого лежит слово в кодировке UTF-8.
+     * @param length длина слова в байтах.
+     * @return новая длина слова или {@link #DROP}, если слово не нужно считать.
+     */
+    public int apply(byte[] buffer, int length);
+
+}
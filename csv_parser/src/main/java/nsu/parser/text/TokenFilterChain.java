@@ -0,0 +1,111 @@
+package nsu.parser.text;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Класс {@code TokenFilterChain} — неизменяемая последовательность {@link TokenFilter},
+ * через которую проходят слова от {@link Utf8Tokenizer} перед подсчётом.
+ * <p>
+ * Цепочку можно использовать из нескольких потоков: буфер для нормализации создаёт каждый
+ * получатель, возвращённый {@link #wrap(TokenSink)}. Слово копируется в этот буфер один раз,
+ * после чего все фильтры работают с ним на месте.
+ * </p>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * TokenFilterChain chain = new TokenFilterChain(List.of(new UnicodePunctuationFilter(), new CaseFoldingFilter(),
+ *         new StopWordFilter(StopWords.builtIn("ru")), new LightStemmer(true, false)));
+ * Utf8Tokenizer tokenizer = new Utf8Tokenizer(chain.wrap(table::add));
+ * }</pre>
+ *
+ * @see TokenFilter
+ */
+public final class TokenFilterChain {
+    private static final int INITIAL_CAPACITY = 128;
+
+    private final TokenFilter[] filters;
+
+    /**
+     * Создает цепочку фильтров, которые применяются в указанном порядке.
+     *
+     * @param filters фильтры.
+     */
+    public TokenFilterChain(List<? extends TokenFilter> filters) {
+        this.filters = filters.toArray(new TokenFilter[0]);
+    }
+
+    /**
+     * Проверяет, есть ли в цепочке фильтры.
+     *
+     * @return {@code true}, если цепочка ничего не меняет.
+     */
+    public boolean isEmpty() {
+        return filters.length == 0;
+    }
+
+    /**
+     * Нормализует текст так же, как слова входного файла: делит его на слова {@link Utf8Tokenizer}
+     * и пропускает их через фильтры цепочки. Нужен, чтобы искать в таблице слово из запроса.
+     *
+     * @param text исходный текст, например {@code "Привет,"}.
+     * @return оставшиеся непустые слова через один пробел (как в ключах n-грамм) или пустая строка,
+     *         если все слова отброшены.
+     */
+    public String normalize(String text) {
+        List<String> words = new ArrayList<>();
+        Utf8Tokenizer.tokenize(text, wrap((buffer, offset, length) -> {
+            if (length > 0) {
+                words.add(new String(buffer, offset, length, StandardCharsets.UTF_8));
+            }
+        }));
+        return String.join(" ", words);
+    }
+
+    /**
+     * Возвращает получателя, который нормализует каждое слово и передаёт его в {@code sink}.
+     * Возвращённый получатель не потокобезопасен.
+     *
+     * @param sink получатель нормализованных слов.
+     * @return получатель исходных слов.
+     */
+    public TokenSink wrap(TokenSink sink) {
+        if (isEmpty()) {
+            return sink;
+        }
+        return new FilteringSink(sink);
+    }
+
+    private final class FilteringSink implements TokenSink {
+        private final TokenSink sink;
+        private byte[] word = new byte[INITIAL_CAPACITY];
+
+        FilteringSink(TokenSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void accept(byte[] buffer, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(buffer, offset, word, 0, length);
+
+            for (TokenFilter filter : filters) {
+                ensureCapacity(length);
+                length = filter.apply(word, length);
+                if (length == TokenFilter.DROP) {
+                    return;
+                }
+            }
+            sink.accept(word, 0, length);
+        }
+
+        private void ensureCapacity(int length) {
+            if (word.length < length * 2) {
+                word = Arrays.copyOf(word, length * 2);
+            }
+        }
+    }
+
+}
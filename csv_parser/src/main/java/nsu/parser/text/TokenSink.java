@@ -0,0 +1,25 @@
+package nsu.parser.text;
+
+/**
+ * Интерфейс {@code TokenSink} принимает слова, выделенные токенизатором {@link Utf8Tokenizer}.
+ * <p>
+ * Слово передаётся как срез байтового массива в кодировке UTF-8. Массив принадлежит токенизатору
+ * и переиспользуется для следующего слова, поэтому реализация должна скопировать байты,
+ * если хочет сохранить слово.
+ * </p>
+ *
+ * @see Utf8Tokenizer
+ */
+@FunctionalInterface
+public interface TokenSink {
+
+    /**
+     * Принимает очередное слово.
+     *
+     * @param buffer массив, содержащий слово в кодировке UTF-8.
+     * @param offset индекс первого байта слова.
+     * @param length длина слова в байтах (может быть {@code 0}, если слово состояло только из знаков препинания).
+     */
+    public void accept(byte[] buffer, int offset, int length);
+
+}
@@ -0,0 +1,64 @@
+package nsu.parser.text;
+
+/**
+ * Фильтр {@code UnicodePunctuationFilter} удаляет из слова знаки препинания всех письменностей:
+ * символы категорий Unicode {@code Pc}, {@code Pd}, {@code Ps}, {@code Pe}, {@code Pi}, {@code Pf} и {@code Po}
+ * (кавычки-ёлочки, тире, многоточие, испанские {@code ¿¡} и т. п.), а также символы ASCII из {@code \p{Punct}}.
+ * <p>
+ * {@link Utf8Tokenizer} удаляет только знаки ASCII, поэтому без этого фильтра «слово» и слово в кавычках
+ * «ёлочках» считаются разными словами. Слово только сжимается, поэтому байты сдвигаются на месте
+ * за один проход. Некорректные последовательности UTF-8 сохраняются.
+ * </p>
+ *
+ * @see TokenFilter
+ */
+public final class UnicodePunctuationFilter implements TokenFilter {
+    private static final String ASCII_PUNCTUATION = "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~";
+    private static final boolean[] ASCII_REMOVED = new boolean[128];
+
+    static {
+        for (int i = 0; i < ASCII_PUNCTUATION.length(); i++) {
+            ASCII_REMOVED[ASCII_PUNCTUATION.charAt(i)] = true;
+        }
+    }
+
+    @Override
+    public int apply(byte[] buffer, int length) {
+        int out = 0;
+        for (int i = 0; i < length; ) {
+            byte b = buffer[i];
+            if (b >= 0) {
+                if (!ASCII_REMOVED[b]) {
+                    buffer[out++] = b;
+                }
+                i++;
+                continue;
+            }
+
+            int sequence = Utf8.sequenceLength(buffer, i, length);
+            int cp = sequence == 1 ? Utf8.INVALID : Utf8.decode(buffer, i, length);
+            if (cp == Utf8.INVALID || !isPunctuation(cp)) {
+                System.arraycopy(buffer, i, buffer, out, sequence);
+                out += sequence;
+            }
+            i += sequence;
+        }
+        return out;
+    }
+
+    private static boolean isPunctuation(int cp) {
+        switch (Character.getType(cp)) {
+            case Character.CONNECTOR_PUNCTUATION:
+            case Character.DASH_PUNCTUATION:
+            case Character.START_PUNCTUATION:
+            case Character.END_PUNCTUATION:
+            case Character.INITIAL_QUOTE_PUNCTUATION:
+            case Character.FINAL_QUOTE_PUNCTUATION:
+            case Character.OTHER_PUNCTUATION:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+}
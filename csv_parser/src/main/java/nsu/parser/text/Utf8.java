@@ -0,0 +1,85 @@
+package nsu.parser.text;
+
+/**
+ * Разбор и запись code point в UTF-8 прямо в байтовых массивах, без создания строк.
+ * Некорректные последовательности не исправляются: {@link #decode(byte[], int, int)} сообщает о них,
+ * и фильтры оставляют такие байты без изменений.
+ */
+final class Utf8 {
+    static final int INVALID = -1;
+
+    private Utf8() {
+    }
+
+    /**
+     * Возвращает длину последовательности UTF-8, начинающейся в {@code position}.
+     *
+     * @return длина последовательности в байтах; {@code 1} для некорректного или обрезанного байта.
+     */
+    static int sequenceLength(byte[] buffer, int position, int end) {
+        int b = buffer[position] & 0xFF;
+        int length = b < 0x80 ? 1 : (b & 0xE0) == 0xC0 ? 2 : (b & 0xF0) == 0xE0 ? 3 : (b & 0xF8) == 0xF0 ? 4 : 1;
+        if (position + length > end) {
+            return 1;
+        }
+        for (int i = 1; i < length; i++) {
+            if ((buffer[position + i] & 0xC0) != 0x80) {
+                return 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Декодирует code point, начинающийся в {@code position}.
+     *
+     * @return code point или {@link #INVALID}, если байт не начинает корректную последовательность.
+     */
+    static int decode(byte[] buffer, int position, int end) {
+        int b = buffer[position] & 0xFF;
+        if (b < 0x80) {
+            return b;
+        }
+        int length = sequenceLength(buffer, position, end);
+        if (length == 1) {
+            return INVALID;
+        }
+        int cp = b & (0xFF >>> (length + 1));
+        for (int i = 1; i < length; i++) {
+            cp = (cp << 6) | (buffer[position + i] & 0x3F);
+        }
+        return cp;
+    }
+
+    /**
+     * Возвращает длину code point в UTF-8.
+     */
+    static int encodedLength(int cp) {
+        return cp < 0x80 ? 1 : cp < 0x800 ? 2 : cp < 0x10000 ? 3 : 4;
+    }
+
+    /**
+     * Записывает code point в {@code buffer} с позиции {@code position}.
+     *
+     * @return позиция после записанных байтов.
+     */
+    static int encode(int cp, byte[] buffer, int position) {
+        if (cp < 0x80) {
+            buffer[position++] = (byte) cp;
+        } else if (cp < 0x800) {
+            buffer[position++] = (byte) (0xC0 | (cp >>> 6));
+            buffer[position++] = (byte) (0x80 | (cp & 0x3F));
+        } else if (cp < 0x10000) {
+            buffer[position++] = (byte) (0xE0 | (cp >>> 12));
+            buffer[position++] = (byte) (0x80 | ((cp >>> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (cp & 0x3F));
+        } else {
+            buffer[position++] = (byte) (0xF0 | (cp >>> 18));
+            buffer[position++] = (byte) (0x80 | ((cp >>> 12) & 0x3F));
+            buffer[position++] = (byte) (0x80 | ((cp >>> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (cp & 0x3F));
+        }
+        return position;
+    }
+
+}
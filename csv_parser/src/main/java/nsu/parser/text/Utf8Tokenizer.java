@@ -0,0 +1,274 @@
+package nsu.parser.text;
+
+import nsu.parser.metrics.Metrics;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Класс {@code Utf8Tokenizer} выделяет слова из потока байтов в кодировке UTF-8 за один проход.
+ * <p>
+ * Правила совпадают с прежней обработкой через {@link java.util.Scanner}: слова разделяются
+ * пробельными символами ({@link Character#isWhitespace(int)}), из слова удаляются знаки
+ * препинания ASCII ({@code \p{Punct}}), а оставшиеся символы приводятся к нижнему регистру.
+ * Слово, состоявшее только из знаков препинания, передаётся как пустое.
+ * </p>
+ *
+ * <p><b>Особенности:</b></p>
+ * <ul>
+ *     <li>Символы ASCII обрабатываются по таблицам без декодирования.</li>
+ *     <li>Остальные символы декодируются в code point, приводятся к нижнему регистру
+ *         и кодируются обратно прямо в буфер слова.</li>
+ *     <li>Буфер слова переиспользуется, строки не создаются.</li>
+ *     <li>Данные можно подавать частями: незаконченное слово и незаконченная
+ *         последовательность UTF-8 переносятся между вызовами {@link #feed}.</li>
+ *     <li>Некорректные последовательности UTF-8 копируются в слово без изменений.</li>
+ *     <li>Прочитанные байты и найденные слова учитываются в {@link Metrics} один раз на вызов {@link #feed},
+ *         а не на каждое слово.</li>
+ * </ul>
+ *
+ * <p><b>Пример использования:</b></p>
+ * <pre>{@code
+ * Utf8Tokenizer tokenizer = new Utf8Tokenizer((buffer, offset, length) -> table.add(buffer, offset, length));
+ * while ((read = in.read(buffer)) != -1) {
+ *     tokenizer.feed(buffer, 0, read);
+ * }
+ * tokenizer.finish();
+ * }</pre>
+ *
+ * @see TokenSink
+ */
+public final class Utf8Tokenizer {
+    private static final int INITIAL_WORD_CAPACITY = 64;
+    private static final String ASCII_PUNCTUATION = "!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~";
+
+    private static final byte ASCII_WHITESPACE = -1;
+    private static final byte ASCII_PUNCT = -2;
+    private static final byte[] ASCII_CLASS = new byte[128];
+
+    static {
+        for (int c = 0; c < 128; c++) {
+            if (Character.isWhitespace(c)) {
+                ASCII_CLASS[c] = ASCII_WHITESPACE;
+            } else if (ASCII_PUNCTUATION.indexOf(c) >= 0) {
+                ASCII_CLASS[c] = ASCII_PUNCT;
+            } else {
+                ASCII_CLASS[c] = (byte) Character.toLowerCase(c);
+            }
+        }
+    }
+
+    private final TokenSink sink;
+    private byte[] word = new byte[INITIAL_WORD_CAPACITY];
+    private int wordLength;
+    private boolean inToken;
+    private long unreportedTokens;
+
+    private final byte[] pending = new byte[4];
+    private int pendingLength;
+    private int pendingRemaining;
+    private int codePoint;
+
+    /**
+     * Создает токенизатор, передающий найденные слова в {@code sink}.
+     *
+     * @param sink получатель слов.
+     */
+    public Utf8Tokenizer(TokenSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Проверяет, является ли байт пробельным символом ASCII.
+     * Внутри многобайтовых последовательностей UTF-8 такие байты не встречаются,
+     * поэтому по ним можно безопасно разрезать входные данные на части.
+     *
+     * @param b байт входных данных.
+     * @return {@code true}, если байт — пробельный символ ASCII.
+     */
+    public static boolean isAsciiWhitespace(byte b) {
+        return b >= 0 && ASCII_CLASS[b] == ASCII_WHITESPACE;
+    }
+
+    /**
+     * Обрабатывает очередную порцию входных данных.
+     *
+     * @param buffer массив с данными.
+     * @param offset индекс первого байта.
+     * @param length количество байтов.
+     */
+    public void feed(byte[] buffer, int offset, int length) {
+        accept(buffer, offset, length);
+        report(length);
+    }
+
+    /**
+     * Выделяет слова из короткого текста, например из запроса, по тем же правилам, что и из файла,
+     * но не учитывает их в {@link Metrics}.
+     *
+     * @param text текст.
+     * @param sink получатель слов.
+     */
+    public static void tokenize(String text, TokenSink sink) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        Utf8Tokenizer tokenizer = new Utf8Tokenizer(sink);
+        tokenizer.accept(bytes, 0, bytes.length);
+        tokenizer.flushPending();
+        tokenizer.endToken();
+    }
+
+    /**
+     * Обрабатывает оставшиеся байты буфера (от {@code position} до {@code limit}).
+     * Байты читаются по абсолютному индексу, позиция буфера не меняется, поэтому
+     * буфер может быть прямым или отображённым в память без копирования в массив.
+     *
+     * @param buffer буфер с данными.
+     */
+    public void feed(ByteBuffer buffer) {
+        int end = buffer.limit();
+        for (int i = buffer.position(); i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= 0 && pendingRemaining == 0) {
+                acceptAscii(b);
+            } else {
+                acceptMultiByte(b & 0xFF);
+            }
+        }
+        report(end - buffer.position());
+    }
+
+    /**
+     * Завершает обработку: передаёт последнее незаконченное слово получателю.
+     * После вызова токенизатор можно использовать для нового потока.
+     */
+    public void finish() {
+        flushPending();
+        endToken();
+        report(0);
+    }
+
+    private void accept(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            byte b = buffer[i];
+            if (b >= 0 && pendingRemaining == 0) {
+                acceptAscii(b);
+            } else {
+                acceptMultiByte(b & 0xFF);
+            }
+        }
+    }
+
+    private void report(long bytes) {
+        Metrics.global().addRead(bytes, unreportedTokens);
+        unreportedTokens = 0;
+    }
+
+    private void acceptAscii(byte b) {
+        byte cls = ASCII_CLASS[b];
+        if (cls == ASCII_WHITESPACE) {
+            endToken();
+            return;
+        }
+
+        inToken = true;
+        if (cls != ASCII_PUNCT) {
+            append(cls);
+        }
+    }
+
+    private void acceptMultiByte(int b) {
+        if (pendingRemaining > 0) {
+            if ((b & 0xC0) == 0x80) {
+                pending[pendingLength++] = (byte) b;
+                codePoint = (codePoint << 6) | (b & 0x3F);
+                if (--pendingRemaining == 0) {
+                    pendingLength = 0;
+                    acceptCodePoint(codePoint);
+                }
+                return;
+            }
+
+            flushPending();
+            if (b < 0x80) {
+                acceptAscii((byte) b);
+                return;
+            }
+        }
+
+        if ((b & 0xE0) == 0xC0) {
+            startSequence(b, b & 0x1F, 1);
+        } else if ((b & 0xF0) == 0xE0) {
+            startSequence(b, b & 0x0F, 2);
+        } else if ((b & 0xF8) == 0xF0) {
+            startSequence(b, b & 0x07, 3);
+        } else {
+            inToken = true;
+            append((byte) b);
+        }
+    }
+
+    private void startSequence(int b, int bits, int remaining) {
+        pending[0] = (byte) b;
+        pendingLength = 1;
+        pendingRemaining = remaining;
+        codePoint = bits;
+    }
+
+    private void acceptCodePoint(int cp) {
+        if (Character.isWhitespace(cp)) {
+            endToken();
+            return;
+        }
+
+        inToken = true;
+        appendCodePoint(Character.toLowerCase(cp));
+    }
+
+    private void flushPending() {
+        if (pendingLength > 0) {
+            inToken = true;
+            for (int i = 0; i < pendingLength; i++) {
+                append(pending[i]);
+            }
+        }
+        pendingLength = 0;
+        pendingRemaining = 0;
+    }
+
+    private void endToken() {
+        if (inToken) {
+            sink.accept(word, 0, wordLength);
+            unreportedTokens++;
+            wordLength = 0;
+            inToken = false;
+        }
+    }
+
+    private void append(byte b) {
+        if (wordLength == word.length) {
+            word = Arrays.copyOf(word, word.length * 2);
+        }
+        word[wordLength++] = b;
+    }
+
+    private void appendCodePoint(int cp) {
+        if (cp < 0x80) {
+            append((byte) cp);
+        } else if (cp < 0x800) {
+            append((byte) (0xC0 | (cp >>> 6)));
+            append((byte) (0x80 | (cp & 0x3F)));
+        } else if (cp < 0x10000) {
+            append((byte) (0xE0 | (cp >>> 12)));
+            append((byte) (0x80 | ((cp >>> 6) & 0x3F)));
+            append((byte) (0x80 | (cp & 0x3F)));
+        } else {
+            append((byte) (0xF0 | (cp >>> 18)));
+            append((byte) (0x80 | ((cp >>> 12) & 0x3F)));
+            append((byte) (0x80 | ((cp >>> 6) & 0x3F)));
+            append((byte) (0x80 | (cp & 0x3F)));
+        }
+    }
+
+}
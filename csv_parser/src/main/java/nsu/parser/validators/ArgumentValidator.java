@@ -4,8 +4,18 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.lang.IllegalArgumentException;
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import nsu.parser.batch.BatchInputs;
 import nsu.parser.exceptions.*;
+import nsu.parser.tables.NGramTable;
+import nsu.parser.tables.SpaceSavingTable;
+import nsu.parser.text.StopWords;
 
 /**
  * Класс {@code ArgumentValidator} выполняет валидацию аргументов командной строки для программы, 
@@ -14,6 +24,7 @@ import nsu.parser.exceptions.*;
  * Проверяет:
  * <ul>
  *     <li>Количество переданных аргументов.</li>
+ *     <li>Имена и значения необязательных параметров вида {@code --name value}.</li>
  *     <li>Существование и доступность для чтения входного файла.</li>
  *     <li>Корректность пути и права на создание/запись выходного файла.</li>
  * </ul>
@@ -31,21 +42,167 @@ import nsu.parser.exceptions.*;
  *
  * <h3>Пример использования:</h3>
  * <pre>{@code
- * String[] args = {"input.txt", "output.csv"};
+ * String[] args = {"input.txt", "output.csv", "--threads", "8"};
  * var validatedArgs = ArgumentValidator.validate(args);
  * Path inputPath = Path.of(validatedArgs.inputFilePath());
  * Path outputPath = Path.of(validatedArgs.outputFilePath());
+ * int threads = validatedArgs.intOption(ArgumentValidator.THREADS, 1);
  * }</pre>
  *
+ * <h3>Параметры:</h3>
+ * <ul>
+ *     <li>{@code --reader scanner|fast|mapped} — способ чтения входного файла (по умолчанию {@code fast}).</li>
+ *     <li>{@code --table heap|offheap|concurrent} — где хранить таблицу слов: в куче (по умолчанию), вне кучи
+ *         или в одной таблице без блокировок, в которую с {@code --threads} считают все потоки без слияния;
+ *         несовместим с {@code --reader scanner}, который считает слова в {@link java.util.Scanner}.</li>
+ *     <li>{@code --offheap-limit SIZE} — только с {@code --table offheap}: общее ограничение прямой памяти всех таблиц
+ *         (по умолчанию {@code 4g}, но не больше {@code -XX:MaxDirectMemorySize}, который по умолчанию равен
+ *         {@code -Xmx}; большее значение отклоняется при запуске). Таблица вне кучи вмещает не больше
+ *         {@value nsu.parser.tables.OffHeapWordTable#MAX_DISTINCT_WORDS} уникальных слов.</li>
+ *     <li>{@code --format tsv|csv|binary|columnar} — формат выходного файла: строки «слово TAB количество»
+ *         (по умолчанию), CSV по RFC 4180 с колонкой процентов, двоичные записи с префиксом длины или колонки
+ *         словаря, номеров слов и разностей количеств.</li>
+ *     <li>{@code --delimiter C} — разделитель колонок для {@code --format csv}: один символ или {@code tab};
+ *         без {@code --format csv} отклоняется.</li>
+ *     <li>{@code --top N} — записать только {@code N} самых частых слов.</li>
+ *     <li>{@code --memory-budget SIZE} — включает подсчёт и сортировку с ограниченной памятью и сбросом
+ *         промежуточных данных во временные файлы; не меньше {@code 4m}: пустая таблица слов уже занимает десятки
+ *         килобайт, и с меньшим бюджетом на диск сбрасывалась бы серия на каждое слово. Несовместим с {@code --threads}, {@code --table}
+ *         и {@code --reader scanner}, который считает слова в {@link java.util.Scanner} без ограничения памяти.</li>
+ *     <li>{@code --tmp-dir DIR} — директория для временных файлов (по умолчанию {@code java.io.tmpdir}).</li>
+ *     <li>{@code --threads N} — количество потоков для подсчёта слов (по умолчанию 1); диапазоны файла читаются
+ *         быстрым читателем, поэтому {@code N > 1} несовместимо с {@code --reader scanner|mapped}.</li>
+ *     <li>{@code --chunk-size SIZE} — размер части файла для одного потока, допускаются суффиксы
+ *         {@code k}, {@code m}, {@code g} (по умолчанию {@code 8m}).</li>
+ *     <li>{@code --snapshot-interval SECONDS} — при чтении из стандартного ввода заменять выходной файл
+ *         снимком статистики каждые {@code SECONDS} секунд.</li>
+ *     <li>{@code --snapshot-tokens N} — при чтении из стандартного ввода заменять выходной файл снимком
+ *         статистики каждые {@code N} слов.</li>
+ *     <li>{@code --index FILE} — сохранять подсчёт в двоичный индекс и при следующем запуске дочитывать
+ *         только добавленный в конец входного файла текст; индекс, построенный с другими {@code --normalize},
+ *         {@code --stop-words} или {@code --stem}, пересчитывается заново. Несовместим с {@code --threads},
+ *         {@code --reader} и {@code --memory-budget}.</li>
+ *     <li>{@code --normalize basic|unicode} — {@code basic} (по умолчанию): удалить знаки препинания ASCII
+ *         и привести к нижнему регистру; {@code unicode}: также удалить знаки препинания Unicode и свернуть регистр
+ *         независимо от локали.</li>
+ *     <li>{@code --stop-words ru,en|FILE} — не считать стоп-слова из встроенных списков или из файла.</li>
+ *     <li>{@code --stem ru,en} — отрезать окончания словоизменения лёгким стеммером.</li>
+ *     <li>{@code --ngram N} — считать не слова, а последовательности из {@code N} соседних слов
+ *         (от 1 до {@value NGramTable#MAX_N}); несовместим с {@code --threads}, {@code --memory-budget},
+ *         {@code --index}, {@code --table offheap|concurrent} и {@code --reader scanner}.</li>
+ *     <li>{@code --counting exact|approximate} — {@code approximate}: считать только самые частые слова
+ *         алгоритмом Space-Saving в памяти фиксированного размера; в выходной файл добавляется колонка
+ *         максимальной ошибки количества. Несовместим с {@code --memory-budget}, {@code --index}, {@code --ngram},
+ *         {@code --table offheap|concurrent} и {@code --reader scanner}.</li>
+ *     <li>{@code --max-error E} — допустимая ошибка количества для {@code --counting approximate} как доля
+ *         от количества всех слов (по умолчанию {@code 0.0001}); определяет число счётчиков {@code 1 / E}.</li>
+ *     <li>{@code --stats FILE} — по завершении записать счётчики и время этапов в JSON; {@link #STDOUT} —
+ *         напечатать их в стандартный вывод. Допускается во всех режимах.</li>
+ * </ul>
+ * Вместо пути к входному файлу можно передать {@link #STDIN} — тогда слова читаются из стандартного ввода
+ * до его закрытия; этот режим несовместим с {@code --threads}, {@code --reader} и {@code --memory-budget}.
+ * <p>
+ * Первый аргумент {@code batch}, {@code merge} или {@code serve} всегда выбирает режим, даже если в текущей
+ * директории есть файл с таким именем. Такой файл передаётся с путём: {@code ./batch out.csv}.
+ * </p>
+ *
+ * <h3>Пакетный режим:</h3>
+ * <pre>
+ *     batch INPUT... [--manifest FILE] [--output-dir DIR] [--merged FILE] [--jobs N] [параметры чтения и записи]
+ * </pre>
+ * Каждый {@code INPUT} — файл, директория (все файлы в ней и во вложенных директориях) или шаблон
+ * вида {@code data/*.txt}; {@code --manifest} добавляет такие же строки из файла. Нужно указать
+ * {@code --output-dir} (по одному CSV на входной файл), {@code --merged} (общий CSV) или оба.
+ * Проверяется {@link #validateBatch(String[])}.
+ *
+ * <h3>Слияние индексов:</h3>
+ * <pre>
+ *     merge OUTPUT_INDEX INPUT_INDEX... [--manifest FILE] [--output FILE] [--format tsv|csv|binary|columnar] [--delimiter C] [--top N]
+ * </pre>
+ * Складывает индексы, созданные с {@code --index}, в один; с {@code --output} также записывает результат
+ * в CSV. Проверяется {@link #validateMerge(String[])}.
+ *
+ * <h3>Сервер подсчёта:</h3>
+ * <pre>
+ *     serve [--port N] [--cache-size SIZE] [--jobs N] [параметры чтения и записи]
+ * </pre>
+ * Запускает долгоживущий HTTP-сервер на {@code localhost}, который считает слова файлов по запросу
+ * и хранит результаты в кэше размером {@code --cache-size} (по умолчанию четверть кучи); {@code --port 0} —
+ * любой свободный порт, {@code --jobs} — количество потоков обработки запросов. Проверяется
+ * {@link #validateServe(String[])}.
+ *
  * @see ValidatedArguments
+ * @see BatchArguments
+ * @see MergeArguments
+ * @see ServeArguments
  */
 public class ArgumentValidator {
     private static final int VALID_COUNT_ARGS = 2;
 
+    public static final String THREADS = "threads";
+    public static final String CHUNK_SIZE = "chunk-size";
+    public static final String READER = "reader";
+    public static final String TABLE = "table";
+    public static final String OFFHEAP_LIMIT = "offheap-limit";
+    public static final String TOP = "top";
+    public static final String FORMAT = "format";
+    public static final String DELIMITER = "delimiter";
+    public static final String MEMORY_BUDGET = "memory-budget";
+    public static final String TMP_DIR = "tmp-dir";
+    public static final String SNAPSHOT_INTERVAL = "snapshot-interval";
+    public static final String SNAPSHOT_TOKENS = "snapshot-tokens";
+    public static final String INDEX = "index";
+    public static final String STATS = "stats";
+    public static final String NORMALIZE = "normalize";
+    public static final String STOP_WORDS = "stop-words";
+    public static final String STEM = "stem";
+    public static final String NGRAM = "ngram";
+    public static final String COUNTING = "counting";
+    public static final String MAX_ERROR = "max-error";
+
+    public static final String OUTPUT_DIR = "output-dir";
+    public static final String MERGED = "merged";
+    public static final String JOBS = "jobs";
+    public static final String MANIFEST = "manifest";
+    public static final String OUTPUT = "output";
+    public static final String PORT = "port";
+    public static final String CACHE_SIZE = "cache-size";
+
+    public static final String STDIN = "-";
+    public static final String STDOUT = "-";
+    public static final String BATCH_COMMAND = "batch";
+    public static final String MERGE_COMMAND = "merge";
+    public static final String SERVE_COMMAND = "serve";
+    public static final long MIN_MEMORY_BUDGET = 4L << 20;
+
+    private static final Set<String> BATCH_ONLY_OPTIONS = Set.of(OUTPUT_DIR, MERGED, JOBS, MANIFEST);
+    private static final Set<String> SINGLE_ONLY_OPTIONS = Set.of(THREADS, CHUNK_SIZE, MEMORY_BUDGET, TMP_DIR,
+            SNAPSHOT_INTERVAL, SNAPSHOT_TOKENS, INDEX);
+    private static final Set<String> MERGE_ONLY_OPTIONS = Set.of(OUTPUT);
+    private static final Set<String> MERGE_OPTIONS = Set.of(OUTPUT, MANIFEST, FORMAT, DELIMITER, TOP, STATS);
+    private static final Set<String> SERVE_ONLY_OPTIONS = Set.of(PORT, CACHE_SIZE);
+    private static final Set<String> SERVE_REJECTED_OPTIONS = Set.of(OUTPUT_DIR, MERGED, MANIFEST, OUTPUT, MEMORY_BUDGET,
+            TMP_DIR, SNAPSHOT_INTERVAL, SNAPSHOT_TOKENS, INDEX, STATS);
+
+    private static final Set<String> INT_OPTIONS = Set.of(THREADS, TOP, SNAPSHOT_INTERVAL, JOBS, NGRAM);
+    private static final Set<String> LONG_OPTIONS = Set.of(SNAPSHOT_TOKENS);
+    private static final Set<String> SIZE_OPTIONS = Set.of(CHUNK_SIZE, OFFHEAP_LIMIT, MEMORY_BUDGET, CACHE_SIZE);
+    private static final Set<String> DIRECTORY_OPTIONS = Set.of(TMP_DIR, OUTPUT_DIR);
+    private static final Set<String> INPUT_FILE_OPTIONS = Set.of(MANIFEST);
+    private static final Set<String> OUTPUT_FILE_OPTIONS = Set.of(MERGED, INDEX, OUTPUT);
+    private static final Map<String, Set<String>> CHOICE_OPTIONS = Map.of(
+            READER, Set.of("scanner", "fast", "mapped"),
+            TABLE, Set.of("heap", "offheap", "concurrent"),
+            FORMAT, Set.of("tsv", "csv", "binary", "columnar"),
+            NORMALIZE, Set.of("basic", "unicode"),
+            COUNTING, Set.of("exact", "approximate"));
+    private static final String OPTION_PREFIX = "--";
+
     /**
      * Выполняет валидацию аргументов командной строки:
      * <ul>
-     *     <li>Проверяет, что количество аргументов равно {@link #VALID_COUNT_ARGS}.</li>
+     *     <li>Проверяет, что количество позиционных аргументов равно {@link #VALID_COUNT_ARGS}.</li>
+     *     <li>Проверяет имена и значения необязательных параметров.</li>
      *     <li>Проверяет существование и доступность входного файла.</li>
      *     <li>Проверяет возможность создания или записи в выходной файл.</li>
      * </ul>
@@ -53,18 +210,487 @@ public class ArgumentValidator {
      * @param args массив аргументов командной строки:
      *             <ul>
      *                 <li>{@code args[0]} — путь к входному текстовому файлу;</li>
-     *                 <li>{@code args[1]} — путь к выходному CSV файлу.</li>
+     *                 <li>{@code args[1]} — путь к выходному CSV файлу;</li>
+     *                 <li>далее — необязательные параметры вида {@code --name value}.</li>
      *             </ul>
      * @return объект {@link ValidatedArguments} с валидированными путями.
-     * @throws IllegalArgumentException если количество аргументов неверное, 
-     *                                  входной файл не существует или отсутствуют права на запись в выходной файл.
+     * @throws IllegalArgumentException если количество аргументов неверное, параметр неизвестен или имеет
+     *                                  неверное значение, входной файл не существует или отсутствуют права на запись
+     *                                  в выходной файл.
      */
     public static ValidatedArguments validate(String[] args) {
-        validateCountArgs(args.length);
-        validateInputFilePath(args[0]);
-        validateOutputFilePath(args[1]);
+        if (args == null) {
+            throw new IllegalArgumentException("Arguments are missing");
+        }
+
+        List<String> positionalArgs = new ArrayList<>();
+        Map<String, String> options = parseOptions(args, 0, positionalArgs);
+
+        validateCountArgs(positionalArgs.size());
+        rejectOptions(options, BATCH_ONLY_OPTIONS, "without " + BATCH_COMMAND);
+        rejectOptions(options, MERGE_ONLY_OPTIONS, "without " + MERGE_COMMAND);
+        rejectOptions(options, SERVE_ONLY_OPTIONS, "without " + SERVE_COMMAND);
+        validateOptionCombinations(options, positionalArgs.get(0).equals(STDIN));
+        validateInputFilePath(positionalArgs.get(0));
+        validateOutputFilePath(positionalArgs.get(1));
+
+        return new ValidatedArguments(positionalArgs.get(0), positionalArgs.get(1), Map.copyOf(options));
+    }
+
+    /**
+     * Проверяет, запрашивает ли командная строка пакетный режим.
+     *
+     * @param args массив аргументов командной строки.
+     * @return {@code true}, если первый аргумент — {@link #BATCH_COMMAND}; файл с таким именем
+     *         передаётся с путём, например {@code ./batch}.
+     */
+    public static boolean isBatch(String[] args) {
+        return args != null && args.length > 0 && args[0].equals(BATCH_COMMAND);
+    }
+
+    /**
+     * Выполняет валидацию аргументов пакетного режима и раскрывает директории, шаблоны и манифест
+     * в список входных файлов.
+     *
+     * @param args массив аргументов командной строки, начинающийся с {@link #BATCH_COMMAND}.
+     * @return объект {@link BatchArguments} со списком входных файлов.
+     * @throws IllegalArgumentException если не найдено ни одного входного файла, не задан ни {@code --output-dir},
+     *                                  ни {@code --merged}, два входных файла дают один выходной, {@code --merged}
+     *                                  совпадает с выходным файлом одного из входных или параметр
+     *                                  неизвестен либо не поддерживается в пакетном режиме.
+     */
+    public static BatchArguments validateBatch(String[] args) {
+        if (!isBatch(args)) {
+            throw new IllegalArgumentException("Batch arguments must start with " + BATCH_COMMAND);
+        }
+
+        List<String> inputSpecs = new ArrayList<>();
+        Map<String, String> options = parseOptions(args, 1, inputSpecs);
+        rejectOptions(options, SINGLE_ONLY_OPTIONS, "in " + BATCH_COMMAND + " mode");
+        rejectOptions(options, MERGE_ONLY_OPTIONS, "in " + BATCH_COMMAND + " mode");
+        rejectOptions(options, SERVE_ONLY_OPTIONS, "in " + BATCH_COMMAND + " mode");
+        validateTextFilters(options);
+        validateTable(options);
+        validateFormat(options);
+        validateNGrams(options);
+        validateApproximate(options);
+        if (!options.containsKey(OUTPUT_DIR) && !options.containsKey(MERGED)) {
+            throw new IllegalArgumentException("Batch mode requires " + OPTION_PREFIX + OUTPUT_DIR + " or "
+                    + OPTION_PREFIX + MERGED);
+        }
+        if (options.containsKey(MANIFEST)) {
+            inputSpecs.addAll(BatchInputs.readManifest(Path.of(options.get(MANIFEST))));
+        }
+
+        List<Path> inputFiles = BatchInputs.resolve(inputSpecs);
+        if (inputFiles.isEmpty()) {
+            throw new IllegalArgumentException("No input files found for " + inputSpecs);
+        }
+
+        var batchArgs = new BatchArguments(inputFiles, Map.copyOf(options));
+        if (options.containsKey(OUTPUT_DIR)) {
+            Set<Path> outputFiles = new HashSet<>();
+            for (Path inputFile : inputFiles) {
+                if (!outputFiles.add(batchArgs.outputFileFor(inputFile).toAbsolutePath().normalize())) {
+                    throw new IllegalArgumentException("Several input files are written to "
+                            + batchArgs.outputFileFor(inputFile) + ", rename " + inputFile);
+                }
+            }
+            if (options.containsKey(MERGED) && outputFiles.contains(Path.of(options.get(MERGED)).toAbsolutePath().normalize())) {
+                throw new IllegalArgumentException("Option " + OPTION_PREFIX + MERGED + " " + options.get(MERGED)
+                        + " is also the output file of an input file in " + OPTION_PREFIX + OUTPUT_DIR);
+            }
+        }
+        return batchArgs;
+    }
+
+    /**
+     * Проверяет, запрашивает ли командная строка слияние индексов.
+     *
+     * @param args массив аргументов командной строки.
+     * @return {@code true}, если первый аргумент — {@link #MERGE_COMMAND}; файл с таким именем
+     *         передаётся с путём, например {@code ./merge}.
+     */
+    public static boolean isMerge(String[] args) {
+        return args != null && args.length > 0 && args[0].equals(MERGE_COMMAND);
+    }
+
+    /**
+     * Выполняет валидацию аргументов слияния индексов и раскрывает директории, шаблоны и манифест
+     * в список входных индексов.
+     *
+     * @param args массив аргументов командной строки, начинающийся с {@link #MERGE_COMMAND}.
+     * @return объект {@link MergeArguments} с путями к результирующему и входным индексам.
+     * @throws IllegalArgumentException если не задан результирующий индекс, не найдено ни одного входного индекса
+     *                                  или параметр неизвестен либо не поддерживается при слиянии.
+     */
+    public static MergeArguments validateMerge(String[] args) {
+        if (!isMerge(args)) {
+            throw new IllegalArgumentException("Merge arguments must start with " + MERGE_COMMAND);
+        }
+
+        List<String> positionalArgs = new ArrayList<>();
+        Map<String, String> options = parseOptions(args, 1, positionalArgs);
+        for (String name : options.keySet()) {
+            if (!MERGE_OPTIONS.contains(name)) {
+                throw new IllegalArgumentException("Option " + OPTION_PREFIX + name + " cannot be used in "
+                        + MERGE_COMMAND + " mode");
+            }
+        }
+        if (positionalArgs.isEmpty()) {
+            throw new IllegalArgumentException("Merge mode requires an output index");
+        }
+        validateFormat(options);
+        validateOutputFilePath(positionalArgs.get(0));
+
+        List<String> inputSpecs = new ArrayList<>(positionalArgs.subList(1, positionalArgs.size()));
+        if (options.containsKey(MANIFEST)) {
+            inputSpecs.addAll(BatchInputs.readManifest(Path.of(options.get(MANIFEST))));
+        }
+        List<Path> inputIndexes = BatchInputs.resolve(inputSpecs);
+        if (inputIndexes.isEmpty()) {
+            throw new IllegalArgumentException("No input indexes found for " + inputSpecs);
+        }
+
+        return new MergeArguments(Path.of(positionalArgs.get(0)), inputIndexes, Map.copyOf(options));
+    }
+
+    /**
+     * Проверяет, запрашивает ли командная строка запуск сервера подсчёта.
+     *
+     * @param args массив аргументов командной строки.
+     * @return {@code true}, если первый аргумент — {@link #SERVE_COMMAND}; файл с таким именем
+     *         передаётся с путём, например {@code ./serve}.
+     */
+    public static boolean isServe(String[] args) {
+        return args != null && args.length > 0 && args[0].equals(SERVE_COMMAND);
+    }
+
+    /**
+     * Выполняет валидацию аргументов сервера подсчёта. Входные файлы передаются в запросах, поэтому
+     * позиционных аргументов нет; параметры чтения и записи применяются ко всем запросам.
+     *
+     * @param args массив аргументов командной строки, начинающийся с {@link #SERVE_COMMAND}.
+     * @return объект {@link ServeArguments} с параметрами сервера.
+     * @throws IllegalArgumentException если переданы позиционные аргументы, параметр неизвестен или
+     *                                  не поддерживается сервером.
+     */
+    public static ServeArguments validateServe(String[] args) {
+        if (!isServe(args)) {
+            throw new IllegalArgumentException("Serve arguments must start with " + SERVE_COMMAND);
+        }
+
+        List<String> positionalArgs = new ArrayList<>();
+        Map<String, String> options = parseOptions(args, 1, positionalArgs);
+        if (!positionalArgs.isEmpty()) {
+            throw new IllegalArgumentException("Serve mode takes no positional arguments, got " + positionalArgs);
+        }
+        rejectOptions(options, SERVE_REJECTED_OPTIONS, "in " + SERVE_COMMAND + " mode");
+        validateTextFilters(options);
+        validateTable(options);
+        validateFormat(options);
+        validateNGrams(options);
+        validateApproximate(options);
+        return new ServeArguments(Map.copyOf(options));
+    }
+
+    private static Map<String, String> parseOptions(String[] args, int from, List<String> positionalArgs) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = from; i < args.length; i++) {
+            if (args[i].startsWith(OPTION_PREFIX)) {
+                String name = args[i].substring(OPTION_PREFIX.length());
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("Missing value for option " + args[i]);
+                }
+                options.put(name, validateOption(name, args[++i]));
+            } else {
+                positionalArgs.add(args[i]);
+            }
+        }
+        return options;
+    }
+
+    private static void rejectOptions(Map<String, String> options, Set<String> rejected, String context) {
+        for (String name : options.keySet()) {
+            if (rejected.contains(name)) {
+                throw new IllegalArgumentException("Option " + OPTION_PREFIX + name + " cannot be used " + context);
+            }
+        }
+    }
+
+    /**
+     * Разбирает размер в байтах с необязательным суффиксом {@code k}, {@code m} или {@code g}.
+     *
+     * @param value строка вида {@code 512}, {@code 64k}, {@code 8m}, {@code 1g}.
+     * @return размер в байтах.
+     * @throws IllegalArgumentException если строка не является положительным размером.
+     */
+    public static long parseSize(String value) {
+        String digits = value.toLowerCase();
+        int shift = 0;
+        if (digits.endsWith("k")) {
+            shift = 10;
+        } else if (digits.endsWith("m")) {
+            shift = 20;
+        } else if (digits.endsWith("g")) {
+            shift = 30;
+        }
+        if (shift != 0) {
+            digits = digits.substring(0, digits.length() - 1);
+        }
+
+        try {
+            long size = Long.parseLong(digits);
+            if (size <= 0 || size > (Long.MAX_VALUE >> shift)) {
+                throw new IllegalArgumentException("Size must be positive: " + value);
+            }
+            return size << shift;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Illegal size " + value, e);
+        }
+    }
+
+    private static String validateOption(String name, String value) {
+        if (INT_OPTIONS.contains(name)) {
+            parsePositiveInt(name, value);
+        } else if (LONG_OPTIONS.contains(name)) {
+            parsePositiveLong(name, value);
+        } else if (SIZE_OPTIONS.contains(name)) {
+            parseSize(value);
+        } else if (DELIMITER.equals(name)) {
+            parseDelimiter(value);
+        } else if (STOP_WORDS.equals(name)) {
+            if (!StopWords.LANGUAGES.containsAll(parseList(value))) {
+                validateInputFilePath(value);
+            }
+        } else if (STEM.equals(name)) {
+            if (!StopWords.LANGUAGES.containsAll(parseList(value))) {
+                throw new IllegalArgumentException("Illegal value " + value + " for option " + OPTION_PREFIX + name
+                        + ", expected a comma-separated subset of " + StopWords.LANGUAGES);
+            }
+        } else if (PORT.equals(name)) {
+            parsePort(value);
+        } else if (MAX_ERROR.equals(name)) {
+            parseMaxError(value);
+        } else if (STATS.equals(name)) {
+            if (!value.equals(STDOUT)) {
+                validateOutputFilePath(value);
+            }
+        } else if (DIRECTORY_OPTIONS.contains(name)) {
+            validateDirectory(value);
+        } else if (INPUT_FILE_OPTIONS.contains(name)) {
+            validateInputFilePath(value);
+        } else if (OUTPUT_FILE_OPTIONS.contains(name)) {
+            validateOutputFilePath(value);
+        } else if (CHOICE_OPTIONS.containsKey(name)) {
+            if (!CHOICE_OPTIONS.get(name).contains(value)) {
+                throw new IllegalArgumentException("Illegal value " + value + " for option " + OPTION_PREFIX + name
+                        + ", expected one of " + CHOICE_OPTIONS.get(name));
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown option " + OPTION_PREFIX + name);
+        }
+        return value;
+    }
+
+    /**
+     * Разбирает разделитель колонок CSV: один символ или слово {@code tab}.
+     *
+     * @param value значение параметра {@code --delimiter}.
+     * @return символ-разделитель.
+     * @throws IllegalArgumentException если значение не является допустимым разделителем.
+     */
+    public static char parseDelimiter(String value) {
+        if (value.equals("tab")) {
+            return '\t';
+        }
+        if (value.length() != 1 || value.equals("\"") || value.equals("\r") || value.equals("\n")) {
+            throw new IllegalArgumentException("Illegal delimiter " + value + ", expected one character or 'tab'");
+        }
+        return value.charAt(0);
+    }
 
-        return new ValidatedArguments(args[0], args[1]);
+    /**
+     * Разбирает список значений через запятую, например {@code ru,en}.
+     *
+     * @param value значение параметра.
+     * @return непустые элементы списка.
+     */
+    public static List<String> parseList(String value) {
+        List<String> items = new ArrayList<>();
+        for (String item : value.split(",")) {
+            if (!item.isBlank()) {
+                items.add(item.strip());
+            }
+        }
+        return items;
+    }
+
+    private static void validateTextFilters(Map<String, String> options) {
+        boolean filtered = options.containsKey(NORMALIZE) || options.containsKey(STOP_WORDS) || options.containsKey(STEM);
+        if (filtered && "scanner".equals(options.get(READER))) {
+            throw new IllegalArgumentException("Options " + OPTION_PREFIX + NORMALIZE + ", " + OPTION_PREFIX + STOP_WORDS
+                    + " and " + OPTION_PREFIX + STEM + " cannot be combined with " + OPTION_PREFIX + READER + " scanner");
+        }
+    }
+
+    private static void validateTable(Map<String, String> options) {
+        if (options.containsKey(TABLE) && "scanner".equals(options.get(READER))) {
+            throw new IllegalArgumentException("Option " + OPTION_PREFIX + TABLE + " cannot be combined with "
+                    + OPTION_PREFIX + READER + " scanner");
+        }
+        if (options.containsKey(OFFHEAP_LIMIT) && !"offheap".equals(options.get(TABLE))) {
+            throw new IllegalArgumentException("Option " + OPTION_PREFIX + OFFHEAP_LIMIT + " requires "
+                    + OPTION_PREFIX + TABLE + " offheap");
+        }
+        if (options.containsKey(THREADS) && parsePositiveInt(THREADS, options.get(THREADS)) > 1
+                && !"fast".equals(options.getOrDefault(READER, "fast"))) {
+            throw new IllegalArgumentException("Option " + OPTION_PREFIX + THREADS + " greater than 1 cannot be combined "
+                    + "with " + OPTION_PREFIX + READER + " " + options.get(READER) + ", ranges are read by the fast reader");
+        }
+    }
+
+    private static void validateFormat(Map<String, String> options) {
+        if (options.containsKey(DELIMITER) && !"csv".equals(options.get(FORMAT))) {
+            throw new IllegalArgumentException("Option " + OPTION_PREFIX + DELIMITER + " requires "
+                    + OPTION_PREFIX + FORMAT + " csv");
+        }
+    }
+
+    /**
+     * Разбирает номер TCP-порта; {@code 0} означает любой свободный порт.
+     *
+     * @param value значение параметра {@code --port}.
+     * @return номер порта от {@code 0} до {@code 65535}.
+     * @throws IllegalArgumentException если значение не является номером порта.
+     */
+    public static int parsePort(String value) {
+        try {
+            int port = Integer.parseInt(value);
+            if (port < 0 || port > 65535) {
+                throw new IllegalArgumentException("Option " + OPTION_PREFIX + PORT + " must be between 0 and 65535");
+            }
+            return port;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Illegal value " + value + " for option " + OPTION_PREFIX + PORT, e);
+        }
+    }
+
+    /**
+     * Разбирает допустимую ошибку приблизительного подсчёта.
+     *
+     * @param value значение параметра {@code --max-error}, например {@code 0.0001} или {@code 1e-5}.
+     * @return доля от количества всех слов.
+     * @throws IllegalArgumentException если значение не число из интервала {@code (0, 1)} или требует слишком
+     *                                  много счётчиков.
+     */
+    public static double parseMaxError(String value) {
+        try {
+            double maxError = Double.parseDouble(value);
+            SpaceSavingTable.capacityFor(maxError);
+            return maxError;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Illegal value " + value + " for option " + OPTION_PREFIX + MAX_ERROR, e);
+        }
+    }
+
+    private static void validateApproximate(Map<String, String> options) {
+        if (!"approximate".equals(options.get(COUNTING))) {
+            if (options.containsKey(MAX_ERROR)) {
+                throw new IllegalArgumentException("Option " + OPTION_PREFIX + MAX_ERROR + " requires "
+                        + OPTION_PREFIX + COUNTING + " approximate");
+            }
+            return;
+        }
+        if (options.containsKey(MEMORY_BUDGET) || options.containsKey(INDEX) || options.containsKey(NGRAM)
+                || !"heap".equals(options.getOrDefault(TABLE, "heap")) || "scanner".equals(options.get(READER))) {
+            throw new IllegalArgumentException(OPTION_PREFIX + COUNTING + " approximate cannot be combined with "
+                    + OPTION_PREFIX + MEMORY_BUDGET + ", " + OPTION_PREFIX + INDEX + ", " + OPTION_PREFIX + NGRAM + ", "
+                    + OPTION_PREFIX + TABLE + " other than heap or " + OPTION_PREFIX + READER + " scanner");
+        }
+    }
+
+    private static void validateNGrams(Map<String, String> options) {
+        if (!options.containsKey(NGRAM)) {
+            return;
+        }
+        int n = parsePositiveInt(NGRAM, options.get(NGRAM));
+        if (n > NGramTable.MAX_N) {
+            throw new IllegalArgumentException("Option " + OPTION_PREFIX + NGRAM + " must not exceed " + NGramTable.MAX_N);
+        }
+        if (options.containsKey(THREADS) || options.containsKey(MEMORY_BUDGET) || options.containsKey(INDEX)
+                || !"heap".equals(options.getOrDefault(TABLE, "heap")) || "scanner".equals(options.get(READER))) {
+            throw new IllegalArgumentException("Option " + OPTION_PREFIX + NGRAM + " cannot be combined with "
+                    + OPTION_PREFIX + THREADS + ", " + OPTION_PREFIX + MEMORY_BUDGET + ", " + OPTION_PREFIX + INDEX + ", "
+                    + OPTION_PREFIX + TABLE + " other than heap or " + OPTION_PREFIX + READER + " scanner");
+        }
+    }
+
+    private static void validateOptionCombinations(Map<String, String> options, boolean stdin) {
+        validateTextFilters(options);
+        validateTable(options);
+        validateFormat(options);
+        validateNGrams(options);
+        validateApproximate(options);
+        if (stdin && (options.containsKey(THREADS) || options.containsKey(READER) || options.containsKey(MEMORY_BUDGET))) {
+            throw new IllegalArgumentException("Standard input cannot be combined with " + OPTION_PREFIX + THREADS + ", "
+                    + OPTION_PREFIX + READER + " or " + OPTION_PREFIX + MEMORY_BUDGET);
+        }
+        if (!stdin && (options.containsKey(SNAPSHOT_INTERVAL) || options.containsKey(SNAPSHOT_TOKENS))) {
+            throw new IllegalArgumentException("Options " + OPTION_PREFIX + SNAPSHOT_INTERVAL + " and "
+                    + OPTION_PREFIX + SNAPSHOT_TOKENS + " require standard input " + STDIN);
+        }
+
+        if (options.containsKey(INDEX) && (stdin || options.containsKey(THREADS) || options.containsKey(READER)
+                || options.containsKey(MEMORY_BUDGET))) {
+            throw new IllegalArgumentException("Option " + OPTION_PREFIX + INDEX + " cannot be combined with standard input, "
+                    + OPTION_PREFIX + THREADS + ", " + OPTION_PREFIX + READER + " or " + OPTION_PREFIX + MEMORY_BUDGET);
+        }
+
+        if (options.containsKey(MEMORY_BUDGET) && parseSize(options.get(MEMORY_BUDGET)) < MIN_MEMORY_BUDGET) {
+            throw new IllegalArgumentException("Option " + OPTION_PREFIX + MEMORY_BUDGET + " must be at least "
+                    + (MIN_MEMORY_BUDGET >> 20) + "m");
+        }
+        if (options.containsKey(MEMORY_BUDGET) && (options.containsKey(THREADS) || options.containsKey(TABLE)
+                || "scanner".equals(options.get(READER)) || !"tsv".equals(options.getOrDefault(FORMAT, "tsv")))) {
+            throw new IllegalArgumentException("Option " + OPTION_PREFIX + MEMORY_BUDGET + " cannot be combined with "
+                    + OPTION_PREFIX + THREADS + ", " + OPTION_PREFIX + TABLE + ", " + OPTION_PREFIX + READER + " scanner or "
+                    + OPTION_PREFIX + FORMAT + " other than tsv");
+        }
+    }
+
+    private static void validateDirectory(String directory) {
+        Path path = Path.of(directory);
+        if (!Files.isDirectory(path)) {
+            throw new IllegalArgumentException("Failed find directory " + path);
+        }
+        if (!Files.isWritable(path)) {
+            throw new IllegalArgumentException("Don't have permission to create files in " + path);
+        }
+    }
+
+    private static int parsePositiveInt(String name, String value) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number <= 0) {
+                throw new IllegalArgumentException("Option " + OPTION_PREFIX + name + " must be positive");
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Illegal value " + value + " for option " + OPTION_PREFIX + name, e);
+        }
+    }
+
+    private static long parsePositiveLong(String name, String value) {
+        try {
+            long number = Long.parseLong(value);
+            if (number <= 0) {
+                throw new IllegalArgumentException("Option " + OPTION_PREFIX + name + " must be positive");
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Illegal value " + value + " for option " + OPTION_PREFIX + name, e);
+        }
     }
 
     private static void validateCountArgs(int countArgs) {
@@ -74,6 +700,9 @@ public class ArgumentValidator {
     }
 
     private static void validateInputFilePath(String inputFilePath) {
+        if (inputFilePath.equals(STDIN)) {
+            return;
+        }
         Path path = Path.of(inputFilePath);
         if (Files.notExists(path)) {
             throw new IllegalArgumentException("Failed open file " + inputFilePath);
@@ -98,7 +727,100 @@ public class ArgumentValidator {
         }
     }
 
-    public record ValidatedArguments(String inputFilePath, String outputFilePath) {}
+    /**
+     * Валидированные аргументы командной строки.
+     *
+     * @param inputFilePath путь к входному текстовому файлу.
+     * @param outputFilePath путь к выходному CSV файлу.
+     * @param options необязательные параметры: имя без {@code --} и его значение.
+     */
+    public record ValidatedArguments(String inputFilePath, String outputFilePath, Map<String, String> options)
+            implements Options {
+
+        public ValidatedArguments(String inputFilePath, String outputFilePath) {
+            this(inputFilePath, outputFilePath, Map.of());
+        }
+    }
+
+    /**
+     * Валидированные аргументы пакетного режима.
+     *
+     * @param inputFiles входные файлы без повторов, в порядке перечисления.
+     * @param options необязательные параметры: имя без {@code --} и его значение.
+     */
+    public record BatchArguments(List<Path> inputFiles, Map<String, String> options) implements Options {
+
+        public BatchArguments {
+            inputFiles = List.copyOf(inputFiles);
+        }
+
+        /**
+         * Возвращает путь к CSV для одного входного файла: имя файла без расширения
+         * с расширением {@code .csv} в директории {@code --output-dir}.
+         *
+         * @param inputFile входной файл.
+         * @return путь к выходному файлу или {@code null}, если {@code --output-dir} не задан.
+         */
+        public Path outputFileFor(Path inputFile) {
+            String outputDir = options.get(OUTPUT_DIR);
+            if (outputDir == null) {
+                return null;
+            }
+            String name = inputFile.getFileName().toString();
+            int extension = name.lastIndexOf('.');
+            return Path.of(outputDir).resolve((extension > 0 ? name.substring(0, extension) : name) + ".csv");
+        }
+    }
+
+    /**
+     * Валидированные аргументы слияния индексов.
+     *
+     * @param outputIndex путь к результирующему индексу.
+     * @param inputIndexes входные индексы без повторов, в порядке перечисления.
+     * @param options необязательные параметры: имя без {@code --} и его значение.
+     */
+    public record MergeArguments(Path outputIndex, List<Path> inputIndexes, Map<String, String> options)
+            implements Options {
+
+        public MergeArguments {
+            inputIndexes = List.copyOf(inputIndexes);
+        }
+    }
+
+    /**
+     * Валидированные аргументы сервера подсчёта.
+     *
+     * @param options необязательные параметры: имя без {@code --} и его значение.
+     */
+    public record ServeArguments(Map<String, String> options) implements Options {
+    }
+
+    /**
+     * Доступ к значениям необязательных параметров с разбором и значением по умолчанию.
+     */
+    public interface Options {
+
+        Map<String, String> options();
+
+        default String option(String name, String defaultValue) {
+            return options().getOrDefault(name, defaultValue);
+        }
+
+        default int intOption(String name, int defaultValue) {
+            String value = options().get(name);
+            return value == null ? defaultValue : parsePositiveInt(name, value);
+        }
+
+        default long longOption(String name, long defaultValue) {
+            String value = options().get(name);
+            return value == null ? defaultValue : parsePositiveLong(name, value);
+        }
+
+        default long sizeOption(String name, long defaultValue) {
+            String value = options().get(name);
+            return value == null ? defaultValue : parseSize(value);
+        }
+    }
 
 }
 
@@ -1,10 +1,14 @@
 package nsu.ptests;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assertions.*;
 
 import nsu.parser.App;
@@ -12,22 +16,33 @@ import nsu.parser.io.*;
 
 
 public class AppTest {
+
+    @TempDir
+    Path tempDir;
     
     @Test
     void testCountArgsApp() {
-        assertThrows(IllegalArgumentException.class, () -> App.main(new String[]{"Hello"}));
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        PrintStream stderr = System.err;
+        System.setErr(new PrintStream(errors, true, StandardCharsets.UTF_8));
+        try {
+            assertEquals(App.EXIT_FAILURE, App.run(new String[]{"Hello"}));
+        } finally {
+            System.setErr(stderr);
+        }
+        assertTrue(errors.toString(StandardCharsets.UTF_8).startsWith("Error: "), errors.toString(StandardCharsets.UTF_8));
     }
 
     @Test
     void testOutputFile() throws IOException {
-        String inputFilePath = "src/test/java/nsu/txt/ten_words.txt";
-        String outputFilePath = "src/test/java/nsu/txt/real_output.csv";
-        String expectedFileOutputPath= "src/test/java/nsu/txt/expected_output.csv";
+        Path inputFilePath = StatReaderTest.resource("ten_words.txt");
+        Path outputFilePath = tempDir.resolve("real_output.csv");
+        Path expectedFileOutputPath = StatReaderTest.resource("expected_output.csv");
 
-        App.main(new String[]{inputFilePath, outputFilePath});  
+        assertEquals(App.EXIT_SUCCESS, App.run(new String[]{inputFilePath.toString(), outputFilePath.toString()}));
 
-        byte[] expectedOutputFile = Files.readAllBytes(Path.of(expectedFileOutputPath));
-        byte[] realOutputFile = Files.readAllBytes(Path.of(outputFilePath));
+        byte[] expectedOutputFile = Files.readAllBytes(expectedFileOutputPath);
+        byte[] realOutputFile = Files.readAllBytes(outputFilePath);
 
         assertArrayEquals(expectedOutputFile, realOutputFile);
     }
@@ -14,5 +14,80 @@ public class ArgumentValidatorTest {
         assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(null));
         assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{"why", "hello", "lol"}));
     }
-    
+
+    @Test
+    void testOptions() {
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{"pom.xml", "out.csv", "--why", "1"}));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{"pom.xml", "out.csv", "--threads", "0"}));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{"pom.xml", "out.csv", "--threads"}));
+
+        var validArgs = ArgumentValidator.validate(new String[]{"pom.xml", "--chunk-size", "64k", "out.csv", "--threads", "8"});
+        assertEquals("out.csv", validArgs.outputFilePath());
+        assertEquals(8, validArgs.intOption(ArgumentValidator.THREADS, 1));
+        assertEquals(64 << 10, validArgs.sizeOption(ArgumentValidator.CHUNK_SIZE, 1));
+        assertEquals(3L << 30, ArgumentValidator.parseSize("3G"));
+    }
+
+    @Test
+    void testStdinOptions() {
+        var validArgs = ArgumentValidator.validate(new String[]{"-", "out.csv", "--snapshot-interval", "5", "--snapshot-tokens", "10000000000"});
+        assertEquals(ArgumentValidator.STDIN, validArgs.inputFilePath());
+        assertEquals(5, validArgs.intOption(ArgumentValidator.SNAPSHOT_INTERVAL, 0));
+        assertEquals(10_000_000_000L, validArgs.longOption(ArgumentValidator.SNAPSHOT_TOKENS, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{"pom.xml", "out.csv", "--snapshot-interval", "5"}));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{"-", "out.csv", "--threads", "4"}));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{"-", "out.csv", "--snapshot-tokens", "0"}));
+    }
+
+    @Test
+    void testSubcommandNameAsPath() {
+        assertTrue(ArgumentValidator.isBatch(new String[]{"batch", "data/"}));
+        assertFalse(ArgumentValidator.isBatch(new String[]{"./batch", "out.csv"}));
+        assertFalse(ArgumentValidator.isMerge(new String[]{"./merge", "out.csv"}));
+        assertFalse(ArgumentValidator.isServe(new String[]{"./serve", "out.csv"}));
+        assertEquals("./pom.xml", ArgumentValidator.validate(new String[]{"./pom.xml", "out.csv"}).inputFilePath());
+    }
+
+    @Test
+    void testMemoryBudgetOptions() {
+        ArgumentValidator.validate(new String[]{"pom.xml", "out.csv", "--memory-budget", "64m", "--reader", "mapped"});
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{"pom.xml", "out.csv",
+                "--memory-budget", "64m", "--reader", "scanner"}));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{"pom.xml", "out.csv",
+                "--memory-budget", "64k"}));
+        ArgumentValidator.validate(new String[]{"pom.xml", "out.csv", "--memory-budget", "4m"});
+    }
+
+    @Test
+    void testTableRequiresByteReader() {
+        ArgumentValidator.validate(new String[]{"pom.xml", "out.csv", "--table", "offheap", "--reader", "mapped"});
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{"pom.xml", "out.csv",
+                "--table", "offheap", "--reader", "scanner"}));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validateBatch(new String[]{"batch", "pom.xml",
+                "--merged", "out.csv", "--table", "concurrent", "--reader", "scanner"}));
+    }
+
+    @Test
+    void testOptionsThatWouldBeIgnored() {
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{"pom.xml", "out.csv",
+                "--threads", "4", "--reader", "mapped"}));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{"pom.xml", "out.csv",
+                "--threads", "4", "--reader", "scanner"}));
+        ArgumentValidator.validate(new String[]{"pom.xml", "out.csv", "--threads", "4", "--reader", "fast"});
+        ArgumentValidator.validate(new String[]{"pom.xml", "out.csv", "--threads", "1", "--reader", "mapped"});
+
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{"pom.xml", "out.csv",
+                "--offheap-limit", "1g"}));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validateBatch(new String[]{"batch", "pom.xml",
+                "--merged", "out.csv", "--table", "heap", "--offheap-limit", "1g"}));
+        ArgumentValidator.validate(new String[]{"pom.xml", "out.csv", "--table", "offheap", "--offheap-limit", "1g"});
+
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{"pom.xml", "out.csv",
+                "--delimiter", ";"}));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validateServe(new String[]{"serve",
+                "--format", "tsv", "--delimiter", ";"}));
+        ArgumentValidator.validate(new String[]{"pom.xml", "out.csv", "--format", "csv", "--delimiter", ";"});
+    }
+
 }
\ No newline at end of file
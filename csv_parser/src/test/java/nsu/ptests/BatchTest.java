@@ -0,0 +1,107 @@
+package nsu.ptests;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import nsu.parser.App;
+import nsu.parser.batch.*;
+import nsu.parser.io.*;
+import nsu.parser.tables.WordCountTable;
+import nsu.parser.validators.ArgumentValidator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testResolveInputs() throws IOException {
+        Path corpus = Files.createDirectories(tempDir.resolve("corpus/nested"));
+        Path a = Files.writeString(tempDir.resolve("corpus/a.txt"), "a");
+        Path b = Files.writeString(corpus.resolve("b.txt"), "b");
+        Path c = Files.writeString(tempDir.resolve("c.log"), "c");
+        Path manifest = Files.writeString(tempDir.resolve("manifest.txt"), "# inputs\n\nc.log\ncorpus/a.txt\n");
+
+        assertEquals(List.of(a, b), BatchInputs.resolve(List.of(tempDir.resolve("corpus").toString())));
+        assertEquals(List.of(a), BatchInputs.resolve(List.of(tempDir.resolve("corpus/*.txt").toString())));
+        assertEquals(List.of(a, b), BatchInputs.resolve(List.of(tempDir.resolve("corpus/**.txt").toString())));
+        assertEquals(List.of(c, a), BatchInputs.resolve(BatchInputs.readManifest(manifest)));
+        assertThrows(IllegalArgumentException.class, () -> BatchInputs.resolve(List.of(tempDir.resolve("none.txt").toString())));
+    }
+
+    @Test
+    void testValidateBatch() throws IOException {
+        Files.writeString(tempDir.resolve("a.txt"), "a");
+        Files.createDirectories(tempDir.resolve("other"));
+        Files.writeString(tempDir.resolve("other/a.txt"), "a");
+        String input = tempDir.resolve("a.txt").toString();
+
+        var batchArgs = ArgumentValidator.validateBatch(new String[]{"batch", input, "--output-dir", tempDir.toString(), "--jobs", "2"});
+        assertEquals(List.of(Path.of(input)), batchArgs.inputFiles());
+        assertEquals(tempDir.resolve("a.csv"), batchArgs.outputFileFor(Path.of(input)));
+        assertEquals(2, batchArgs.intOption(ArgumentValidator.JOBS, 1));
+
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validateBatch(new String[]{"batch", input}));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validateBatch(
+                new String[]{"batch", input, "--merged", "out.csv", "--threads", "2"}));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validateBatch(
+                new String[]{"batch", tempDir.toString(), "--output-dir", tempDir.toString()}));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(
+                new String[]{input, "out.csv", "--jobs", "2"}));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validateBatch(new String[]{"batch", input,
+                "--output-dir", tempDir.toString(), "--merged", tempDir.resolve("other/../a.csv").toString()}));
+    }
+
+    @Test
+    void testProcessMatchesSingleFileMode() throws IOException {
+        Path inputs = Files.createDirectories(tempDir.resolve("inputs"));
+        Path outputs = Files.createDirectories(tempDir.resolve("outputs"));
+        for (int i = 0; i < 20; i++) {
+            Files.writeString(inputs.resolve("file" + i + ".txt"), "Word word, слово " + "x".repeat(i) + " common");
+        }
+        Path merged = tempDir.resolve("merged.csv");
+
+        App.main(new String[]{"batch", inputs.toString(), "--output-dir", outputs.toString(), "--merged", merged.toString(),
+                "--jobs", "3"});
+
+        for (int i = 0; i < 20; i++) {
+            Path expected = tempDir.resolve("expected.csv");
+            new Writer(expected.toString()).writeCSV(new FastStatReader(inputs.resolve("file" + i + ".txt")).getWordTable());
+            assertEquals(Files.readString(expected), Files.readString(outputs.resolve("file" + i + ".csv")));
+        }
+        List<String> mergedLines = Files.readAllLines(merged);
+        assertEquals("word\t40", mergedLines.get(0));
+        assertEquals("common\t20", mergedLines.get(1));
+    }
+
+    @Test
+    void testFailedFileDoesNotStopBatch() throws IOException {
+        Path good = Files.writeString(tempDir.resolve("good.txt"), "a b b");
+        Path missing = tempDir.resolve("missing.txt");
+        WordCountTable merged = new WordCountTable();
+
+        BatchSummary summary = new BatchProcessor(FastStatReader::new, 1).process(List.of(missing, good), null, merged);
+
+        assertEquals(1, summary.failedCount());
+        assertTrue(summary.results().get(0).failed());
+        assertEquals(3, summary.results().get(1).words());
+        assertTrue(summary.results().get(1).readNanos() > 0);
+        assertEquals(0, summary.results().get(1).writeNanos());
+        assertTrue(summary.results().get(1).nanos() >= summary.results().get(1).readNanos());
+        assertEquals(2, merged.count("b"));
+
+        Path inputs = Files.createDirectories(tempDir.resolve("inputs"));
+        Files.writeString(inputs.resolve("good.txt"), "a b b");
+        Files.write(inputs.resolve("corrupt.txt"), new byte[]{0x1F, (byte) 0x8B, 8, 0, 1, 2, 3});
+        Path outputs = Files.createDirectories(tempDir.resolve("outputs"));
+        assertEquals(App.EXIT_FAILURE, App.run(new String[]{"batch", inputs.toString(), "--output-dir", outputs.toString()}));
+        assertEquals(List.of("b\t2", "a\t1"), Files.readAllLines(outputs.resolve("good.csv")));
+    }
+
+}
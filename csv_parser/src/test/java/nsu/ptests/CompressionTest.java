@@ -0,0 +1,149 @@
+package nsu.ptests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import nsu.parser.io.*;
+import nsu.parser.io.compression.Compression;
+import nsu.parser.tables.WordCountTable;
+
+import com.github.luben.zstd.ZstdOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressionTest {
+    private static final String TEXT = "Hello, world! hello HELLO... \"Why\" why? - ... \n"
+            + "\tПривет, мир! ПРИВЕТ мир\r\nit's don't e-mail [x] {y} A_B tab nbsp end";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDetect() throws IOException {
+        byte[] text = TEXT.getBytes(StandardCharsets.UTF_8);
+        assertEquals(Compression.NONE, Compression.detect(Files.write(tempDir.resolve("a.txt"), text)));
+        assertEquals(Compression.GZIP, Compression.detect(Files.write(tempDir.resolve("a.bin"), gzip(text, Deflater.DEFAULT_COMPRESSION))));
+        assertEquals(Compression.ZSTD, Compression.detect(Files.write(tempDir.resolve("b.bin"), zstd(text))));
+        assertEquals(Compression.NONE, Compression.detect(Files.write(tempDir.resolve("empty.txt"), new byte[0])));
+    }
+
+    @Test
+    void testGzipSameAsPlain() throws IOException {
+        byte[] text = TEXT.getBytes(StandardCharsets.UTF_8);
+        Path plain = Files.write(tempDir.resolve("input.txt"), text);
+        Path compressed = Files.write(tempDir.resolve("input.txt.gz"), gzip(text, Deflater.DEFAULT_COMPRESSION));
+
+        var expected = new StatReader(plain).getWordStatMultiset();
+        assertEquals(expected, new StatReader(compressed).getWordStatMultiset());
+        assertEquals(expected, new FastStatReader(compressed).getWordStatMultiset());
+        assertEquals(expected, new MappedStatReader(compressed).getWordStatMultiset());
+    }
+
+    @Test
+    void testZstdSameAsPlain() throws IOException {
+        byte[] text = TEXT.getBytes(StandardCharsets.UTF_8);
+        Path plain = Files.write(tempDir.resolve("input.txt"), text);
+        Path compressed = Files.write(tempDir.resolve("input.txt.zst"), zstd(text));
+
+        assertEquals(new FastStatReader(plain).getWordStatMultiset(), new FastStatReader(compressed).getWordStatMultiset());
+    }
+
+    @Test
+    void testParallelMultiMemberGzip() throws IOException {
+        byte[] text = randomText(12 << 20);
+        Path plain = Files.write(tempDir.resolve("input.txt"), text);
+
+        Random random = new Random(7);
+        ByteArrayOutputStream members = new ByteArrayOutputStream();
+        for (int from = 0; from < text.length; ) {
+            int to = Math.min(text.length, from + 1 + random.nextInt(1 << 20));
+            byte[] part = java.util.Arrays.copyOfRange(text, from, to);
+            members.writeBytes(gzip(part, random.nextBoolean() ? Deflater.NO_COMPRESSION : Deflater.BEST_SPEED));
+            from = to;
+        }
+        Path compressed = Files.write(tempDir.resolve("input.txt.gz"), members.toByteArray());
+        assertTrue(Files.size(compressed) > 8 << 20);
+
+        var expected = new FastStatReader(plain).getWordStatMultiset();
+        assertEquals(expected, new ParallelStatReader(compressed, 4, 1 << 20).getWordStatMultiset());
+        assertEquals(expected, new FastStatReader(compressed, WordCountTable::new, 7).getWordStatMultiset());
+    }
+
+    @Test
+    void testParallelSingleMemberGzip() throws IOException {
+        byte[] text = randomText(10 << 20);
+        Path plain = Files.write(tempDir.resolve("input.txt"), text);
+        Path compressed = Files.write(tempDir.resolve("input.txt.gz"), gzip(text, Deflater.NO_COMPRESSION));
+
+        assertEquals(new FastStatReader(plain).getWordStatMultiset(),
+                new FastStatReader(compressed, WordCountTable::new, 4).getWordStatMultiset());
+    }
+
+    @Test
+    void testParallelGzipWithFalseMemberStart() throws IOException {
+        byte[] text = randomText(10 << 20);
+        int embedAt = text.length / 2 + (100 << 10);
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        content.write(text, 0, embedAt);
+        content.writeBytes(gzip("hidden gzip member".getBytes(StandardCharsets.UTF_8), Deflater.DEFAULT_COMPRESSION));
+        content.write(text, embedAt, text.length - embedAt);
+        Path plain = Files.write(tempDir.resolve("input.txt"), content.toByteArray());
+
+        ByteArrayOutputStream members = new ByteArrayOutputStream();
+        members.writeBytes(gzip(content.toByteArray(), Deflater.NO_COMPRESSION));
+        members.writeBytes(gzip("tail words".getBytes(StandardCharsets.UTF_8), Deflater.DEFAULT_COMPRESSION));
+        Path compressed = Files.write(tempDir.resolve("input.txt.gz"), members.toByteArray());
+
+        assertEquals(new FastStatReader(plain).getWordStatMultiset().size() + 2,
+                new FastStatReader(compressed, WordCountTable::new, 4).getWordStatMultiset().size());
+    }
+
+    @Test
+    void testCorruptGzip() throws IOException {
+        byte[] compressed = gzip(TEXT.getBytes(StandardCharsets.UTF_8), Deflater.DEFAULT_COMPRESSION);
+        compressed[compressed.length - 6] ^= 1;
+        Path input = Files.write(tempDir.resolve("corrupt.gz"), compressed);
+
+        assertThrows(RuntimeException.class, () -> new FastStatReader(input).getWordTable());
+    }
+
+    private static byte[] randomText(int size) {
+        Random random = new Random(42);
+        String[] words = {"alpha", "Beta,", "gamma.", "дельта", "эпсилон!", "zeta", "ETA", "theta;", "йота", "kappa"};
+        StringBuilder text = new StringBuilder(size + 16);
+        while (text.length() < size) {
+            text.append(words[random.nextInt(words.length)]).append(random.nextInt(1000)).append(random.nextInt(9) == 0 ? '\n' : ' ');
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] data, int level) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] zstd(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream zstd = new ZstdOutputStream(out)) {
+            zstd.write(data);
+        }
+        return out.toByteArray();
+    }
+
+}
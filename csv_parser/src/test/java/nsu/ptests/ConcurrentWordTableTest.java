@@ -0,0 +1,132 @@
+package nsu.ptests;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CyclicBarrier;
+
+import nsu.parser.App;
+import nsu.parser.io.FastStatReader;
+import nsu.parser.io.ParallelStatReader;
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.tables.ConcurrentWordTable;
+import nsu.parser.tables.WordCountTable;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentWordTableTest {
+    private static final int THREADS = 8;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testExactCountsUnderContentionAndResizes() throws Exception {
+        for (int round = 0; round < 5; round++) {
+            ConcurrentWordTable table = new ConcurrentWordTable(1);
+            WordCountTable expected = new WordCountTable();
+            List<byte[][]> streams = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                SplittableRandom random = new SplittableRandom(round * 31L + thread);
+                byte[][] tokens = new byte[100_000][];
+                for (int i = 0; i < tokens.length; i++) {
+                    int word = random.nextInt(4) == 0 ? random.nextInt(50_000) : random.nextInt(100);
+                    tokens[i] = ("слово" + word).getBytes(StandardCharsets.UTF_8);
+                    expected.add(tokens[i], 0, tokens[i].length);
+                }
+                streams.add(tokens);
+            }
+
+            runConcurrently(streams.size(), thread -> {
+                for (byte[] token : streams.get(thread)) {
+                    table.add(token, 0, token.length);
+                }
+            });
+
+            assertEquals(expected.totalCount(), table.totalCount());
+            assertEquals(expected.distinctSize(), table.distinctSize());
+            expected.forEachEntry((word, count) -> assertEquals(count, table.count(word), word));
+            long[] sum = {0};
+            table.forEachEntry((word, count) -> sum[0] += count);
+            assertEquals(expected.totalCount(), sum[0]);
+        }
+    }
+
+    @Test
+    void testSingleHotWord() throws Exception {
+        ConcurrentWordTable table = new ConcurrentWordTable();
+        byte[] word = "hot".getBytes(StandardCharsets.UTF_8);
+        runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < 200_000; i++) {
+                table.add(word, 0, word.length, thread + 1);
+            }
+        });
+
+        long expected = 200_000L * THREADS * (THREADS + 1) / 2;
+        assertEquals(expected, table.count("hot"));
+        assertEquals(expected, table.totalCount());
+        assertEquals(1, table.distinctSize());
+    }
+
+    @Test
+    void testSharedTableReader() throws IOException {
+        StringBuilder text = new StringBuilder();
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 200_000; i++) {
+            text.append("w").append(random.nextInt(20_000)).append(i % 10 == 9 ? '\n' : ' ');
+        }
+        Path input = Files.writeString(tempDir.resolve("input.txt"), text);
+
+        IWordTable expected = new FastStatReader(input).getWordTable();
+        ConcurrentWordTable shared = new ConcurrentWordTable();
+        IWordTable actual = new ParallelStatReader(input, 4, 1 << 12, () -> shared, true).getWordTable();
+        assertSame(shared, actual);
+        assertEquals(expected.totalCount(), actual.totalCount());
+        assertEquals(expected.distinctSize(), actual.distinctSize());
+        expected.forEachEntry((word, count) -> assertEquals(count, actual.count(word), word));
+
+        Path output = tempDir.resolve("output.csv");
+        Path reference = tempDir.resolve("reference.csv");
+        App.main(new String[]{input.toString(), output.toString(), "--threads", "4", "--chunk-size", "4k",
+                "--table", "concurrent"});
+        App.main(new String[]{input.toString(), reference.toString()});
+        assertEquals(Files.readAllLines(reference), Files.readAllLines(output));
+    }
+
+    private static void runConcurrently(int threads, ThreadBody body) throws Exception {
+        CyclicBarrier start = new CyclicBarrier(threads);
+        List<Thread> workers = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    body.run(thread);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertTrue(failures.isEmpty(), failures.toString());
+    }
+
+    @FunctionalInterface
+    private interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+
+}
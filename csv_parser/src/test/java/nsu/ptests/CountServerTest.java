@@ -0,0 +1,131 @@
+package nsu.ptests;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import nsu.parser.io.FastStatReader;
+import nsu.parser.io.Writer;
+import nsu.parser.server.CountServer;
+import nsu.parser.server.TableCache;
+import nsu.parser.tables.FilteredWordTable;
+import nsu.parser.tables.WordCountTable;
+import nsu.parser.text.CaseFoldingFilter;
+import nsu.parser.text.PerfectHashSet;
+import nsu.parser.text.StopWordFilter;
+import nsu.parser.text.TokenFilterChain;
+import nsu.parser.text.UnicodePunctuationFilter;
+import nsu.parser.validators.ArgumentValidator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CountServerTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testQueriesAreAnsweredFromCache() throws Exception {
+        Path input = Files.writeString(tempDir.resolve("input.txt"), "день добрый день\nмир день мир\n");
+        try (CountServer server = start(64L << 20)) {
+            assertEquals("день\t3\nмир\t2\n", get(server, "/top?n=2&path=" + encode(input)).body());
+            assertEquals("3\n", get(server, "/count?word=" + encode("день") + "&path=" + encode(input)).body());
+            assertEquals("0\n", get(server, "/count?word=нет&path=" + encode(input)).body());
+
+            Path expected = tempDir.resolve("expected.csv");
+            new Writer(expected.toString()).writeCSV(new FastStatReader(input).getWordTable());
+            assertEquals(Files.readString(expected), get(server, "/csv?path=" + encode(input)).body());
+
+            assertEquals(1, server.cache().misses());
+            assertEquals(3, server.cache().hits());
+            assertTrue(get(server, "/stats").body().contains("\"hits\": 3"));
+        }
+    }
+
+    @Test
+    void testCountWordIsNormalizedLikeInput() throws Exception {
+        Path input = Files.writeString(tempDir.resolve("input.txt"), "Привет, мир! И снова привет\n");
+        TokenFilterChain filters = new TokenFilterChain(List.of(new UnicodePunctuationFilter(), new CaseFoldingFilter(),
+                new StopWordFilter(PerfectHashSet.of(List.of("и")))));
+        TableCache cache = new TableCache(file -> new FastStatReader(file,
+                () -> new FilteredWordTable(new WordCountTable(), filters)).getWordTable(), 64L << 20);
+        try (CountServer server = CountServer.start(0, cache, file -> new Writer(file.toString()), filters, 2)) {
+            assertEquals("2\n", get(server, "/count?word=" + encode("ПРИВЕТ,") + "&path=" + encode(input)).body());
+            assertEquals("1\n", get(server, "/count?word=" + encode("«мир»") + "&path=" + encode(input)).body());
+            assertEquals("0\n", get(server, "/count?word=" + encode("И") + "&path=" + encode(input)).body());
+        }
+        try (CountServer server = start(64L << 20)) {
+            assertEquals("2\n", get(server, "/count?word=" + encode("Привет,") + "&path=" + encode(input)).body());
+        }
+    }
+
+    @Test
+    void testChangedFileIsCountedAgain() throws Exception {
+        Path input = Files.writeString(tempDir.resolve("input.txt"), "раз два раз\n");
+        try (CountServer server = start(64L << 20)) {
+            assertEquals("2\n", get(server, "/count?word=раз&path=" + encode(input)).body());
+            Files.writeString(input, "раз три\n", StandardOpenOption.APPEND);
+            assertEquals("3\n", get(server, "/count?word=раз&path=" + encode(input)).body());
+
+            assertEquals(2, server.cache().misses());
+            assertEquals(1, server.cache().size());
+        }
+    }
+
+    @Test
+    void testCacheIsBoundedBySize() throws Exception {
+        Path first = Files.writeString(tempDir.resolve("first.txt"), "один два три\n");
+        Path second = Files.writeString(tempDir.resolve("second.txt"), "четыре пять шесть\n");
+        try (CountServer server = start(1)) {
+            get(server, "/top?path=" + encode(first));
+            get(server, "/top?path=" + encode(second));
+            assertEquals(1, server.cache().size());
+            get(server, "/top?path=" + encode(first));
+            assertEquals(3, server.cache().misses());
+        }
+    }
+
+    @Test
+    void testErrors() throws Exception {
+        try (CountServer server = start(64L << 20)) {
+            assertEquals(400, get(server, "/top").statusCode());
+            assertEquals(400, get(server, "/top?n=x&path=" + encode(tempDir)).statusCode());
+            assertEquals(404, get(server, "/top?path=" + encode(tempDir.resolve("missing.txt"))).statusCode());
+            assertEquals(0, server.cache().size());
+        }
+
+        ArgumentValidator.validateServe(new String[]{"serve", "--port", "0", "--cache-size", "64m", "--jobs", "2"});
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validateServe(new String[]{"serve",
+                "input.txt"}));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validateServe(new String[]{"serve",
+                "--index", tempDir.resolve("input.idx").toString()}));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validateServe(new String[]{"serve",
+                "--port", "70000"}));
+    }
+
+    private CountServer start(long cacheSize) {
+        TableCache cache = new TableCache(file -> new FastStatReader(file).getWordTable(), cacheSize);
+        return CountServer.start(0, cache, file -> new Writer(file.toString()), 2);
+    }
+
+    private HttpResponse<String> get(CountServer server, String query) throws IOException, InterruptedException {
+        URI uri = URI.create("http://localhost:" + server.address().getPort() + query);
+        return client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private static String encode(Object value) {
+        return URLEncoder.encode(value.toString(), StandardCharsets.UTF_8);
+    }
+
+}
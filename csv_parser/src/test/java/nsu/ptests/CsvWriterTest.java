@@ -0,0 +1,81 @@
+package nsu.ptests;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import nsu.parser.io.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFormat() throws IOException {
+        Multiset<String> wordStats = HashMultiset.create();
+        wordStats.add("привет", 3);
+        wordStats.add("say \"hi\"", 2);
+        wordStats.add("a,b", 1);
+        wordStats.add("😀", 1);
+
+        Path output = tempDir.resolve("output.csv");
+        new CsvWriter(output.toString()).writeCSV(wordStats);
+
+        String expected = "привет,3,42.86\r\n"
+                + "\"say \"\"hi\"\"\",2,28.57\r\n"
+                + "\"a,b\",1,14.29\r\n"
+                + "😀,1,14.29\r\n";
+        assertEquals(expected, Files.readString(output, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testDelimiterAndTruncate() throws IOException {
+        Path output = tempDir.resolve("output.csv");
+        Files.writeString(output, "x".repeat(10_000));
+
+        Multiset<String> wordStats = HashMultiset.create();
+        wordStats.add("a;b", 1);
+        wordStats.add("c,d", 3);
+        new CsvWriter(output.toString(), ';', 0).writeCSV(wordStats);
+
+        assertEquals("c,d;3;75.00\r\n\"a;b\";1;25.00\r\n", Files.readString(output));
+    }
+
+    @Test
+    void testRepeatedWrites() throws IOException {
+        Path output = tempDir.resolve("output.csv");
+        CsvWriter writer = new CsvWriter(output.toString());
+        String longWord = "y".repeat(100_000);
+
+        Multiset<String> first = HashMultiset.create();
+        first.add(longWord, 1);
+        writer.writeCSV(first);
+        assertEquals(longWord + ",1,100.00\r\n", Files.readString(output));
+
+        Multiset<String> second = HashMultiset.create();
+        second.add("z", 2);
+        writer.writeCSV(second);
+        assertEquals("z,2,100.00\r\n", Files.readString(output));
+    }
+
+    @Test
+    void testWriterTruncates() throws IOException {
+        Path output = tempDir.resolve("output.csv");
+        Files.writeString(output, "x".repeat(10_000));
+
+        Multiset<String> wordStats = HashMultiset.create();
+        wordStats.add("hello", 2);
+        new Writer(output.toString()).writeCSV(wordStats);
+
+        assertEquals("hello\t2" + System.lineSeparator(), Files.readString(output));
+    }
+
+}
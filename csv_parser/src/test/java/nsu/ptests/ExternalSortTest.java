@@ -0,0 +1,74 @@
+package nsu.ptests;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import nsu.parser.App;
+import nsu.parser.external.SpillingWordTable;
+import nsu.parser.io.*;
+import nsu.parser.tables.WordTables;
+
+import com.google.common.collect.Multiset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExternalSortTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSpillingTableSameAsHeapTable() throws IOException {
+        Path input = writeCorpus(200_000);
+
+        var expected = new FastStatReader(input).getWordStatMultiset();
+        try (SpillingWordTable table = new SpillingWordTable(64 << 10, tempDir)) {
+            new FastStatReader(input, () -> table).getWordTable();
+            assertTrue(table.spilledRuns() > 64, "merge must take more than one pass");
+            assertEquals(expected, WordTables.toMultiset(table));
+            assertEquals(1, table.spilledRuns(), "the first pass keeps its merged run");
+            assertEquals(expected.elementSet().size(), table.distinctSize());
+            assertEquals(expected.count("word7"), table.count("word7"));
+            assertEquals(expected, WordTables.toMultiset(table));
+        }
+        assertEquals(1, Files.list(tempDir).count());
+    }
+
+    @Test
+    void testExternalModeOutput() throws IOException {
+        Path input = writeCorpus(50_000);
+        Path output = tempDir.resolve("output.csv");
+
+        App.main(new String[]{input.toString(), output.toString(), "--memory-budget", "4m", "--tmp-dir", tempDir.toString()});
+
+        var wordStats = new FastStatReader(input).getWordStatMultiset();
+        List<String> expected = wordStats.entrySet().stream()
+                .sorted(Comparator.comparingInt((Multiset.Entry<String> entry) -> -entry.getCount())
+                        .thenComparing(Multiset.Entry::getElement))
+                .map(entry -> entry.getElement() + "\t" + entry.getCount())
+                .collect(Collectors.toList());
+        assertEquals(expected, Files.readAllLines(output, StandardCharsets.UTF_8));
+        assertEquals(2, Files.list(tempDir).count());
+    }
+
+    private Path writeCorpus(int words) throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        Random random = new Random(7);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append("Word").append((int) Math.abs(random.nextGaussian() * 5000)).append(i % 9 == 0 ? ",\n" : " ");
+        }
+        Files.writeString(input, text, StandardCharsets.UTF_8);
+        return input;
+    }
+
+}
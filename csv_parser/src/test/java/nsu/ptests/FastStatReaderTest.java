@@ -0,0 +1,66 @@
+package nsu.ptests;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import nsu.parser.io.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FastStatReaderTest {
+    private static final String TEXT = "Hello, world! hello HELLO... \"Why\" why? - ... \n"
+            + "\tПривет, мир! ПРИВЕТ мир\r\nit's don't e-mail [x] {y} A_B tab nbsp end";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSameAsStatReader() throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        Files.writeString(input, TEXT, StandardCharsets.UTF_8);
+
+        assertEquals(new StatReader(input).getWordStatMultiset(), new FastStatReader(input).getWordStatMultiset());
+    }
+
+    @Test
+    void testSameAsStatReaderAcrossBuffers() throws IOException {
+        Path input = tempDir.resolve("large.txt");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            text.append(i % 7 == 0 ? "Слово" : "word").append(i % 13).append(i % 5 == 0 ? ",\n" : " ");
+        }
+        text.append("x".repeat(1000));
+        Files.writeString(input, text, StandardCharsets.UTF_8);
+
+        assertEquals(new StatReader(input).getWordStatMultiset(), new FastStatReader(input).getWordStatMultiset());
+    }
+
+    @Test
+    void testCountWord() throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        Files.writeString(input, TEXT, StandardCharsets.UTF_8);
+
+        var wordStats = new FastStatReader(input).getWordStatMultiset();
+        assertEquals(3, wordStats.count("hello"));
+        assertEquals(2, wordStats.count("привет"));
+        assertEquals(2, wordStats.count(""));
+    }
+
+    @Test
+    void testEmptyFile() throws IOException {
+        Path input = tempDir.resolve("empty.txt");
+        Files.writeString(input, "");
+
+        assertEquals(0, new FastStatReader(input).getWordStatMultiset().size());
+    }
+
+    @Test
+    void testInputFile() {
+        assertThrows(RuntimeException.class, () -> new FastStatReader(tempDir.resolve("why")).getWordStatMultiset());
+    }
+
+}
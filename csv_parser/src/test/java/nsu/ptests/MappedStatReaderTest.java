@@ -0,0 +1,41 @@
+package nsu.ptests;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import nsu.parser.io.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedStatReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSameAsFastReader() throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            text.append(i % 3 == 0 ? "Ёжик," : "hedgehog").append(i % 11).append(i % 4 == 0 ? "\n" : " ");
+        }
+        Files.writeString(input, text, StandardCharsets.UTF_8);
+
+        var expected = new FastStatReader(input).getWordStatMultiset();
+        assertEquals(expected, new MappedStatReader(input).getWordStatMultiset());
+        assertEquals(expected, new MappedStatReader(input, 7).getWordStatMultiset());
+    }
+
+    @Test
+    void testEmptyFile() throws IOException {
+        Path input = tempDir.resolve("empty.txt");
+        Files.writeString(input, "");
+
+        assertEquals(0, new MappedStatReader(input).getWordStatMultiset().size());
+    }
+
+}
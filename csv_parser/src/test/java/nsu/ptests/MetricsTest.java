@@ -0,0 +1,104 @@
+package nsu.ptests;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.management.ObjectName;
+
+import nsu.parser.App;
+import nsu.parser.io.*;
+import nsu.parser.metrics.*;
+import nsu.parser.tables.WordCountTable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+    private static final String TEXT = "Hello, world! hello HELLO привет\nмир мир end";
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void resetMetrics() {
+        Metrics.global().reset();
+    }
+
+    @Test
+    void testReaderAndWriterCounters() throws IOException {
+        Path input = Files.writeString(tempDir.resolve("input.txt"), TEXT);
+        Path output = tempDir.resolve("output.csv");
+        Metrics metrics = Metrics.global();
+
+        var table = new MeteredStatReader(new FastStatReader(input)).getWordTable();
+        assertEquals(Files.size(input), metrics.getBytesRead());
+        assertEquals(table.totalCount(), metrics.getTokens());
+        assertEquals(table.distinctSize(), metrics.getDistinctWords());
+        assertEquals(1, metrics.getReadCount());
+        assertTrue(metrics.getReadWallNanos() > 0);
+
+        new MeteredWriter(new Writer(output.toString()), output).writeCSV(table);
+        assertEquals(table.distinctSize(), metrics.getWordsWritten());
+        assertEquals(Files.size(output), metrics.getBytesWritten());
+        assertEquals(1, metrics.getWriteCount());
+    }
+
+    @Test
+    void testScannerReaderAndParallelReaderCountTheSame() throws IOException {
+        Path input = Files.writeString(tempDir.resolve("input.txt"), TEXT.repeat(1000));
+        Metrics metrics = Metrics.global();
+
+        new StatReader(input).getWordStatMultiset();
+        long scannerBytes = metrics.getBytesRead();
+        long scannerTokens = metrics.getTokens();
+        metrics.reset();
+        new ParallelStatReader(input, 4, 1024, WordCountTable::new).getWordTable();
+
+        assertEquals(Files.size(input), scannerBytes);
+        assertEquals(scannerBytes, metrics.getBytesRead());
+        assertEquals(scannerTokens, metrics.getTokens());
+    }
+
+    @Test
+    void testWorkerCpuIsAddedToReadStage() throws IOException {
+        Path input = Files.writeString(tempDir.resolve("input.txt"), TEXT.repeat(1000));
+        new ParallelStatReader(input, 4, 1024, WordCountTable::new).getWordTable();
+
+        assertEquals(0, Metrics.global().getReadCount());
+        assertTrue(Metrics.global().getReadCpuNanos() > 0);
+    }
+
+    @Test
+    void testTableResizes() {
+        WordCountTable table = new WordCountTable(16);
+        for (int i = 0; i < 1000; i++) {
+            byte[] word = ("w" + i).getBytes(StandardCharsets.UTF_8);
+            table.add(word, 0, word.length);
+        }
+        assertTrue(Metrics.global().getTableResizes() >= 5);
+    }
+
+    @Test
+    void testStatsOptionAndMBean() throws Exception {
+        Path input = Files.writeString(tempDir.resolve("input.txt"), TEXT);
+        Path stats = tempDir.resolve("stats.json");
+        App.main(new String[]{input.toString(), tempDir.resolve("output.csv").toString(), "--stats", stats.toString()});
+
+        String json = Files.readString(stats);
+        assertTrue(json.contains("\"bytesRead\": " + Files.size(input)), json);
+        assertTrue(json.contains("\"read\": {"), json);
+        assertTrue(json.contains("\"write\": {"), json);
+        assertTrue(json.contains("\"processCpuNanos\": "), json);
+        assertTrue(json.contains("\"cpuNanos\": "), json);
+        assertTrue(Metrics.global().getReadCpuNanos() > 0);
+
+        Object tokens = ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName(Metrics.OBJECT_NAME), "Tokens");
+        assertEquals(Metrics.global().getTokens(), tokens);
+    }
+
+}
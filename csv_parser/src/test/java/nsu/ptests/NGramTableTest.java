@@ -0,0 +1,137 @@
+package nsu.ptests;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import nsu.parser.App;
+import nsu.parser.io.FastStatReader;
+import nsu.parser.tables.NGramTable;
+import nsu.parser.tables.WordCountTable;
+import nsu.parser.validators.ArgumentValidator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NGramTableTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testBigramsAcrossLines() throws IOException {
+        Path input = Files.writeString(tempDir.resolve("input.txt"), "добрый день\nдобрый вечер , добрый день\n");
+        var table = new FastStatReader(input, () -> new NGramTable(2)).getWordTable();
+
+        assertEquals(2, table.count("добрый день"));
+        assertEquals(1, table.count("день добрый"));
+        assertEquals(1, table.count("вечер добрый"));
+        assertEquals(0, table.count("добрый"));
+        assertEquals(4, table.distinctSize());
+        assertEquals(5, table.totalCount());
+    }
+
+    @Test
+    void testMatchesNaiveCounting() {
+        for (int n = 1; n <= 5; n++) {
+            List<String> tokens = randomTokens(new Random(n), 20_000, 50);
+            NGramTable table = new NGramTable(n);
+            for (String token : tokens) {
+                byte[] bytes = token.getBytes(StandardCharsets.UTF_8);
+                table.add(bytes, 0, bytes.length);
+            }
+
+            Map<String, Long> expected = naiveCounts(tokens, n);
+            Map<String, Long> actual = new HashMap<>();
+            table.forEachEntry(actual::put);
+            assertEquals(expected, actual, "n = " + n);
+            assertEquals(tokens.size() - n + 1, table.totalCount());
+            expected.forEach((gram, count) -> assertEquals(count, table.count(gram)));
+        }
+    }
+
+    @Test
+    void testPackedTrigramsOverflowToArrays() {
+        NGramTable table = new NGramTable(3);
+        int words = (1 << 21) + 10;
+        for (int i = 0; i < words; i++) {
+            byte[] word = Integer.toString(i, 36).getBytes(StandardCharsets.US_ASCII);
+            table.add(word, 0, word.length);
+        }
+
+        assertEquals(words - 2, table.distinctSize());
+        assertEquals(words - 2, table.totalCount());
+        assertEquals(1, table.count("0 1 2"));
+        String last = Integer.toString(words - 3, 36) + " " + Integer.toString(words - 2, 36) + " "
+                + Integer.toString(words - 1, 36);
+        assertEquals(1, table.count(last));
+    }
+
+    @Test
+    void testMergeAndTextRoundTrip() {
+        NGramTable left = table(2, "a b c a b");
+        NGramTable right = table(2, "c a b d");
+        left.mergeFrom(right);
+        assertEquals(3, left.count("a b"));
+        assertEquals(2, left.count("c a"));
+        assertEquals(1, left.count("b d"));
+        assertEquals(7, left.totalCount());
+
+        WordCountTable text = new WordCountTable();
+        left.forEachKey(text::add);
+        NGramTable restored = new NGramTable(2);
+        restored.mergeFrom(text);
+        assertEquals(3, restored.count("a b"));
+        assertEquals(left.distinctSize(), restored.distinctSize());
+        assertEquals(left.totalCount(), restored.totalCount());
+
+        byte[] malformed = "a b c".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IllegalArgumentException.class, () -> restored.add(malformed, 0, malformed.length, 1));
+    }
+
+    @Test
+    void testNGramOption() throws IOException {
+        Path input = Files.writeString(tempDir.resolve("input.txt"), "Добрый день, добрый день! Добрый день\n");
+        Path output = tempDir.resolve("output.csv");
+        App.main(new String[]{input.toString(), output.toString(), "--ngram", "2", "--format", "csv"});
+        assertEquals(List.of("добрый день,3,60.00", "день добрый,2,40.00"), Files.readAllLines(output));
+
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{input.toString(),
+                output.toString(), "--ngram", "2", "--threads", "2"}));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{input.toString(),
+                output.toString(), "--ngram", "17"}));
+    }
+
+    private static NGramTable table(int n, String text) {
+        NGramTable table = new NGramTable(n);
+        for (String token : text.split(" ")) {
+            byte[] bytes = token.getBytes(StandardCharsets.UTF_8);
+            table.add(bytes, 0, bytes.length);
+        }
+        return table;
+    }
+
+    private static List<String> randomTokens(Random random, int count, int vocabulary) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tokens.add(random.nextBoolean() ? "слово" + random.nextInt(vocabulary) : "w" + random.nextInt(vocabulary / 5));
+        }
+        return tokens;
+    }
+
+    private static Map<String, Long> naiveCounts(List<String> tokens, int n) {
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i + n <= tokens.size(); i++) {
+            counts.merge(String.join(" ", tokens.subList(i, i + n)), 1L, Long::sum);
+        }
+        return counts;
+    }
+
+}
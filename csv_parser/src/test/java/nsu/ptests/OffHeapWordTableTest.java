@@ -0,0 +1,114 @@
+package nsu.ptests;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import nsu.parser.App;
+import nsu.parser.exceptions.*;
+import nsu.parser.io.*;
+import nsu.parser.tables.DirectMemoryBudget;
+import nsu.parser.tables.OffHeapWordTable;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapWordTableTest {
+    private static final long LIMIT = 1 << 20;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCountAndResize() {
+        OffHeapWordTable table = new OffHeapWordTable(64L << 20);
+        for (int i = 0; i < 100_000; i++) {
+            add(table, "слово" + (i % 30_000));
+        }
+        add(table, "");
+
+        assertEquals(30_001, table.distinctSize());
+        assertEquals(100_001, table.totalCount());
+        assertEquals(4, table.count("слово0"));
+        assertEquals(1, table.count(""));
+        assertEquals(0, table.count("why"));
+
+        Map<String, Long> entries = new HashMap<>();
+        table.forEachEntry(entries::put);
+        assertEquals(30_001, entries.size());
+        assertEquals(3, entries.get("слово29999"));
+    }
+
+    @Test
+    void testSizeLimit() {
+        OffHeapWordTable table = new OffHeapWordTable(LIMIT);
+        assertThrows(MemoryLimitExceededException.class, () -> {
+            for (int i = 0; i < 1_000_000; i++) {
+                add(table, "word" + i);
+            }
+        });
+        assertTrue(table.allocatedBytes() <= LIMIT);
+
+        assertThrows(MemoryLimitExceededException.class, () -> new OffHeapWordTable(1024));
+    }
+
+    @Test
+    void testSameAsHeapTable() throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            text.append("Word").append(i % 997).append(i % 3 == 0 ? ", " : "\n");
+        }
+        Files.writeString(input, text, StandardCharsets.UTF_8);
+
+        var expected = new FastStatReader(input).getWordStatMultiset();
+        assertEquals(expected, new FastStatReader(input, () -> new OffHeapWordTable(LIMIT)).getWordStatMultiset());
+        assertEquals(expected, new ParallelStatReader(input, 4, 4096, () -> new OffHeapWordTable(LIMIT)).getWordStatMultiset());
+    }
+
+    @Test
+    void testSharedBudgetInParallel() throws IOException {
+        Path input = tempDir.resolve("unique.txt");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            text.append("word").append(i).append(i % 10 == 0 ? '\n' : ' ');
+        }
+        Files.writeString(input, text, StandardCharsets.UTF_8);
+
+        DirectMemoryBudget small = new DirectMemoryBudget(4 * LIMIT);
+        assertThrows(MemoryLimitExceededException.class,
+                () -> new ParallelStatReader(input, 4, 64 << 10, () -> new OffHeapWordTable(small)).getWordTable());
+
+        DirectMemoryBudget budget = new DirectMemoryBudget(64L << 20);
+        var table = new ParallelStatReader(input, 4, 64 << 10, () -> new OffHeapWordTable(budget)).getWordTable();
+        assertEquals(200_000, table.distinctSize());
+        assertEquals(((OffHeapWordTable) table).allocatedBytes(), budget.limit() - budget.available());
+
+        ((OffHeapWordTable) table).close();
+        assertEquals(budget.limit(), budget.available());
+    }
+
+    @Test
+    void testOffHeapLimitAboveDirectMemory() throws IOException {
+        assertTrue(OffHeapWordTable.maxDirectMemory() > 0);
+        Path input = Files.writeString(tempDir.resolve("input.txt"), "a b a", StandardCharsets.UTF_8);
+        Path output = tempDir.resolve("output.csv");
+
+        assertEquals(App.EXIT_FAILURE, App.run(new String[]{input.toString(), output.toString(), "--table", "offheap",
+                "--offheap-limit", "1000000g"}));
+        assertFalse(Files.exists(output));
+
+        assertEquals(App.EXIT_SUCCESS, App.run(new String[]{input.toString(), output.toString(), "--table", "offheap"}));
+        assertEquals(2, Files.readAllLines(output).size());
+    }
+
+    private static void add(OffHeapWordTable table, String word) {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        table.add(bytes, 0, bytes.length);
+    }
+
+}
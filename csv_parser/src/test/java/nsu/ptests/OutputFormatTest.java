@@ -0,0 +1,196 @@
+package nsu.ptests;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import nsu.parser.App;
+import nsu.parser.io.BinaryWriter;
+import nsu.parser.io.ColumnarWriter;
+import nsu.parser.io.FastStatReader;
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.tables.SpaceSavingTable;
+import nsu.parser.tables.WordRanking;
+import nsu.parser.validators.ArgumentValidator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutputFormatTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testBinaryFormat() throws IOException {
+        IWordTable table = new FastStatReader(writeInput(20_000)).getWordTable();
+        Path output = tempDir.resolve("output.bin");
+
+        new BinaryWriter(output.toString(), 0).writeCSV(table);
+        assertRows(WordRanking.sorted(table), readBinary(output), false);
+
+        new BinaryWriter(output.toString(), 7).writeCSV(table);
+        assertRows(WordRanking.top(table, 7), readBinary(output), false);
+    }
+
+    @Test
+    void testColumnarFormat() throws IOException {
+        IWordTable table = new FastStatReader(writeInput(20_000)).getWordTable();
+        Path output = tempDir.resolve("output.wcc");
+
+        new ColumnarWriter(output.toString(), 0).writeCSV(table);
+        assertRows(WordRanking.sorted(table), readColumnar(output), false);
+
+        new ColumnarWriter(output.toString(), 7).writeCSV(table);
+        assertRows(WordRanking.top(table, 7), readColumnar(output), false);
+
+        new ColumnarWriter(output.toString(), 0).writeCSV(new FastStatReader(Files.writeString(
+                tempDir.resolve("empty.txt"), "")).getWordTable());
+        assertEquals(0, readColumnar(output).words.size());
+    }
+
+    @Test
+    void testApproximateErrorsAreWritten() throws IOException {
+        Path input = writeInput(20_000);
+        SpaceSavingTable table = new SpaceSavingTable(50);
+        byte[] bytes = Files.readAllBytes(input);
+        for (String word : new String(bytes, StandardCharsets.UTF_8).split("\\s+")) {
+            byte[] token = word.getBytes(StandardCharsets.UTF_8);
+            table.add(token, 0, token.length);
+        }
+
+        Path binary = tempDir.resolve("output.bin");
+        Path columnar = tempDir.resolve("output.wcc");
+        new BinaryWriter(binary.toString(), 0).writeCSV(table);
+        new ColumnarWriter(columnar.toString(), 0).writeCSV(table);
+        assertRows(WordRanking.sorted(table), readBinary(binary), true);
+        assertRows(WordRanking.sorted(table), readColumnar(columnar), true);
+    }
+
+    @Test
+    void testFormatOption() throws IOException {
+        Path input = writeInput(5_000);
+        Path output = tempDir.resolve("output.wcc");
+        App.main(new String[]{input.toString(), output.toString(), "--format", "columnar", "--top", "10"});
+        assertRows(WordRanking.top(new FastStatReader(input).getWordTable(), 10), readColumnar(output), false);
+
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{input.toString(),
+                output.toString(), "--format", "binary", "--memory-budget", "64m"}));
+    }
+
+    private Path writeInput(int words) throws IOException {
+        StringBuilder text = new StringBuilder();
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < words; i++) {
+            int rank = (int) Math.pow(2000, random.nextDouble());
+            text.append(rank % 3 == 0 ? "слово" : "w").append(rank).append(i % 12 == 11 ? '\n' : ' ');
+        }
+        return Files.writeString(tempDir.resolve("input.txt"), text);
+    }
+
+    private static void assertRows(WordRanking expected, Rows actual, boolean approximate) {
+        assertEquals(expected.totalCount(), actual.total);
+        assertEquals(approximate, actual.errors != null);
+        assertEquals(expected.size(), actual.words.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.word(i), actual.words.get(i));
+            assertEquals(expected.count(i), actual.counts[i]);
+            if (approximate) {
+                assertEquals(expected.error(i), actual.errors[i]);
+            }
+        }
+    }
+
+    private static Rows readBinary(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            byte[] magic = in.readNBytes(4);
+            assertArrayEquals(BinaryWriter.MAGIC, magic);
+            boolean approximate = (in.readByte() & BinaryWriter.FLAG_APPROXIMATE) != 0;
+            int size = (int) in.readLong();
+            Rows rows = new Rows(in.readLong(), size, approximate);
+            for (int i = 0; i < size; i++) {
+                rows.words.add(new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8));
+                rows.counts[i] = in.readLong();
+                if (approximate) {
+                    rows.errors[i] = in.readLong();
+                }
+            }
+            assertEquals(-1, in.read());
+            return rows;
+        }
+    }
+
+    private static Rows readColumnar(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        DataInputStream header = new DataInputStream(new ByteArrayInputStream(bytes));
+        assertArrayEquals(ColumnarWriter.MAGIC, header.readNBytes(4));
+        boolean approximate = (header.readByte() & ColumnarWriter.FLAG_APPROXIMATE) != 0;
+        int size = (int) header.readLong();
+        Rows rows = new Rows(header.readLong(), size, approximate);
+        long[] sectionBytes = {header.readLong(), header.readLong(), header.readLong(), header.readLong()};
+        assertEquals(bytes.length, ColumnarWriter.HEADER_SIZE + Arrays.stream(sectionBytes).sum());
+
+        int[] position = {ColumnarWriter.HEADER_SIZE};
+        List<String> dictionary = new ArrayList<>();
+        byte[] previous = new byte[0];
+        for (int i = 0; i < size; i++) {
+            int shared = (int) readVarint(bytes, position);
+            int suffix = (int) readVarint(bytes, position);
+            byte[] word = Arrays.copyOf(previous, shared + suffix);
+            System.arraycopy(bytes, position[0], word, shared, suffix);
+            position[0] += suffix;
+            if (i > 0) {
+                assertTrue(Arrays.compareUnsigned(previous, word) < 0);
+            }
+            dictionary.add(new String(word, StandardCharsets.UTF_8));
+            previous = word;
+        }
+        assertEquals(ColumnarWriter.HEADER_SIZE + sectionBytes[0], position[0]);
+
+        for (int i = 0; i < size; i++) {
+            rows.words.add(dictionary.get((int) readVarint(bytes, position)));
+        }
+        for (int i = 0; i < size; i++) {
+            rows.counts[i] = i == 0 ? readVarint(bytes, position) : rows.counts[i - 1] - readVarint(bytes, position);
+        }
+        for (int i = 0; approximate && i < size; i++) {
+            rows.errors[i] = readVarint(bytes, position);
+        }
+        assertEquals(bytes.length, position[0]);
+        return rows;
+    }
+
+    private static long readVarint(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static final class Rows {
+        final long total;
+        final List<String> words = new ArrayList<>();
+        final long[] counts;
+        final long[] errors;
+
+        Rows(long total, int size, boolean approximate) {
+            this.total = total;
+            this.counts = new long[size];
+            this.errors = approximate ? new long[size] : null;
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package nsu.ptests;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import nsu.parser.io.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelStatReaderTest {
+    private static final String[] WORDS = {"Hello,", "world", "ПРИВЕТ", "мир!", "...", "it's", "«ёлка»", "a b"};
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSameAsSequential() throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(10) == 0 ? "\n" : " ");
+        }
+        Files.writeString(input, text, StandardCharsets.UTF_8);
+
+        var expected = new FastStatReader(input).getWordStatMultiset();
+        assertEquals(expected, new ParallelStatReader(input, 4, 1000).getWordStatMultiset());
+        assertEquals(expected, new ParallelStatReader(input, 3, 1).getWordStatMultiset());
+        assertEquals(expected, new ParallelStatReader(input, 2, 1L << 30).getWordStatMultiset());
+    }
+
+    @Test
+    void testWithoutWhitespace() throws IOException {
+        Path input = tempDir.resolve("one_word.txt");
+        Files.writeString(input, "Слово".repeat(1000), StandardCharsets.UTF_8);
+
+        assertEquals(1, new ParallelStatReader(input, 4, 16).getWordStatMultiset().size());
+    }
+
+    @Test
+    void testEmptyFile() throws IOException {
+        Path input = tempDir.resolve("empty.txt");
+        Files.writeString(input, "");
+
+        assertEquals(0, new ParallelStatReader(input, 4, 16).getWordStatMultiset().size());
+    }
+
+}
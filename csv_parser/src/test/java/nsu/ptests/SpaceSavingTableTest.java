@@ -0,0 +1,157 @@
+package nsu.ptests;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import nsu.parser.App;
+import nsu.parser.io.CsvWriter;
+import nsu.parser.io.FastStatReader;
+import nsu.parser.io.ParallelStatReader;
+import nsu.parser.io.interfaces.IWordTable;
+import nsu.parser.tables.SpaceSavingTable;
+import nsu.parser.tables.WordCountTable;
+import nsu.parser.tables.WordRanking;
+import nsu.parser.validators.ArgumentValidator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpaceSavingTableTest {
+    private static final int VOCABULARY = 50_000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testBoundsAgainstExactCounts() {
+        for (double exponent : new double[]{0.8, 1.1, 1.5}) {
+            List<byte[]> tokens = zipfTokens(new SplittableRandom(42), 300_000, exponent);
+            WordCountTable exact = new WordCountTable();
+            SpaceSavingTable approximate = SpaceSavingTable.withMaxError(0.001);
+            for (byte[] token : tokens) {
+                exact.add(token, 0, token.length);
+                approximate.add(token, 0, token.length);
+            }
+
+            assertEquals(1000, approximate.capacity());
+            assertEquals(1000, approximate.distinctSize());
+            assertEquals(exact.totalCount(), approximate.totalCount());
+            assertBounds(exact, approximate);
+        }
+    }
+
+    @Test
+    void testTopWordsMatchExactRanking() {
+        List<byte[]> tokens = zipfTokens(new SplittableRandom(7), 300_000, 1.1);
+        WordCountTable exact = new WordCountTable();
+        SpaceSavingTable approximate = new SpaceSavingTable(2000);
+        for (byte[] token : tokens) {
+            exact.add(token, 0, token.length);
+            approximate.add(token, 0, token.length);
+        }
+
+        WordRanking expected = WordRanking.top(exact, 20);
+        WordRanking actual = WordRanking.top(approximate, 20);
+        assertTrue(actual.isApproximate());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.word(i), actual.word(i));
+            assertTrue(actual.count(i) - actual.error(i) <= expected.count(i) && expected.count(i) <= actual.count(i));
+        }
+    }
+
+    @Test
+    void testMergeKeepsBounds() {
+        List<byte[]> tokens = zipfTokens(new SplittableRandom(3), 200_000, 1.0);
+        WordCountTable exact = new WordCountTable();
+        SpaceSavingTable left = new SpaceSavingTable(500);
+        SpaceSavingTable right = new SpaceSavingTable(500);
+        for (int i = 0; i < tokens.size(); i++) {
+            byte[] token = tokens.get(i);
+            exact.add(token, 0, token.length);
+            (i % 3 == 0 ? left : right).add(token, 0, token.length);
+        }
+
+        left.mergeFrom(right);
+        assertEquals(exact.totalCount(), left.totalCount());
+        assertBounds(exact, left);
+    }
+
+    @Test
+    void testApproximateOption() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (byte[] token : zipfTokens(new SplittableRandom(1), 20_000, 1.2)) {
+            text.append(new String(token, StandardCharsets.UTF_8)).append(' ');
+        }
+        Path input = Files.writeString(tempDir.resolve("input.txt"), text);
+        Path output = tempDir.resolve("output.csv");
+
+        App.main(new String[]{input.toString(), output.toString(), "--counting", "approximate", "--max-error", "0.01",
+                "--top", "5"});
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(5, lines.size());
+        IWordTable exact = new FastStatReader(input).getWordTable();
+        for (String line : lines) {
+            String[] columns = line.split("\t");
+            assertEquals(3, columns.length);
+            long count = Long.parseLong(columns[1]);
+            long error = Long.parseLong(columns[2]);
+            assertTrue(count - error <= exact.count(columns[0]) && exact.count(columns[0]) <= count, line);
+        }
+
+        var parallel = new ParallelStatReader(input, 2, 4096, () -> new SpaceSavingTable(100)).getWordTable();
+        assertEquals(exact.totalCount(), parallel.totalCount());
+        new CsvWriter(output.toString()).writeCSV(parallel);
+        assertEquals(4, Files.readAllLines(output).get(0).split(",").length);
+
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{input.toString(),
+                output.toString(), "--max-error", "0.01"}));
+        assertThrows(IllegalArgumentException.class, () -> ArgumentValidator.validate(new String[]{input.toString(),
+                output.toString(), "--counting", "approximate", "--max-error", "1.5"}));
+    }
+
+    private static void assertBounds(WordCountTable exact, SpaceSavingTable approximate) {
+        long maxError = approximate.totalCount() / approximate.capacity();
+        assertTrue(approximate.errorBound() <= maxError);
+        exact.forEachEntry((word, count) -> {
+            long estimate = approximate.count(word);
+            if (count > maxError) {
+                assertTrue(estimate > 0, word + " with " + count + " occurrences must be monitored");
+            }
+            if (estimate > 0) {
+                long error = approximate.error(word);
+                assertTrue(error <= maxError, word);
+                assertTrue(estimate - error <= count && count <= estimate, word);
+            } else {
+                assertTrue(count <= approximate.errorBound(), word);
+            }
+        });
+    }
+
+    private static List<byte[]> zipfTokens(SplittableRandom random, int count, double exponent) {
+        double[] cdf = new double[VOCABULARY];
+        double sum = 0;
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+
+        byte[][] words = new byte[VOCABULARY][];
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            words[rank] = ("w" + Integer.toString(rank * 7919 % VOCABULARY, 36)).getBytes(StandardCharsets.UTF_8);
+        }
+
+        byte[][] tokens = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            int rank = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            tokens[i] = words[Math.min(rank < 0 ? -rank - 1 : rank, VOCABULARY - 1)];
+        }
+        return List.of(tokens);
+    }
+
+}
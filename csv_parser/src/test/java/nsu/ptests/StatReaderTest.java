@@ -1,5 +1,6 @@
 package nsu.ptests;
 
+import java.net.URISyntaxException;
 import java.nio.file.Path;
 
 import nsu.parser.*;
@@ -16,20 +17,30 @@ public class StatReaderTest {
 
     @Test
     void testCountWords() {
-        assertEquals(10, new StatReader(Path.of("../txt/ten_words.txt")).getWordStatMultiset().size());
-        assertEquals(0, new StatReader(Path.of("../txt/zero_words.txt")).getWordStatMultiset().size());
+        assertEquals(10, new StatReader(resource("ten_words.txt")).getWordStatMultiset().size());
+        assertEquals(0, new StatReader(resource("zero_words.txt")).getWordStatMultiset().size());
     }
 
     @Test
     void testCountWord() {
-        assertEquals(3, new StatReader(Path.of("../txt/three_hello.txt")).getWordStatMultiset().count("hello"));
-        assertEquals(0, new StatReader(Path.of("../txt/zero_why.txt")).getWordStatMultiset().count("why"));
+        assertEquals(3, new StatReader(resource("three_hello.txt")).getWordStatMultiset().count("hello"));
+        assertEquals(0, new StatReader(resource("zero_why.txt")).getWordStatMultiset().count("why"));
     }
 
     @Test
     void testInputFile() {
-        assertThrows(FileNotFoundException.class, () -> new StatReader(Path.of("")).getWordStatMultiset());
-        assertThrows(FileNotFoundException.class, () -> new StatReader(Path.of("why")).getWordStatMultiset());
+        RuntimeException directory = assertThrows(RuntimeException.class, () -> new StatReader(Path.of("")).getWordStatMultiset());
+        assertInstanceOf(FileNotFoundException.class, directory.getCause());
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> new StatReader(Path.of("why")).getWordStatMultiset());
+        assertInstanceOf(FileNotFoundException.class, missing.getCause());
+    }
+
+    static Path resource(String name) {
+        try {
+            return Path.of(StatReaderTest.class.getResource("/txt/" + name).toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
     }
     
 }
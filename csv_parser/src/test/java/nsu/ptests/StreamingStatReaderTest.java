@@ -0,0 +1,140 @@
+package nsu.ptests;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import nsu.parser.exceptions.*;
+import nsu.parser.io.*;
+import nsu.parser.io.interfaces.IWriter;
+import nsu.parser.tables.SpaceSavingTable;
+import nsu.parser.tables.WordCountTable;
+import nsu.parser.tables.WordRanking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingStatReaderTest {
+    private static final String TEXT = "Hello, world! hello HELLO... \"Why\" why? - ... \n"
+            + "\tПривет, мир! ПРИВЕТ мир\r\nit's don't e-mail [x] {y} A_B tab nbsp end";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSameAsFastStatReader() throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        Files.writeString(input, TEXT, StandardCharsets.UTF_8);
+
+        var in = new ByteArrayInputStream(TEXT.getBytes(StandardCharsets.UTF_8));
+        assertEquals(new FastStatReader(input).getWordStatMultiset(), new StreamingStatReader(in).getWordStatMultiset());
+    }
+
+    @Test
+    void testFailedSnapshotKeepsPreviousOutput() throws IOException {
+        Path output = tempDir.resolve("output.csv");
+        WordCountTable table = new WordCountTable();
+        byte[] word = "a".getBytes(StandardCharsets.UTF_8);
+        table.add(word, 0, word.length);
+        new SnapshotWriter(output, 0, Writer::new).publish(WordRanking.sorted(table));
+        String previous = Files.readString(output);
+
+        SnapshotWriter failing = new SnapshotWriter(output, 0, path -> (IWriter) words -> {
+            try {
+                Files.writeString(Path.of(path), "partial");
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            throw new OutputWriteException("No space left on device", null);
+        });
+        assertThrows(TemporaryStorageException.class, () -> failing.publish(WordRanking.sorted(table)));
+        assertEquals(previous, Files.readString(output));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void testCaptureCopiesTable() throws IOException {
+        Path output = tempDir.resolve("output.csv");
+        SnapshotWriter snapshots = new SnapshotWriter(output, 0, Writer::new);
+        WordCountTable table = new WordCountTable();
+        byte[] a = "a".getBytes(StandardCharsets.UTF_8);
+        byte[] b = "b".getBytes(StandardCharsets.UTF_8);
+        table.add(a, 0, 1, 2);
+
+        var snapshot = snapshots.capture(table);
+        table.add(b, 0, 1, 5);
+        snapshots.publish(snapshot);
+        assertEquals(List.of("a\t2"), Files.readAllLines(output));
+    }
+
+    @Test
+    void testCaptureCopiesWithoutRanking() throws IOException {
+        Path output = tempDir.resolve("output.csv");
+        SnapshotWriter snapshots = new SnapshotWriter(output, 1, Writer::new);
+        SpaceSavingTable table = new SpaceSavingTable(2);
+        byte[] a = "a".getBytes(StandardCharsets.UTF_8);
+        byte[] b = "b".getBytes(StandardCharsets.UTF_8);
+        byte[] c = "c".getBytes(StandardCharsets.UTF_8);
+        table.add(a, 0, 1, 3);
+        table.add(b, 0, 1, 1);
+        table.add(c, 0, 1, 2);
+
+        var snapshot = snapshots.capture(table);
+        assertFalse(snapshot instanceof WordRanking);
+        assertEquals(table.errorBound(), ((SpaceSavingTable) snapshot).errorBound());
+        assertEquals(table.error("c"), snapshot.error("c"));
+        table.add(b, 0, 1, 10);
+        snapshots.publish(snapshot);
+        assertEquals(List.of("a\t3\t0"), Files.readAllLines(output));
+    }
+
+    @Test
+    void testSnapshotByTokens() throws IOException {
+        Path output = tempDir.resolve("output.csv");
+        SnapshotWriter snapshots = new SnapshotWriter(output, 1, Writer::new);
+        var in = new ByteArrayInputStream("a a b".getBytes(StandardCharsets.UTF_8));
+
+        new StreamingStatReader(Channels.newChannel(in), WordCountTable::new, snapshots, 0, 1).getWordTable();
+
+        assertEquals("a\t2", Files.readString(output).strip());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void testSnapshotByTimeBeforeEndOfStream() throws Exception {
+        Path output = tempDir.resolve("output.csv");
+        SnapshotWriter snapshots = new SnapshotWriter(output, 0, Writer::new);
+        PipedOutputStream pipe = new PipedOutputStream();
+        var reader = new StreamingStatReader(Channels.newChannel(new PipedInputStream(pipe)), WordCountTable::new,
+                snapshots, 20, 0);
+
+        Thread readerThread = new Thread(reader::getWordTable);
+        readerThread.start();
+        pipe.write("live live stream ".getBytes(StandardCharsets.UTF_8));
+        pipe.flush();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!(Files.exists(output) && Files.readString(output).contains("live\t2"))) {
+            assertTrue(System.currentTimeMillis() < deadline, "Snapshot was not written while stream is open");
+            Thread.sleep(10);
+        }
+        assertTrue(readerThread.isAlive());
+
+        pipe.close();
+        readerThread.join();
+        snapshots.publish(snapshots.capture(reader.getWordTable()));
+        assertEquals(2, Files.readAllLines(output).size());
+    }
+
+}
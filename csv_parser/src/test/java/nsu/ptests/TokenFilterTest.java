@@ -0,0 +1,157 @@
+package nsu.ptests;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import nsu.parser.App;
+import nsu.parser.io.*;
+import nsu.parser.tables.FilteredWordTable;
+import nsu.parser.tables.WordCountTable;
+import nsu.parser.text.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testUnicodePunctuation() {
+        UnicodePunctuationFilter filter = new UnicodePunctuationFilter();
+        assertEquals("слово", apply(filter, "«слово»"));
+        assertEquals("ктото", apply(filter, "кто-то"));
+        assertEquals("", apply(filter, "—…"));
+        assertEquals("hola", apply(filter, "¡hola!"));
+        assertEquals("a€b", apply(filter, "a€b"));
+    }
+
+    @Test
+    void testCaseFoldingIgnoresDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(new Locale("tr"));
+            CaseFoldingFilter filter = new CaseFoldingFilter();
+            assertEquals("istanbul", apply(filter, "ISTANBUL"));
+            assertEquals("σοφοσ", apply(filter, "ΣΟΦΟς"));
+            assertEquals("привет", apply(filter, "ПРИВЕТ"));
+            assertEquals("ⱥ", apply(filter, "Ⱥ"));
+            assertEquals("xⱥⱥy", apply(filter, "XȺȺY"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void testCaseFoldingGrowingAndShrinkingCodePoints() {
+        CaseFoldingFilter filter = new CaseFoldingFilter();
+        assertEquals("ⱥk", apply(filter, "Ⱥ\u212A"));
+        assertEquals("ⱥkab", apply(filter, "Ⱥ\u212Aab"));
+        assertEquals("kⱥ", apply(filter, "\u212AȺ"));
+        assertEquals("ⱥkⱥkσ", apply(filter, "Ⱥ\u212AȺ\u212AΣ"));
+    }
+
+    @Test
+    void testPerfectHashSet() {
+        List<String> words = new ArrayList<>(StopWords.builtIn("ru"));
+        words.addAll(StopWords.builtIn("en"));
+        PerfectHashSet set = PerfectHashSet.of(words);
+        assertEquals(words.size(), set.size());
+        for (String word : words) {
+            byte[] key = ("__" + word).getBytes(StandardCharsets.UTF_8);
+            assertTrue(set.contains(key, 2, key.length - 2), word);
+        }
+        for (String word : List.of("слово", "word", "", "thee", "ее ")) {
+            byte[] key = word.getBytes(StandardCharsets.UTF_8);
+            assertFalse(set.contains(key, 0, key.length), word);
+        }
+        assertFalse(PerfectHashSet.of(List.of()).contains(new byte[1], 0, 1));
+    }
+
+    @Test
+    void testLightStemmer() {
+        LightStemmer stemmer = new LightStemmer(true, true);
+        assertEquals("книг", apply(stemmer, "книгами"));
+        assertEquals("книг", apply(stemmer, "книги"));
+        assertEquals("книг", apply(stemmer, "книга"));
+        assertEquals("дом", apply(stemmer, "дома"));
+        assertEquals("мир", apply(stemmer, "мир"));
+        assertEquals("city", apply(stemmer, "cities"));
+        assertEquals("book", apply(stemmer, "books"));
+        assertEquals("glass", apply(stemmer, "glass"));
+        assertEquals("books", apply(new LightStemmer(true, false), "books"));
+    }
+
+    @Test
+    void testChainWithReader() throws IOException {
+        Path input = Files.writeString(tempDir.resolve("input.txt"), "«Книги» и книгами — THE books, the Book\n");
+        TokenFilterChain chain = new TokenFilterChain(List.of(new UnicodePunctuationFilter(), new CaseFoldingFilter(),
+                new StopWordFilter(PerfectHashSet.of(List.of("и", "the"))), new LightStemmer(true, true)));
+
+        var table = new FastStatReader(input, () -> new FilteredWordTable(new WordCountTable(), chain)).getWordTable();
+        assertEquals(2, table.count("книг"));
+        assertEquals(2, table.count("book"));
+        assertEquals(0, table.count("the"));
+        assertEquals(1, table.count(""));
+        assertEquals(5, table.totalCount());
+
+        var parallel = new ParallelStatReader(input, 2, 8, () -> new FilteredWordTable(new WordCountTable(), chain)).getWordTable();
+        assertEquals(table.totalCount(), parallel.totalCount());
+        assertEquals(2, parallel.count("книг"));
+    }
+
+    @Test
+    void testNormalizationOptions() throws IOException {
+        Path input = Files.writeString(tempDir.resolve("input.txt"), "«Книги» и книгами — the books\n");
+        Path output = tempDir.resolve("output.csv");
+        App.main(new String[]{input.toString(), output.toString(), "--normalize", "unicode", "--stop-words", "ru,en",
+                "--stem", "ru,en"});
+        assertEquals(List.of("книг\t2", "\t1", "book\t1"), Files.readAllLines(output));
+    }
+
+    @Test
+    void testStopWordFileIsNormalized() throws IOException {
+        Path input = Files.writeString(tempDir.resolve("input.txt"), "The «Cat» sat; the CAT ran\n");
+        Path stopWords = Files.writeString(tempDir.resolve("stop.txt"), "# mixed case\nTHE\n«Cat»\n");
+        Path output = tempDir.resolve("output.csv");
+
+        App.main(new String[]{input.toString(), output.toString(), "--stop-words", stopWords.toString()});
+        assertEquals(List.of("cat\t1", "ran\t1", "sat\t1"), Files.readAllLines(output));
+
+        App.main(new String[]{input.toString(), output.toString(), "--normalize", "unicode",
+                "--stop-words", stopWords.toString()});
+        assertEquals(List.of("ran\t1", "sat\t1"), Files.readAllLines(output));
+    }
+
+    @Test
+    void testIndexRecountsWhenFiltersChange() throws IOException {
+        Path input = Files.writeString(tempDir.resolve("input.txt"), "books book booking cat");
+        Path index = tempDir.resolve("input.idx");
+        Path stemmed = tempDir.resolve("stemmed.csv");
+        Path plain = tempDir.resolve("plain.csv");
+
+        App.main(new String[]{input.toString(), stemmed.toString(), "--index", index.toString(), "--stem", "en"});
+        App.main(new String[]{input.toString(), plain.toString(), "--index", index.toString()});
+        assertEquals(4, Files.readAllLines(plain).size());
+        assertTrue(Files.readAllLines(plain).contains("books\t1"), Files.readString(plain));
+
+        App.main(new String[]{input.toString(), stemmed.toString(), "--index", index.toString(), "--stem", "en"});
+        assertTrue(Files.readAllLines(stemmed).size() < 4, Files.readString(stemmed));
+    }
+
+    private static String apply(TokenFilter filter, String word) {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        byte[] buffer = new byte[bytes.length * 2];
+        System.arraycopy(bytes, 0, buffer, 0, bytes.length);
+        int length = filter.apply(buffer, bytes.length);
+        return length == TokenFilter.DROP ? null : new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+}
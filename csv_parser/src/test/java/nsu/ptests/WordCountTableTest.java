@@ -0,0 +1,66 @@
+package nsu.ptests;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import nsu.parser.tables.WordCountTable;
+import nsu.parser.tables.WordTables;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WordCountTableTest {
+
+    @Test
+    void testCountAndResize() {
+        WordCountTable table = new WordCountTable(1);
+        for (int i = 0; i < 100_000; i++) {
+            add(table, "word" + (i % 30_000));
+        }
+        add(table, "");
+
+        assertEquals(30_001, table.distinctSize());
+        assertEquals(100_001, table.totalCount());
+        assertEquals(4, table.count("word0"));
+        assertEquals(3, table.count("word29999"));
+        assertEquals(1, table.count(""));
+        assertEquals(0, table.count("why"));
+    }
+
+    @Test
+    void testLongCounts() {
+        WordCountTable table = new WordCountTable();
+        byte[] word = "hello".getBytes(StandardCharsets.UTF_8);
+        table.add(word, 0, word.length, Integer.MAX_VALUE);
+        table.add(word, 0, word.length, Integer.MAX_VALUE);
+
+        assertEquals(2L * Integer.MAX_VALUE, table.count("hello"));
+        assertThrows(IllegalStateException.class, () -> WordTables.toMultiset(table));
+    }
+
+    @Test
+    void testLongWordsAndMerge() {
+        WordCountTable left = new WordCountTable();
+        WordCountTable right = new WordCountTable();
+        String longWord = "ы".repeat(1 << 20);
+        add(left, longWord);
+        add(left, "привет");
+        add(right, "привет");
+        add(right, longWord);
+        add(right, "мир");
+
+        left.mergeFrom(right);
+
+        Map<String, Long> entries = new HashMap<>();
+        left.forEachEntry(entries::put);
+        assertEquals(Map.of(longWord, 2L, "привет", 2L, "мир", 1L), entries);
+        assertEquals(5, left.totalCount());
+    }
+
+    private static void add(WordCountTable table, String word) {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        table.add(bytes, 0, bytes.length);
+    }
+
+}
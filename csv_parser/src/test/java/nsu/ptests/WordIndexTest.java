@@ -0,0 +1,150 @@
+package nsu.ptests;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Random;
+
+import nsu.parser.App;
+import nsu.parser.exceptions.*;
+import nsu.parser.index.*;
+import nsu.parser.io.*;
+import nsu.parser.tables.WordCountTable;
+import nsu.parser.tables.WordTables;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WordIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteAndOpen() {
+        WordCountTable table = randomTable(new Random(1), 5_000);
+        Path indexFile = tempDir.resolve("words.idx");
+        WordIndexWriter.write(indexFile, table, new SourceInfo(10, 20, 5, 30));
+
+        WordIndex index = WordIndex.open(indexFile);
+        assertEquals(new SourceInfo(10, 20, 5, 30), index.source());
+        assertEquals(table.distinctSize(), index.distinctSize());
+        assertEquals(table.totalCount(), index.totalCount());
+        assertEquals(WordTables.toMultiset(table), WordTables.toMultiset(index));
+
+        table.forEachEntry((word, count) -> assertEquals(count, index.count(word), word));
+        assertEquals(0, index.count("missing"));
+        assertEquals(0, index.count(""));
+    }
+
+    @Test
+    void testRejectsUnsortedKeysAndGarbage() throws IOException {
+        byte[] b = "b".getBytes(StandardCharsets.UTF_8);
+        byte[] a = "a".getBytes(StandardCharsets.UTF_8);
+        try (WordIndexWriter writer = new WordIndexWriter(tempDir.resolve("bad.idx"), SourceInfo.NONE)) {
+            writer.add(b, 0, 1, 1);
+            assertThrows(IllegalArgumentException.class, () -> writer.add(a, 0, 1, 1));
+        }
+
+        Path garbage = Files.writeString(tempDir.resolve("garbage.idx"), "not an index at all");
+        assertThrows(IndexFormatException.class, () -> WordIndex.open(garbage));
+    }
+
+    @Test
+    void testResumeAppendedFile() throws IOException {
+        Path input = Files.writeString(tempDir.resolve("input.txt"), "Alpha beta, gamma\nБЕТА alpha gam");
+        Path indexFile = tempDir.resolve("input.idx");
+        new IncrementalStatReader(input, indexFile).getWordTable();
+        assertTrue(WordIndex.open(indexFile).source().lastOffset() > 0);
+
+        assertInstanceOf(WordIndex.class, new IncrementalStatReader(input, indexFile).getWordTable());
+
+        Files.writeString(input, "ma delta alpha beta", StandardOpenOption.APPEND);
+        var resumed = new IncrementalStatReader(input, indexFile).getWordStatMultiset();
+        assertEquals(new FastStatReader(input).getWordStatMultiset(), resumed);
+        assertEquals(2, resumed.count("gamma"));
+        assertEquals(0, resumed.count("gam"));
+        assertEquals(WordTables.toMultiset(WordIndex.open(indexFile)), resumed);
+    }
+
+    @Test
+    void testRewrittenFileIsRecounted() throws IOException {
+        Path input = Files.writeString(tempDir.resolve("input.txt"), "one two three\n");
+        Path indexFile = tempDir.resolve("input.idx");
+        new IncrementalStatReader(input, indexFile).getWordTable();
+
+        Files.writeString(input, "four five six seven\n");
+        assertEquals(new FastStatReader(input).getWordStatMultiset(),
+                new IncrementalStatReader(input, indexFile).getWordStatMultiset());
+    }
+
+    @Test
+    void testSameLengthRewriteIsRecounted() throws IOException {
+        String head = "head ".repeat(2000);
+        String tail = "tail ".repeat(2000);
+        Path input = Files.writeString(tempDir.resolve("input.txt"), head + "alpha beta gamma " + tail);
+        Path indexFile = tempDir.resolve("input.idx");
+        new IncrementalStatReader(input, indexFile).getWordTable();
+
+        FileTime modified = Files.getLastModifiedTime(input);
+        Files.writeString(input, head + "delta omega zeta " + tail);
+        Files.setLastModifiedTime(input, FileTime.fromMillis(modified.toMillis() + 1000));
+
+        var recounted = new IncrementalStatReader(input, indexFile).getWordStatMultiset();
+        assertEquals(new FastStatReader(input).getWordStatMultiset(), recounted);
+        assertEquals(0, recounted.count("alpha"));
+        assertEquals(1, recounted.count("omega"));
+    }
+
+    @Test
+    void testMergeSumsIndexes() {
+        Random random = new Random(2);
+        WordCountTable expected = new WordCountTable();
+        Path[] inputs = new Path[3];
+        for (int i = 0; i < inputs.length; i++) {
+            WordCountTable table = randomTable(random, 2_000);
+            expected.mergeFrom(table);
+            inputs[i] = tempDir.resolve(i + ".idx");
+            WordIndexWriter.write(inputs[i], table, SourceInfo.NONE);
+        }
+
+        Path merged = tempDir.resolve("merged.idx");
+        WordIndexMerger.merge(List.of(inputs), merged);
+        WordIndex index = WordIndex.open(merged);
+        assertEquals(WordTables.toMultiset(expected), WordTables.toMultiset(index));
+        assertEquals(expected.totalCount(), index.totalCount());
+    }
+
+    @Test
+    void testMergeCommand() throws IOException {
+        Path a = Files.writeString(tempDir.resolve("a.txt"), "x y z x\n");
+        Path b = Files.writeString(tempDir.resolve("b.txt"), "x w\n");
+        App.main(new String[]{a.toString(), tempDir.resolve("a.csv").toString(), "--index", tempDir.resolve("a.idx").toString()});
+        App.main(new String[]{b.toString(), tempDir.resolve("b.csv").toString(), "--index", tempDir.resolve("b.idx").toString()});
+
+        Path output = tempDir.resolve("all.csv");
+        App.main(new String[]{"merge", tempDir.resolve("all.idx").toString(), tempDir.resolve("*.idx").toString(),
+                "--output", output.toString()});
+        assertEquals(List.of("x\t3", "w\t1", "y\t1", "z\t1"), Files.readAllLines(output));
+    }
+
+    private static WordCountTable randomTable(Random random, int words) {
+        WordCountTable table = new WordCountTable();
+        for (int i = 0; i < words; i++) {
+            int length = random.nextInt(12);
+            StringBuilder word = new StringBuilder("w");
+            for (int j = 0; j < length; j++) {
+                word.append(random.nextInt(4) == 0 ? 'я' : (char) ('a' + random.nextInt(3)));
+            }
+            byte[] key = word.toString().getBytes(StandardCharsets.UTF_8);
+            table.add(key, 0, key.length, 1 + random.nextInt(1_000_000));
+        }
+        return table;
+    }
+
+}
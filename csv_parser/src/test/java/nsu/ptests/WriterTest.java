@@ -0,0 +1,73 @@
+package nsu.ptests;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import nsu.parser.io.*;
+import nsu.parser.tables.WordCountTable;
+import nsu.parser.tables.WordRanking;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testOrder() throws IOException {
+        Multiset<String> wordStats = HashMultiset.create();
+        wordStats.add("example", 3);
+        wordStats.add("test", 5);
+        wordStats.add("beta", 3);
+        wordStats.add("alpha", 3);
+        wordStats.add("why", 1);
+
+        Path output = tempDir.resolve("output.csv");
+        new Writer(output.toString()).writeCSV(wordStats);
+
+        assertEquals(List.of("test\t5", "alpha\t3", "beta\t3", "example\t3", "why\t1"), Files.readAllLines(output));
+    }
+
+    @Test
+    void testTop() throws IOException {
+        Multiset<String> wordStats = HashMultiset.create();
+        for (int i = 0; i < 1000; i++) {
+            wordStats.add("word" + i, i % 100 + 1);
+        }
+
+        Path output = tempDir.resolve("output.csv");
+        new Writer(output.toString(), 3).writeCSV(wordStats);
+
+        assertEquals(List.of("word199\t100", "word299\t100", "word399\t100"), Files.readAllLines(output));
+    }
+
+    @Test
+    void testRankingWithLargeCounts() {
+        WordCountTable table = new WordCountTable();
+        add(table, "b", 1L << 40);
+        add(table, "a", 1L << 40);
+        add(table, "c", 7);
+        add(table, "😀", 7);
+        add(table, "Ａ", 7);
+
+        WordRanking ranking = WordRanking.sorted(table);
+        assertEquals(List.of("a", "b", "c", "Ａ", "😀"),
+                List.of(ranking.word(0), ranking.word(1), ranking.word(2), ranking.word(3), ranking.word(4)));
+        assertEquals(1L << 40, ranking.count(0));
+        assertEquals(7, ranking.count(4));
+    }
+
+    private static void add(WordCountTable table, String word, long count) {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        table.add(bytes, 0, bytes.length, count);
+    }
+
+}